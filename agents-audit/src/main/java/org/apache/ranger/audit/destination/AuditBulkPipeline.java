@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.destination;
+
+import org.apache.hadoop.thirdparty.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.audit.provider.MiscUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sends a batch of audit events to a destination as one or more bulk requests, with up to maxInFlight requests in
+ * progress at a time. Items reported as retriable by the sender are retried, with backoff, up to maxRetries times.
+ *
+ * With default configuration - a single in-flight request of unlimited size and no retries - the batch is sent as
+ * one bulk request in the caller's thread.
+ */
+public class AuditBulkPipeline {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditBulkPipeline.class);
+
+    public static final String PROP_BULK_SIZE         = "bulk.size";
+    public static final String PROP_MAX_IN_FLIGHT     = "bulk.max.inflight";
+    public static final String PROP_MAX_RETRIES       = "bulk.max.retries";
+    public static final String PROP_RETRY_INTERVAL_MS = "bulk.retry.interval.ms";
+
+    static final long[] LATENCY_BUCKETS_MS = {10, 50, 100, 500, 1000, 5000, Long.MAX_VALUE};
+
+    private final String          name;
+    private final int             bulkSize;
+    private final int             maxInFlight;
+    private final int             maxRetries;
+    private final long            retryIntervalMs;
+    private final ExecutorService executor;
+    private final AtomicLong      requestCount     = new AtomicLong();
+    private final AtomicLong      itemCount        = new AtomicLong();
+    private final AtomicLong      retriedItemCount = new AtomicLong();
+    private final AtomicLong      totalLatencyMs   = new AtomicLong();
+    private final AtomicLong      maxLatencyMs     = new AtomicLong();
+    private final AtomicLongArray latencyBuckets   = new AtomicLongArray(LATENCY_BUCKETS_MS.length);
+
+    public AuditBulkPipeline(String name, int bulkSize, int maxInFlight, int maxRetries, long retryIntervalMs) {
+        this.name            = name;
+        this.bulkSize        = bulkSize;
+        this.maxInFlight     = Math.max(maxInFlight, 1);
+        this.maxRetries      = Math.max(maxRetries, 0);
+        this.retryIntervalMs = retryIntervalMs;
+        this.executor        = this.maxInFlight > 1 ? Executors.newFixedThreadPool(this.maxInFlight, new ThreadFactoryBuilder().setNameFormat(name + " bulk sender %s").setDaemon(true).build()) : null;
+
+        LOG.info("{}: bulkSize={}, maxInFlight={}, maxRetries={}, retryIntervalMs={}", name, bulkSize, this.maxInFlight, this.maxRetries, retryIntervalMs);
+    }
+
+    public static AuditBulkPipeline create(String name, Properties props, String propPrefix) {
+        int  bulkSize        = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_BULK_SIZE, -1);
+        int  maxInFlight     = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MAX_IN_FLIGHT, 1);
+        int  maxRetries      = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_MAX_RETRIES, 0);
+        long retryIntervalMs = MiscUtil.getLongProperty(props, propPrefix + "." + PROP_RETRY_INTERVAL_MS, 1000L);
+
+        return new AuditBulkPipeline(name, bulkSize, maxInFlight, maxRetries, retryIntervalMs);
+    }
+
+    /**
+     * Returns the ID to use for the document of the given event in the destination. Events without an eventId get an
+     * ID derived from their content, so that a retried event overwrites the document written by an earlier attempt.
+     */
+    public static String getDocumentId(AuthzAuditEvent event) {
+        String ret = event.getEventId();
+
+        if (ret == null) {
+            String key = event.getAgentHostname() + "|" + event.getAgentId() + "|" + event.getSessionId() + "|" + event.getSeqNum() + "|" +
+                    (event.getEventTime() != null ? event.getEventTime().getTime() : 0) + "|" + event.getUser() + "|" + event.getResourcePath() + "|" + event.getAccessType();
+
+            ret = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+
+            event.setEventId(ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return items that couldn't be sent even after retries; empty list if all items were sent
+     */
+    public <T> List<T> send(List<T> items, BulkSender<T> sender) {
+        List<List<T>> bulks = partition(items);
+        List<T>       ret   = new ArrayList<>();
+
+        if (executor == null || bulks.size() == 1) {
+            for (List<T> bulk : bulks) {
+                ret.addAll(sendWithRetry(bulk, sender));
+            }
+        } else {
+            List<Future<List<T>>> futures = new ArrayList<>(bulks.size());
+
+            for (List<T> bulk : bulks) {
+                futures.add(executor.submit(() -> sendWithRetry(bulk, sender)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    ret.addAll(futures.get(i).get());
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+
+                    ret.addAll(bulks.get(i));
+                } catch (ExecutionException excp) {
+                    LOG.warn("{}: failed to send bulk of {} items", name, bulks.get(i).size(), excp.getCause());
+
+                    ret.addAll(bulks.get(i));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isRetryEnabled() {
+        return maxRetries > 0;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRetriedItemCount() {
+        return retriedItemCount.get();
+    }
+
+    /**
+     * @return count of requests in each latency bucket; bucket i counts requests that took less than LATENCY_BUCKETS_MS[i]
+     */
+    public long[] getLatencyHistogram() {
+        long[] ret = new long[latencyBuckets.length()];
+
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = latencyBuckets.get(i);
+        }
+
+        return ret;
+    }
+
+    public String getStatus() {
+        long requests = requestCount.get();
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("requests=").append(requests)
+                .append(", items=").append(itemCount.get())
+                .append(", retriedItems=").append(retriedItemCount.get())
+                .append(", avgLatencyMs=").append(requests > 0 ? totalLatencyMs.get() / requests : 0)
+                .append(", maxLatencyMs=").append(maxLatencyMs.get())
+                .append(", latencyHistogramMs={");
+
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(LATENCY_BUCKETS_MS[i] == Long.MAX_VALUE ? "inf" : "<" + LATENCY_BUCKETS_MS[i]).append('=').append(latencyBuckets.get(i));
+        }
+
+        return sb.append('}').toString();
+    }
+
+    private <T> List<List<T>> partition(List<T> items) {
+        if (bulkSize <= 0 || items.size() <= bulkSize) {
+            return Collections.singletonList(items);
+        }
+
+        List<List<T>> ret = new ArrayList<>((items.size() + bulkSize - 1) / bulkSize);
+
+        for (int i = 0; i < items.size(); i += bulkSize) {
+            ret.add(items.subList(i, Math.min(i + bulkSize, items.size())));
+        }
+
+        return ret;
+    }
+
+    private <T> List<T> sendWithRetry(List<T> bulk, BulkSender<T> sender) {
+        List<T> pending = bulk;
+
+        for (int attempt = 0; ; attempt++) {
+            int  size      = pending.size();
+            long startTime = System.currentTimeMillis();
+
+            try {
+                pending = sender.send(pending);
+            } catch (Exception excp) {
+                LOG.debug("{}: failed to send bulk of {} items. attempt={}", name, pending.size(), attempt + 1, excp);
+            } finally {
+                recordRequest(size, System.currentTimeMillis() - startTime);
+            }
+
+            if (pending.isEmpty() || attempt >= maxRetries) {
+                break;
+            }
+
+            retriedItemCount.addAndGet(pending.size());
+
+            try {
+                Thread.sleep(retryIntervalMs * (attempt + 1));
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+
+                break;
+            }
+        }
+
+        return pending;
+    }
+
+    private void recordRequest(int items, long latencyMs) {
+        requestCount.incrementAndGet();
+        itemCount.addAndGet(items);
+        totalLatencyMs.addAndGet(latencyMs);
+        maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            if (latencyMs < LATENCY_BUCKETS_MS[i]) {
+                latencyBuckets.incrementAndGet(i);
+
+                break;
+            }
+        }
+    }
+
+    public interface BulkSender<T> {
+        /**
+         * Sends the items in a single bulk request. Items that failed permanently must be accounted by the sender;
+         * an exception causes all items to be retried.
+         *
+         * @return items that failed with a retriable error
+         */
+        List<T> send(List<T> items) throws Exception;
+    }
+}
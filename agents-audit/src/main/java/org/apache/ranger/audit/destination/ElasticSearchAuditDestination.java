@@ -42,6 +42,7 @@
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.rest.RestStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,11 +57,13 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -79,13 +82,14 @@ public class ElasticSearchAuditDestination extends AuditDestination {
     private final AtomicReference<RestHighLevelClient> clientRef    = new AtomicReference<>(null);
     private final AtomicLong                           lastLoggedAt = new AtomicLong(0);
 
-    private String  index = CONFIG_INDEX;
-    private String  protocol;
-    private String  user;
-    private int     port;
-    private String  password;
-    private String  hosts;
-    private Subject subject;
+    private String            index = CONFIG_INDEX;
+    private String            protocol;
+    private String            user;
+    private int               port;
+    private String            password;
+    private String            hosts;
+    private Subject           subject;
+    private AuditBulkPipeline bulkPipeline;
 
     public ElasticSearchAuditDestination() {
         propPrefix = CONFIG_PREFIX;
@@ -144,6 +148,8 @@ public void init(Properties props, String propPrefix) {
         this.index    = getStringProperty(props, propPrefix + "." + CONFIG_INDEX, DEFAULT_INDEX);
         this.hosts    = getHosts();
 
+        bulkPipeline = AuditBulkPipeline.create(getName(), props, propPrefix);
+
         LOG.info("Connecting to ElasticSearch: {}", connectionString());
 
         getClient(); // Initialize client
@@ -154,6 +160,19 @@ public void stop() {
         super.stop();
 
         logStatus();
+
+        if (bulkPipeline != null) {
+            bulkPipeline.stop();
+        }
+    }
+
+    @Override
+    public void logStatus() {
+        super.logStatus();
+
+        if (isStatusLogEnabled() && bulkPipeline != null) {
+            LOG.info("ElasticSearchAuditDestination(name={}): {}", getName(), bulkPipeline.getStatus());
+        }
     }
 
     /*
@@ -166,9 +185,36 @@ public void flush() {
         // Empty flush method
     }
 
+    /**
+     * With retries disabled, returns true if any event was delivered, as before bulk retries were supported. Otherwise
+     * returns true only if no event is left undelivered; the caller then resends all events.
+     */
     @Override
     public boolean log(Collection<AuditEventBase> events) {
-        boolean ret = false;
+        AtomicInteger        deliveredCount = new AtomicInteger();
+        List<AuditEventBase> undelivered    = send(events, deliveredCount);
+
+        return undelivered.isEmpty() && (bulkPipeline.isRetryEnabled() || deliveredCount.get() > 0);
+    }
+
+    @Override
+    public Collection<AuditEventBase> logAndGetUndelivered(Collection<AuditEventBase> events) {
+        if (!bulkPipeline.isRetryEnabled()) {
+            return super.logAndGetUndelivered(events);
+        }
+
+        return send(events, new AtomicInteger());
+    }
+
+    public boolean isAsync() {
+        return true;
+    }
+
+    /**
+     * @return events not delivered, even after retries; these are counted as deferred
+     */
+    private List<AuditEventBase> send(Collection<AuditEventBase> events, AtomicInteger deliveredCount) {
+        List<AuditEventBase> ret = new ArrayList<>(events);
 
         try {
             logStatusIfRequired();
@@ -183,57 +229,85 @@ public boolean log(Collection<AuditEventBase> events) {
                 return ret;
             }
 
-            ArrayList<AuditEventBase> eventList   = new ArrayList<>(events);
-            BulkRequest               bulkRequest = new BulkRequest();
+            ret = bulkPipeline.send(ret, bulk -> sendBulk(client, bulk, deliveredCount));
+
+            if (!ret.isEmpty()) {
+                addDeferredCount(ret.size());
+
+                logError("Error sending {} of {} events to ElasticSearch", ret.size(), events.size());
+            }
+        } catch (Throwable t) {
+            addDeferredCount(events.size());
+
+            logError("Error sending message to ElasticSearch", t);
+
+            ret = new ArrayList<>(events);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return events that failed with a retriable status, when retries are enabled
+     */
+    List<AuditEventBase> sendBulk(RestHighLevelClient client, List<AuditEventBase> events, AtomicInteger deliveredCount) throws IOException {
+        List<AuditEventBase> ret         = new ArrayList<>();
+        List<AuditEventBase> eventList   = new ArrayList<>(events.size());
+        BulkRequest          bulkRequest = new BulkRequest();
 
+        for (AuditEventBase event : events) {
             try {
-                eventList.forEach(event -> {
-                    AuthzAuditEvent     authzEvent = (AuthzAuditEvent) event;
-                    String              id         = authzEvent.getEventId();
-                    Map<String, Object> doc        = toDoc(authzEvent);
+                AuthzAuditEvent     authzEvent = (AuthzAuditEvent) event;
+                Map<String, Object> doc        = toDoc(authzEvent);
 
-                    bulkRequest.add(new IndexRequest(index).id(id).source(doc));
-                });
+                bulkRequest.add(new IndexRequest(index).id(AuditBulkPipeline.getDocumentId(authzEvent)).source(doc));
+
+                eventList.add(event);
             } catch (Exception ex) {
-                addFailedCount(eventList.size());
-                logFailedEvent(eventList, ex);
+                addFailedCount(1);
+                logFailedEvent(Collections.singletonList(event), ex);
             }
+        }
+
+        if (eventList.isEmpty()) {
+            return ret;
+        }
+
+        BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
 
-            BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
-            if (response.status().getStatus() >= 400) {
+        if (response.status().getStatus() >= 400) {
+            if (isRetriable(response.status())) {
+                ret.addAll(eventList);
+            } else {
                 addFailedCount(eventList.size());
                 logFailedEvent(eventList, "HTTP " + response.status().getStatus());
-            } else {
-                BulkItemResponse[] items = response.getItems();
+            }
+        } else {
+            BulkItemResponse[] items = response.getItems();
 
-                for (int i = 0; i < items.length; i++) {
-                    AuditEventBase   itemRequest  = eventList.get(i);
-                    BulkItemResponse itemResponse = items[i];
+            for (int i = 0; i < items.length; i++) {
+                AuditEventBase   itemRequest  = eventList.get(i);
+                BulkItemResponse itemResponse = items[i];
 
-                    if (itemResponse.isFailed()) {
+                if (itemResponse.isFailed()) {
+                    if (isRetriable(itemResponse.status())) {
+                        ret.add(itemRequest);
+                    } else {
                         addFailedCount(1);
                         logFailedEvent(Collections.singletonList(itemRequest), itemResponse.getFailureMessage());
-                    } else {
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("Indexed {}", itemRequest.getEventKey());
-                        }
-
-                        addSuccessCount(1);
-
-                        ret = true;
                     }
+                } else {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Indexed {}", itemRequest.getEventKey());
+                    }
+
+                    addSuccessCount(1);
+                    deliveredCount.incrementAndGet();
                 }
             }
-        } catch (Throwable t) {
-            addDeferredCount(events.size());
-
-            logError("Error sending message to ElasticSearch", t);
         }
-        return ret;
-    }
 
-    public boolean isAsync() {
-        return true;
+        return ret;
     }
 
     synchronized RestHighLevelClient getClient() {
@@ -283,7 +357,7 @@ synchronized RestHighLevelClient getClient() {
     Map<String, Object> toDoc(AuthzAuditEvent auditEvent) {
         Map<String, Object> doc = new HashMap<>();
 
-        doc.put("id", auditEvent.getEventId());
+        doc.put("id", AuditBulkPipeline.getDocumentId(auditEvent));
         doc.put("access", auditEvent.getAccessType());
         doc.put("enforcer", auditEvent.getAclEnforcer());
         doc.put("agent", auditEvent.getAgentId());
@@ -315,6 +389,22 @@ Map<String, Object> toDoc(AuthzAuditEvent auditEvent) {
         return doc;
     }
 
+    private boolean isRetriable(RestStatus status) {
+        if (!bulkPipeline.isRetryEnabled()) {
+            return false;
+        }
+
+        switch (status) {
+            case TOO_MANY_REQUESTS:
+            case BAD_GATEWAY:
+            case SERVICE_UNAVAILABLE:
+            case GATEWAY_TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private String connectionString() {
         return String.format(Locale.ROOT, "User:%s, %s://%s:%s/%s", user, protocol, hosts, port, index);
     }
@@ -62,9 +62,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SolrAuditDestination extends AuditDestination {
     private static final Logger LOG = LoggerFactory.getLogger(SolrAuditDestination.class);
@@ -76,8 +78,9 @@ public class SolrAuditDestination extends AuditDestination {
     public static final String DEFAULT_COLLECTION_NAME                  = "ranger_audits";
     public static final String PROP_JAVA_SECURITY_AUTH_LOGIN_CONFIG     = "java.security.auth.login.config";
 
-    private volatile SolrClient   solrClient;
-    private volatile KerberosUser kerberosUser;
+    private volatile SolrClient        solrClient;
+    private volatile KerberosUser      kerberosUser;
+    private          AuditBulkPipeline bulkPipeline;
 
     public SolrAuditDestination() {
     }
@@ -88,6 +91,8 @@ public void init(Properties props, String propPrefix) {
 
         super.init(props, propPrefix);
 
+        bulkPipeline = AuditBulkPipeline.create(getName(), props, propPrefix);
+
         init();
         connect();
     }
@@ -121,6 +126,19 @@ public void stop() {
                 this.kerberosUser = null;
             }
         }
+
+        if (bulkPipeline != null) {
+            bulkPipeline.stop();
+        }
+    }
+
+    @Override
+    public void logStatus() {
+        super.logStatus();
+
+        if (isStatusLogEnabled() && bulkPipeline != null) {
+            LOG.info("SolrAuditDestination(name={}): {}", getName(), bulkPipeline.getStatus());
+        }
     }
 
     /*
@@ -132,9 +150,36 @@ public void stop() {
     public void flush() {
     }
 
+    /**
+     * With retries disabled, returns true only if all events were delivered, as before bulk retries were supported.
+     * Otherwise returns true if no event is left undelivered; the caller then resends all events.
+     */
     @Override
     public boolean log(Collection<AuditEventBase> events) {
-        boolean ret = false;
+        AtomicInteger        deliveredCount = new AtomicInteger();
+        List<AuditEventBase> undelivered    = send(events, deliveredCount);
+
+        return undelivered.isEmpty() && (bulkPipeline.isRetryEnabled() || deliveredCount.get() == events.size());
+    }
+
+    @Override
+    public Collection<AuditEventBase> logAndGetUndelivered(Collection<AuditEventBase> events) {
+        if (!bulkPipeline.isRetryEnabled()) {
+            return super.logAndGetUndelivered(events);
+        }
+
+        return send(events, new AtomicInteger());
+    }
+
+    public boolean isAsync() {
+        return true;
+    }
+
+    /**
+     * @return events not delivered, even after retries; these are counted as deferred
+     */
+    private List<AuditEventBase> send(Collection<AuditEventBase> events, AtomicInteger deliveredCount) {
+        List<AuditEventBase> ret = new ArrayList<>(events);
 
         try {
             logStatusIfRequired();
@@ -155,44 +200,62 @@ public boolean log(Collection<AuditEventBase> events) {
                 }
             }
 
-            final Collection<SolrInputDocument> docs = new ArrayList<>();
+            final SolrClient client = solrClient;
 
-            for (AuditEventBase event : events) {
-                AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
+            ret = bulkPipeline.send(ret, bulk -> sendBulk(client, bulk, deliveredCount));
 
-                // Convert AuditEventBase to Solr document
-                SolrInputDocument document = toSolrDoc(authzEvent);
+            if (!ret.isEmpty()) {
+                addDeferredCount(ret.size());
 
-                docs.add(document);
-            }
-
-            try {
-                final UpdateResponse response = addDocsToSolr(solrClient, docs);
-
-                if (response.getStatus() != 0) {
-                    addFailedCount(events.size());
-
-                    logFailedEvent(events, response.toString());
-                } else {
-                    addSuccessCount(events.size());
-
-                    ret = true;
-                }
-            } catch (SolrException ex) {
-                addFailedCount(events.size());
-                logFailedEvent(events, ex);
+                logError("Error sending {} of {} events to Solr", ret.size(), events.size());
             }
         } catch (Throwable t) {
             addDeferredCount(events.size());
 
             logError("Error sending message to Solr", t);
+
+            ret = new ArrayList<>(events);
         }
 
         return ret;
     }
 
-    public boolean isAsync() {
-        return true;
+    /**
+     * @return events to retry; all events if Solr failed with a retriable error, when retries are enabled
+     */
+    List<AuditEventBase> sendBulk(SolrClient solrClient, List<AuditEventBase> events, AtomicInteger deliveredCount) throws Exception {
+        final Collection<SolrInputDocument> docs = new ArrayList<>(events.size());
+
+        for (AuditEventBase event : events) {
+            AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
+
+            // Convert AuditEventBase to Solr document
+            SolrInputDocument document = toSolrDoc(authzEvent);
+
+            docs.add(document);
+        }
+
+        try {
+            final UpdateResponse response = addDocsToSolr(solrClient, docs);
+
+            if (response.getStatus() != 0) {
+                addFailedCount(events.size());
+
+                logFailedEvent(events, response.toString());
+            } else {
+                addSuccessCount(events.size());
+                deliveredCount.addAndGet(events.size());
+            }
+        } catch (SolrException ex) {
+            if (bulkPipeline.isRetryEnabled() && isRetriable(ex)) {
+                return events;
+            }
+
+            addFailedCount(events.size());
+            logFailedEvent(events, ex);
+        }
+
+        return Collections.emptyList();
     }
 
     synchronized void connect() {
@@ -290,7 +353,7 @@ synchronized void connect() {
     SolrInputDocument toSolrDoc(AuthzAuditEvent auditEvent) {
         SolrInputDocument doc = new SolrInputDocument();
 
-        doc.addField("id", auditEvent.getEventId());
+        doc.addField("id", AuditBulkPipeline.getDocumentId(auditEvent));
         doc.addField("access", auditEvent.getAccessType());
         doc.addField("enforcer", auditEvent.getAclEnforcer());
         doc.addField("agent", auditEvent.getAgentId());
@@ -497,6 +560,18 @@ private UpdateResponse addDocsToSolr(final SolrClient solrClient, final Collecti
         return ret;
     }
 
+    private static boolean isRetriable(SolrException excp) {
+        switch (excp.code()) {
+            case 429: // too many requests
+            case 502: // bad gateway
+            case 503: // service unavailable
+            case 504: // gateway timeout
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private InputStream getFileInputStream(String fileName) throws IOException {
         InputStream in = null;
 
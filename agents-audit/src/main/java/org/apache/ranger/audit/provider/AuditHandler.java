@@ -22,6 +22,7 @@
 
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Properties;
 
 public interface AuditHandler {
@@ -29,6 +30,15 @@ public interface AuditHandler {
 
     boolean log(Collection<AuditEventBase> events);
 
+    /**
+     * Like log(events), for handlers that can deliver a part of the events: the caller resends only the returned events.
+     *
+     * @return events that were not delivered and can be sent again later; empty if all events were delivered or dropped
+     */
+    default Collection<AuditEventBase> logAndGetUndelivered(Collection<AuditEventBase> events) {
+        return log(events) ? Collections.emptyList() : events;
+    }
+
     boolean logJSON(String event);
 
     boolean logJSON(Collection<String> events);
@@ -72,13 +72,15 @@ public abstract class BaseAuditHandler implements AuditHandler {
     protected Map<String, String> configProps      = new HashMap<>();
     protected Properties          props;
 
+    // updated by threads sending bulks in parallel, as well as the caller
+    final AtomicLong totalCount         = new AtomicLong();
+    final AtomicLong totalSuccessCount  = new AtomicLong();
+    final AtomicLong totalFailedCount   = new AtomicLong();
+    final AtomicLong totalStashedCount  = new AtomicLong();
+    final AtomicLong totalDeferredCount = new AtomicLong();
+
     int     errorLogIntervalMS = 30 * 1000; // Every 30 seconds
     long    lastErrorLogMS;
-    long    totalCount;
-    long    totalSuccessCount;
-    long    totalFailedCount;
-    long    totalStashedCount;
-    long    totalDeferredCount;
     long    lastIntervalCount;
     long    lastIntervalSuccessCount;
     long    lastIntervalFailedCount;
@@ -237,49 +239,39 @@ public String getFinalPath() {
     }
 
     public long addTotalCount(int count) {
-        totalCount += count;
-
-        return totalCount;
+        return totalCount.addAndGet(count);
     }
 
     public long addSuccessCount(int count) {
-        totalSuccessCount += count;
-
-        return totalSuccessCount;
+        return totalSuccessCount.addAndGet(count);
     }
 
     public long addFailedCount(int count) {
-        totalFailedCount += count;
-
-        return totalFailedCount;
+        return totalFailedCount.addAndGet(count);
     }
 
     public long addStashedCount(int count) {
-        totalStashedCount += count;
-
-        return totalStashedCount;
+        return totalStashedCount.addAndGet(count);
     }
 
     public long addDeferredCount(int count) {
-        totalDeferredCount += count;
-
-        return totalDeferredCount;
+        return totalDeferredCount.addAndGet(count);
     }
 
     public long getTotalCount() {
-        return totalCount;
+        return totalCount.get();
     }
 
     public long getTotalSuccessCount() {
-        return totalSuccessCount;
+        return totalSuccessCount.get();
     }
 
     public long getTotalFailedCount() {
-        return totalFailedCount;
+        return totalFailedCount.get();
     }
 
     public long getTotalStashedCount() {
-        return totalStashedCount;
+        return totalStashedCount.get();
     }
 
     public long getLastStashedCount() {
@@ -287,7 +279,7 @@ public long getLastStashedCount() {
     }
 
     public long getTotalDeferredCount() {
-        return totalDeferredCount;
+        return totalDeferredCount.get();
     }
 
     public long getLastDeferredCount() {
@@ -312,21 +304,26 @@ public void logStatus() {
             lastStatusLogTime = currTime;
             nextStatusLogTime = currTime + statusLogIntervalMS;
 
-            long diffCount    = totalCount - lastIntervalCount;
-            long diffSuccess  = totalSuccessCount - lastIntervalSuccessCount;
-            long diffFailed   = totalFailedCount - lastIntervalFailedCount;
-            long diffStashed  = totalStashedCount - lastStashedCount;
-            long diffDeferred = totalDeferredCount - lastDeferredCount;
+            long currCount    = totalCount.get();
+            long currSuccess  = totalSuccessCount.get();
+            long currFailed   = totalFailedCount.get();
+            long currStashed  = totalStashedCount.get();
+            long currDeferred = totalDeferredCount.get();
+            long diffCount    = currCount - lastIntervalCount;
+            long diffSuccess  = currSuccess - lastIntervalSuccessCount;
+            long diffFailed   = currFailed - lastIntervalFailedCount;
+            long diffStashed  = currStashed - lastStashedCount;
+            long diffDeferred = currDeferred - lastDeferredCount;
 
             if (diffCount == 0 && diffSuccess == 0 && diffFailed == 0 && diffStashed == 0 && diffDeferred == 0) {
                 return;
             }
 
-            lastIntervalCount        = totalCount;
-            lastIntervalSuccessCount = totalSuccessCount;
-            lastIntervalFailedCount  = totalFailedCount;
-            lastStashedCount         = totalStashedCount;
-            lastDeferredCount        = totalDeferredCount;
+            lastIntervalCount        = currCount;
+            lastIntervalSuccessCount = currSuccess;
+            lastIntervalFailedCount  = currFailed;
+            lastStashedCount         = currStashed;
+            lastDeferredCount        = currDeferred;
 
             if (statusLogEnabled) {
                 String finalPath  = "";
@@ -489,14 +486,14 @@ private void logAuditStatus(long diffTime, long diffCount, long diffSuccess, lon
                 + (diffDeferred > 0 ? (", deferredCount=" + diffDeferred)
                 : "")
                 + ", totalEvents="
-                + totalCount
-                + (totalSuccessCount > 0 ? (", totalSuccessCount=" + totalSuccessCount)
+                + totalCount.get()
+                + (totalSuccessCount.get() > 0 ? (", totalSuccessCount=" + totalSuccessCount.get())
                 : "")
-                + (totalFailedCount > 0 ? (", totalFailedCount=" + totalFailedCount)
+                + (totalFailedCount.get() > 0 ? (", totalFailedCount=" + totalFailedCount.get())
                 : "")
-                + (totalStashedCount > 0 ? (", totalStashedCount=" + totalStashedCount)
+                + (totalStashedCount.get() > 0 ? (", totalStashedCount=" + totalStashedCount.get())
                 : "")
-                + (totalDeferredCount > 0 ? (", totalDeferredCount=" + totalDeferredCount)
+                + (totalDeferredCount.get() > 0 ? (", totalDeferredCount=" + totalDeferredCount.get())
                 : "");
         LOG.info(msg);
     }
@@ -21,26 +21,51 @@
 
 import org.apache.ranger.audit.model.AuditEventBase;
 import org.apache.ranger.audit.provider.AuditHandler;
+import org.apache.ranger.audit.provider.MiscUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * This is a non-blocking queue with no limit on capacity.
+ * This is a non-blocking queue, limited to queue.size events.
+ *
+ * With ringbuffer.enable=true, events are held in a pre-allocated AuditRingBuffer instead of a linked queue.
+ * When the queue is full, events are handled as per overflow.policy:
+ *   drop:  event is discarded and counted as failed (default)
+ *   block: caller waits for space in the queue
+ *   spool: event is written to the file spool, which delivers it to the consumer later; requires filespool.enable=true
  */
 public class AuditAsyncQueue extends AuditQueue implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(AuditAsyncQueue.class);
 
-    static final int    MAX_DRAIN    = 1000;
-    static final String DEFAULT_NAME = "async";
+    public static final String PROP_RING_BUFFER_ENABLE = "ringbuffer.enable";
+    public static final String PROP_OVERFLOW_POLICY    = "overflow.policy";
+
+    static final int    MAX_DRAIN                 = 1000;
+    static final String DEFAULT_NAME              = "async";
+    static final long   OVERFLOW_BLOCK_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
     static       int    threadCount;
 
-    LinkedBlockingQueue<AuditEventBase> queue          = new LinkedBlockingQueue<>();
-    Thread                              consumerThread;
+    public enum OverflowPolicy { DROP, BLOCK, SPOOL }
+
+    BlockingQueue<AuditEventBase> queue          = new LinkedBlockingQueue<>();
+    Thread                        consumerThread;
+    OverflowPolicy                overflowPolicy = OverflowPolicy.DROP;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spooledCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
 
     public AuditAsyncQueue(AuditHandler consumer) {
         super(consumer);
@@ -48,6 +73,38 @@ public AuditAsyncQueue(AuditHandler consumer) {
         setName(DEFAULT_NAME);
     }
 
+    @Override
+    public void init(Properties props, String basePropertyName) {
+        super.init(props, basePropertyName);
+
+        boolean ringBufferEnabled = MiscUtil.getBooleanProperty(props, propPrefix + "." + PROP_RING_BUFFER_ENABLE, false);
+        String  overflowPolicy    = MiscUtil.getStringProperty(props, propPrefix + "." + PROP_OVERFLOW_POLICY, OverflowPolicy.DROP.name());
+
+        try {
+            this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase());
+        } catch (IllegalArgumentException excp) {
+            logger.error("Invalid {}.{}={}. Using {}", propPrefix, PROP_OVERFLOW_POLICY, overflowPolicy, OverflowPolicy.DROP);
+
+            this.overflowPolicy = OverflowPolicy.DROP;
+        }
+
+        if (this.overflowPolicy == OverflowPolicy.SPOOL && !fileSpoolerEnabled) {
+            logger.error("{}.{}={} requires file spool to be enabled. Using {}", propPrefix, PROP_OVERFLOW_POLICY, overflowPolicy, OverflowPolicy.DROP);
+
+            this.overflowPolicy = OverflowPolicy.DROP;
+        }
+
+        if (ringBufferEnabled) {
+            AuditRingBuffer<AuditEventBase> ringBuffer = new AuditRingBuffer<>(getMaxQueueSize());
+
+            logger.info("Creating AuditRingBuffer with capacity={}. name={}", ringBuffer.capacity(), getName());
+
+            queue = ringBuffer;
+        }
+
+        logger.info("AuditAsyncQueue(name={}): maxQueueSize={}, overflowPolicy={}", getName(), getMaxQueueSize(), this.overflowPolicy);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -62,15 +119,38 @@ public boolean log(AuditEventBase event) {
         addTotalCount(1);
 
         // Add to the queue and return ASAP
-        if (queue.size() >= getMaxQueueSize()) {
-            addFailedCount(1);
+        if (offer(event)) {
+            return true;
+        }
+
+        boolean ret = false;
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                blockedCount.incrementAndGet();
 
-            return false;
+                ret = offerWithWait(event);
+                break;
+
+            case SPOOL:
+                fileSpooler.stashLogs(event);
+
+                addStashedCount(1);
+                spooledCount.incrementAndGet();
+
+                ret = true;
+                break;
+
+            default:
+                break;
         }
 
-        queue.add(event);
+        if (!ret) {
+            addFailedCount(1);
+            droppedCount.incrementAndGet();
+        }
 
-        return true;
+        return ret;
     }
 
     @Override
@@ -78,7 +158,7 @@ public void logStatus() {
         super.logStatus();
 
         if (isStatusLogEnabled()) {
-            logger.info("AuditAsyncQueue.log(name={}): totalCount={}, currentQueueLength={}", getName(), getTotalCount(), queue.size());
+            logger.info("AuditAsyncQueue.log(name={}): totalCount={}, currentQueueLength={}, droppedCount={}, spooledCount={}, blockedCount={}", getName(), getTotalCount(), queue.size(), getDroppedCount(), getSpooledCount(), getBlockedCount());
         }
     }
 
@@ -110,6 +190,10 @@ public void start() {
             logger.error("consumer is not set. Nothing will be sent to any consumer. name={}", getName());
         }
 
+        if (overflowPolicy == OverflowPolicy.SPOOL) {
+            fileSpooler.start();
+        }
+
         consumerThread = new Thread(this, this.getClass().getName() + (threadCount++));
 
         consumerThread.setDaemon(true);
@@ -160,6 +244,41 @@ public int size() {
         return queue.size();
     }
 
+    /**
+     * @return number of events discarded as the queue was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return number of events written to the file spool as the queue was full
+     */
+    public long getSpooledCount() {
+        return spooledCount.get();
+    }
+
+    /**
+     * @return number of events that waited for space in the queue, with overflow.policy=block
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put("capacity", queue instanceof AuditRingBuffer ? ((AuditRingBuffer<AuditEventBase>) queue).capacity() : getMaxQueueSize());
+        ret.put("size", size());
+        ret.put("overflowPolicy", overflowPolicy.name());
+        ret.put("totalCount", getTotalCount());
+        ret.put("droppedCount", getDroppedCount());
+        ret.put("spooledCount", getSpooledCount());
+        ret.put("blockedCount", getBlockedCount());
+
+        return ret;
+    }
+
     public void runLogAudit() {
         while (true) {
             try {
@@ -209,10 +328,34 @@ public void runLogAudit() {
 
             // Call stop on the consumer
             consumer.stop();
+
+            if (overflowPolicy == OverflowPolicy.SPOOL) {
+                fileSpooler.stop();
+            }
         } catch (Throwable t) {
             logger.error("Error while calling stop on consumer.", t);
         }
 
         logger.info("Exiting consumerThread.run() method. name={}", getName());
     }
+
+    private boolean offer(AuditEventBase event) {
+        return queue.size() < getMaxQueueSize() && queue.offer(event);
+    }
+
+    private boolean offerWithWait(AuditEventBase event) {
+        while (!isDrain()) {
+            LockSupport.parkNanos(this, OVERFLOW_BLOCK_WAIT_NANOS);
+
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+
+            if (offer(event)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
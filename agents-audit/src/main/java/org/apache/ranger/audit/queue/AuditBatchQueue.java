@@ -324,22 +324,25 @@ public void runLogAudit() {
                 // Reset time just before sending the logs
                 lastDispatchTime = System.currentTimeMillis();
 
-                boolean ret = consumer.log(localBatchBuffer);
+                // only the events not delivered are stashed, so that the delivered ones aren't sent again
+                Collection<AuditEventBase> undelivered = consumer.logAndGetUndelivered(localBatchBuffer);
+
+                if (!undelivered.isEmpty()) {
+                    addSuccessCount(localBatchBuffer.size() - undelivered.size());
 
-                if (!ret) {
                     if (fileSpoolerEnabled) {
                         logger.info("Switching to file spool. Queue = {}, dest = {}", getName(), consumer.getName());
 
                         // Transient error. Stash and move on
-                        fileSpooler.stashLogs(localBatchBuffer);
+                        fileSpooler.stashLogs(undelivered);
 
                         isDestActive = false;
 
-                        addStashedCount(localBatchBuffer.size());
+                        addStashedCount(undelivered.size());
                     } else {
                         // We need to drop this event
-                        addFailedCount(localBatchBuffer.size());
-                        logFailedEvent(localBatchBuffer);
+                        addFailedCount(undelivered.size());
+                        logFailedEvent(undelivered);
                     }
                 } else {
                     isDestActive = true;
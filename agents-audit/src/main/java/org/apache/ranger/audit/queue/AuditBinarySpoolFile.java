@@ -0,0 +1,678 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.audit.provider.MiscUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary format for audit spool files.
+ *
+ * A file starts with a 5 byte header (magic "RASB" and format version), followed by blocks of events. Each block has a
+ * header - event count, uncompressed length, compressed length and CRC32 of the compressed payload - followed by the
+ * deflate compressed payload. Events of type AuthzAuditEvent are written field by field; other events are written as
+ * JSON. A block is written only once complete, so a partially written block at the end of the file (after a crash) is
+ * ignored on replay, and truncated when the file is reopened for append.
+ */
+public final class AuditBinarySpoolFile {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditBinarySpoolFile.class);
+
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private static final byte[] MAGIC               = {'R', 'A', 'S', 'B'};
+    private static final byte   VERSION             = 1;
+    private static final int    HEADER_LENGTH       = MAGIC.length + 1;
+    private static final int    BLOCK_HEADER_LENGTH = 4 + 4 + 4 + 8;
+    private static final int    MAX_BLOCK_BYTES     = 4 * 1024 * 1024;
+    private static final int    MAP_WINDOW_SIZE     = 64 * 1024 * 1024;
+    private static final byte   RECORD_AUTHZ        = 1;
+    private static final byte   RECORD_JSON         = 2;
+    private static final long   NULL_TIME           = Long.MIN_VALUE;
+
+    private AuditBinarySpoolFile() {
+        // only static methods and nested classes
+    }
+
+    /**
+     * @return true if the file starts with the binary spool file header; false for empty and JSON spool files
+     */
+    public static boolean isBinary(File file) throws IOException {
+        if (file.length() < HEADER_LENGTH) {
+            return false;
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = new byte[MAGIC.length];
+
+            return in.read(header) == header.length && Arrays.equals(header, MAGIC);
+        }
+    }
+
+    /**
+     * Truncates the file after its last complete block, so that blocks appended later are readable. A partial block is
+     * left at the end of the file when the process crashes while writing a block.
+     *
+     * @return length of the file after truncation; 0 if the file header itself is incomplete
+     */
+    static long truncateIncompleteBlock(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long fileSize = channel.size();
+            long       ret      = 0;
+
+            if (fileSize >= HEADER_LENGTH) {
+                ByteBuffer header = ByteBuffer.allocate(Math.max(HEADER_LENGTH, BLOCK_HEADER_LENGTH));
+                byte[]     magic  = new byte[MAGIC.length];
+
+                readFully(channel, header, 0, HEADER_LENGTH);
+
+                header.get(magic);
+
+                if (!Arrays.equals(magic, MAGIC)) {
+                    throw new CorruptSpoolFileException(file + ": not a binary audit spool file");
+                }
+
+                ret = HEADER_LENGTH;
+
+                while (ret + BLOCK_HEADER_LENGTH <= fileSize) {
+                    readFully(channel, header, ret, BLOCK_HEADER_LENGTH);
+
+                    int uncompressedLength = header.getInt(4);
+                    int compressedLength   = header.getInt(8);
+
+                    if (uncompressedLength < 0 || compressedLength < 0 || ret + BLOCK_HEADER_LENGTH + compressedLength > fileSize) {
+                        break;
+                    }
+
+                    ret += BLOCK_HEADER_LENGTH + compressedLength;
+                }
+            }
+
+            if (ret < fileSize) {
+                LOG.warn("{}: truncating incomplete block at offset {}; dropping {} bytes", file, ret, fileSize - ret);
+
+                channel.truncate(ret);
+            }
+
+            return ret;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset, int length) throws IOException {
+        // calls through Buffer, so that the classes built by JDK 9+ for Java 8 don't link to ByteBuffer methods only in Java 9+
+        ((Buffer) buffer).clear();
+        ((Buffer) buffer).limit(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of file at offset " + (offset + buffer.position()));
+            }
+        }
+
+        ((Buffer) buffer).flip();
+    }
+
+    private static void writeEvent(DataOutputStream out, AuditEventBase event) throws IOException {
+        if (event.getClass() != AuthzAuditEvent.class) {
+            writeJson(out, MiscUtil.stringify(event));
+
+            return;
+        }
+
+        AuthzAuditEvent authzEvent = (AuthzAuditEvent) event;
+
+        out.writeByte(RECORD_AUTHZ);
+        out.writeInt(authzEvent.getRepositoryType());
+        writeString(out, authzEvent.getRepositoryName());
+        writeString(out, authzEvent.getUser());
+        out.writeLong(authzEvent.getEventTime() != null ? authzEvent.getEventTime().getTime() : NULL_TIME);
+        writeString(out, authzEvent.getAccessType());
+        writeString(out, authzEvent.getResourcePath());
+        writeString(out, authzEvent.getResourceType());
+        writeString(out, authzEvent.getAction());
+        out.writeShort(authzEvent.getAccessResult());
+        writeString(out, authzEvent.getAgentId());
+        out.writeLong(authzEvent.getPolicyId());
+        writeString(out, authzEvent.getResultReason());
+        writeString(out, authzEvent.getAclEnforcer());
+        writeString(out, authzEvent.getSessionId());
+        writeString(out, authzEvent.getClientType());
+        writeString(out, authzEvent.getClientIP());
+        writeString(out, authzEvent.getRequestData());
+        writeString(out, authzEvent.getAgentHostname());
+        writeString(out, authzEvent.getLogType());
+        writeString(out, authzEvent.getEventId());
+        out.writeLong(authzEvent.getSeqNum());
+        out.writeLong(authzEvent.getEventCount());
+        out.writeLong(authzEvent.getEventDurationMS());
+        writeStrings(out, authzEvent.getTags());
+        writeStrings(out, authzEvent.getDatasets());
+        writeStrings(out, authzEvent.getProjects());
+        writeString(out, authzEvent.getAdditionalInfo());
+        writeString(out, authzEvent.getClusterName());
+        writeString(out, authzEvent.getZoneName());
+        out.writeBoolean(authzEvent.getPolicyVersion() != null);
+
+        if (authzEvent.getPolicyVersion() != null) {
+            out.writeLong(authzEvent.getPolicyVersion());
+        }
+    }
+
+    private static void writeJson(DataOutputStream out, String jsonStr) throws IOException {
+        out.writeByte(RECORD_JSON);
+        writeString(out, jsonStr);
+    }
+
+    private static AuditEventBase readEvent(DataInputStream in) throws IOException {
+        byte recordType = in.readByte();
+
+        if (recordType == RECORD_JSON) {
+            return MiscUtil.fromJson(readString(in), AuthzAuditEvent.class);
+        } else if (recordType != RECORD_AUTHZ) {
+            throw new IOException("unknown record type " + recordType);
+        }
+
+        AuthzAuditEvent ret = new AuthzAuditEvent();
+
+        ret.setRepositoryType(in.readInt());
+        ret.setRepositoryName(readString(in));
+        ret.setUser(readString(in));
+
+        long eventTime = in.readLong();
+
+        ret.setEventTime(eventTime != NULL_TIME ? new Date(eventTime) : null);
+        ret.setAccessType(readString(in));
+        ret.setResourcePath(readString(in));
+        ret.setResourceType(readString(in));
+        ret.setAction(readString(in));
+        ret.setAccessResult(in.readShort());
+        ret.setAgentId(readString(in));
+        ret.setPolicyId(in.readLong());
+        ret.setResultReason(readString(in));
+        ret.setAclEnforcer(readString(in));
+        ret.setSessionId(readString(in));
+        ret.setClientType(readString(in));
+        ret.setClientIP(readString(in));
+        ret.setRequestData(readString(in));
+        ret.setAgentHostname(readString(in));
+        ret.setLogType(readString(in));
+        ret.setEventId(readString(in));
+        ret.setSeqNum(in.readLong());
+        ret.setEventCount(in.readLong());
+        ret.setEventDurationMS(in.readLong());
+        ret.setTags(readStrings(in));
+        ret.setDatasets(readStrings(in));
+        ret.setProjects(readStrings(in));
+        ret.setAdditionalInfo(readString(in));
+        ret.setClusterName(readString(in));
+        ret.setZoneName(readString(in));
+        ret.setPolicyVersion(in.readBoolean() ? in.readLong() : null);
+
+        return ret;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> strs) throws IOException {
+        if (strs == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(strs.size());
+
+            for (String str : strs) {
+                writeString(out, str);
+            }
+        }
+    }
+
+    private static Set<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+
+        if (count < 0) {
+            return null;
+        }
+
+        Set<String> ret = new HashSet<>(count * 2);
+
+        for (int i = 0; i < count; i++) {
+            ret.add(readString(in));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Appends events to a spool file. Events are buffered until the block is full or flush() is called.
+     */
+    public static class Writer implements Closeable, Flushable {
+        private final OutputStream     out;
+        private final int              blockSize;
+        private final BlockBuffer      blockBuffer = new BlockBuffer();
+        private final DataOutputStream blockOut    = new DataOutputStream(blockBuffer);
+        private final Deflater         deflater    = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32            crc         = new CRC32();
+        private final DataOutputStream headerOut;
+        private       byte[]           compressed  = new byte[64 * 1024];
+        private       int              blockEventCount;
+
+        public Writer(File file, int blockSize) throws IOException {
+            boolean isNewFile = file.length() == 0 || truncateIncompleteBlock(file) == 0;
+
+            this.out       = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+            this.blockSize = blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+            this.headerOut = new DataOutputStream(out);
+
+            if (isNewFile) {
+                out.write(MAGIC);
+                out.write(VERSION);
+            }
+        }
+
+        public void append(AuditEventBase event) throws IOException {
+            writeEvent(blockOut, event);
+
+            onRecordAdded();
+        }
+
+        public void appendJson(String jsonStr) throws IOException {
+            writeJson(blockOut, jsonStr);
+
+            onRecordAdded();
+        }
+
+        /**
+         * Writes the pending events as a block and flushes the file
+         */
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                deflater.end();
+
+                out.close();
+            }
+        }
+
+        private void onRecordAdded() throws IOException {
+            blockEventCount++;
+
+            if (blockEventCount >= blockSize || blockBuffer.size() >= MAX_BLOCK_BYTES) {
+                writeBlock();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (blockEventCount == 0) {
+                return;
+            }
+
+            deflater.reset();
+            deflater.setInput(blockBuffer.buffer(), 0, blockBuffer.size());
+            deflater.finish();
+
+            int compressedLength = 0;
+
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+
+            crc.reset();
+            crc.update(compressed, 0, compressedLength);
+
+            headerOut.writeInt(blockEventCount);
+            headerOut.writeInt(blockBuffer.size());
+            headerOut.writeInt(compressedLength);
+            headerOut.writeLong(crc.getValue());
+            headerOut.write(compressed, 0, compressedLength);
+
+            blockBuffer.reset();
+
+            blockEventCount = 0;
+        }
+    }
+
+    /**
+     * Reads the events of a spool file sequentially, block by block, from a memory mapped window of the file.
+     */
+    public static class Reader implements Closeable {
+        private final File                 file;
+        private final FileChannel          channel;
+        private final long                 fileSize;
+        private final Inflater             inflater   = new Inflater();
+        private final CRC32                crc        = new CRC32();
+        private       byte[]               compressed = new byte[64 * 1024];
+        private       MappedByteBuffer     mapped;
+        private       long                 mappedStart;
+        private       long                 position;
+        private       int                  eventPosition;
+        private       List<AuditEventBase> pendingEvents;
+
+        public Reader(File file) throws IOException {
+            this.file     = file;
+            this.channel  = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.fileSize = channel.size();
+
+            try {
+                ByteBuffer header = map(0, HEADER_LENGTH);
+                byte[]     magic  = new byte[MAGIC.length];
+
+                header.get(magic);
+
+                if (!Arrays.equals(magic, MAGIC)) {
+                    throw new CorruptSpoolFileException(file + ": not a binary audit spool file");
+                }
+
+                byte version = header.get();
+
+                if (version != VERSION) {
+                    throw new CorruptSpoolFileException(file + ": unsupported binary audit spool file version " + version);
+                }
+            } catch (IOException excp) {
+                close();
+
+                throw excp;
+            }
+
+            this.position = HEADER_LENGTH;
+        }
+
+        /**
+         * Skips the given number of events. Blocks that are skipped entirely are not decompressed.
+         *
+         * @return number of events skipped; less than count when the end of file is reached
+         */
+        public int skip(int count) throws IOException {
+            int ret = 0;
+
+            while (ret < count) {
+                if (pendingEvents != null) {
+                    int toSkip = Math.min(count - ret, pendingEvents.size());
+
+                    pendingEvents  = toSkip < pendingEvents.size() ? pendingEvents.subList(toSkip, pendingEvents.size()) : null;
+                    ret           += toSkip;
+                    eventPosition += toSkip;
+
+                    continue;
+                }
+
+                ByteBuffer blockHeader = readBlockHeader();
+
+                if (blockHeader == null) {
+                    break;
+                }
+
+                int eventCount = blockHeader.getInt(0);
+
+                if (eventCount <= count - ret) {
+                    position      += BLOCK_HEADER_LENGTH + blockHeader.getInt(8);
+                    ret           += eventCount;
+                    eventPosition += eventCount;
+                } else {
+                    pendingEvents = readBlock(blockHeader);
+
+                    if (pendingEvents == null) {
+                        break;
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        /**
+         * @return events of the next block, or null at the end of file
+         */
+        public List<AuditEventBase> next() throws IOException {
+            List<AuditEventBase> ret = pendingEvents;
+
+            if (ret != null) {
+                pendingEvents = null;
+            } else {
+                ByteBuffer blockHeader = readBlockHeader();
+
+                ret = blockHeader != null ? readBlock(blockHeader) : null;
+            }
+
+            if (ret != null) {
+                eventPosition += ret.size();
+            }
+
+            return ret;
+        }
+
+        /**
+         * @return index of the next event in the file. Events of blocks skipped due to checksum mismatch are counted,
+         * so that the position of an event doesn't change across replays
+         */
+        public int getPosition() {
+            return eventPosition;
+        }
+
+        @Override
+        public void close() throws IOException {
+            mapped = null;
+
+            inflater.end();
+            channel.close();
+        }
+
+        private ByteBuffer readBlockHeader() throws IOException {
+            if (position + BLOCK_HEADER_LENGTH > fileSize) {
+                if (position != fileSize) {
+                    LOG.warn("{}: ignoring incomplete block header at offset {}", file, position);
+                }
+
+                return null;
+            }
+
+            ByteBuffer ret = map(position, BLOCK_HEADER_LENGTH);
+
+            int uncompressedLength = ret.getInt(4);
+            int compressedLength   = ret.getInt(8);
+
+            if (uncompressedLength < 0 || compressedLength < 0) {
+                throw new CorruptSpoolFileException(file + ": invalid block header at offset " + position);
+            }
+
+            if (position + BLOCK_HEADER_LENGTH + compressedLength > fileSize) {
+                LOG.warn("{}: ignoring incomplete block at offset {}", file, position);
+
+                return null;
+            }
+
+            return ret;
+        }
+
+        private List<AuditEventBase> readBlock(ByteBuffer blockHeader) throws IOException {
+            final int  eventCount         = blockHeader.getInt(0);
+            final int  uncompressedLength = blockHeader.getInt(4);
+            final int  compressedLength   = blockHeader.getInt(8);
+            final long checksum           = blockHeader.getLong(12);
+            final long blockStart         = position;
+
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+
+            map(blockStart + BLOCK_HEADER_LENGTH, compressedLength).get(compressed, 0, compressedLength);
+
+            position = blockStart + BLOCK_HEADER_LENGTH + compressedLength;
+
+            crc.reset();
+            crc.update(compressed, 0, compressedLength);
+
+            if (crc.getValue() != checksum) {
+                LOG.error("{}: checksum mismatch in block at offset {}. Skipping {} events", file, blockStart, eventCount);
+
+                eventPosition += eventCount;
+
+                return Collections.emptyList();
+            }
+
+            byte[] uncompressed = new byte[uncompressedLength];
+
+            try {
+                inflater.reset();
+                inflater.setInput(compressed, 0, compressedLength);
+
+                int length = 0;
+
+                while (length < uncompressedLength && !inflater.finished()) {
+                    int count = inflater.inflate(uncompressed, length, uncompressedLength - length);
+
+                    if (count == 0 && inflater.needsInput()) {
+                        break;
+                    }
+
+                    length += count;
+                }
+
+                if (length != uncompressedLength) {
+                    throw new CorruptSpoolFileException(file + ": block at offset " + blockStart + " has " + length + " bytes; expected " + uncompressedLength);
+                }
+            } catch (DataFormatException excp) {
+                throw new CorruptSpoolFileException(file + ": failed to decompress block at offset " + blockStart, excp);
+            }
+
+            List<AuditEventBase> ret = new ArrayList<>(eventCount);
+            DataInputStream      in  = new DataInputStream(new ByteArrayInputStream(uncompressed));
+
+            try {
+                for (int i = 0; i < eventCount; i++) {
+                    ret.add(readEvent(in));
+                }
+            } catch (IOException excp) {
+                throw new CorruptSpoolFileException(file + ": failed to read events of block at offset " + blockStart, excp);
+            }
+
+            return ret;
+        }
+
+        private ByteBuffer map(long offset, int length) throws IOException {
+            if (mapped == null || offset < mappedStart || offset + length > mappedStart + mapped.capacity()) {
+                long size = Math.min(fileSize - offset, Math.max(length, MAP_WINDOW_SIZE));
+
+                mapped      = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+                mappedStart = offset;
+            }
+
+            ByteBuffer ret = ((ByteBuffer) mapped).duplicate();
+
+            ((Buffer) ret).position((int) (offset - mappedStart));
+            ((Buffer) ret).limit(ret.position() + length);
+
+            return ret.slice();
+        }
+    }
+
+    /**
+     * Thrown when the content of a spool file can't be read, as opposed to failures to access the file
+     */
+    public static class CorruptSpoolFileException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CorruptSpoolFileException(String message) {
+            super(message);
+        }
+
+        public CorruptSpoolFileException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static class BlockBuffer extends ByteArrayOutputStream {
+        BlockBuffer() {
+            super(64 * 1024);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -30,6 +30,7 @@
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -60,6 +61,10 @@ public class AuditFileSpool implements Runnable {
     public static final String PROP_FILE_SPOOL_FILE_ROLLOVER           = "filespool.file.rollover.sec";
     public static final String PROP_FILE_SPOOL_INDEX_FILE              = "filespool.index.filename";
     public static final String PROP_FILE_SPOOL_DEST_RETRY_MS           = "filespool.destination.retry.ms";
+    public static final String PROP_FILE_SPOOL_FILE_FORMAT             = "filespool.file.format";
+    public static final String PROP_FILE_SPOOL_FILE_BLOCK_SIZE         = "filespool.file.block.size";
+    public static final String FILE_FORMAT_JSON                        = "json";
+    public static final String FILE_FORMAT_BINARY                      = "binary";
     public static final String CONSUMER                                = ", consumer=";
 
     AuditQueue                      queueProvider;
@@ -78,6 +83,8 @@ public class AuditFileSpool implements Runnable {
     int    retryDestinationMS = 30 * 1000; // Default 30 seconds
     int    fileRolloverSec    = 24 * 60 * 60; // In seconds
     int    maxArchiveFiles    = 100;
+    String fileFormat         = FILE_FORMAT_JSON;
+    int    fileBlockSize      = AuditBinarySpoolFile.DEFAULT_BLOCK_SIZE;
 
     int  errorLogIntervalMS = 30 * 1000; // Every 30 seconds
     long lastErrorLogMS;
@@ -88,9 +95,10 @@ public class AuditFileSpool implements Runnable {
     long    lastAttemptTime;
     boolean initDone;
 
-    PrintWriter      logWriter;
-    AuditIndexRecord currentWriterIndexRecord;
-    AuditIndexRecord currentConsumerIndexRecord;
+    PrintWriter                 logWriter;
+    AuditBinarySpoolFile.Writer binaryLogWriter;
+    AuditIndexRecord            currentWriterIndexRecord;
+    AuditIndexRecord            currentConsumerIndexRecord;
 
     BufferedReader logReader;
 
@@ -132,10 +140,13 @@ public boolean init(Properties props, String basePropertyName) {
             retryDestinationMS = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_FILE_SPOOL_DEST_RETRY_MS, retryDestinationMS);
             fileRolloverSec    = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_FILE_SPOOL_FILE_ROLLOVER, fileRolloverSec);
             maxArchiveFiles    = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_FILE_SPOOL_ARCHIVE_MAX_FILES_COUNT, maxArchiveFiles);
+            fileFormat         = MiscUtil.getStringProperty(props, propPrefix + "." + PROP_FILE_SPOOL_FILE_FORMAT, fileFormat);
+            fileBlockSize      = MiscUtil.getIntProperty(props, propPrefix + "." + PROP_FILE_SPOOL_FILE_BLOCK_SIZE, fileBlockSize);
 
             logger.info("retryDestinationMS={}, queueName={}", retryDestinationMS, queueProvider.getName());
             logger.info("fileRolloverSec={}, queueName={}", fileRolloverSec, queueProvider.getName());
             logger.info("maxArchiveFiles={}, queueName={}", maxArchiveFiles, queueProvider.getName());
+            logger.info("fileFormat={}, fileBlockSize={}, queueName={}", fileFormat, fileBlockSize, queueProvider.getName());
 
             if (logFolderProp == null || logFolderProp.isEmpty()) {
                 logger.error("Audit spool folder is not configured. Please set {}.{}.queueName={}", propPrefix, PROP_FILE_SPOOL_LOCAL_DIR, queueProvider.getName());
@@ -298,7 +309,7 @@ public void stop() {
 
         flush();
 
-        PrintWriter out = getOpenLogFileStream();
+        Closeable out = getOpenLogFileStream();
 
         if (out != null) {
             // If write is still going on, then let's give it enough time to complete
@@ -315,7 +326,6 @@ public void stop() {
                 try {
                     logger.info("Closing open file, queueName={}, consumer={}", queueProvider.getName(), consumerProvider.getName());
 
-                    out.flush();
                     out.close();
 
                     break;
@@ -342,10 +352,10 @@ public void flush() {
             return;
         }
 
-        PrintWriter out = getOpenLogFileStream();
-
-        if (out != null) {
-            out.flush();
+        try {
+            flushOpenLogFile();
+        } catch (IOException excp) {
+            logger.error("Error flushing spool file. queueName={}", queueProvider.getName(), excp);
         }
     }
 
@@ -389,10 +399,15 @@ public synchronized void stashLogs(AuditEventBase event) {
         try {
             isWriting = true;
 
-            PrintWriter logOut  = getLogFileStream();
-            String      jsonStr = MiscUtil.stringify(event); // Convert event to json
+            openLogFileIfNeeded();
 
-            logOut.println(jsonStr);
+            if (binaryLogWriter != null) {
+                binaryLogWriter.append(event);
+            } else {
+                String jsonStr = MiscUtil.stringify(event); // Convert event to json
+
+                logWriter.println(jsonStr);
+            }
 
             isPending = true;
         } catch (Exception ex) {
@@ -420,9 +435,13 @@ public synchronized void stashLogsString(String event) {
         try {
             isWriting = true;
 
-            PrintWriter logOut = getLogFileStream();
+            openLogFileIfNeeded();
 
-            logOut.println(event);
+            if (binaryLogWriter != null) {
+                binaryLogWriter.appendJson(event);
+            } else {
+                logWriter.println(event);
+            }
         } catch (Exception ex) {
             logger.error("Error writing to file. event={}", event, ex);
         } finally {
@@ -491,40 +510,11 @@ public void runLogAudit() {
 
                     isRemoveIndex = true;
                 } else {
-                    // Let's open the file to write
-                    try (BufferedReader br = new BufferedReader(new FileReader(currentConsumerIndexRecord.getFilePath()))) {
-                        int          startLine = currentConsumerIndexRecord.getLinePosition();
-                        int          currLine  = 0;
-                        List<String> lines     = new ArrayList<>();
-
-                        for (String line = br.readLine(); line != null; line = br.readLine()) {
-                            currLine++;
-
-                            if (currLine < startLine) {
-                                continue;
-                            }
-
-                            lines.add(line);
-
-                            if (lines.size() == queueProvider.getMaxBatchSize()) {
-                                boolean ret = sendEvent(lines, currentConsumerIndexRecord, currLine);
-
-                                if (!ret) {
-                                    throw new Exception("Destination down");
-                                }
-
-                                lines.clear();
-                            }
-                        }
-
-                        if (!lines.isEmpty()) {
-                            boolean ret = sendEvent(lines, currentConsumerIndexRecord, currLine);
-
-                            if (!ret) {
-                                throw new Exception("Destination down");
-                            }
-
-                            lines.clear();
+                    try {
+                        if (AuditBinarySpoolFile.isBinary(consumerFile)) {
+                            sendBinaryFile(consumerFile, currentConsumerIndexRecord);
+                        } else {
+                            sendJsonFile(consumerFile, currentConsumerIndexRecord);
                         }
 
                         logger.info("Done reading file. file={}, queueName={}, consumer={}", currentConsumerIndexRecord.getFilePath(), queueProvider.getName(), consumerProvider.getName());
@@ -534,6 +524,15 @@ public void runLogAudit() {
                         currentConsumerIndexRecord.setDoneCompleteTime(new Date());
                         currentConsumerIndexRecord.setLastAttempt(true);
 
+                        isRemoveIndex = true;
+                    } catch (AuditBinarySpoolFile.CorruptSpoolFileException excp) {
+                        // retrying won't help: archive the file, with events after the corrupt block left unsent
+                        logger.error("Corrupt spool file. Events after position {} are not sent; moving the file to archive. file={}, queueName={}, consumer={}", currentConsumerIndexRecord.getLinePosition(), currentConsumerIndexRecord.getFilePath(), queueProvider.getName(), consumerProvider.getName(), excp);
+
+                        currentConsumerIndexRecord.setStatus(SPOOL_FILE_STATUS.done);
+                        currentConsumerIndexRecord.setDoneCompleteTime(new Date());
+                        currentConsumerIndexRecord.setLastAttempt(false);
+
                         isRemoveIndex = true;
                     } catch (Exception ex) {
                         isDestDown = true;
@@ -730,15 +729,25 @@ void logError(String msg, Object... arguments) {
      *
      * @return
      */
-    private synchronized PrintWriter getOpenLogFileStream() {
-        return logWriter;
+    private synchronized Closeable getOpenLogFileStream() {
+        return binaryLogWriter != null ? binaryLogWriter : logWriter;
+    }
+
+    private synchronized void flushOpenLogFile() throws IOException {
+        if (binaryLogWriter != null) {
+            binaryLogWriter.flush();
+        } else if (logWriter != null) {
+            logWriter.flush();
+        }
     }
 
     /**
-     * @return
+     * Opens the current spool file for write, creating a new one if needed. Sets either logWriter or binaryLogWriter,
+     * depending on the format of the file
+     *
      * @throws Exception
      */
-    private synchronized PrintWriter getLogFileStream() throws Exception {
+    private synchronized void openLogFileIfNeeded() throws Exception {
         closeFileIfNeeded();
 
         // Either there are no open log file or the previous one has been rolled
@@ -774,7 +783,11 @@ private synchronized PrintWriter getLogFileStream() throws Exception {
             logger.info("Creating new file. queueName={}, filename={}", queueProvider.getName(), fileName);
 
             // Open the file
-            logWriter = new PrintWriter(new BufferedWriter(new FileWriter(outLogFile)));
+            if (FILE_FORMAT_BINARY.equalsIgnoreCase(fileFormat)) {
+                binaryLogWriter = new AuditBinarySpoolFile.Writer(outLogFile, fileBlockSize);
+            } else {
+                logWriter = new PrintWriter(new BufferedWriter(new FileWriter(outLogFile)));
+            }
 
             AuditIndexRecord tmpIndexRecord = new AuditIndexRecord();
 
@@ -790,15 +803,21 @@ private synchronized PrintWriter getLogFileStream() throws Exception {
 
             saveIndexFile();
         } else {
-            if (logWriter == null) {
+            if (logWriter == null && binaryLogWriter == null) {
                 // This means the process just started. We need to open the file
-                // in append mode.
-                logger.info("Opening existing file for append. queueName={}, filename={}", queueProvider.getName(), currentWriterIndexRecord.getFilePath());
-                logWriter = new PrintWriter(new BufferedWriter(new FileWriter(currentWriterIndexRecord.getFilePath(), true)));
+                // in append mode. Keep the format of the existing file, as the configured format might have changed
+                File    outLogFile   = new File(currentWriterIndexRecord.getFilePath());
+                boolean isBinaryFile = outLogFile.length() > 0 ? AuditBinarySpoolFile.isBinary(outLogFile) : FILE_FORMAT_BINARY.equalsIgnoreCase(fileFormat);
+
+                logger.info("Opening existing file for append. queueName={}, filename={}, binary={}", queueProvider.getName(), currentWriterIndexRecord.getFilePath(), isBinaryFile);
+
+                if (isBinaryFile) {
+                    binaryLogWriter = new AuditBinarySpoolFile.Writer(outLogFile, fileBlockSize);
+                } else {
+                    logWriter = new PrintWriter(new BufferedWriter(new FileWriter(outLogFile, true)));
+                }
             }
         }
-
-        return logWriter;
     }
 
     private synchronized void closeFileIfNeeded() throws IOException {
@@ -826,6 +845,12 @@ private synchronized void closeFileIfNeeded() throws IOException {
                     logWriter = null;
                 }
 
+                if (binaryLogWriter != null) {
+                    binaryLogWriter.close();
+
+                    binaryLogWriter = null;
+                }
+
                 currentWriterIndexRecord.setStatus(SPOOL_FILE_STATUS.pending);
                 currentWriterIndexRecord.setWriteCompleteTime(new Date());
 
@@ -840,34 +865,139 @@ private synchronized void closeFileIfNeeded() throws IOException {
         }
     }
 
-    private boolean sendEvent(List<String> lines, AuditIndexRecord indexRecord, int currLine) {
-        boolean ret = true;
+    private void sendJsonFile(File consumerFile, AuditIndexRecord indexRecord) throws Exception {
+        try (BufferedReader br = new BufferedReader(new FileReader(consumerFile))) {
+            int          startLine = indexRecord.getLinePosition();
+            int          currLine  = 0;
+            List<String> lines     = new ArrayList<>();
 
-        try {
-            ret = consumerProvider.logJSON(lines);
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                currLine++;
 
-            if (!ret) {
-                // Need to log error after fixed interval
-                logError("Error sending logs to consumer. provider={}, consumer={}", queueProvider.getName(), consumerProvider.getName());
-            } else {
-                // Update index and save
-                indexRecord.setLinePosition(currLine);
-                indexRecord.setStatus(SPOOL_FILE_STATUS.read_inprogress);
-                indexRecord.setLastSuccessTime(new Date());
-                indexRecord.setLastAttempt(true);
+                if (currLine < startLine) {
+                    continue;
+                }
 
-                saveIndexFile();
+                lines.add(line);
 
-                if (isDestDown) {
-                    isDestDown = false;
+                if (lines.size() == queueProvider.getMaxBatchSize()) {
+                    boolean ret = sendEvent(lines, indexRecord, currLine);
+
+                    if (!ret) {
+                        throw new Exception("Destination down");
+                    }
+
+                    lines.clear();
+                }
+            }
 
-                    logger.info("Destination up now. {}, queueName={}, consumer={}", indexRecord.getFilePath(), queueProvider.getName(), consumerProvider.getName());
+            if (!lines.isEmpty()) {
+                boolean ret = sendEvent(lines, indexRecord, currLine);
+
+                if (!ret) {
+                    throw new Exception("Destination down");
                 }
+
+                lines.clear();
             }
+        }
+    }
+
+    /**
+     * Replays a binary spool file. The line position of the index record is the number of events already sent
+     */
+    private void sendBinaryFile(File consumerFile, AuditIndexRecord indexRecord) throws Exception {
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(consumerFile)) {
+            List<AuditEventBase> events = new ArrayList<>();
+
+            reader.skip(indexRecord.getLinePosition());
+
+            for (List<AuditEventBase> block = reader.next(); block != null; block = reader.next()) {
+                int currEvent = reader.getPosition() - block.size();
+
+                for (AuditEventBase event : block) {
+                    events.add(event);
+
+                    currEvent++;
+
+                    if (events.size() == queueProvider.getMaxBatchSize()) {
+                        boolean ret = sendEvents(events, indexRecord, currEvent);
+
+                        if (!ret) {
+                            throw new Exception("Destination down");
+                        }
+
+                        events.clear();
+                    }
+                }
+            }
+
+            if (!events.isEmpty()) {
+                boolean ret = sendEvents(events, indexRecord, reader.getPosition());
+
+                if (!ret) {
+                    throw new Exception("Destination down");
+                }
+
+                events.clear();
+            }
+        }
+    }
+
+    private boolean sendEvent(List<String> lines, AuditIndexRecord indexRecord, int currLine) {
+        boolean ret;
+
+        try {
+            ret = consumerProvider.logJSON(lines);
         } catch (Exception t) {
             logger.error("Error while sending logs to consumer. provider={}, consumer={}, logEventCount={}", queueProvider.getName(), consumerProvider.getName(), lines.size(), t);
+
+            ret = false;
+        }
+
+        onSendResult(ret, indexRecord, currLine);
+
+        return ret;
+    }
+
+    private boolean sendEvents(List<AuditEventBase> events, AuditIndexRecord indexRecord, int currEvent) {
+        boolean ret;
+
+        try {
+            ret = consumerProvider.log(events);
+        } catch (Exception t) {
+            logger.error("Error while sending logs to consumer. provider={}, consumer={}, logEventCount={}", queueProvider.getName(), consumerProvider.getName(), events.size(), t);
+
+            ret = false;
         }
 
+        onSendResult(ret, indexRecord, currEvent);
+
         return ret;
     }
+
+    private void onSendResult(boolean isSuccess, AuditIndexRecord indexRecord, int position) {
+        if (!isSuccess) {
+            // Need to log error after fixed interval
+            logError("Error sending logs to consumer. provider={}, consumer={}", queueProvider.getName(), consumerProvider.getName());
+        } else {
+            // Update index and save
+            indexRecord.setLinePosition(position);
+            indexRecord.setStatus(SPOOL_FILE_STATUS.read_inprogress);
+            indexRecord.setLastSuccessTime(new Date());
+            indexRecord.setLastAttempt(true);
+
+            try {
+                saveIndexFile();
+            } catch (IOException excp) {
+                logger.error("Error saving index file. queueName={}, consumer={}", queueProvider.getName(), consumerProvider.getName(), excp);
+            }
+
+            if (isDestDown) {
+                isDestDown = false;
+
+                logger.info("Destination up now. {}, queueName={}, consumer={}", indexRecord.getFilePath(), queueProvider.getName(), consumerProvider.getName());
+            }
+        }
+    }
 }
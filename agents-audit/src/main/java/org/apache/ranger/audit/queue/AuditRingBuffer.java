@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounded queue for multiple producers and a single consumer, backed by a pre-allocated array.
+ *
+ * Producers claim a slot with a CAS on the producer index and don't allocate or lock; the consumer thread parks when
+ * the queue is empty and is unparked by the next producer. Only one thread may call poll(), take() or drainTo().
+ */
+public class AuditRingBuffer<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long PUT_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final    AtomicReferenceArray<E> buffer;
+    private final    int                     capacity;
+    private final    int                     mask;
+    private final    AtomicLong              producerIndex = new AtomicLong();
+    private final    AtomicLong              consumerIndex = new AtomicLong();
+    private volatile Thread                  waitingConsumer;
+
+    /**
+     * @param capacity minimum capacity; rounded up to the next power of 2
+     */
+    public AuditRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("invalid capacity " + capacity);
+        }
+
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask     = this.capacity - 1;
+        this.buffer   = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        requireNonNull(e);
+
+        while (true) {
+            long pIdx = producerIndex.get();
+
+            if (pIdx - consumerIndex.get() >= capacity) {
+                return false;
+            }
+
+            if (producerIndex.compareAndSet(pIdx, pIdx + 1)) {
+                buffer.set(index(pIdx), e);
+
+                Thread consumer = waitingConsumer;
+
+                if (consumer != null) {
+                    LockSupport.unpark(consumer);
+                }
+
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!offer(e)) {
+            long remainingNanos = deadline - System.nanoTime();
+
+            if (remainingNanos <= 0) {
+                return false;
+            }
+
+            LockSupport.parkNanos(this, Math.min(remainingNanos, PUT_WAIT_NANOS));
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            LockSupport.parkNanos(this, PUT_WAIT_NANOS);
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        final long cIdx = consumerIndex.get();
+        final int  idx  = index(cIdx);
+
+        E ret = buffer.get(idx);
+
+        if (ret == null) {
+            if (cIdx == producerIndex.get()) {
+                return null;
+            }
+
+            // a producer claimed the slot, but is yet to store the element
+            do {
+                Thread.yield();
+
+                ret = buffer.get(idx);
+            } while (ret == null);
+        }
+
+        buffer.lazySet(idx, null);
+        consumerIndex.lazySet(cIdx + 1);
+
+        return ret;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitPoll(unit.toNanos(timeout));
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return awaitPoll(-1);
+    }
+
+    @Override
+    public E peek() {
+        long cIdx = consumerIndex.get();
+
+        return cIdx == producerIndex.get() ? null : buffer.get(index(cIdx));
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        int ret = 0;
+
+        while (ret < maxElements) {
+            E e = poll();
+
+            if (e == null) {
+                break;
+            }
+
+            c.add(e);
+
+            ret++;
+        }
+
+        return ret;
+    }
+
+    @Override
+    public int size() {
+        long cIdx = consumerIndex.get(); // read before producerIndex, so that the size is never negative
+        long pIdx = producerIndex.get();
+
+        return (int) Math.min(pIdx - cIdx, capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex.get() == producerIndex.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Returns a weakly consistent snapshot of the elements; the iterator doesn't support remove().
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> ret = new ArrayList<>();
+
+        for (long i = consumerIndex.get(), end = producerIndex.get(); i < end; i++) {
+            E e = buffer.get(index(i));
+
+            if (e != null) {
+                ret.add(e);
+            }
+        }
+
+        return Collections.unmodifiableList(ret).iterator();
+    }
+
+    private E awaitPoll(long timeoutNanos) throws InterruptedException {
+        final long deadline = timeoutNanos < 0 ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+
+        E ret = poll();
+
+        while (ret == null) {
+            long remainingNanos = deadline == Long.MAX_VALUE ? MAX_PARK_NANOS : deadline - System.nanoTime();
+
+            if (remainingNanos <= 0) {
+                break;
+            }
+
+            // publish the consumer before checking again, so that a producer adding after the check unparks it
+            waitingConsumer = Thread.currentThread();
+
+            try {
+                ret = poll();
+
+                if (ret == null) {
+                    LockSupport.parkNanos(this, Math.min(remainingNanos, MAX_PARK_NANOS));
+
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+
+                    ret = poll();
+                }
+            } finally {
+                waitingConsumer = null;
+            }
+        }
+
+        return ret;
+    }
+
+    private int index(long sequence) {
+        return (int) sequence & mask;
+    }
+}
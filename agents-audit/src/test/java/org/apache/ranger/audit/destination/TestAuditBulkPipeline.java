@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.destination;
+
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAuditBulkPipeline {
+    @Test
+    public void testConcurrentBulks() {
+        AuditBulkPipeline pipeline    = new AuditBulkPipeline("test", 10, 4, 0, 0);
+        AtomicInteger     inFlight    = new AtomicInteger();
+        AtomicInteger     maxInFlight = new AtomicInteger();
+        Set<Integer>      sent        = ConcurrentHashMap.newKeySet();
+
+        try {
+            List<Integer> undelivered = pipeline.send(range(0, 100), items -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+                try {
+                    assertTrue(items.size() <= 10);
+
+                    Thread.sleep(50);
+
+                    sent.addAll(items);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+
+                return Collections.emptyList();
+            });
+
+            assertTrue(undelivered.isEmpty());
+            assertEquals(100, sent.size());
+            assertEquals(10, pipeline.getRequestCount());
+            assertTrue("maxInFlight=" + maxInFlight.get(), maxInFlight.get() > 1 && maxInFlight.get() <= 4);
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void testRetryPartialFailures() {
+        AuditBulkPipeline   pipeline = new AuditBulkPipeline("test", -1, 1, 2, 1);
+        List<List<Integer>> attempts = new ArrayList<>();
+
+        List<Integer> undelivered = pipeline.send(range(0, 10), items -> {
+            attempts.add(new ArrayList<>(items));
+
+            // odd items fail in the first attempt, item 5 fails always
+            return items.stream().filter(i -> i == 5 || (attempts.size() == 1 && i % 2 == 1)).collect(Collectors.toList());
+        });
+
+        assertEquals(3, attempts.size());
+        assertEquals(range(0, 10), attempts.get(0));
+        assertEquals(range(1, 10).stream().filter(i -> i % 2 == 1).collect(Collectors.toList()), attempts.get(1));
+        assertEquals(Collections.singletonList(5), attempts.get(2));
+        assertEquals(Collections.singletonList(5), undelivered);
+        assertEquals(6, pipeline.getRetriedItemCount());
+    }
+
+    @Test
+    public void testExceptionRetriesBulk() {
+        AuditBulkPipeline pipeline = new AuditBulkPipeline("test", 5, 1, 1, 1);
+        AtomicInteger     calls    = new AtomicInteger();
+
+        List<Integer> undelivered = pipeline.send(range(0, 10), items -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new Exception("connection refused");
+            }
+
+            return Collections.emptyList();
+        });
+
+        assertTrue(undelivered.isEmpty());
+        assertEquals(3, calls.get());
+
+        long[] histogram = pipeline.getLatencyHistogram();
+
+        assertEquals(3, histogram[0] + histogram[1] + histogram[2]);
+    }
+
+    @Test
+    public void testDocumentId() {
+        AuthzAuditEvent event = new AuthzAuditEvent();
+
+        event.setEventId("event-1");
+
+        assertEquals("event-1", AuditBulkPipeline.getDocumentId(event));
+
+        AuthzAuditEvent event1 = createEvent();
+        AuthzAuditEvent event2 = createEvent();
+        String          id     = AuditBulkPipeline.getDocumentId(event1);
+
+        assertNotNull(id);
+        assertEquals(id, event1.getEventId());
+        assertEquals(id, AuditBulkPipeline.getDocumentId(event2));
+
+        AuthzAuditEvent event3 = createEvent();
+
+        event3.setSeqNum(2);
+
+        assertTrue(!id.equals(AuditBulkPipeline.getDocumentId(event3)));
+    }
+
+    private static List<Integer> range(int start, int end) {
+        return IntStream.range(start, end).boxed().collect(Collectors.toList());
+    }
+
+    private static AuthzAuditEvent createEvent() {
+        AuthzAuditEvent ret = new AuthzAuditEvent();
+
+        ret.setEventId(null);
+        ret.setAgentHostname("host1");
+        ret.setAgentId("hiveServer2");
+        ret.setSeqNum(1);
+        ret.setEventTime(new Date(1700000000000L));
+        ret.setUser("user1");
+        ret.setResourcePath("db1/tbl1");
+        ret.setAccessType("select");
+
+        return ret;
+    }
+}
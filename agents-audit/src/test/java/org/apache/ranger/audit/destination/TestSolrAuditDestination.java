@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.destination;
+
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class TestSolrAuditDestination {
+    private static final String PROP_PREFIX = "xasecure.audit.destination.solr";
+
+    @Test
+    public void testCountsWithConcurrentBulks() throws Exception {
+        Properties props = new Properties();
+
+        props.setProperty(PROP_PREFIX + "." + SolrAuditDestination.PROP_SOLR_URLS, "NONE");
+        props.setProperty(PROP_PREFIX + "." + SolrAuditDestination.PROP_SOLR_ZK, "NONE");
+        props.setProperty(PROP_PREFIX + "." + AuditBulkPipeline.PROP_BULK_SIZE, "1");
+        props.setProperty(PROP_PREFIX + "." + AuditBulkPipeline.PROP_MAX_IN_FLIGHT, "8");
+
+        SolrAuditDestination destination = new SolrAuditDestination() {
+            @Override
+            public void logFailedEvent(Collection<AuditEventBase> events, String message) {
+                // only the counts are verified
+            }
+        };
+        UpdateResponse       success     = mock(UpdateResponse.class, withSettings().stubOnly());
+        UpdateResponse       failure     = mock(UpdateResponse.class, withSettings().stubOnly());
+        SolrClient           solrClient  = mock(SolrClient.class, withSettings().stubOnly());
+
+        when(success.getStatus()).thenReturn(0);
+        when(failure.getStatus()).thenReturn(500);
+        when(solrClient.add(anyCollection())).thenAnswer(invocation -> {
+            Collection<SolrInputDocument> docs = invocation.getArgument(0);
+
+            return "fail".equals(docs.iterator().next().getFieldValue("access")) ? failure : success;
+        });
+
+        destination.init(props, PROP_PREFIX);
+
+        try {
+            Field field = SolrAuditDestination.class.getDeclaredField("solrClient");
+
+            field.setAccessible(true);
+            field.set(destination, solrClient);
+
+            List<AuditEventBase> events = new ArrayList<>();
+
+            for (int i = 0; i < 2000; i++) {
+                events.add(createEvent(i, i % 2 == 0 ? "select" : "fail"));
+            }
+
+            for (int i = 0; i < 5; i++) {
+                assertFalse(destination.log(events));
+            }
+
+            assertEquals(10000, destination.getTotalCount());
+            assertEquals(5000, destination.getTotalSuccessCount());
+            assertEquals(5000, destination.getTotalFailedCount());
+            assertEquals(0, destination.getTotalDeferredCount());
+        } finally {
+            destination.stop();
+        }
+    }
+
+    private static AuthzAuditEvent createEvent(int seqNum, String accessType) {
+        AuthzAuditEvent ret = new AuthzAuditEvent();
+
+        ret.setAgentHostname("host1");
+        ret.setAgentId("hiveServer2");
+        ret.setSeqNum(seqNum);
+        ret.setEventTime(new Date(1700000000000L));
+        ret.setUser("user1");
+        ret.setResourcePath("db1/tbl1");
+        ret.setAccessType(accessType);
+
+        return ret;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.audit.provider.DummyAuditProvider;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestAuditBatchQueue {
+    @Test
+    public void testPartialDelivery() throws Exception {
+        List<AuditEventBase> sent  = new ArrayList<>();
+        AuditBatchQueue      queue = new AuditBatchQueue(new DummyAuditProvider() {
+            @Override
+            public Collection<AuditEventBase> logAndGetUndelivered(Collection<AuditEventBase> events) {
+                List<AuditEventBase> ret = new ArrayList<>(events);
+
+                sent.addAll(events);
+
+                // deliver the first 6 events of the batch
+                return ret.subList(Math.min(6, ret.size()), ret.size());
+            }
+        });
+        Properties           props = new Properties();
+
+        props.setProperty("test.batch." + AuditQueue.PROP_BATCH_SIZE, "10");
+        props.setProperty("test.batch." + AuditQueue.PROP_BATCH_INTERVAL, "60000");
+
+        queue.init(props, "test.batch");
+        queue.start();
+
+        for (int i = 0; i < 10; i++) {
+            AuthzAuditEvent event = new AuthzAuditEvent();
+
+            event.setSeqNum(i);
+
+            queue.log(event);
+        }
+
+        queue.waitToComplete(10 * 1000L);
+        queue.stop();
+
+        // counts are updated by the consumer thread after the batch is sent
+        for (int i = 0; i < 100 && queue.getTotalFailedCount() < 4; i++) {
+            Thread.sleep(100);
+        }
+
+        // delivered events are counted once; only the undelivered ones are counted as failed
+        assertEquals(10, sent.size());
+        assertEquals(6, queue.getTotalSuccessCount());
+        assertEquals(4, queue.getTotalFailedCount());
+    }
+}
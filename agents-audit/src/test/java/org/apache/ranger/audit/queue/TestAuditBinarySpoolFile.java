@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAuditBinarySpoolFile {
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File            file  = tmpFolder.newFile("spool.log");
+        AuthzAuditEvent event = createEvent(1);
+
+        event.setTags(new HashSet<>(Collections.singletonList("PII")));
+        event.setDatasets(null);
+        event.setPolicyVersion(null);
+        event.setRequestData("select * from t where c = 'ü'");
+
+        try (AuditBinarySpoolFile.Writer writer = new AuditBinarySpoolFile.Writer(file, 10)) {
+            writer.append(event);
+            writer.append(createEvent(2));
+        }
+
+        assertTrue(AuditBinarySpoolFile.isBinary(file));
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            List<AuditEventBase> events = reader.next();
+
+            assertEquals(2, events.size());
+            assertEquals(event.toString(), events.get(0).toString());
+            assertEquals(event.getEventTime(), ((AuthzAuditEvent) events.get(0)).getEventTime());
+            assertNull(((AuthzAuditEvent) events.get(0)).getDatasets());
+            assertEquals(createEvent(2).toString(), events.get(1).toString());
+            assertNull(reader.next());
+            assertEquals(2, reader.getPosition());
+        }
+    }
+
+    @Test
+    public void testJsonFileIsNotBinary() throws Exception {
+        File file = tmpFolder.newFile("spool.log");
+
+        assertFalse(AuditBinarySpoolFile.isBinary(file));
+
+        Files.write(file.toPath(), "{\"repoType\":1,\"repo\":\"dev_hive\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(AuditBinarySpoolFile.isBinary(file));
+    }
+
+    @Test
+    public void testSkipAndAppend() throws Exception {
+        File file = tmpFolder.newFile("spool.log");
+
+        writeEvents(file, 0, 7, 3);
+        writeEvents(file, 7, 3, 3); // reopen for append, as after a restart
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            assertEquals(5, reader.skip(5));
+            assertEquals(5, reader.getPosition());
+
+            assertEquals(createEvent(5).getSeqNum(), ((AuthzAuditEvent) reader.next().get(0)).getSeqNum());
+
+            List<AuditEventBase> events = readAll(reader);
+
+            assertEquals(4, events.size());
+            assertEquals(10, reader.getPosition());
+            assertEquals(0, reader.skip(1));
+        }
+    }
+
+    @Test
+    public void testCorruptAndIncompleteBlocks() throws Exception {
+        File file = tmpFolder.newFile("spool.log");
+
+        writeEvents(file, 0, 9, 3);
+
+        long fileLength = file.length();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // corrupt the payload of the first block
+            raf.seek(5 + 20 + 2);
+
+            int b = raf.read();
+
+            raf.seek(5 + 20 + 2);
+            raf.write(b ^ 0xff);
+
+            // incomplete block at the end, as after a crash while writing
+            raf.setLength(fileLength - 3);
+        }
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            List<AuditEventBase> events = readAll(reader);
+
+            // events of the corrupted block are skipped, but counted in the position
+            assertEquals(3, events.size());
+            assertEquals(3, ((AuthzAuditEvent) events.get(0)).getSeqNum());
+            assertEquals(6, reader.getPosition());
+        }
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            assertEquals(4, reader.skip(4));
+            assertEquals(2, readAll(reader).size());
+        }
+    }
+
+    @Test
+    public void testAppendAfterIncompleteBlock() throws Exception {
+        File file = tmpFolder.newFile("spool.log");
+
+        writeEvents(file, 0, 6, 3);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // incomplete block at the end, as after a crash while writing
+            raf.setLength(file.length() - 3);
+        }
+
+        writeEvents(file, 6, 3, 3); // reopen for append, as after a restart
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            List<AuditEventBase> events = readAll(reader);
+
+            // the incomplete block is dropped on reopen; blocks appended later are readable
+            assertEquals(6, events.size());
+            assertEquals(2, ((AuthzAuditEvent) events.get(2)).getSeqNum());
+            assertEquals(6, ((AuthzAuditEvent) events.get(3)).getSeqNum());
+            assertEquals(6, reader.getPosition());
+        }
+    }
+
+    @Test
+    public void testAppendAfterIncompleteHeader() throws Exception {
+        File file = tmpFolder.newFile("spool.log");
+
+        Files.write(file.toPath(), new byte[] {'R', 'A', 'S', 'B', 1, 0, 0});
+
+        writeEvents(file, 0, 3, 3);
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            assertEquals(3, readAll(reader).size());
+        }
+    }
+
+    @Test(expected = AuditBinarySpoolFile.CorruptSpoolFileException.class)
+    public void testInvalidBlockHeader() throws Exception {
+        File file = tmpFolder.newFile("spool.log");
+
+        writeEvents(file, 0, 3, 3);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(5 + 8);
+            raf.writeInt(-1); // compressed length
+        }
+
+        try (AuditBinarySpoolFile.Reader reader = new AuditBinarySpoolFile.Reader(file)) {
+            readAll(reader);
+        }
+    }
+
+    private static void writeEvents(File file, int start, int count, int blockSize) throws Exception {
+        try (AuditBinarySpoolFile.Writer writer = new AuditBinarySpoolFile.Writer(file, blockSize)) {
+            for (int i = start; i < start + count; i++) {
+                writer.append(createEvent(i));
+            }
+        }
+    }
+
+    private static List<AuditEventBase> readAll(AuditBinarySpoolFile.Reader reader) throws Exception {
+        List<AuditEventBase> ret = new ArrayList<>();
+
+        for (List<AuditEventBase> events = reader.next(); events != null; events = reader.next()) {
+            ret.addAll(events);
+        }
+
+        return ret;
+    }
+
+    private static AuthzAuditEvent createEvent(int seqNum) {
+        AuthzAuditEvent ret = new AuthzAuditEvent(1, "dev_hive", "user" + seqNum, new Date(1700000000000L + seqNum), "select", "db/tbl", "@table", "select", (short) 1,
+                "hiveServer2", 10L, "reason", "ranger-acl", "session", "HIVESERVER2", "10.0.0.1", "select 1", "cluster", "zone", 3L);
+
+        ret.setSeqNum(seqNum);
+        ret.setEventId("event-" + seqNum);
+
+        return ret;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.audit.queue;
+
+import org.apache.ranger.audit.model.AuditEventBase;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.audit.provider.AuditHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestAuditRingBuffer {
+    @Test
+    public void testBounded() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(3);
+
+        assertEquals(4, buffer.capacity());
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals(0, buffer.remainingCapacity());
+        assertEquals(Integer.valueOf(0), buffer.peek());
+
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(Integer.valueOf(3), buffer.poll());
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+
+        // slots are reused after wrap-around
+        assertTrue(buffer.offer(5));
+        assertEquals(Integer.valueOf(5), buffer.poll());
+    }
+
+    @Test
+    public void testMultipleProducers() throws Exception {
+        final int                producerCount    = 4;
+        final int                countPerProducer = 100000;
+        AuditRingBuffer<Integer> buffer           = new AuditRingBuffer<>(1024);
+        List<Thread>             producers        = new ArrayList<>();
+        int[]                    lastValues       = new int[producerCount];
+
+        for (int p = 0; p < producerCount; p++) {
+            final int producerId = p;
+
+            Thread producer = new Thread(() -> {
+                try {
+                    for (int i = 1; i <= countPerProducer; i++) {
+                        buffer.put(i * producerCount + producerId);
+                    }
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            producers.add(producer);
+            producer.start();
+        }
+
+        for (int received = 0; received < producerCount * countPerProducer; received++) {
+            Integer value = buffer.poll(10, TimeUnit.SECONDS);
+
+            assertTrue("timed out waiting for events", value != null);
+
+            int producerId = value % producerCount;
+            int sequence   = value / producerCount;
+
+            // events of each producer are received in order, without loss or duplicates
+            assertEquals(lastValues[producerId] + 1, sequence);
+
+            lastValues[producerId] = sequence;
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testAsyncQueueOverflowDrop() {
+        Properties props = new Properties();
+
+        props.setProperty("xasecure.audit.test.queue.size", "2");
+        props.setProperty("xasecure.audit.test." + AuditAsyncQueue.PROP_RING_BUFFER_ENABLE, "true");
+
+        AuditAsyncQueue queue = new AuditAsyncQueue(mock(AuditHandler.class));
+
+        queue.init(props, "xasecure.audit.test");
+
+        assertTrue(queue.queue instanceof AuditRingBuffer);
+        assertEquals(AuditAsyncQueue.OverflowPolicy.DROP, queue.overflowPolicy);
+
+        assertTrue(queue.log(createEvent()));
+        assertTrue(queue.log(createEvent()));
+        assertFalse(queue.log(createEvent()));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(1, queue.getTotalFailedCount());
+    }
+
+    @Test
+    public void testAsyncQueueMetrics() throws Exception {
+        Properties props = new Properties();
+
+        props.setProperty("xasecure.audit.test.queue.size", "2");
+        props.setProperty("xasecure.audit.test." + AuditAsyncQueue.PROP_RING_BUFFER_ENABLE, "true");
+        props.setProperty("xasecure.audit.test." + AuditAsyncQueue.PROP_OVERFLOW_POLICY, "block");
+
+        AuditAsyncQueue queue = new AuditAsyncQueue(mock(AuditHandler.class));
+
+        queue.init(props, "xasecure.audit.test");
+
+        assertTrue(queue.log(createEvent()));
+        assertTrue(queue.log(createEvent()));
+
+        Thread producer = new Thread(() -> queue.log(createEvent()));
+
+        producer.start();
+
+        while (queue.getBlockedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertTrue(queue.queue.poll() != null);
+
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertFalse(producer.isAlive());
+
+        Map<String, Object> metrics = queue.getMetrics();
+
+        assertEquals(2, metrics.get("capacity"));
+        assertEquals(2, metrics.get("size"));
+        assertEquals("BLOCK", metrics.get("overflowPolicy"));
+        assertEquals(3L, metrics.get("totalCount"));
+        assertEquals(0L, metrics.get("droppedCount"));
+        assertEquals(0L, metrics.get("spooledCount"));
+        assertEquals(1L, metrics.get("blockedCount"));
+    }
+
+    @Test
+    public void testAsyncQueueSpoolRequiresFileSpool() {
+        Properties props = new Properties();
+
+        props.setProperty("xasecure.audit.test." + AuditAsyncQueue.PROP_OVERFLOW_POLICY, "spool");
+
+        AuditAsyncQueue queue = new AuditAsyncQueue(mock(AuditHandler.class));
+
+        queue.init(props, "xasecure.audit.test");
+
+        assertEquals(AuditAsyncQueue.OverflowPolicy.DROP, queue.overflowPolicy);
+    }
+
+    private static AuditEventBase createEvent() {
+        return new AuthzAuditEvent();
+    }
+}
@@ -63,4 +63,22 @@ public interface RangerAdminClient {
     RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, long lastActivationTimeInMillis) throws Exception;
 
     ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActivationTimeInMillis) throws Exception;
+
+    /**
+     * Waits up to timeoutMs for policies or roles of the service to change from the given versions.
+     *
+     * @return true if a change is available for download; false if there was no change in timeoutMs
+     */
+    default boolean waitForPolicyChange(long lastKnownVersion, long lastKnownRoleVersion, long timeoutMs) throws Exception {
+        throw new UnsupportedOperationException("waitForPolicyChange");
+    }
+
+    /**
+     * Waits up to timeoutMs for tags of the service to change from the given version.
+     *
+     * @return true if a change is available for download; false if there was no change in timeoutMs
+     */
+    default boolean waitForTagChange(long lastKnownVersion, long timeoutMs) throws Exception {
+        throw new UnsupportedOperationException("waitForTagChange");
+    }
 }
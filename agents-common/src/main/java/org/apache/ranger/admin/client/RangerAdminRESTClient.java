@@ -30,6 +30,7 @@
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
 import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.util.ChangeNotificationListener.NotificationUnavailableException;
 import org.apache.ranger.plugin.util.GrantRevokeRequest;
 import org.apache.ranger.plugin.util.GrantRevokeRoleRequest;
 import org.apache.ranger.plugin.util.JsonUtilsV2;
@@ -62,6 +63,9 @@ public class RangerAdminRESTClient extends AbstractRangerAdminClient {
 
     private static final TypeReference<List<String>> TYPE_LIST_STRING = new TypeReference<List<String>>() {};
 
+    private static final long NOTIFICATION_READ_TIMEOUT_MARGIN_MS = 5 * 1000L;
+    private static final long NOTIFICATION_MIN_WAIT_TIME_MS       = 1000L;
+
     private final String           pluginCapabilities = Long.toHexString(new RangerPluginCapability().getPluginCapabilities());
     private final RangerRESTUtils  restUtils          = new RangerRESTUtils();
     private       String           serviceName;
@@ -181,7 +185,7 @@ public ServicePolicies getServicePoliciesIfUpdated(final long lastKnownVersion,
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, ServicePolicies.class);
+            ret = JsonUtilsV2.readResponseStream(response, ServicePolicies.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -260,7 +264,7 @@ public RangerRoles getRolesIfUpdated(final long lastKnownRoleVersion, final long
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, RangerRoles.class);
+            ret = JsonUtilsV2.readResponseStream(response, RangerRoles.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -804,7 +808,7 @@ public ServiceTags getServiceTagsIfUpdated(final long lastKnownVersion, final lo
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, ServiceTags.class);
+            ret = JsonUtilsV2.readResponseStream(response, ServiceTags.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -934,7 +938,7 @@ public RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, lon
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, RangerUserStore.class);
+            ret = JsonUtilsV2.readResponseStream(response, RangerUserStore.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -1012,7 +1016,7 @@ public ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActiva
             LOG.debug("No change in GdsInfo: secureMode={}, user={}, response={}, serviceName={}, lastKnownGdsVersion={}, lastActivationTimeInMillis={}",
                     isSecureMode, user, resp, serviceName, lastKnownVersion, lastActivationTimeInMillis);
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, ServiceGdsInfo.class);
+            ret = JsonUtilsV2.readResponseStream(response, ServiceGdsInfo.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -1038,6 +1042,37 @@ public ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActiva
         return ret;
     }
 
+    @Override
+    public boolean waitForPolicyChange(long lastKnownVersion, long lastKnownRoleVersion, long timeoutMs) throws Exception {
+        LOG.debug("==> RangerAdminRESTClient.waitForPolicyChange({}, {}, {})", lastKnownVersion, lastKnownRoleVersion, timeoutMs);
+
+        final Map<String, String> queryParams = new HashMap<>();
+
+        queryParams.put(RangerRESTUtils.REST_PARAM_LAST_KNOWN_POLICY_VERSION, Long.toString(lastKnownVersion));
+        queryParams.put(RangerRESTUtils.REST_PARAM_LAST_KNOWN_ROLE_VERSION, Long.toString(lastKnownRoleVersion));
+
+        boolean ret = waitForChange(RangerRESTUtils.REST_URL_POLICY_CHANGE_NOTIFICATION, RangerRESTUtils.REST_URL_SECURE_POLICY_CHANGE_NOTIFICATION, queryParams, timeoutMs);
+
+        LOG.debug("<== RangerAdminRESTClient.waitForPolicyChange({}, {}, {}): ret={}", lastKnownVersion, lastKnownRoleVersion, timeoutMs, ret);
+
+        return ret;
+    }
+
+    @Override
+    public boolean waitForTagChange(long lastKnownVersion, long timeoutMs) throws Exception {
+        LOG.debug("==> RangerAdminRESTClient.waitForTagChange({}, {})", lastKnownVersion, timeoutMs);
+
+        final Map<String, String> queryParams = new HashMap<>();
+
+        queryParams.put(RangerRESTUtils.LAST_KNOWN_TAG_VERSION_PARAM, Long.toString(lastKnownVersion));
+
+        boolean ret = waitForChange(RangerRESTUtils.REST_URL_TAG_CHANGE_NOTIFICATION, RangerRESTUtils.REST_URL_SECURE_TAG_CHANGE_NOTIFICATION, queryParams, timeoutMs);
+
+        LOG.debug("<== RangerAdminRESTClient.waitForTagChange({}, {}): ret={}", lastKnownVersion, timeoutMs, ret);
+
+        return ret;
+    }
+
     private void init(String url, String sslConfigFileName, int restClientConnTimeOutMs, int restClientReadTimeOutMs, int restClientMaxRetryAttempts, int restClientRetryIntervalMs, Configuration config) {
         LOG.debug("==> RangerAdminRESTClient.init({}, {})", url, sslConfigFileName);
 
@@ -1051,6 +1086,55 @@ private void init(String url, String sslConfigFileName, int restClientConnTimeOu
         LOG.debug("<== RangerAdminRESTClient.init({}, {})", url, sslConfigFileName);
     }
 
+    private boolean waitForChange(String url, String secureUrl, Map<String, String> queryParams, long timeoutMs) throws Exception {
+        final UserGroupInformation user         = MiscUtil.getUGILoginUser();
+        final boolean              isSecureMode = isKerberosEnabled(user);
+        final Cookie               sessionId    = this.sessionId;
+        final String               relativeURL  = (isSecureMode ? secureUrl : url) + serviceNameUrlParam;
+
+        // Ranger Admin must respond before the read timeout
+        long waitTimeMs = Math.max(Math.min(timeoutMs, restClient.getRestClientReadTimeOutMs() - NOTIFICATION_READ_TIMEOUT_MARGIN_MS), NOTIFICATION_MIN_WAIT_TIME_MS);
+
+        queryParams.put(RangerRESTUtils.REST_PARAM_TIMEOUT_MS, Long.toString(waitTimeMs));
+
+        final ClientResponse response;
+
+        if (isSecureMode) {
+            response = MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<ClientResponse>) () -> restClient.get(relativeURL, queryParams, sessionId));
+        } else {
+            response = restClient.get(relativeURL, queryParams, sessionId);
+        }
+
+        checkAndResetSessionCookie(response);
+
+        if (response == null) {
+            throw new Exception("received NULL response: secureMode=" + isSecureMode + ", user=" + user + ", url=" + relativeURL);
+        }
+
+        final int status = response.getStatus();
+
+        if (status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_NO_CONTENT) {
+            return true;
+        } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        } else if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) { // too many requests are waiting for notification
+            throw new NotificationUnavailableException("status=" + status + ", url=" + relativeURL);
+        } else if (status == HttpServletResponse.SC_NOT_FOUND) {
+            String exceptionMsg = response.hasEntity() ? response.getEntity(String.class) : null;
+
+            try {
+                RangerServiceNotFoundException.throwExceptionIfServiceNotFound(serviceName, exceptionMsg);
+            } catch (RangerServiceNotFoundException excp) { // scheduled download reports the error
+                throw new NotificationUnavailableException("service not found: " + serviceName);
+            }
+
+            // Ranger Admin that doesn't support change notification
+            throw new UnsupportedOperationException(relativeURL);
+        } else {
+            throw new Exception("unexpected response: secureMode=" + isSecureMode + ", user=" + user + ", url=" + relativeURL + ", response=" + RESTResponse.fromClientResponse(response));
+        }
+    }
+
     private void checkAndResetSessionCookie(ClientResponse response) {
         if (isRangerCookieEnabled) {
             if (response == null) {
@@ -24,6 +24,7 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerRequestScriptEvaluator;
+import org.apache.ranger.plugin.policyengine.RangerScriptCache;
 import org.apache.ranger.plugin.util.ScriptEngineUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,8 +39,8 @@
 public class RangerScriptConditionEvaluator extends RangerAbstractConditionEvaluator {
     private static final Logger LOG = LoggerFactory.getLogger(RangerScriptConditionEvaluator.class);
 
-    private ScriptEngine scriptEngine;
-    private Boolean      enableJsonCtx;
+    private RangerScriptCache scriptCache;
+    private Boolean           enableJsonCtx;
 
     @Override
     public void init() {
@@ -66,7 +67,7 @@ public void init() {
 
         LOG.debug("RangerScriptConditionEvaluator.init() - engineName={}", engineName);
 
-        scriptEngine = ScriptEngineUtil.createScriptEngine(serviceDef.getName());
+        ScriptEngine scriptEngine = ScriptEngineUtil.createScriptEngine(serviceDef.getName());
 
         if (scriptEngine == null) {
             String conditionType = condition != null ? condition.getType() : null;
@@ -74,6 +75,10 @@ public void init() {
             LOG.error("failed to initialize condition '{}': script engine '{}' was not created", conditionType, engineName);
         } else {
             LOG.info("ScriptEngine for engineName=[{}] is successfully created", engineName);
+
+            scriptCache = new RangerScriptCache(scriptEngine);
+
+            compileScript();
         }
 
         LOG.debug("<== RangerScriptConditionEvaluator.init({})", condition);
@@ -85,7 +90,7 @@ public boolean isMatched(RangerAccessRequest request) {
 
         boolean result = true;
 
-        if (scriptEngine != null) {
+        if (scriptCache != null) {
             String script = getScript();
 
             if (StringUtils.isNotBlank(script)) {
@@ -95,11 +100,11 @@ public boolean isMatched(RangerAccessRequest request) {
                     enableJsonCtx = RangerRequestScriptEvaluator.needsJsonCtxEnabled(script);
                 }
 
-                RangerRequestScriptEvaluator evaluator = new RangerRequestScriptEvaluator(request, scriptEngine, enableJsonCtx);
-
-                evaluator.evaluateConditionScript(script);
+                try (RangerRequestScriptEvaluator evaluator = new RangerRequestScriptEvaluator(request, scriptCache, enableJsonCtx)) {
+                    evaluator.evaluateConditionScript(script);
 
-                result = evaluator.getResult();
+                    result = evaluator.getResult();
+                }
             } else {
                 String conditionType = condition != null ? condition.getType() : null;
 
@@ -116,6 +121,22 @@ public boolean isMatched(RangerAccessRequest request) {
         return result;
     }
 
+    /*
+     * compiles the script when the policy engine is built, instead of on first evaluation.
+     * Subclasses that initialize the script after super.init() should call this method after the script is initialized.
+     */
+    protected void compileScript() {
+        String script = scriptCache != null ? getScript() : null;
+
+        if (StringUtils.isNotBlank(script)) {
+            if (enableJsonCtx == null) {
+                enableJsonCtx = RangerRequestScriptEvaluator.needsJsonCtxEnabled(script);
+            }
+
+            scriptCache.getCompiledScript(script);
+        }
+    }
+
     protected String getScript() {
         String       ret    = null;
         List<String> values = condition.getValues();
@@ -51,6 +51,8 @@ public void init() {
                 if (script != null) {
                     script = script.trim();
                 }
+
+                compileScript();
             }
         }
 
@@ -71,4 +71,13 @@ public ServiceTags retrieveTags(long lastKnownVersion, long lastActivationTimeIn
 
         return serviceTags;
     }
+
+    @Override
+    public boolean waitForTagChange(long lastKnownVersion, long timeoutMs) throws Exception {
+        if (adminClient == null) {
+            throw new UnsupportedOperationException("waitForTagChange");
+        }
+
+        return adminClient.waitForTagChange(lastKnownVersion, timeoutMs);
+    }
 }
@@ -40,11 +40,14 @@
 import org.apache.ranger.plugin.policyresourcematcher.RangerDefaultPolicyResourceMatcher;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
 import org.apache.ranger.plugin.service.RangerAuthContext;
+import org.apache.ranger.plugin.util.BinaryCacheUtil;
 import org.apache.ranger.plugin.util.CachedResourceEvaluators;
+import org.apache.ranger.plugin.util.ChangeNotificationListener;
 import org.apache.ranger.plugin.util.DownloadTrigger;
 import org.apache.ranger.plugin.util.DownloaderTask;
 import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerCommonConstants;
+import org.apache.ranger.plugin.util.RangerMetricsUtil;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerReadWriteLock;
 import org.apache.ranger.plugin.util.RangerServiceNotFoundException;
@@ -71,6 +74,7 @@
 import java.util.Timer;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
 
 public class RangerTagEnricher extends RangerAbstractContextEnricher {
     private static final Logger LOG                            = LoggerFactory.getLogger(RangerTagEnricher.class);
@@ -84,14 +88,17 @@ public class RangerTagEnricher extends RangerAbstractContextEnricher {
 
     private final BlockingQueue<DownloadTrigger> tagDownloadQueue = new LinkedBlockingQueue<>();
     private final RangerReadWriteLock            lock             = new RangerReadWriteLock(false);
-    private final CachedResourceEvaluators       cache            = new CachedResourceEvaluators();
+    private       CachedResourceEvaluators       cache            = new CachedResourceEvaluators();
+    private       Supplier<Map<String, Object>>  cacheMetrics;
     private       RangerTagRefresher             tagRefresher;
     private       RangerTagRetriever             tagRetriever;
     private       boolean                        disableTrieLookupPrefilter;
     private       EnrichedServiceTags            enrichedServiceTags;
     private       boolean                        disableCacheIfServiceNotFound = true;
     private       boolean                        dedupStrings                  = true;
+    private       boolean                        isBinaryCacheEnabled;
     private       Timer                          tagDownloadTimer;
+    private       ChangeNotificationListener     changeNotificationListener;
     private       RangerServiceDefHelper         serviceDefHelper;
 
     public static RangerServiceResourceMatcher createRangerServiceResourceMatcher(RangerServiceResource serviceResource, RangerServiceDefHelper serviceDefHelper, ResourceHierarchies hierarchies, RangerPluginContext pluginContext) {
@@ -154,6 +161,10 @@ public void init() {
         dedupStrings               = getBooleanConfig(propertyPrefix + ".dedup.strings", true);
         disableTrieLookupPrefilter = getBooleanOption(TAG_DISABLE_TRIE_PREFILTER_OPTION, false);
         serviceDefHelper           = new RangerServiceDefHelper(serviceDef, false);
+        cache                      = new CachedResourceEvaluators(getIntConfig(propertyPrefix + ".tag.resource.evaluators.cache.size", CachedResourceEvaluators.DEFAULT_CACHE_SIZE));
+        cacheMetrics               = cache::getMetrics;
+
+        RangerMetricsUtil.registerPluginMetricsSource(getCacheMetricsName(), cacheMetrics);
 
         if (StringUtils.isNotBlank(tagRetrieverClassName)) {
             try {
@@ -173,6 +184,7 @@ public void init() {
 
             if (tagRetriever != null) {
                 disableCacheIfServiceNotFound = getBooleanConfig(propertyPrefix + ".disable.cache.if.servicenotfound", true);
+                isBinaryCacheEnabled          = getBooleanConfig(propertyPrefix + ".policy.cache.binary.enabled", false);
 
                 String cacheDir      = getConfig(propertyPrefix + ".policy.cache.dir", null);
                 String cacheFilename = String.format("%s_%s_tag.json", appId, serviceName);
@@ -216,6 +228,17 @@ public void init() {
 
                     tagDownloadTimer = null;
                 }
+
+                if (getBooleanConfig(propertyPrefix + ".tag.change.notification.enabled", false)) {
+                    RangerTagRefresher tagRefresher = this.tagRefresher;
+
+                    changeNotificationListener = new ChangeNotificationListener("TagChangeNotificationListener(serviceName=" + serviceName + ")",
+                            timeoutMs -> tagRetriever.waitForTagChange(tagRefresher.lastKnownVersion, timeoutMs),
+                            () -> tagRefresher.lastKnownVersion,
+                            tagDownloadQueue, getLongConfig(propertyPrefix + ".tag.change.notification.timeoutMs", 60 * 1000L), pollingIntervalMs);
+
+                    changeNotificationListener.start();
+                }
             }
         } else {
             LOG.error("No value specified for {} in the RangerTagEnricher options", TAG_RETRIEVER_CLASSNAME_OPTION);
@@ -270,14 +293,26 @@ public boolean preCleanup() {
 
         super.preCleanup();
 
-        Timer tagDownloadTimer = this.tagDownloadTimer;
+        if (cacheMetrics != null) {
+            RangerMetricsUtil.unregisterPluginMetricsSource(getCacheMetricsName(), cacheMetrics);
 
-        this.tagDownloadTimer = null;
+            cacheMetrics = null;
+        }
+
+        Timer                      tagDownloadTimer           = this.tagDownloadTimer;
+        ChangeNotificationListener changeNotificationListener = this.changeNotificationListener;
+
+        this.tagDownloadTimer           = null;
+        this.changeNotificationListener = null;
 
         if (tagDownloadTimer != null) {
             tagDownloadTimer.cancel();
         }
 
+        if (changeNotificationListener != null) {
+            changeNotificationListener.interrupt();
+        }
+
         RangerTagRefresher tagRefresher = this.tagRefresher;
 
         this.tagRefresher = null;
@@ -324,6 +359,10 @@ public EnrichedServiceTags getEnrichedServiceTags() {
         return enrichedServiceTags;
     }
 
+    public CachedResourceEvaluators getResourceEvaluatorsCache() {
+        return cache;
+    }
+
     protected void setServiceTags(final ServiceTags serviceTags, final boolean rebuildOnlyIndex) {
         LOG.debug("==> RangerTagEnricher.setServiceTags(serviceTags={}, rebuildOnlyIndex={})", serviceTags, rebuildOnlyIndex);
 
@@ -465,7 +504,7 @@ private EnrichedServiceTags processServiceTags(ServiceTags serviceTags) {
                 serviceResourceTrie = new HashMap<>();
 
                 for (RangerResourceDef resourceDef : serviceDef.getResources()) {
-                    serviceResourceTrie.put(resourceDef.getName(), new RangerResourceTrie(resourceDef, resourceMatchers, getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, null));
+                    serviceResourceTrie.put(resourceDef.getName(), new RangerResourceTrie(resourceDef, resourceMatchers, getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, getPolicyEngineOptions().compactTagTrieNodes, null));
                 }
             }
 
@@ -509,7 +548,7 @@ private EnrichedServiceTags processServiceTagDeltas(ServiceTags deltas, ServiceT
                             } else {
                                 LOG.debug("Trying to add resource-matcher to new trie for {}", resourceDef.getName());
 
-                                trie = new RangerResourceTrie<>(resourceDef, Collections.singletonList(resourceMatcher), getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, null);
+                                trie = new RangerResourceTrie<>(resourceDef, Collections.singletonList(resourceMatcher), getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, getPolicyEngineOptions().compactTagTrieNodes, null);
 
                                 serviceResourceTrie.put(resourceDef.getName(), trie);
                             }
@@ -647,6 +686,10 @@ private void setEnrichedServiceTagsInPlugin() {
         LOG.debug("<== setEnrichedServiceTagsInPlugin()");
     }
 
+    private String getCacheMetricsName() {
+        return "tag.enricher." + serviceName + ".resource.evaluators.cache";
+    }
+
     private Set<RangerTagForEval> findMatchingTags(final RangerAccessRequest request, EnrichedServiceTags dataStore) {
         LOG.debug("==> RangerTagEnricher.findMatchingTags({})", request);
 
@@ -923,9 +966,15 @@ final ServiceTags loadFromCache() {
                 Reader reader = null;
 
                 try {
-                    reader = new FileReader(cacheFile);
+                    if (tagEnricher.isBinaryCacheEnabled) {
+                        serviceTags = BinaryCacheUtil.loadFromBinaryCache(cacheFile, ServiceTags.class);
+                    }
 
-                    serviceTags = JsonUtils.jsonToObject(reader, ServiceTags.class);
+                    if (serviceTags == null) {
+                        reader = new FileReader(cacheFile);
+
+                        serviceTags = JsonUtils.jsonToObject(reader, ServiceTags.class);
+                    }
 
                     if (serviceTags != null && !StringUtils.equals(tagEnricher.getServiceName(), serviceTags.getServiceName())) {
                         LOG.warn("ignoring unexpected serviceName '{}' in cache file '{}'", serviceTags.getServiceName(), cacheFile.getAbsolutePath());
@@ -976,6 +1025,10 @@ final void saveToCache(ServiceTags serviceTags) {
                             }
                         }
                     }
+
+                    if (tagEnricher.isBinaryCacheEnabled) {
+                        BinaryCacheUtil.saveToBinaryCache(cacheFile, serviceTags);
+                    }
                 }
             } else {
                 LOG.info("service-tags is null for service={}. Nothing to save in cache", tagRetriever.getServiceName());
@@ -1003,6 +1056,10 @@ final void disableCache() {
                 LOG.debug("No local TAGS cache found. No need to disable it!");
             }
 
+            if (cacheFile != null) {
+                BinaryCacheUtil.deleteBinaryCache(cacheFile);
+            }
+
             LOG.debug("<== RangerTagRetriever.disableCache(serviceName={})", tagEnricher.getServiceName());
         }
 
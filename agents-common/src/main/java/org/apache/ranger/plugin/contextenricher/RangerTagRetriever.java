@@ -37,6 +37,16 @@ public abstract class RangerTagRetriever {
 
     public abstract ServiceTags retrieveTags(long lastKnownVersion, long lastActivationTimeInMillis) throws Exception;
 
+    /**
+     * Waits up to timeoutMs for tags to change from the given version. Retrievers that don't support change
+     * notification throw UnsupportedOperationException.
+     *
+     * @return true if a change is available for retrieval; false if there was no change in timeoutMs
+     */
+    public boolean waitForTagChange(long lastKnownVersion, long timeoutMs) throws Exception {
+        throw new UnsupportedOperationException("waitForTagChange");
+    }
+
     public String getServiceName() {
         return serviceName;
     }
@@ -48,6 +48,7 @@ public class RangerUserStoreEnricher extends RangerAbstractContextEnricher {
     private       RangerUserStore                rangerUserStore;
     private       boolean                        disableCacheIfServiceNotFound = true;
     private       boolean                        dedupStrings                  = true;
+    private       boolean                        isBinaryCacheEnabled;
     private       Timer                          userStoreDownloadTimer;
 
     @Override
@@ -80,6 +81,7 @@ public void init() {
 
             if (userStoreRetriever != null) {
                 disableCacheIfServiceNotFound = getBooleanConfig(propertyPrefix + ".disable.cache.if.servicenotfound", true);
+                isBinaryCacheEnabled          = getBooleanConfig(propertyPrefix + ".policy.cache.binary.enabled", false);
 
                 String cacheDir      = getConfig(propertyPrefix + ".policy.cache.dir", null);
                 String cacheFilename = String.format("%s_%s_userstore.json", appId, serviceName);
@@ -184,6 +186,10 @@ public boolean isDisableCacheIfServiceNotFound() {
         return disableCacheIfServiceNotFound;
     }
 
+    public boolean isBinaryCacheEnabled() {
+        return isBinaryCacheEnabled;
+    }
+
     public RangerUserStore getRangerUserStore() {
         return this.rangerUserStore;
     }
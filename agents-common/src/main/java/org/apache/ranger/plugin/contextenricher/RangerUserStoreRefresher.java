@@ -24,6 +24,7 @@
 import org.apache.ranger.admin.client.datatype.RESTResponse;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.plugin.util.BinaryCacheUtil;
 import org.apache.ranger.plugin.util.DownloadTrigger;
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
@@ -262,6 +263,10 @@ public void saveToCache(RangerUserStore rangerUserStore) {
                         }
                     }
                 }
+
+                if (isBinaryCacheEnabled()) {
+                    BinaryCacheUtil.saveToBinaryCache(cacheFile, rangerUserStore);
+                }
             }
         } else {
             LOG.info("userstore information is null. Nothing to save in cache");
@@ -281,9 +286,15 @@ private RangerUserStore loadFromCache() {
             Reader reader = null;
 
             try {
-                reader = new FileReader(cacheFile);
+                if (isBinaryCacheEnabled()) {
+                    rangerUserStore = BinaryCacheUtil.loadFromBinaryCache(cacheFile, RangerUserStore.class);
+                }
+
+                if (rangerUserStore == null) {
+                    reader = new FileReader(cacheFile);
 
-                rangerUserStore = JsonUtils.jsonToObject(reader, RangerUserStore.class);
+                    rangerUserStore = JsonUtils.jsonToObject(reader, RangerUserStore.class);
+                }
             } catch (Exception excp) {
                 LOG.error("failed to load userstore information from cache file {}", cacheFile.getAbsolutePath(), excp);
             } finally {
@@ -323,9 +334,17 @@ private void disableCache() {
             LOG.debug("No local userstore cache found. No need to disable it!");
         }
 
+        if (cacheFile != null) {
+            BinaryCacheUtil.deleteBinaryCache(cacheFile);
+        }
+
         LOG.debug("<== RangerUserStoreRefreher.disableCache()");
     }
 
+    private boolean isBinaryCacheEnabled() {
+        return userStoreEnricher != null && userStoreEnricher.isBinaryCacheEnabled();
+    }
+
     private RangerUserStore retrieveUserStoreInfo() throws Exception {
         RangerUserStore rangerUserStore = null;
 
@@ -390,7 +409,7 @@ private RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, lo
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, RangerUserStore.class);
+            ret = JsonUtilsV2.readResponseStream(response, RangerUserStore.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
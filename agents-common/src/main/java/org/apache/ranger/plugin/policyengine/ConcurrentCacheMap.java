@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.plugin.policyengine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe alternative to Collections.synchronizedMap(new CacheMap&lt;&gt;(capacity)).
+ *
+ * Unlike CacheMap, get() does not reorder entries: it only marks the entry as referenced, without taking a lock.
+ * When the number of entries exceeds the capacity, entries are evicted in insertion order, giving a second chance
+ * to entries referenced since the last pass (CLOCK) - an approximation of LRU. Use CacheMap where exact
+ * access-ordered LRU semantics are required.
+ */
+public class ConcurrentCacheMap<K, V> extends AbstractMap<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentCacheMap.class);
+
+    private final int                               capacity;
+    private final ConcurrentHashMap<K, Node<K, V>>  map;
+    private final ConcurrentLinkedQueue<Node<K, V>> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final LongAdder                         hitCount      = new LongAdder();
+    private final LongAdder                         missCount     = new LongAdder();
+    private final LongAdder                         evictionCount = new LongAdder();
+    private final AtomicInteger                     removedCount  = new AtomicInteger(); // removed entries whose nodes may still be in evictionQueue
+
+    public ConcurrentCacheMap(int capacity) {
+        this.capacity = capacity;
+        this.map      = new ConcurrentHashMap<>(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = map.get(key);
+
+        if (node != null) {
+            if (!node.isReferenced) { // avoid a volatile write for entries that are already marked
+                node.isReferenced = true;
+            }
+
+            hitCount.increment();
+
+            return node.value;
+        }
+
+        missCount.increment();
+
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Node<K, V> existing = putIfAbsent(new Node<>(key, value));
+
+        if (existing != null) {
+            V ret = existing.value;
+
+            existing.value        = value;
+            existing.isReferenced = true;
+
+            return ret;
+        }
+
+        return null;
+    }
+
+    /**
+     * Unlike ConcurrentHashMap.computeIfAbsent(), mappingFunction may be called by more than one concurrent caller for
+     * the same key; only one of the values is added, and is returned to all callers.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V ret = get(key);
+
+        if (ret == null) {
+            V value = mappingFunction.apply(key);
+
+            if (value != null) {
+                Node<K, V> existing = putIfAbsent(new Node<>(key, value));
+
+                if (existing != null) {
+                    existing.isReferenced = true;
+
+                    ret = existing.value;
+                } else {
+                    ret = value;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = map.remove(key);
+
+        if (node == null) {
+            return null;
+        }
+
+        // nodes of removed entries are otherwise dropped from evictionQueue only by evict(), which runs when the map is full
+        if (removedCount.incrementAndGet() > Math.max(map.size(), 16)) {
+            purgeEvictionQueue();
+        }
+
+        return node.value;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        evictionQueue.clear();
+        removedCount.set(0);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<Node<K, V>> iter = map.values().iterator();
+
+                return new Iterator<Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iter.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        Node<K, V> node = iter.next();
+
+                        return new SimpleImmutableEntry<>(node.key, node.value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentCacheMap={capacity=" + capacity + ", size=" + map.size() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount() + ", evictionCount=" + getEvictionCount() + "}";
+    }
+
+    int getEvictionQueueSize() {
+        return evictionQueue.size();
+    }
+
+    /**
+     * @return node already in the map for the key; null if the given node was added
+     */
+    private Node<K, V> putIfAbsent(Node<K, V> node) {
+        Node<K, V> ret = map.putIfAbsent(node.key, node);
+
+        if (ret == null) {
+            evictionQueue.offer(node);
+
+            if (map.size() > capacity) {
+                evict();
+            }
+        }
+
+        return ret;
+    }
+
+    private void purgeEvictionQueue() {
+        removedCount.set(0);
+
+        evictionQueue.removeIf(node -> map.get(node.key) != node);
+    }
+
+    private void evict() {
+        // bound the work done by a single caller; entries not evicted now will be handled by subsequent puts
+        int maxVisits = 2 * capacity + 16;
+
+        for (int i = 0; i < maxVisits && map.size() > capacity; i++) {
+            Node<K, V> node = evictionQueue.poll();
+
+            if (node == null) {
+                break;
+            }
+
+            if (map.get(node.key) != node) { // already removed
+                continue;
+            }
+
+            if (node.isReferenced) {
+                node.isReferenced = false;
+
+                evictionQueue.offer(node);
+            } else if (map.remove(node.key, node)) {
+                evictionCount.increment();
+            }
+        }
+
+        LOG.debug("ConcurrentCacheMap.evict(): {}", this);
+    }
+
+    private static final class Node<K, V> {
+        final    K       key;
+        volatile V       value;
+        volatile boolean isReferenced;
+
+        Node(K key, V value) {
+            this.key   = key;
+            this.value = value;
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class RangerAccessResult {
     private       long                evaluatedPoliciesCount;
     private       String              reason;
     private       Map<String, Object> additionalInfo;
+    private       boolean             isCacheable = true; // false if the result depends on request context, like conditions or access-time
 
     public RangerAccessResult(final int policyType, final String serviceName, final RangerServiceDef serviceDef, final RangerAccessRequest request) {
         this.serviceName            = serviceName;
@@ -249,6 +250,14 @@ public void incrementEvaluatedPoliciesCount() {
         this.evaluatedPoliciesCount++;
     }
 
+    public boolean getIsCacheable() {
+        return isCacheable;
+    }
+
+    void setIsCacheable(boolean isCacheable) {
+        this.isCacheable = isCacheable;
+    }
+
     public int getServiceType() {
         int ret = -1;
 
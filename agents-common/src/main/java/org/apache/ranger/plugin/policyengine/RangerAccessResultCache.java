@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceMatchingScope;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of access decisions made by the policy engine, keyed by the attributes of the request that determine the decision:
+ * user, groups, roles, access-type, resource, resource-owner, matching-scope, zones and tags.
+ *
+ * Only requests whose result does not depend on request context are cached: decisions that involved policies with
+ * conditions or validity-schedules, tags with validity-periods, GDS results or multiple access-types are not cached.
+ *
+ * All entries are invalidated when roles, tags or user-store used by the engine change; entries older than TTL are ignored.
+ */
+public class RangerAccessResultCache {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerAccessResultCache.class);
+
+    public static final int  DEFAULT_CACHE_SIZE   = 10000;
+    public static final long DEFAULT_CACHE_TTL_MS = 60 * 1000L;
+
+    private final ConcurrentCacheMap<Key, Entry> cache;
+    private final long                           ttlMs;
+    private final LongAdder                      hitCount          = new LongAdder();
+    private final LongAdder                      missCount         = new LongAdder();
+    private final LongAdder                      bypassCount       = new LongAdder();
+    private final LongAdder                      invalidationCount = new LongAdder();
+    private volatile long                        generation;
+    private volatile long                        roleVersion       = -1;
+    private volatile long                        tagVersion        = -1;
+    private volatile long                        userStoreVersion  = -1;
+
+    public RangerAccessResultCache(int cacheSize, long ttlMs) {
+        this.cache = new ConcurrentCacheMap<>(cacheSize);
+        this.ttlMs = ttlMs;
+    }
+
+    public int getCapacity() {
+        return cache.getCapacity();
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getBypassCount() {
+        return bypassCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits  = getHitCount();
+        long total = hits + getMissCount();
+
+        return total > 0 ? ((double) hits / total) : 0;
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            generation++;
+
+            cache.clear();
+        }
+
+        invalidationCount.increment();
+
+        LOG.debug("RangerAccessResultCache.invalidateAll(): {}", this);
+    }
+
+    @Override
+    public String toString() {
+        return "RangerAccessResultCache={capacity=" + getCapacity() + ", ttlMs=" + ttlMs + ", size=" + getSize() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount() +
+                ", hitRate=" + getHitRate() + ", bypassCount=" + getBypassCount() + ", evictionCount=" + getEvictionCount() + ", invalidationCount=" + getInvalidationCount() + "}";
+    }
+
+    /*
+     * Invalidates the cache if any of the given versions differs from the one seen earlier. Must be called before the request
+     * is enriched, with the value returned used in subsequent calls to get()/put() for the request.
+     */
+    long checkVersions(long roleVersion, long tagVersion, long userStoreVersion) {
+        if (roleVersion != this.roleVersion || tagVersion != this.tagVersion || userStoreVersion != this.userStoreVersion) {
+            synchronized (this) {
+                if (roleVersion != this.roleVersion || tagVersion != this.tagVersion || userStoreVersion != this.userStoreVersion) {
+                    LOG.debug("RangerAccessResultCache.checkVersions(): roleVersion={}, tagVersion={}, userStoreVersion={}; earlier roleVersion={}, tagVersion={}, userStoreVersion={}",
+                            roleVersion, tagVersion, userStoreVersion, this.roleVersion, this.tagVersion, this.userStoreVersion);
+
+                    this.roleVersion      = roleVersion;
+                    this.tagVersion       = tagVersion;
+                    this.userStoreVersion = userStoreVersion;
+
+                    invalidateAll();
+                }
+            }
+        }
+
+        return generation;
+    }
+
+    /*
+     * Returns the key to lookup the given request, or null if the result for the request can't be cached.
+     * Must be called after the request is enriched, since the key includes roles, zones and tags from the request context.
+     */
+    Key getKey(RangerAccessRequest request) {
+        final Key ret;
+
+        if (isCacheable(request)) {
+            Map<String, Object>  context     = request.getContext();
+            RangerAccessResource resource    = request.getResource();
+            String               resourceKey = resource.getCacheKey();
+
+            if (resourceKey == null) { // resource without serviceDef or elements
+                resourceKey = String.valueOf(resource.getAsMap());
+            }
+
+            ret = new Key(request.getUser(), request.getUserGroups(), RangerAccessRequestUtil.getUserRoles(request), request.getAccessType(), resourceKey,
+                          resource.getOwnerUser(), request.getResourceMatchingScope(), RangerAccessRequestUtil.getResourceZoneNamesFromContext(context), RangerAccessRequestUtil.getRequestTagsFromContext(context));
+        } else {
+            ret = null;
+
+            bypassCount.increment();
+        }
+
+        return ret;
+    }
+
+    RangerAccessResult get(Key key, long generation, RangerAccessRequest request) {
+        Entry              entry = cache.get(key);
+        RangerAccessResult ret   = null;
+
+        if (entry != null && entry.generation == generation && generation == this.generation && !isExpired(entry)) {
+            ret = new RangerAccessResult(entry.result.getPolicyType(), entry.result.getServiceName(), entry.result.getServiceDef(), request);
+
+            ret.setAccessResultFrom(entry.result);
+            ret.setAuditResultFrom(entry.result);
+
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+
+        return ret;
+    }
+
+    void put(Key key, long generation, RangerAccessResult result) {
+        if (result.getIsCacheable() && result.getIsAccessDetermined() && generation == this.generation) {
+            // store a copy without reference to the request; key is copied as well, since sets in the request could be modified by the caller
+            RangerAccessResult copy = new RangerAccessResult(result.getPolicyType(), result.getServiceName(), result.getServiceDef(), null);
+
+            copy.setAccessResultFrom(result);
+            copy.setAuditResultFrom(result);
+
+            cache.put(key.copy(), new Entry(copy, generation, System.currentTimeMillis()));
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMs > 0 && (System.currentTimeMillis() - entry.createTime) > ttlMs;
+    }
+
+    private static boolean isCacheable(RangerAccessRequest request) {
+        Map<String, Object> context = request.getContext();
+        boolean             ret     = request.getResource() != null && context != null && !request.isAccessTypeAny() && MapUtils.isEmpty(request.getResourceElementMatchingScopes());
+
+        if (ret) {
+            // requests for multiple access-types update per-access-type results in the request context, hence are not cached
+            Set<String> allRequestedAccessTypes = RangerAccessRequestUtil.getAllRequestedAccessTypes(request);
+
+            ret = allRequestedAccessTypes.size() == 1 && allRequestedAccessTypes.contains(request.getAccessType()) &&
+                    RangerAccessRequestUtil.getAllRequestedAccessTypeGroups(request) == null &&
+                    RangerAccessRequestUtil.getIgnoreIfNotDeniedAccessTypes(request).isEmpty();
+        }
+
+        if (ret) {
+            ret = RangerAccessRequestUtil.getGdsResultFromContext(context) == null;
+        }
+
+        if (ret) {
+            Set<RangerTagForEval> tags = RangerAccessRequestUtil.getRequestTagsFromContext(context);
+
+            if (tags != null) {
+                for (RangerTagForEval tag : tags) {
+                    if (CollectionUtils.isNotEmpty(tag.getValidityPeriods()) || MapUtils.isNotEmpty(tag.getOptions())) {
+                        ret = false;
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    static final class Key {
+        private final String                user;
+        private final Set<String>           userGroups;
+        private final Set<String>           userRoles;
+        private final String                accessType;
+        private final String                resource;
+        private final String                resourceOwner;
+        private final ResourceMatchingScope matchingScope;
+        private final Set<String>           zoneNames;
+        private final Set<RangerTagForEval> tags;
+        private final int                   hashCode;
+
+        Key(String user, Set<String> userGroups, Set<String> userRoles, String accessType, String resource, String resourceOwner, ResourceMatchingScope matchingScope, Set<String> zoneNames, Set<RangerTagForEval> tags) {
+            this.user          = user;
+            this.userGroups    = userGroups != null ? userGroups : Collections.emptySet();
+            this.userRoles     = userRoles != null ? userRoles : Collections.emptySet();
+            this.accessType    = accessType;
+            this.resource      = resource;
+            this.resourceOwner = resourceOwner;
+            this.matchingScope = matchingScope;
+            this.zoneNames     = zoneNames != null ? zoneNames : Collections.emptySet();
+            this.tags          = tags != null ? tags : Collections.emptySet();
+            this.hashCode      = Objects.hash(user, this.userGroups, this.userRoles, accessType, resource, resourceOwner, matchingScope, this.zoneNames, this.tags);
+        }
+
+        Key copy() {
+            return new Key(user, new HashSet<>(userGroups), new HashSet<>(userRoles), accessType, resource, resourceOwner, matchingScope, new HashSet<>(zoneNames), new HashSet<>(tags));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return hashCode == other.hashCode &&
+                    Objects.equals(user, other.user) &&
+                    Objects.equals(accessType, other.accessType) &&
+                    Objects.equals(resource, other.resource) &&
+                    Objects.equals(resourceOwner, other.resourceOwner) &&
+                    matchingScope == other.matchingScope &&
+                    userGroups.equals(other.userGroups) &&
+                    userRoles.equals(other.userRoles) &&
+                    zoneNames.equals(other.zoneNames) &&
+                    tags.equals(other.tags);
+        }
+    }
+
+    private static final class Entry {
+        final RangerAccessResult result;
+        final long               generation;
+        final long               createTime;
+
+        Entry(RangerAccessResult result, long generation, long createTime) {
+            this.result     = result;
+            this.generation = generation;
+            this.createTime = createTime;
+        }
+    }
+}
@@ -32,6 +32,7 @@
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class RangerPluginContext {
@@ -43,6 +44,7 @@ public class RangerPluginContext {
     private       RangerAuthContext                                                          authContext;
     private       RangerAuthContextListener                                                  authContextListener;
     private       RangerAdminClient                                                          adminClient;
+    private volatile ForkJoinPool                                                            batchEvaluationPool;
 
     public RangerPluginContext(RangerPluginConfig config) {
         this.config = config;
@@ -119,6 +121,44 @@ public void notifyAuthContextChanged() {
         }
     }
 
+    /*
+     * Returns the pool used to evaluate large batches of requests in parallel; created on first call and shared by all
+     * policy-engines of the plugin.
+     */
+    public ForkJoinPool getBatchEvaluationPool(int parallelism) {
+        ForkJoinPool ret = batchEvaluationPool;
+
+        if (ret == null) {
+            synchronized (this) {
+                ret = batchEvaluationPool;
+
+                if (ret == null) {
+                    ret = new ForkJoinPool(parallelism);
+
+                    batchEvaluationPool = ret;
+
+                    LOG.info("Created batch-evaluation pool: parallelism={}", parallelism);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public void shutdownBatchEvaluationPool() {
+        ForkJoinPool pool;
+
+        synchronized (this) {
+            pool = batchEvaluationPool;
+
+            batchEvaluationPool = null;
+        }
+
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     public RangerAdminClient getAdminClient() {
         return adminClient;
     }
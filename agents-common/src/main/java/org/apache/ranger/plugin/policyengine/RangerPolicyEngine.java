@@ -75,6 +75,10 @@ public interface RangerPolicyEngine {
 
     RangerResourceACLs getResourceACLs(RangerAccessRequest request, Integer requestedPolicyType);
 
+    boolean isAccessAllowedOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups);
+
+    boolean hasValidityScheduleForResourceType(String resourceName);
+
     Set<String> getRolesFromUserAndGroups(String user, Set<String> groups);
 
     RangerRoles getRangerRoles();
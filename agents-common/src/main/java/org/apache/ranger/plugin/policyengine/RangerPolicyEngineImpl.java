@@ -25,13 +25,20 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
+import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
 import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
+import org.apache.ranger.plugin.contextenricher.RangerUserStoreEnricher;
 import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
 import org.apache.ranger.plugin.policyengine.gds.GdsAccessResult;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator.RangerPolicyResourceEvaluator;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyItemEvaluator;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher.MatchType;
+import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
 import org.apache.ranger.plugin.service.RangerDefaultRequestProcessor;
 import org.apache.ranger.plugin.util.GrantRevokeRequest;
 import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
@@ -44,14 +51,19 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static org.apache.ranger.plugin.policyengine.PolicyEvaluatorForTag.MATCH_TYPE_COMPARATOR;
@@ -63,9 +75,17 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
     private static final Logger PERF_POLICYENGINE_AUDIT_LOG    = RangerPerfTracer.getPerfLogger("policyengine.audit");
     private static final Logger PERF_POLICYENGINE_GET_ACLS_LOG = RangerPerfTracer.getPerfLogger("policyengine.getResourceACLs");
 
+    public static final int DEFAULT_BATCH_EVALUATION_MIN_SIZE = 100;
+
+    private static final int MIN_REQUESTS_PER_BATCH_TASK = 16;
+    private static final int BATCH_TASKS_PER_THREAD      = 4;
+
     private final PolicyEngine                 policyEngine;
     private final RangerAccessRequestProcessor requestProcessor;
     private final ServiceConfig                serviceConfig;
+    private final RangerAccessResultCache      accessResultCache;
+    private final int                          batchEvaluationParallelism;
+    private final int                          batchEvaluationMinSize;
 
     public RangerPolicyEngineImpl(ServicePolicies servicePolicies, RangerPluginContext pluginContext, RangerRoles roles) {
         final boolean isUseReadWriteLock;
@@ -80,15 +100,28 @@ public RangerPolicyEngineImpl(ServicePolicies servicePolicies, RangerPluginConte
             isUseReadWriteLock = false;
         }
 
-        policyEngine     = new PolicyEngine(servicePolicies, pluginContext, roles, isUseReadWriteLock);
-        serviceConfig    = new ServiceConfig(servicePolicies.getServiceConfig());
-        requestProcessor = new RangerDefaultRequestProcessor(policyEngine);
+        policyEngine      = new PolicyEngine(servicePolicies, pluginContext, roles, isUseReadWriteLock);
+        serviceConfig     = new ServiceConfig(servicePolicies.getServiceConfig());
+        requestProcessor  = new RangerDefaultRequestProcessor(policyEngine);
+        accessResultCache = createAccessResultCache(pluginContext);
+
+        if (config != null) {
+            batchEvaluationParallelism = config.getInt(pluginContext.getConfig().getPropertyPrefix() + ".policyengine.batch.evaluation.parallelism", 0);
+            batchEvaluationMinSize     = config.getInt(pluginContext.getConfig().getPropertyPrefix() + ".policyengine.batch.evaluation.min.size", DEFAULT_BATCH_EVALUATION_MIN_SIZE);
+        } else {
+            batchEvaluationParallelism = 0;
+            batchEvaluationMinSize     = DEFAULT_BATCH_EVALUATION_MIN_SIZE;
+        }
     }
 
     private RangerPolicyEngineImpl(final PolicyEngine policyEngine, RangerPolicyEngineImpl other) {
-        this.policyEngine     = policyEngine;
-        this.requestProcessor = new RangerDefaultRequestProcessor(policyEngine);
-        this.serviceConfig    = new ServiceConfig(other.serviceConfig);
+        this.policyEngine      = policyEngine;
+        this.requestProcessor  = new RangerDefaultRequestProcessor(policyEngine);
+        this.serviceConfig     = new ServiceConfig(other.serviceConfig);
+        this.accessResultCache = other.accessResultCache != null ? new RangerAccessResultCache(other.accessResultCache.getCapacity(), other.accessResultCache.getTtlMs()) : null;
+
+        this.batchEvaluationParallelism = other.batchEvaluationParallelism;
+        this.batchEvaluationMinSize     = other.batchEvaluationMinSize;
     }
 
     public static RangerPolicyEngine getPolicyEngine(final RangerPolicyEngineImpl other, final ServicePolicies servicePolicies) {
@@ -99,6 +132,10 @@ public static RangerPolicyEngine getPolicyEngine(final RangerPolicyEngineImpl ot
 
             if (policyEngine != null) {
                 if (policyEngine == other.policyEngine) {
+                    if (other.accessResultCache != null) { // policies were updated in place
+                        other.accessResultCache.invalidateAll();
+                    }
+
                     ret = other;
                 } else {
                     ret = new RangerPolicyEngineImpl(policyEngine, other);
@@ -191,6 +228,10 @@ public void setRoles(RangerRoles roles) {
             }
 
             policyEngine.setRoles(roles);
+
+            if (accessResultCache != null) {
+                accessResultCache.invalidateAll();
+            }
         }
     }
 
@@ -215,9 +256,7 @@ public RangerAccessResult evaluatePolicies(RangerAccessRequest request, int poli
                 LOG.debug("Acquired lock - {}", readLock);
             }
 
-            requestProcessor.preProcess(request);
-
-            ret = zoneAwareAccessEvaluationWithNoAudit(request, policyType);
+            ret = preProcessAndEvaluateWithNoAudit(request, policyType);
 
             if (resultProcessor != null) {
                 RangerPerfTracer perfAuditTracer = null;
@@ -253,12 +292,14 @@ public Collection<RangerAccessResult> evaluatePolicies(Collection<RangerAccessRe
             }
 
             if (requests != null) {
-                for (RangerAccessRequest request : requests) {
-                    requestProcessor.preProcess(request);
-
-                    RangerAccessResult result = zoneAwareAccessEvaluationWithNoAudit(request, policyType);
+                if (batchEvaluationParallelism > 1 && requests.size() >= batchEvaluationMinSize && policyEngine.getPluginContext() != null) {
+                    ret = evaluatePoliciesInParallel(requests, policyType);
+                } else {
+                    for (RangerAccessRequest request : requests) {
+                        RangerAccessResult result = preProcessAndEvaluateWithNoAudit(request, policyType);
 
-                    ret.add(result);
+                        ret.add(result);
+                    }
                 }
             }
 
@@ -399,6 +440,114 @@ public RangerResourceACLs getResourceACLs(RangerAccessRequest request, Integer r
         return ret;
     }
 
+    /*
+     * Returns true if an access policy allows the user to perform the given access on at least one resource of the given type,
+     * for example: allows 'describe' on a topic. Only policies that can be evaluated without a request are considered, i.e.
+     * policies/items with conditions and policies outside their validity schedule don't allow the access. A deny is honored
+     * only if it applies to all resources of the given type, and only if it has priority not lower than the allow.
+     */
+    @Override
+    public boolean isAccessAllowedOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups) {
+        LOG.debug("==> RangerPolicyEngineImpl.isAccessAllowedOnAnyResource(resourceName={}, accessType={}, user={}, userGroups={})", resourceName, accessType, user, userGroups);
+
+        boolean          ret  = false;
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_POLICYENGINE_REQUEST_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_POLICYENGINE_REQUEST_LOG, "RangerPolicyEngine.isAccessAllowedOnAnyResource(resourceName=" + resourceName + ",accessType=" + accessType + ",user=" + user + ")");
+        }
+
+        try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+            if (readLock.isLockingEnabled()) {
+                LOG.debug("Acquired lock - {}", readLock);
+            }
+
+            if (isSuperUser(user, userGroups)) {
+                ret = true;
+            } else {
+                Set<String>                  roles         = policyEngine.getPluginContext().getAuthContext().getRolesForUserAndGroups(user, userGroups);
+                Date                         accessTime    = new Date();
+                Integer                      allowPriority = null;
+                Integer                      denyPriority  = null;
+                List<RangerPolicyRepository> repositories  = new ArrayList<>();
+
+                repositories.add(policyEngine.getPolicyRepository());
+
+                if (policyEngine.getZonePolicyRepositories() != null) {
+                    repositories.addAll(policyEngine.getZonePolicyRepositories().values());
+                }
+
+                for (RangerPolicyRepository repository : repositories) {
+                    for (RangerPolicyResourceEvaluator resourceEvaluator : repository.getPolicyResourceEvaluatorsForResourceType(resourceName)) {
+                        RangerPolicyEvaluator evaluator = resourceEvaluator.getPolicyEvaluator();
+
+                        if (evaluator == null || evaluator.getPolicyConditionsCount() > 0 || !evaluator.isApplicable(accessTime)) {
+                            continue;
+                        }
+
+                        int                       priority   = evaluator.getPolicyPriority();
+                        RangerPolicyItemEvaluator policyItem = evaluator.getDeterminingPolicyItem(user, userGroups, roles, null, accessType);
+                        final boolean             isAllow;
+                        final boolean             isDeny;
+
+                        if (policyItem != null) {
+                            isAllow = policyItem.getPolicyItemType() == RangerPolicyItemEvaluator.POLICY_ITEM_TYPE_ALLOW && CollectionUtils.isEmpty(policyItem.getConditionEvaluators());
+                            isDeny  = policyItem.getPolicyItemType() == RangerPolicyItemEvaluator.POLICY_ITEM_TYPE_DENY;
+                        } else {
+                            isAllow = false;
+                            isDeny  = evaluator.getPolicy().getIsDenyAllElse();
+                        }
+
+                        if (isAllow) {
+                            allowPriority = allowPriority == null ? priority : Math.max(allowPriority, priority);
+                        } else if (isDeny && isForAllResources(resourceEvaluator)) {
+                            denyPriority = denyPriority == null ? priority : Math.max(denyPriority, priority);
+                        }
+                    }
+                }
+
+                ret = allowPriority != null && (denyPriority == null || allowPriority > denyPriority);
+            }
+        }
+
+        RangerPerfTracer.log(perf);
+
+        LOG.debug("<== RangerPolicyEngineImpl.isAccessAllowedOnAnyResource(resourceName={}, accessType={}, user={}, userGroups={}): ret={}", resourceName, accessType, user, userGroups, ret);
+
+        return ret;
+    }
+
+    /*
+     * Returns true if result of isAccessAllowedOnAnyResource() for the given resource can change with time without a policy
+     * change, due to a validity schedule in a policy having the resource. Such results must not be cached.
+     */
+    @Override
+    public boolean hasValidityScheduleForResourceType(String resourceName) {
+        boolean ret = false;
+
+        try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+            if (readLock.isLockingEnabled()) {
+                LOG.debug("Acquired lock - {}", readLock);
+            }
+
+            ret = policyEngine.getPolicyRepository().hasPolicyWithValidityScheduleForResourceType(resourceName);
+
+            if (!ret && policyEngine.getZonePolicyRepositories() != null) {
+                for (RangerPolicyRepository repository : policyEngine.getZonePolicyRepositories().values()) {
+                    if (repository.hasPolicyWithValidityScheduleForResourceType(resourceName)) {
+                        ret = true;
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        LOG.debug("RangerPolicyEngineImpl.hasValidityScheduleForResourceType(resourceName={}): ret={}", resourceName, ret);
+
+        return ret;
+    }
+
     @Override
     public Set<String> getRolesFromUserAndGroups(String user, Set<String> groups) {
         Set<String> ret;
@@ -554,6 +703,142 @@ public RangerAccessRequestProcessor getRequestProcessor() {
         return requestProcessor;
     }
 
+    public RangerAccessResultCache getAccessResultCache() {
+        return accessResultCache;
+    }
+
+    /*
+     * Evaluates the requests in tasks run in the batch-evaluation pool of the plugin; must be called with read-lock held.
+     * Requests are grouped by resource, so that requests for the same resource are evaluated one after another by the same
+     * task - to benefit from caches keyed by resource, like in tag-enricher and access-result cache. Results are returned in
+     * the order of the requests, and audit is left to the caller - same as in the sequential path.
+     */
+    private List<RangerAccessResult> evaluatePoliciesInParallel(Collection<RangerAccessRequest> requests, int policyType) {
+        final RangerAccessRequest[] reqs     = requests.toArray(new RangerAccessRequest[0]);
+        final RangerAccessResult[]  results  = new RangerAccessResult[reqs.length];
+        final String[]              keys     = new String[reqs.length];
+        final Integer[]             order    = new Integer[reqs.length];
+        final int                   taskSize = Math.max(MIN_REQUESTS_PER_BATCH_TASK, (reqs.length + (batchEvaluationParallelism * BATCH_TASKS_PER_THREAD) - 1) / (batchEvaluationParallelism * BATCH_TASKS_PER_THREAD));
+
+        for (int i = 0; i < reqs.length; i++) {
+            RangerAccessResource resource = reqs[i].getResource();
+            String               key      = resource != null ? resource.getAsString() : "";
+
+            if (key == null) { // resource without serviceDef
+                key = String.valueOf(resource.getAsMap());
+            }
+
+            keys[i]  = key;
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparing(idx -> keys[idx])); // stable sort: requests for a resource stay in original order
+
+        ForkJoinPool          pool  = policyEngine.getPluginContext().getBatchEvaluationPool(batchEvaluationParallelism);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+        for (int start = 0; start < order.length; ) {
+            int end = Math.min(start + taskSize, order.length);
+
+            while (end < order.length && keys[order[end]].equals(keys[order[end - 1]])) { // don't split requests for a resource across tasks
+                end++;
+            }
+
+            final int taskStart = start;
+            final int taskEnd   = end;
+            Runnable  task      = () -> {
+                for (int i = taskStart; i < taskEnd; i++) {
+                    int idx = order[i];
+
+                    results[idx] = preProcessAndEvaluateWithNoAudit(reqs[idx], policyType);
+                }
+            };
+
+            try {
+                tasks.add(pool.submit(task));
+            } catch (RejectedExecutionException excp) { // pool shutdown, as the plugin is being cleaned up
+                LOG.debug("RangerPolicyEngineImpl.evaluatePoliciesInParallel(): batch-evaluation pool rejected the task; evaluating in the calling thread");
+
+                task.run();
+            }
+
+            start = end;
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        LOG.debug("RangerPolicyEngineImpl.evaluatePoliciesInParallel(): evaluated {} requests in {} tasks", reqs.length, tasks.size());
+
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private RangerAccessResult preProcessAndEvaluateWithNoAudit(RangerAccessRequest request, int policyType) {
+        final RangerAccessResultCache cache      = policyType == RangerPolicy.POLICY_TYPE_ACCESS ? accessResultCache : null;
+        final long                    generation = cache != null ? checkAccessResultCacheVersions(cache) : -1;
+
+        requestProcessor.preProcess(request);
+
+        RangerAccessResultCache.Key key = cache != null ? cache.getKey(request) : null;
+        RangerAccessResult          ret = key != null ? cache.get(key, generation, request) : null;
+
+        if (ret == null) {
+            ret = zoneAwareAccessEvaluationWithNoAudit(request, policyType);
+
+            if (key != null) {
+                cache.put(key, generation, ret);
+            }
+        } else {
+            LOG.debug("RangerPolicyEngineImpl.preProcessAndEvaluateWithNoAudit({}, policyType={}): found result in cache: {}", request, policyType, ret);
+        }
+
+        return ret;
+    }
+
+    private long checkAccessResultCacheVersions(RangerAccessResultCache cache) {
+        long tagVersion       = -1;
+        long userStoreVersion = -1;
+
+        for (RangerContextEnricher enricher : policyEngine.getAllContextEnrichers()) {
+            if (enricher instanceof RangerTagEnricher) {
+                Long version = ((RangerTagEnricher) enricher).getServiceTagsVersion();
+
+                tagVersion = version != null ? version : -1;
+            } else if (enricher instanceof RangerUserStoreEnricher) {
+                Long version = ((RangerUserStoreEnricher) enricher).getUserStoreVersion();
+
+                userStoreVersion = version != null ? version : -1;
+            }
+        }
+
+        return cache.checkVersions(policyEngine.getRoleVersion(), tagVersion, userStoreVersion);
+    }
+
+    private RangerAccessResultCache createAccessResultCache(RangerPluginContext pluginContext) {
+        RangerPluginConfig        config  = pluginContext != null ? pluginContext.getConfig() : null;
+        RangerPolicyEngineOptions options = config != null ? config.getPolicyEngineOptions() : null;
+
+        final RangerAccessResultCache ret;
+
+        if (options != null && options.cacheAccessResults) {
+            int  cacheSize = config.getInt(config.getPropertyPrefix() + ".policyengine.access.result.cache.size", RangerAccessResultCache.DEFAULT_CACHE_SIZE);
+            long cacheTtl  = config.getLong(config.getPropertyPrefix() + ".policyengine.access.result.cache.ttl.ms", RangerAccessResultCache.DEFAULT_CACHE_TTL_MS);
+
+            ret = new RangerAccessResultCache(cacheSize, cacheTtl);
+
+            LOG.info("RangerPolicyEngineImpl: access-result cache enabled, size={}, ttlMs={}", cacheSize, cacheTtl);
+        } else {
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    private boolean isContextSensitive(RangerPolicyEvaluator evaluator) {
+        return evaluator.getPolicyConditionsCount() > 0 || evaluator.getCustomConditionsCount() > 0 || evaluator.getValidityScheduleEvaluatorsCount() > 0;
+    }
+
     private RangerAccessResult zoneAwareAccessEvaluationWithNoAudit(RangerAccessRequest request, int policyType) {
         LOG.debug("==> RangerPolicyEngineImpl.zoneAwareAccessEvaluationWithNoAudit({}, policyType={})", request, policyType);
 
@@ -572,6 +857,8 @@ private RangerAccessResult zoneAwareAccessEvaluationWithNoAudit(RangerAccessRequ
             ret.setZoneName(null);
         } else if (zoneNames.size() == 1 || request.isAccessTypeAny()) {
             // Evaluate zone specific policies
+            boolean isCacheable = true;
+
             for (String zoneName : zoneNames) {
                 RangerPolicyRepository policyRepository = policyEngine.getRepositoryForZone(zoneName);
 
@@ -579,6 +866,9 @@ private RangerAccessResult zoneAwareAccessEvaluationWithNoAudit(RangerAccessRequ
 
                 ret.setZoneName(zoneName);
 
+                isCacheable = isCacheable && ret.getIsCacheable(); // result depends on evaluation in earlier zones as well
+                ret.setIsCacheable(isCacheable);
+
                 if (ret.getIsAllowed()) {
                     LOG.debug("Zone:[{}] allowed access. Completed processing other zones", zoneName);
 
@@ -674,6 +964,11 @@ private RangerAccessResult evaluatePoliciesForOneAccessTypeNoAudit(RangerAccessR
             }
         }
 
+        if (ret.getIsCacheable() && tagPolicyRepository != null && tagPolicyRepository.hasPolicyWithValiditySchedule() &&
+                CollectionUtils.isNotEmpty(RangerAccessRequestUtil.getRequestTagsFromContext(request.getContext()))) {
+            ret.setIsCacheable(false); // tag policies that are not applicable at access-time are excluded by getLikelyMatchPolicyEvaluators()
+        }
+
         boolean isAllowedByTags          = ret.getIsAccessDetermined() && ret.getIsAllowed();
         boolean isDeniedByTags           = ret.getIsAccessDetermined() && !ret.getIsAllowed();
         boolean evaluateResourcePolicies = policyEngine.hasResourcePolicies(policyRepository);
@@ -687,6 +982,10 @@ private RangerAccessResult evaluatePoliciesForOneAccessTypeNoAudit(RangerAccessR
             List<RangerPolicyEvaluator> evaluators = policyRepository.getLikelyMatchPolicyEvaluators(request, policyType);
 
             for (RangerPolicyEvaluator evaluator : evaluators) {
+                if (ret.getIsCacheable() && isContextSensitive(evaluator)) {
+                    ret.setIsCacheable(false);
+                }
+
                 if (!evaluator.isApplicable(accessTime)) {
                     continue;
                 }
@@ -782,6 +1081,10 @@ private void evaluateTagPolicies(final RangerAccessRequest request, int policyTy
                     }
                 }
 
+                if (result.getIsCacheable() && isContextSensitive(evaluator)) {
+                    result.setIsCacheable(false);
+                }
+
                 RangerTagForEval    tag            = policyEvaluator.getTag();
                 RangerAccessRequest tagEvalRequest = new RangerTagAccessRequest(tag, tagPolicyRepository.getServiceDef(), request);
                 RangerAccessResult  tagEvalResult  = createAccessResult(tagEvalRequest, policyType);
@@ -876,6 +1179,20 @@ private boolean isAuditExcludedUser(String userName, Set<String> userGroups, Set
         return ret;
     }
 
+    private static boolean isForAllResources(RangerPolicyResourceEvaluator resourceEvaluator) {
+        boolean ret = true;
+
+        for (RangerPolicyResource policyResource : resourceEvaluator.getPolicyResource().values()) {
+            if (policyResource == null || policyResource.getIsExcludes() || policyResource.getValues() == null || !policyResource.getValues().contains(RangerAbstractResourceMatcher.WILDCARD_ASTERISK)) {
+                ret = false;
+
+                break;
+            }
+        }
+
+        return ret;
+    }
+
     private boolean isSuperUser(String userName, Set<String> userGroups) {
         boolean ret = serviceConfig.isSuperUser(userName);
 
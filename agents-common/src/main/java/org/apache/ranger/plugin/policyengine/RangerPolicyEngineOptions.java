@@ -34,6 +34,8 @@ public class RangerPolicyEngineOptions {
     public boolean disableUserStoreRetriever;
     public boolean disableGdsInfoRetriever;
     public boolean cacheAuditResults                           = true;
+    public boolean useConcurrentAuditResultCache               = true;
+    public boolean cacheAccessResults;
     public boolean evaluateDelegateAdminOnly;
     public boolean enableTagEnricherWithLocalRefresher;
     public boolean enableUserStoreEnricherWithLocalRefresher;
@@ -45,6 +47,8 @@ public class RangerPolicyEngineOptions {
     public boolean optimizeTrieForSpace;
     public boolean optimizeTagTrieForRetrieval;
     public boolean optimizeTagTrieForSpace;
+    public boolean compactTrieNodes;
+    public boolean compactTagTrieNodes;
 
     private RangerServiceDefHelper serviceDefHelper;
 
@@ -61,6 +65,8 @@ public RangerPolicyEngineOptions(final RangerPolicyEngineOptions other) {
         this.disableUserStoreRetriever                 = other.disableUserStoreRetriever;
         this.disableGdsInfoRetriever                   = other.disableGdsInfoRetriever;
         this.cacheAuditResults                         = other.cacheAuditResults;
+        this.useConcurrentAuditResultCache             = other.useConcurrentAuditResultCache;
+        this.cacheAccessResults                        = other.cacheAccessResults;
         this.evaluateDelegateAdminOnly                 = other.evaluateDelegateAdminOnly;
         this.enableTagEnricherWithLocalRefresher       = other.enableTagEnricherWithLocalRefresher;
         this.enableUserStoreEnricherWithLocalRefresher = other.enableUserStoreEnricherWithLocalRefresher;
@@ -71,6 +77,8 @@ public RangerPolicyEngineOptions(final RangerPolicyEngineOptions other) {
         this.optimizeTrieForSpace                      = other.optimizeTrieForSpace;
         this.optimizeTagTrieForRetrieval               = other.optimizeTagTrieForRetrieval;
         this.optimizeTagTrieForSpace                   = other.optimizeTagTrieForSpace;
+        this.compactTrieNodes                          = other.compactTrieNodes;
+        this.compactTagTrieNodes                       = other.compactTagTrieNodes;
     }
 
     public RangerPolicyEngineOptions(final RangerPolicyEngineOptions other, RangerServiceDefHelper serviceDefHelper) {
@@ -92,6 +100,9 @@ public void configureForPlugin(Configuration conf, String propertyPrefix) {
         cacheAuditResults          = conf.getBoolean(propertyPrefix + ".policyengine.option.cache.audit.results", true);
         enableResourceMatcherReuse = conf.getBoolean(propertyPrefix + ".policyengine.option.enable.resourcematcher.reuse", true);
 
+        useConcurrentAuditResultCache = conf.getBoolean(propertyPrefix + ".policyengine.option.use.concurrent.audit.result.cache", true);
+        cacheAccessResults            = conf.getBoolean(propertyPrefix + ".policyengine.option.cache.access.results", false);
+
         if (!disableTrieLookupPrefilter) {
             cacheAuditResults = false;
         }
@@ -103,6 +114,8 @@ public void configureForPlugin(Configuration conf, String propertyPrefix) {
         optimizeTrieForSpace                      = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.trie.for.space", false);
         optimizeTagTrieForRetrieval               = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.tag.trie.for.retrieval", false);
         optimizeTagTrieForSpace                   = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.tag.trie.for.space", false);
+        compactTrieNodes                          = conf.getBoolean(propertyPrefix + ".policyengine.option.compact.trie.nodes", false);
+        compactTagTrieNodes                       = conf.getBoolean(propertyPrefix + ".policyengine.option.compact.tag.trie.nodes", false);
     }
 
     public void configureDefaultRangerAdmin(Configuration conf, String propertyPrefix) {
@@ -161,6 +174,8 @@ public void configureRangerAdminForPolicySearch(Configuration conf, String prope
         optimizeTrieForSpace        = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.trie.for.space", false);
         optimizeTagTrieForRetrieval = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.tag.trie.for.retrieval", false);
         optimizeTagTrieForSpace     = conf.getBoolean(propertyPrefix + ".policyengine.option.optimize.tag.trie.for.space", true);
+        compactTrieNodes            = conf.getBoolean(propertyPrefix + ".policyengine.option.compact.trie.nodes", false);
+        compactTagTrieNodes         = conf.getBoolean(propertyPrefix + ".policyengine.option.compact.tag.trie.nodes", false);
         enableResourceMatcherReuse  = conf.getBoolean(propertyPrefix + ".policyengine.option.enable.resourcematcher.reuse", true);
     }
 
@@ -216,6 +231,14 @@ public int hashCode() {
         ret *= 2;
         ret += enableResourceMatcherReuse ? 1 : 0;
         ret *= 2;
+        ret += compactTrieNodes ? 1 : 0;
+        ret *= 2;
+        ret += compactTagTrieNodes ? 1 : 0;
+        ret *= 2;
+        ret += useConcurrentAuditResultCache ? 1 : 0;
+        ret *= 2;
+        ret += cacheAccessResults ? 1 : 0;
+        ret *= 2;
         return ret;
     }
 
@@ -241,7 +264,11 @@ public boolean equals(Object other) {
                     && this.optimizeTrieForSpace == that.optimizeTrieForSpace
                     && this.optimizeTagTrieForRetrieval == that.optimizeTagTrieForRetrieval
                     && this.optimizeTagTrieForSpace == that.optimizeTagTrieForSpace
-                    && this.enableResourceMatcherReuse == that.enableResourceMatcherReuse;
+                    && this.enableResourceMatcherReuse == that.enableResourceMatcherReuse
+                    && this.compactTrieNodes == that.compactTrieNodes
+                    && this.compactTagTrieNodes == that.compactTagTrieNodes
+                    && this.useConcurrentAuditResultCache == that.useConcurrentAuditResultCache
+                    && this.cacheAccessResults == that.cacheAccessResults;
         }
         return ret;
     }
@@ -263,11 +290,15 @@ public String toString() {
                 ", disableTrieLookupPrefilter: " + disableTrieLookupPrefilter +
                 ", optimizeTrieForRetrieval: " + optimizeTrieForRetrieval +
                 ", cacheAuditResult: " + cacheAuditResults +
+                ", useConcurrentAuditResultCache: " + useConcurrentAuditResultCache +
+                ", cacheAccessResults: " + cacheAccessResults +
                 ", disableRoleResolution: " + disableRoleResolution +
                 ", optimizeTrieForSpace: " + optimizeTrieForSpace +
                 ", optimizeTagTrieForRetrieval: " + optimizeTagTrieForRetrieval +
                 ", optimizeTagTrieForSpace: " + optimizeTagTrieForSpace +
                 ", enableResourceMatcherReuse: " + enableResourceMatcherReuse +
+                ", compactTrieNodes: " + compactTrieNodes +
+                ", compactTagTrieNodes: " + compactTagTrieNodes +
                 " }";
     }
 }
@@ -38,6 +38,7 @@
 import org.apache.ranger.plugin.model.RangerPolicyDelta;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
 import org.apache.ranger.plugin.policyevaluator.RangerAbstractPolicyEvaluator;
 import org.apache.ranger.plugin.policyevaluator.RangerAuditPolicyEvaluator;
 import org.apache.ranger.plugin.policyevaluator.RangerCachedPolicyEvaluator;
@@ -62,6 +63,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.ranger.plugin.contextenricher.RangerGdsEnricher.RETRIEVER_CLASSNAME_OPTION;
 import static org.apache.ranger.plugin.contextenricher.RangerTagEnricher.TAG_RETRIEVER_CLASSNAME_OPTION;
@@ -98,7 +100,10 @@ public class RangerPolicyRepository {
     private       List<RangerPolicyEvaluator>                                    rowFilterPolicyEvaluators;
     private       Map<Long, RangerPolicyEvaluator>                               policyEvaluatorsMap;
     private       boolean                                                        isContextEnrichersShared;
+    private       Boolean                                                        hasPolicyWithValiditySchedule;
     private       boolean                                                        isPreCleaned;
+    private final Map<String, List<RangerPolicyResourceEvaluator>>               resourceTypeEvaluators          = new ConcurrentHashMap<>();
+    private final Map<String, Boolean>                                           resourceTypeHasValiditySchedule = new ConcurrentHashMap<>();
 
     RangerPolicyRepository(final RangerPolicyRepository other, final List<RangerPolicyDelta> deltas, long policyVersion) {
         this.serviceName               = other.serviceName;
@@ -158,9 +163,7 @@ public class RangerPolicyRepository {
         }
 
         if (other.accessAuditCache != null) {
-            int auditResultCacheSize = other.accessAuditCache.size();
-
-            this.accessAuditCache = Collections.synchronizedMap(new CacheMap<>(auditResultCacheSize));
+            this.accessAuditCache = createAccessAuditCache();
         } else {
             this.accessAuditCache = null;
         }
@@ -215,12 +218,8 @@ public RangerPolicyRepository(ServicePolicies servicePolicies, RangerPluginConte
         }
 
         if (auditModeEnum == AuditModeEnum.AUDIT_DEFAULT) {
-            String propertyName = "ranger.plugin." + serviceName + ".policyengine.auditcachesize";
-
             if (options.cacheAuditResults) {
-                int auditResultCacheSize = pluginContext.getConfig().getInt(propertyName, RANGER_POLICYENGINE_AUDITRESULT_CACHE_SIZE);
-
-                accessAuditCache = Collections.synchronizedMap(new CacheMap<>(auditResultCacheSize));
+                accessAuditCache = createAccessAuditCache();
             } else {
                 accessAuditCache = null;
             }
@@ -405,6 +404,94 @@ public int getPolicyEvaluatorCount() {
         return policyEvaluators.size();
     }
 
+    boolean hasPolicyWithValiditySchedule() {
+        Boolean ret = hasPolicyWithValiditySchedule;
+
+        if (ret == null) {
+            ret = false;
+
+            for (RangerPolicyEvaluator evaluator : policyEvaluators) {
+                if (evaluator.getValidityScheduleEvaluatorsCount() > 0) {
+                    ret = true;
+
+                    break;
+                }
+            }
+
+            hasPolicyWithValiditySchedule = ret;
+        }
+
+        return ret;
+    }
+
+    /*
+     * Returns resource-evaluators of access policies that have the given resource, like "topic" or "consumergroup", irrespective
+     * of the resource values. Evaluators are collected by walking the resource-trie for the resource, once per policy version.
+     */
+    List<RangerPolicyResourceEvaluator> getPolicyResourceEvaluatorsForResourceType(String resourceName) {
+        List<RangerPolicyResourceEvaluator> ret = resourceTypeEvaluators.get(resourceName);
+
+        if (ret == null) {
+            final Collection<RangerPolicyResourceEvaluator> evaluators;
+
+            if (policyResourceTrie != null) {
+                RangerResourceTrie<RangerPolicyResourceEvaluator> trie = policyResourceTrie.get(resourceName);
+
+                evaluators = trie != null ? trie.getEvaluatorsForResource("", ResourceElementMatchingScope.SELF_OR_PREFIX) : null;
+            } else {
+                evaluators = new ArrayList<>();
+
+                for (RangerPolicyEvaluator policyEvaluator : policyEvaluators) {
+                    evaluators.addAll(policyEvaluator.getResourceEvaluators());
+                }
+            }
+
+            ret = new ArrayList<>();
+
+            if (evaluators != null) {
+                for (RangerPolicyResourceEvaluator evaluator : evaluators) {
+                    Map<String, RangerPolicyResource> policyResource = evaluator.getPolicyResource();
+
+                    if (policyResource != null && policyResource.containsKey(resourceName)) {
+                        ret.add(evaluator);
+                    }
+                }
+            }
+
+            resourceTypeEvaluators.put(resourceName, ret);
+
+            LOG.debug("RangerPolicyRepository.getPolicyResourceEvaluatorsForResourceType({}): evaluatorCount={}", resourceName, ret.size());
+        }
+
+        return ret;
+    }
+
+    /*
+     * Returns true if an access policy having the given resource has a validity schedule; i.e. access on the resource-type
+     * can change with time, without a policy change.
+     */
+    boolean hasPolicyWithValidityScheduleForResourceType(String resourceName) {
+        Boolean ret = resourceTypeHasValiditySchedule.get(resourceName);
+
+        if (ret == null) {
+            ret = false;
+
+            for (RangerPolicyResourceEvaluator resourceEvaluator : getPolicyResourceEvaluatorsForResourceType(resourceName)) {
+                RangerPolicyEvaluator evaluator = resourceEvaluator.getPolicyEvaluator();
+
+                if (evaluator != null && evaluator.getValidityScheduleEvaluatorsCount() > 0) {
+                    ret = true;
+
+                    break;
+                }
+            }
+
+            resourceTypeHasValiditySchedule.put(resourceName, ret);
+        }
+
+        return ret;
+    }
+
     public int getDataMaskPolicyEvaluatorCount() {
         return dataMaskPolicyEvaluators.size();
     }
@@ -677,6 +764,11 @@ void reinit(List<RangerPolicyDelta> deltas) {
 
         updateResourceTrie(deltas);
 
+        hasPolicyWithValiditySchedule = null;
+
+        resourceTypeEvaluators.clear();
+        resourceTypeHasValiditySchedule.clear();
+
         if (StringUtils.isEmpty(zoneName) && CollectionUtils.isNotEmpty(this.policies)) {
             if (!isExistingPolicies) {
                 this.contextEnrichers = buildContextEnrichers(options);
@@ -686,6 +778,17 @@ void reinit(List<RangerPolicyDelta> deltas) {
         }
     }
 
+    private Map<String, AuditInfo> createAccessAuditCache() {
+        String propertyName         = "ranger.plugin." + serviceName + ".policyengine.auditcachesize";
+        int    auditResultCacheSize = pluginContext.getConfig().getInt(propertyName, RANGER_POLICYENGINE_AUDITRESULT_CACHE_SIZE);
+
+        if (options.useConcurrentAuditResultCache) {
+            return new ConcurrentCacheMap<>(auditResultCacheSize);
+        } else {
+            return Collections.synchronizedMap(new CacheMap<>(auditResultCacheSize));
+        }
+    }
+
     private List<RangerPolicyEvaluator> buildAuditPolicyEvaluators(Map<String, String> svcConfigs) {
         List<RangerPolicyEvaluator> ret     = Collections.emptyList();
         String                      jsonStr = svcConfigs != null ? svcConfigs.get(PLUGIN_AUDIT_FILTER) : null;
@@ -1212,7 +1315,7 @@ private Map<String, RangerResourceTrie<RangerPolicyResourceEvaluator>> createRes
             ret = new HashMap<>();
 
             for (RangerServiceDef.RangerResourceDef resourceDef : serviceDef.getResources()) {
-                ret.put(resourceDef.getName(), new RangerResourceTrie(resourceDef, evaluators, optimizeTrieForRetrieval, optimizeTrieForSpace, pluginContext));
+                ret.put(resourceDef.getName(), new RangerResourceTrie(resourceDef, evaluators, optimizeTrieForRetrieval, optimizeTrieForSpace, options.compactTrieNodes, pluginContext));
             }
         } else {
             ret = null;
@@ -1234,7 +1337,7 @@ private void updateTrie(Map<String, RangerResourceTrie<RangerPolicyResourceEvalu
                     LOG.warn("policyDeltaType is not for POLICY_CREATE and trie for resourceDef:[{}] was null! Should not have happened!!", resourceDefName);
                 }
 
-                trie = new RangerResourceTrie<>(resourceDef, new ArrayList<>(), options.optimizeTrieForRetrieval, options.optimizeTrieForSpace, pluginContext);
+                trie = new RangerResourceTrie<>(resourceDef, new ArrayList<>(), options.optimizeTrieForRetrieval, options.optimizeTrieForSpace, options.compactTrieNodes, pluginContext);
 
                 trieMap.put(resourceDefName, trie);
             }
@@ -35,6 +35,7 @@
 import org.slf4j.LoggerFactory;
 
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
@@ -148,7 +149,7 @@
 import static org.apache.ranger.plugin.util.RangerCommonConstants.SCRIPT_VAR_tag;
 import static org.apache.ranger.plugin.util.RangerCommonConstants.SCRIPT_VAR_tagAttr;
 
-public final class RangerRequestScriptEvaluator {
+public final class RangerRequestScriptEvaluator implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(RangerRequestScriptEvaluator.class);
 
     private static final Logger  PERF_POLICY_CONDITION_SCRIPT_TOJSON          = RangerPerfTracer.getPerfLogger("policy.condition.script.tojson");
@@ -203,6 +204,7 @@ public final class RangerRequestScriptEvaluator {
 
     private final RangerAccessRequest                 accessRequest;
     private final ScriptEngine                        scriptEngine;
+    private final RangerScriptCache                   scriptCache;
     private final Bindings                            bindings;
     private       boolean                             initDone;
     private       Map<String, String>                 userAttrs  = Collections.emptyMap();
@@ -219,9 +221,22 @@ public RangerRequestScriptEvaluator(RangerAccessRequest accessRequest, ScriptEng
     }
 
     public RangerRequestScriptEvaluator(RangerAccessRequest accessRequest, ScriptEngine scriptEngine, boolean enableJsonCtx) {
+        this(accessRequest, scriptEngine, null, enableJsonCtx);
+    }
+
+    /**
+     * Evaluates scripts compiled by the given cache, using Bindings borrowed from the cache; close() must be called
+     * after evaluation to return the Bindings.
+     */
+    public RangerRequestScriptEvaluator(RangerAccessRequest accessRequest, RangerScriptCache scriptCache, boolean enableJsonCtx) {
+        this(accessRequest, scriptCache.getScriptEngine(), scriptCache, enableJsonCtx);
+    }
+
+    private RangerRequestScriptEvaluator(RangerAccessRequest accessRequest, ScriptEngine scriptEngine, RangerScriptCache scriptCache, boolean enableJsonCtx) {
         this.accessRequest = accessRequest.getReadOnlyCopy();
         this.scriptEngine  = scriptEngine;
-        this.bindings      = scriptEngine.createBindings();
+        this.scriptCache   = scriptCache;
+        this.bindings      = scriptCache != null ? scriptCache.borrowBindings() : scriptEngine.createBindings();
 
         RangerTagForEval    currentTag = this.getCurrentTag();
         Map<String, String> tagAttribs = currentTag != null ? currentTag.getAttributes() : Collections.emptyMap();
@@ -240,7 +255,13 @@ public RangerRequestScriptEvaluator(RangerAccessRequest accessRequest, ScriptEng
 
         if (StringUtils.isNotBlank(preExecScript)) {
             try {
-                scriptEngine.eval(preExecScript, bindings);
+                CompiledScript compiledScript = scriptCache != null ? scriptCache.getCompiledRawScript(preExecScript) : null;
+
+                if (compiledScript != null) {
+                    compiledScript.eval(bindings);
+                } else {
+                    scriptEngine.eval(preExecScript, bindings);
+                }
             } catch (ScriptException excp) {
                 LOG.error("RangerRequestScriptEvaluator(): initialization failed", excp);
             }
@@ -325,10 +346,33 @@ public static void init(Configuration config) {
         RangerRequestScriptEvaluator.dateFormatStrings = formatStrings;
     }
 
-    public Object evaluateScript(String script) {
+    /**
+     * @return the script to be evaluated for the given script: macros expanded, and preceded by the necessary polyfills
+     */
+    public static String getExecutableScript(String script) {
         script = expandMacros(script);
 
-        return evaluateScriptImpl(script);
+        String preExec = SCRIPT_SAFE_PREEXEC;
+
+        if (script.contains(".includes(")) {
+            preExec += SCRIPT_POLYFILL_INCLUDES;
+        }
+
+        if (script.contains(".intersects(")) {
+            preExec += SCRIPT_POLYFILL_INTERSECTS;
+        }
+
+        if (JavaScriptEdits.hasDoubleBrackets(script)) {
+            script = JavaScriptEdits.replaceDoubleBrackets(script);
+        }
+
+        return preExec + script;
+    }
+
+    public Object evaluateScript(String script) {
+        CompiledScript compiledScript = scriptCache != null && script != null ? scriptCache.getCompiledScript(script) : null;
+
+        return evaluateScriptImpl(script, compiledScript);
     }
 
     public Object evaluateConditionScript(String script) {
@@ -950,7 +994,14 @@ public void logFatal(Object msg) {
         LOG.error(Objects.toString(msg));
     }
 
-    private Object evaluateScriptImpl(String script) {
+    @Override
+    public void close() {
+        if (scriptCache != null) {
+            scriptCache.returnBindings(bindings);
+        }
+    }
+
+    private Object evaluateScriptImpl(String script, CompiledScript compiledScript) {
         Object           ret  = null;
         RangerPerfTracer perf = null;
 
@@ -959,21 +1010,11 @@ private Object evaluateScriptImpl(String script) {
                 perf = RangerPerfTracer.getPerfTracer(PERF_POLICY_CONDITION_SCRIPT_EVAL, "RangerRequestScriptEvaluator.evaluateScript(requestHash=" + accessRequest.hashCode() + ")");
             }
 
-            String preExec = SCRIPT_SAFE_PREEXEC;
-
-            if (script.contains(".includes(")) {
-                preExec += SCRIPT_POLYFILL_INCLUDES;
-            }
-
-            if (script.contains(".intersects(")) {
-                preExec += SCRIPT_POLYFILL_INTERSECTS;
-            }
-
-            if (JavaScriptEdits.hasDoubleBrackets(script)) {
-                script = JavaScriptEdits.replaceDoubleBrackets(script);
+            if (compiledScript != null) {
+                ret = compiledScript.eval(bindings);
+            } else {
+                ret = scriptEngine.eval(getExecutableScript(script), bindings);
             }
-
-            ret = scriptEngine.eval(preExec + script, bindings);
         } catch (NullPointerException nullp) {
             LOG.error("RangerRequestScriptEvaluator.evaluateScript(): eval called with NULL argument(s)", nullp);
         } catch (ScriptException excp) {
@@ -30,6 +30,7 @@
 import org.apache.ranger.plugin.policyresourcematcher.RangerResourceEvaluator;
 import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
 import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
+import org.apache.ranger.plugin.util.RangerCharMap;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerRequestExprResolver;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
@@ -66,6 +67,7 @@
     private final String            wildcardChars;
     private final boolean           isOptimizedForRetrieval;
     private final boolean           isOptimizedForSpace;
+    private final boolean           useCompactNodes;
     private final Character         separatorChar;
     private final TrieNode<T>       root;
     private       Set<T>            inheritedEvaluators;
@@ -87,6 +89,7 @@ public RangerResourceTrie(RangerResourceTrie<T> other) {
         this.wildcardChars           = other.wildcardChars;
         this.isOptimizedForSpace     = other.isOptimizedForSpace;
         this.isOptimizedForRetrieval = other.isOptimizedForRetrieval;
+        this.useCompactNodes         = other.useCompactNodes;
         this.separatorChar           = other.separatorChar;
         this.inheritedEvaluators     = other.inheritedEvaluators != null ? new HashSet<>(other.inheritedEvaluators) : null;
         this.root                    = copyTrieSubtree(other.root, null);
@@ -115,7 +118,17 @@ public RangerResourceTrie(RangerResourceDef resourceDef, List<T> evaluators, boo
     }
 
     public <E> RangerResourceTrie(RangerResourceDef resourceDef, List<E> evaluators, boolean isOptimizedForRetrieval, boolean isOptimizedForSpace, RangerPluginContext pluginContext) {
-        LOG.debug("==> RangerResourceTrie({}, evaluatorCount={}, isOptimizedForRetrieval={}, isOptimizedForSpace={})", resourceDef.getName(), evaluators.size(), isOptimizedForRetrieval, isOptimizedForSpace);
+        this(resourceDef, evaluators, isOptimizedForRetrieval, isOptimizedForSpace, false, pluginContext);
+    }
+
+    /**
+     * @param useCompactNodes if true, children of trie nodes are kept in a primitive-char keyed map
+     *                        (sorted arrays for small fan-out, open-addressing table for large fan-out)
+     *                        instead of HashMap&lt;Character, TrieNode&gt;; this reduces heap used by the trie
+     *                        and avoids boxing of lookup characters
+     */
+    public <E> RangerResourceTrie(RangerResourceDef resourceDef, List<E> evaluators, boolean isOptimizedForRetrieval, boolean isOptimizedForSpace, boolean useCompactNodes, RangerPluginContext pluginContext) {
+        LOG.debug("==> RangerResourceTrie({}, evaluatorCount={}, isOptimizedForRetrieval={}, isOptimizedForSpace={}, useCompactNodes={})", resourceDef.getName(), evaluators.size(), isOptimizedForRetrieval, isOptimizedForSpace, useCompactNodes);
 
         RangerPerfTracer perf = null;
 
@@ -159,6 +172,7 @@ public <E> RangerResourceTrie(RangerResourceDef resourceDef, List<E> evaluators,
         this.wildcardChars           = optWildcard ? DEFAULT_WILDCARD_CHARS + tokenReplaceSpecialChars : tokenReplaceSpecialChars;
         this.isOptimizedForSpace     = isOptimizedForSpace;
         this.isOptimizedForRetrieval = !isOptimizedForSpace && isOptimizedForRetrieval;  // isOptimizedForSpace takes precedence
+        this.useCompactNodes         = useCompactNodes;
         this.separatorChar           = ServiceDefUtil.getCharOption(matcherOptions, OPTION_PATH_SEPARATOR, DEFAULT_PATH_SEPARATOR_CHAR);
 
         final TrieNode<T> tmpRoot = buildTrie(resourceDef, evaluators, builderThreadCount);
@@ -181,7 +195,7 @@ public <E> RangerResourceTrie(RangerResourceDef resourceDef, List<E> evaluators,
             TRACE_LOG.trace("Trie Dump from RangerResourceTrie.init(name={}):\n[{}]", resourceDef.getName(), dumpTrie());
         }
 
-        LOG.debug("<== RangerResourceTrie({}, evaluatorCount={}, isOptimizedForRetrieval={}, isOptimizedForSpace={}): {}", resourceDef.getName(), evaluators.size(), this.isOptimizedForRetrieval, this.isOptimizedForSpace, this);
+        LOG.debug("<== RangerResourceTrie({}, evaluatorCount={}, isOptimizedForRetrieval={}, isOptimizedForSpace={}, useCompactNodes={}): {}", resourceDef.getName(), evaluators.size(), this.isOptimizedForRetrieval, this.isOptimizedForSpace, this.useCompactNodes, this);
     }
 
     public Set<T> getEvaluatorsForResource(Object resource) {
@@ -425,6 +439,7 @@ public String toString() {
         sb.append("; optIgnoreCase=").append(optIgnoreCase);
         sb.append("; optWildcard=").append(optWildcard);
         sb.append("; wildcardChars=").append(wildcardChars);
+        sb.append("; useCompactNodes=").append(useCompactNodes);
         sb.append("; nodeCount=").append(trieData.nodeCount);
         sb.append("; leafNodeCount=").append(trieData.leafNodeCount);
         sb.append("; singleChildNodeCount=").append(trieData.singleChildNodeCount);
@@ -678,11 +693,11 @@ private int getMaxDepth() {
         return root.getMaxDepth();
     }
 
-    private Character getLookupChar(char ch) {
+    private char getLookupChar(char ch) {
         return optIgnoreCase ? Character.toLowerCase(ch) : ch;
     }
 
-    private Character getLookupChar(String str, int index) {
+    private char getLookupChar(String str, int index) {
         return getLookupChar(str.charAt(index));
     }
 
@@ -991,7 +1006,7 @@ public String toString() {
     }
 
     class TrieNode<U extends T> {
-        private final    Map<Character, TrieNode<U>> children = new HashMap<>();
+        private final    Map<Character, TrieNode<U>> children = useCompactNodes ? new RangerCharMap<>() : new HashMap<>();
         private          String                      str;
         private          TrieNode<U>                 parent;
         private volatile Set<U>                      evaluators;
@@ -1038,8 +1053,8 @@ Set<U> getWildcardEvaluators() {
             return wildcardEvaluators;
         }
 
-        TrieNode<U> getChild(Character ch) {
-            return children.get(ch);
+        TrieNode<U> getChild(char ch) {
+            return useCompactNodes ? ((RangerCharMap<TrieNode<U>>) children).get(ch) : children.get(ch);
         }
 
         void populateTrieData(RangerResourceTrie.TrieData trieData) {
@@ -1094,7 +1109,7 @@ int getMaxDepth() {
 
         TrieNode<U> getOrCreateChild(String str) {
             int         len   = str.length();
-            TrieNode<U> child = children.get(getLookupChar(str, 0));
+            TrieNode<U> child = getChild(getLookupChar(str, 0));
 
             if (child == null) {
                 child = new TrieNode<>(str);
@@ -1231,7 +1246,7 @@ void removeSelfFromTrie() {
                 TrieNode<U> parent = getParent();
 
                 if (parent != null) {
-                    parent.children.remove(str.charAt(0));
+                    parent.removeChild(getLookupChar(str, 0));
                 }
             } else {
                 LOG.debug("removeSelfFromTrie({}): node is not removed from Trie : [evaluators:{}, wildcard-evaluators:{}, number-of-children-nodes:{}]", this, evaluators, wildcardEvaluators, children.size());
@@ -1343,8 +1358,7 @@ void collectChildEvaluators(String resource, int startIndex, TraverseMatchHandle
             if (startIndex == resource.length()) {
                 collectChildEvaluators(handler);
             } else if (startIndex < resource.length()) {
-                Character   startChar = getLookupChar(resource, startIndex);
-                TrieNode<U> childNode = children.get(startChar);
+                TrieNode<U> childNode = getChild(getLookupChar(resource, startIndex));
 
                 if (childNode != null) {
                     if (!isOptimizedForSpace) {
@@ -1411,10 +1425,25 @@ void toString(String prefix, StringBuilder sb) {
         }
 
         private void addChild(TrieNode<U> child) {
-            children.put(getLookupChar(child.getStr(), 0), child);
+            final char ch = getLookupChar(child.getStr(), 0);
+
+            if (useCompactNodes) {
+                ((RangerCharMap<TrieNode<U>>) children).put(ch, child);
+            } else {
+                children.put(ch, child);
+            }
+
             child.setParent(this);
         }
 
+        private void removeChild(char ch) {
+            if (useCompactNodes) {
+                ((RangerCharMap<TrieNode<U>>) children).remove(ch);
+            } else {
+                children.remove(ch);
+            }
+        }
+
         private void collectChildEvaluators(TraverseMatchHandler<U> childEvaluators) {
             Stack<TrieNode<U>> nodes = new Stack<>();
 
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Scripts compiled by a script engine, and a pool of Bindings for the engine - to avoid parsing the script and
+ * creating a new script global for each evaluation.
+ *
+ * Scripts are keyed by the script text as given in the policy; the text is converted to the executable script, by
+ * RangerRequestScriptEvaluator.getExecutableScript(), only when the script is compiled.
+ *
+ * Bindings are returned to the pool after removing variables added during the evaluation, so that the next request
+ * doesn't see values set for an earlier request.
+ */
+public class RangerScriptCache {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerScriptCache.class);
+
+    public static final int MAX_COMPILED_SCRIPTS = 1000;
+
+    private static final int DEFAULT_BINDINGS_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final    ScriptEngine                          scriptEngine;
+    private final    Compilable                            compiler;
+    private final    ConcurrentMap<String, CompiledScript> compiledScripts     = new ConcurrentHashMap<>();
+    private final    ConcurrentMap<String, CompiledScript> compiledRawScripts  = new ConcurrentHashMap<>();
+    private final    Set<String>                           uncompilableScripts = ConcurrentHashMap.newKeySet();
+    private final    BlockingQueue<Bindings>               bindingsPool;
+    private volatile Set<String>                           initialBindingKeys;
+
+    public RangerScriptCache(ScriptEngine scriptEngine) {
+        this(scriptEngine, DEFAULT_BINDINGS_POOL_SIZE);
+    }
+
+    public RangerScriptCache(ScriptEngine scriptEngine, int bindingsPoolSize) {
+        this.scriptEngine = scriptEngine;
+        this.compiler     = scriptEngine instanceof Compilable ? (Compilable) scriptEngine : null;
+        this.bindingsPool = new ArrayBlockingQueue<>(Math.max(1, bindingsPoolSize));
+
+        if (compiler == null) {
+            LOG.info("RangerScriptCache(): script engine {} does not support compilation; scripts will be evaluated without compilation", scriptEngine);
+        }
+    }
+
+    public ScriptEngine getScriptEngine() {
+        return scriptEngine;
+    }
+
+    /**
+     * @return compiled script for the given script text; null if the engine doesn't support compilation or if the script failed to compile
+     */
+    public CompiledScript getCompiledScript(String script) {
+        return getCompiledScript(compiledScripts, script, true);
+    }
+
+    public int getCompiledScriptCount() {
+        return compiledScripts.size();
+    }
+
+    public Bindings borrowBindings() {
+        Bindings ret = bindingsPool.poll();
+
+        if (ret == null) {
+            ret = scriptEngine.createBindings();
+
+            if (initialBindingKeys == null) {
+                initialBindingKeys = Collections.unmodifiableSet(new HashSet<>(ret.keySet()));
+            }
+        }
+
+        return ret;
+    }
+
+    public void returnBindings(Bindings bindings) {
+        if (bindings != null) {
+            try {
+                Set<String> initialKeys = initialBindingKeys;
+
+                for (String key : new ArrayList<>(bindings.keySet())) {
+                    if (initialKeys == null || !initialKeys.contains(key)) {
+                        bindings.remove(key);
+                    }
+                }
+
+                bindingsPool.offer(bindings); // discarded if the pool is full
+            } catch (Exception excp) {
+                LOG.warn("RangerScriptCache.returnBindings(): failed to reset bindings; discarding", excp);
+            }
+        }
+    }
+
+    // compiles the script as given, without macro expansion or polyfills - like the script that initializes JSON context
+    CompiledScript getCompiledRawScript(String script) {
+        return getCompiledScript(compiledRawScripts, script, false);
+    }
+
+    private CompiledScript getCompiledScript(ConcurrentMap<String, CompiledScript> cache, String script, boolean isPolicyScript) {
+        CompiledScript ret = cache.get(script);
+
+        if (ret == null && compiler != null && !uncompilableScripts.contains(script)) {
+            String executableScript = isPolicyScript ? RangerRequestScriptEvaluator.getExecutableScript(script) : script;
+
+            try {
+                ret = compiler.compile(executableScript);
+
+                if (cache.size() < MAX_COMPILED_SCRIPTS) {
+                    CompiledScript existing = cache.putIfAbsent(script, ret);
+
+                    if (existing != null) {
+                        ret = existing;
+                    }
+                }
+            } catch (ScriptException excp) {
+                LOG.error("RangerScriptCache.getCompiledScript(): failed to compile script {}", executableScript, excp);
+
+                if (uncompilableScripts.size() < MAX_COMPILED_SCRIPTS) {
+                    uncompilableScripts.add(script);
+                }
+            }
+        }
+
+        return ret;
+    }
+}
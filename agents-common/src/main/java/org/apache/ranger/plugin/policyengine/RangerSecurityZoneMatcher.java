@@ -175,7 +175,7 @@ private void buildZoneTrie(Map<String, SecurityZoneInfo> securityZones, RangerSe
             RangerPolicyEngineOptions options = pluginContext.getConfig().getPolicyEngineOptions();
 
             for (RangerResourceDef resourceDef : serviceDef.getResources()) {
-                resourceZoneTrie.put(resourceDef.getName(), new RangerResourceTrie<>(resourceDef, matchers, options.optimizeTrieForSpace, options.optimizeTrieForRetrieval, pluginContext));
+                resourceZoneTrie.put(resourceDef.getName(), new RangerResourceTrie<>(resourceDef, matchers, options.optimizeTrieForSpace, options.optimizeTrieForRetrieval, options.compactTrieNodes, pluginContext));
             }
         }
 
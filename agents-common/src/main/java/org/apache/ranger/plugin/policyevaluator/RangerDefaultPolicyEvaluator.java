@@ -646,7 +646,8 @@ protected void evaluatePolicyItems(RangerAccessRequest request, MatchType matchT
         LOG.debug("<== RangerDefaultPolicyEvaluator.evaluatePolicyItems({}, {}, {})", request, result, matchType);
     }
 
-    protected RangerPolicyItemEvaluator getDeterminingPolicyItem(String user, Set<String> userGroups, Set<String> roles, String owner, String accessType) {
+    @Override
+    public RangerPolicyItemEvaluator getDeterminingPolicyItem(String user, Set<String> userGroups, Set<String> roles, String owner, String accessType) {
         LOG.debug("==> RangerDefaultPolicyEvaluator.getDeterminingPolicyItem({}, {}, {}, {}, {})", user, userGroups, roles, owner, accessType);
 
         RangerPolicyItemEvaluator ret;
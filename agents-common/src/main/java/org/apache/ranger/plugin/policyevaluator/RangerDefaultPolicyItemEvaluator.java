@@ -38,6 +38,7 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -47,11 +48,21 @@ public class RangerDefaultPolicyItemEvaluator extends RangerAbstractPolicyItemEv
     private static final Logger PERF_POLICYITEM_REQUEST_LOG      = RangerPerfTracer.getPerfLogger("policyitem.request");
     private static final Logger PERF_POLICYCONDITION_REQUEST_LOG = RangerPerfTracer.getPerfLogger("policycondition.request");
 
-    private boolean hasCurrentUser;
-    private boolean hasResourceOwner;
+    // hashed copies of users/groups/roles in the policy-item, to avoid List.contains() in matchUserGroupAndOwner(); null when empty
+    private final Set<String> users;
+    private final Set<String> groups;
+    private final Set<String> roles;
+    private final boolean     hasPublicGroup;
+    private       boolean     hasCurrentUser;
+    private       boolean     hasResourceOwner;
 
     public RangerDefaultPolicyItemEvaluator(RangerServiceDef serviceDef, RangerPolicy policy, RangerPolicyItem policyItem, int policyItemType, int policyItemIndex, RangerPolicyEngineOptions options) {
         super(serviceDef, policy, policyItem, policyItemType, policyItemIndex, options);
+
+        this.users          = policyItem != null ? toHashSet(policyItem.getUsers()) : null;
+        this.groups         = policyItem != null ? toHashSet(policyItem.getGroups()) : null;
+        this.roles          = policyItem != null ? toHashSet(policyItem.getRoles()) : null;
+        this.hasPublicGroup = groups != null && groups.contains(RangerPolicyEngine.GROUP_PUBLIC);
     }
 
     public void init() {
@@ -121,15 +132,14 @@ public boolean matchUserGroupAndOwner(String user, Set<String> userGroups, Set<S
         boolean ret = false;
 
         if (policyItem != null) {
-            if (!ret && user != null && policyItem.getUsers() != null) {
-                ret = hasCurrentUser || policyItem.getUsers().contains(user);
+            if (!ret && user != null && this.users != null) {
+                ret = hasCurrentUser || this.users.contains(user);
             }
-            if (!ret && userGroups != null && policyItem.getGroups() != null) {
-                ret = policyItem.getGroups().contains(RangerPolicyEngine.GROUP_PUBLIC) ||
-                        !Collections.disjoint(policyItem.getGroups(), userGroups);
+            if (!ret && userGroups != null && this.groups != null) {
+                ret = hasPublicGroup || !Collections.disjoint(this.groups, userGroups);
             }
-            if (!ret && CollectionUtils.isNotEmpty(roles) && CollectionUtils.isNotEmpty(policyItem.getRoles())) {
-                ret = !Collections.disjoint(policyItem.getRoles(), roles);
+            if (!ret && CollectionUtils.isNotEmpty(roles) && this.roles != null) {
+                ret = !Collections.disjoint(this.roles, roles);
             }
             if (!ret && hasResourceOwner) {
                 ret = user != null && user.equals(owner);
@@ -244,15 +254,19 @@ private boolean matchUserGroupAndOwner(RangerAccessRequest request) {
         String               resourceOwner    = accessedResource != null ? accessedResource.getOwnerUser() : null;
 
         if (!ret) {
-            Set<String> roles = null;
-            if (CollectionUtils.isNotEmpty(policyItem.getRoles())) {
-                roles = RangerAccessRequestUtil.getUserRoles(request);
+            Set<String> userRoles = null;
+            if (this.roles != null) {
+                userRoles = RangerAccessRequestUtil.getUserRoles(request);
             }
-            ret = matchUserGroupAndOwner(user, userGroups, roles, resourceOwner);
+            ret = matchUserGroupAndOwner(user, userGroups, userRoles, resourceOwner);
         }
 
         LOG.debug("<== RangerDefaultPolicyItemEvaluator.matchUserGroupAndOwner({}): {}", request, ret);
 
         return ret;
     }
+
+    private static Set<String> toHashSet(List<String> values) {
+        return CollectionUtils.isEmpty(values) ? null : new HashSet<>(values);
+    }
 }
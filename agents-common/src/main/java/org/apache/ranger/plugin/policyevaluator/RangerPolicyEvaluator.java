@@ -146,6 +146,8 @@ static boolean containsAny(Collection<String> coll1, Collection<String> coll2) {
 
     Set<String> getAllowedAccesses(Map<String, RangerPolicyResource> resources, String user, Set<String> userGroups, Set<String> roles, Set<String> accessTypes, Map<String, Object> evalContext);
 
+    RangerPolicyItemEvaluator getDeterminingPolicyItem(String user, Set<String> userGroups, Set<String> roles, String owner, String accessType);
+
     PolicyACLSummary getPolicyACLSummary();
 
     default boolean hasContextSensitiveSpecification() {
@@ -20,7 +20,6 @@
 package org.apache.ranger.plugin.resourcematcher;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOCase;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
@@ -626,12 +625,12 @@ static final class CaseSensitiveWildcardMatcher extends AbstractStringResourceMa
 
         @Override
         boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
-            return FilenameUtils.wildcardMatch(resourceValue, getExpandedValue(evalContext), IOCase.SENSITIVE);
+            return getWildcardMatcher(evalContext).isMatch(resourceValue, IOCase.SENSITIVE);
         }
 
         @Override
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
-            return ResourceMatcher.wildcardPrefixMatch(resourceValue, getExpandedValue(evalContext), IOCase.SENSITIVE);
+            return getWildcardMatcher(evalContext).isPrefixMatch(resourceValue, IOCase.SENSITIVE);
         }
 
         int getPriority() {
@@ -646,12 +645,12 @@ static final class CaseInsensitiveWildcardMatcher extends AbstractStringResource
 
         @Override
         boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
-            return FilenameUtils.wildcardMatch(resourceValue, getExpandedValue(evalContext), IOCase.INSENSITIVE);
+            return getWildcardMatcher(evalContext).isMatch(resourceValue, IOCase.INSENSITIVE);
         }
 
         @Override
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
-            return ResourceMatcher.wildcardPrefixMatch(resourceValue, getExpandedValue(evalContext), IOCase.INSENSITIVE);
+            return getWildcardMatcher(evalContext).isPrefixMatch(resourceValue, IOCase.INSENSITIVE);
         }
 
         int getPriority() {
@@ -672,14 +671,14 @@ static final class QuotedCaseSensitiveWildcardMatcher extends AbstractStringReso
         boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
             IOCase caseSensitivity = startsWithAnyChar(resourceValue, quoteChars) ? IOCase.SENSITIVE : IOCase.INSENSITIVE;
 
-            return FilenameUtils.wildcardMatch(resourceValue, getExpandedValue(evalContext), caseSensitivity);
+            return getWildcardMatcher(evalContext).isMatch(resourceValue, caseSensitivity);
         }
 
         @Override
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
             IOCase caseSensitivity = startsWithAnyChar(resourceValue, quoteChars) ? IOCase.SENSITIVE : IOCase.INSENSITIVE;
 
-            return ResourceMatcher.wildcardPrefixMatch(resourceValue, getExpandedValue(evalContext), caseSensitivity);
+            return getWildcardMatcher(evalContext).isPrefixMatch(resourceValue, caseSensitivity);
         }
 
         int getPriority() {
@@ -22,7 +22,6 @@
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOCase;
-import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
 import org.slf4j.Logger;
@@ -42,31 +41,32 @@ public class RangerPathResourceMatcher extends RangerDefaultResourceMatcher {
     private boolean   policyIsRecursive;
     private Character pathSeparatorChar = '/';
 
-    static boolean isRecursiveWildCardMatch(String pathToCheck, String wildcardPath, Character pathSeparatorChar, IOCase caseSensitivity, String[] wildcardPathElements) {
+    static boolean isRecursiveWildCardMatch(String pathToCheck, WildcardMatcher wildcardMatcher, Character pathSeparatorChar, IOCase caseSensitivity, String[] wildcardPathElements) {
         boolean ret = false;
 
         if (!StringUtils.isEmpty(pathToCheck)) {
-            String[] pathElements = StringUtils.split(pathToCheck, pathSeparatorChar);
-
-            if (!ArrayUtils.isEmpty(pathElements)) {
-                StringBuilder sb = new StringBuilder();
-
-                if (pathToCheck.charAt(0) == pathSeparatorChar) {
-                    sb.append(pathSeparatorChar); // preserve the initial pathSeparatorChar
-                }
+            // sub-paths are matched in place, without creating a string for each; consecutive pathSeparatorChars are treated as one
+            String path            = collapsePathSeparators(pathToCheck, pathSeparatorChar);
+            int    pathLength      = path.length();
+            int    elementStartIdx = path.charAt(0) == pathSeparatorChar ? 1 : 0; // preserve the initial pathSeparatorChar
 
+            if (elementStartIdx < pathLength) {
                 int     pathElementIndex  = 0;
                 boolean useStringMatching = true;
 
-                for (String p : pathElements) {
-                    sb.append(p);
+                while (elementStartIdx < pathLength) {
+                    int elementEndIdx = path.indexOf(pathSeparatorChar, elementStartIdx);
+
+                    if (elementEndIdx == -1) {
+                        elementEndIdx = pathLength;
+                    }
 
                     if (useStringMatching) {
                         if (wildcardPathElements.length > pathElementIndex) {
                             String wp = wildcardPathElements[pathElementIndex];
 
                             if (!(StringUtils.contains(wp, '*') || StringUtils.contains(wp, '?'))) {
-                                boolean isMatch = caseSensitivity.isCaseSensitive() ? StringUtils.equals(p, wp) : StringUtils.equalsIgnoreCase(p, wp);
+                                boolean isMatch = wp.length() == (elementEndIdx - elementStartIdx) && path.regionMatches(!caseSensitivity.isCaseSensitive(), elementStartIdx, wp, 0, wp.length());
                                 if (!isMatch) {
                                     useStringMatching = false;
                                     break;
@@ -80,32 +80,56 @@ static boolean isRecursiveWildCardMatch(String pathToCheck, String wildcardPath,
                     }
 
                     if (!useStringMatching) {
-                        ret = FilenameUtils.wildcardMatch(sb.toString(), wildcardPath, caseSensitivity);
+                        ret = wildcardMatcher.isMatch(path, elementEndIdx, caseSensitivity);
                         if (ret) {
                             break;
                         }
                     }
 
-                    sb.append(pathSeparatorChar);
+                    elementStartIdx = elementEndIdx + 1;
                     pathElementIndex++;
                 }
                 if (useStringMatching) {
-                    if (pathElements.length == wildcardPathElements.length) { // Loop finished normally and all sub-paths string-matched..
+                    if (pathElementIndex == wildcardPathElements.length) { // Loop finished normally and all sub-paths string-matched..
                         ret = true;
                     } else if (pathToCheck.charAt(pathToCheck.length() - 1) == pathSeparatorChar) { // pathToCheck ends with separator, like /home/
-                        ret = pathElements.length == (wildcardPathElements.length - 1) && WILDCARD_ASTERISK.equals(wildcardPathElements[wildcardPathElements.length - 1]);
+                        ret = pathElementIndex == (wildcardPathElements.length - 1) && WILDCARD_ASTERISK.equals(wildcardPathElements[wildcardPathElements.length - 1]);
                     }
                 }
-
-                sb = null;
             } else { // pathToCheck consists of only pathSeparatorChar
-                ret = FilenameUtils.wildcardMatch(pathToCheck, wildcardPath, caseSensitivity);
+                ret = wildcardMatcher.isMatch(pathToCheck, caseSensitivity);
             }
         }
 
         return ret;
     }
 
+    static String collapsePathSeparators(String path, char pathSeparatorChar) {
+        int idx = 1;
+
+        for (; idx < path.length(); idx++) {
+            if (path.charAt(idx) == pathSeparatorChar && path.charAt(idx - 1) == pathSeparatorChar) {
+                break;
+            }
+        }
+
+        if (idx >= path.length()) { // no consecutive pathSeparatorChars, which is the common case
+            return path;
+        }
+
+        StringBuilder sb = new StringBuilder(path.length()).append(path, 0, idx);
+
+        for (; idx < path.length(); idx++) {
+            char c = path.charAt(idx);
+
+            if (c != pathSeparatorChar || sb.charAt(sb.length() - 1) != pathSeparatorChar) {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
     @Override
     public void init() {
         LOG.debug("==> RangerPathResourceMatcher.init()");
@@ -253,14 +277,14 @@ private ResourceMatcher getPathMatcher(String policyValue) {
         }
 
         if (needWildcardMatch) { // test?, test*a*, test*a*b, *test*a
-            ret = new WildcardResourceMatcher(policyValue, getOptions(), pathSeparatorChar, optIgnoreCase, FilenameUtils::wildcardMatch, 6);
+            ret = new WildcardResourceMatcher(policyValue, getOptions(), pathSeparatorChar, optIgnoreCase, 6);
         } else if (wildcardStartIdx == -1) { // test, testa, testab
             ret = new PathResourceMatcher(policyValue, getOptions(), pathSeparatorChar, optIgnoreCase ? StringUtils::equalsIgnoreCase : StringUtils::equals, !optIgnoreCase, optIgnoreCase ? 2 : 1);
         } else if (wildcardStartIdx == 0) { // *test, **test, *testa, *testab
             String matchStr = policyValue.substring(wildcardEndIdx + 1);
             ret = new PathEndsWithResourceMatcher(matchStr, getOptions(), pathSeparatorChar, !optIgnoreCase, optIgnoreCase ? 4 : 3);
         } else if (wildcardEndIdx != (len - 1)) { // test*a, test*ab
-            ret = new WildcardResourceMatcher(policyValue, getOptions(), pathSeparatorChar, optIgnoreCase, FilenameUtils::wildcardMatch, 6);
+            ret = new WildcardResourceMatcher(policyValue, getOptions(), pathSeparatorChar, optIgnoreCase, 6);
         } else { // test*, test**, testa*, testab*
             String matchStr = policyValue.substring(0, wildcardStartIdx);
             ret = new PathStartsWithResourceMatcher(matchStr, getOptions(), pathSeparatorChar, !optIgnoreCase, optIgnoreCase ? 4 : 3);
@@ -273,10 +297,6 @@ private ResourceMatcher getPathMatcher(String policyValue) {
         return ret;
     }
 
-    interface TriFunction<T, U, V, R> {
-        R apply(T t, U u, V v);
-    }
-
     interface QuadFunction<T, U, V, W, R> {
         R apply(T t, U u, V v, W w);
     }
@@ -468,24 +488,22 @@ public boolean isChildMatch(String resourceValue, Map<String, Object> evalContex
     }
 
     static class WildcardResourceMatcher extends AbstractPathResourceMatcher {
-        final TriFunction<String, String, IOCase, Boolean> function;
-        final IOCase                                       ioCase;
+        final IOCase ioCase;
 
-        WildcardResourceMatcher(String value, Map<String, String> options, char pathSeparatorChar, boolean optIgnoreCase, TriFunction<String, String, IOCase, Boolean> function, int priority) {
+        WildcardResourceMatcher(String value, Map<String, String> options, char pathSeparatorChar, boolean optIgnoreCase, int priority) {
             super(value, options, pathSeparatorChar, !optIgnoreCase, priority);
 
-            this.function = function;
-            this.ioCase   = optIgnoreCase ? IOCase.INSENSITIVE : IOCase.SENSITIVE;
+            this.ioCase = optIgnoreCase ? IOCase.INSENSITIVE : IOCase.SENSITIVE;
         }
 
         @Override
         public boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
             LOG.debug("==> WildcardResourceMatcher.isMatch(resourceValue={}, evalContext={})", resourceValue, evalContext);
 
-            String  expandedValue = getExpandedValue(evalContext);
-            boolean ret           = function.apply(resourceValue, expandedValue, ioCase);
+            WildcardMatcher wildcardMatcher = getWildcardMatcher(evalContext);
+            boolean         ret             = wildcardMatcher.isMatch(resourceValue, ioCase);
 
-            LOG.debug("<== WildcardResourceMatcher.isMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, expandedValue, ret);
+            LOG.debug("<== WildcardResourceMatcher.isMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, wildcardMatcher.getPattern(), ret);
 
             return ret;
         }
@@ -494,10 +512,10 @@ public boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
             LOG.debug("==> WildcardResourceMatcher.isPrefixMatch(resourceValue={}, evalContext={})", resourceValue, evalContext);
 
-            String  expandedValue = getExpandedValue(evalContext);
-            boolean ret           = ResourceMatcher.wildcardPrefixMatch(resourceValue, expandedValue, ioCase);
+            WildcardMatcher wildcardMatcher = getWildcardMatcher(evalContext);
+            boolean         ret             = wildcardMatcher.isPrefixMatch(resourceValue, ioCase);
 
-            LOG.debug("<== WildcardResourceMatcher.isPrefixMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, expandedValue, ret);
+            LOG.debug("<== WildcardResourceMatcher.isPrefixMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, wildcardMatcher.getPattern(), ret);
 
             return ret;
         }
@@ -515,7 +533,7 @@ public boolean isChildMatch(String resourceValue, Map<String, Object> evalContex
                     resourceValue = resourceValue.substring(0, resourceValue.length() - 1);
                 }
 
-                ret = function.apply(resourceValue, shorterExpandedValue, ioCase);
+                ret = FilenameUtils.wildcardMatch(resourceValue, shorterExpandedValue, ioCase);
             }
 
             return ret;
@@ -523,11 +541,11 @@ public boolean isChildMatch(String resourceValue, Map<String, Object> evalContex
     }
 
     static class RecursiveWildcardResourceMatcher extends AbstractPathResourceMatcher {
-        final QuintFunction<String, String, Character, IOCase, Boolean, String[]> function;
-        final IOCase                                                              ioCase;
+        final QuintFunction<String, WildcardMatcher, Character, IOCase, Boolean, String[]> function;
+        final IOCase                                                                       ioCase;
         String[] wildcardPathElements;
 
-        RecursiveWildcardResourceMatcher(String value, Map<String, String> options, char pathSeparatorChar, boolean optIgnoreCase, QuintFunction<String, String, Character, IOCase, Boolean, String[]> function, int priority) {
+        RecursiveWildcardResourceMatcher(String value, Map<String, String> options, char pathSeparatorChar, boolean optIgnoreCase, QuintFunction<String, WildcardMatcher, Character, IOCase, Boolean, String[]> function, int priority) {
             super(value, options, pathSeparatorChar, !optIgnoreCase, priority);
 
             this.function = function;
@@ -542,18 +560,11 @@ static class RecursiveWildcardResourceMatcher extends AbstractPathResourceMatche
         boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
             LOG.debug("==> RecursiveWildcardResourceMatcher.isMatch(resourceValue={}, evalContext={})", resourceValue, evalContext);
 
-            String expandedValue;
-
-            if (getNeedsDynamicEval()) {
-                expandedValue        = getExpandedValue(evalContext);
-                wildcardPathElements = StringUtils.split(expandedValue, pathSeparatorChar);
-            } else {
-                expandedValue = value;
-            }
-
-            boolean ret = function.apply(resourceValue, expandedValue, pathSeparatorChar, ioCase, wildcardPathElements);
+            WildcardMatcher wildcardMatcher = getWildcardMatcher(evalContext);
+            String[]        pathElements    = getNeedsDynamicEval() ? StringUtils.split(wildcardMatcher.getPattern(), pathSeparatorChar) : wildcardPathElements;
+            boolean         ret             = function.apply(resourceValue, wildcardMatcher, pathSeparatorChar, ioCase, pathElements);
 
-            LOG.debug("<== RecursiveWildcardResourceMatcher.isMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, expandedValue, ret);
+            LOG.debug("<== RecursiveWildcardResourceMatcher.isMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, wildcardMatcher.getPattern(), ret);
 
             return ret;
         }
@@ -562,10 +573,10 @@ boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
             LOG.debug("==> RecursiveWildcardResourceMatcher.isPrefixMatch(resourceValue={}, evalContext={})", resourceValue, evalContext);
 
-            String  expandedValue = getExpandedValue(evalContext);
-            boolean ret           = ResourceMatcher.wildcardPrefixMatch(resourceValue, expandedValue, ioCase);
+            WildcardMatcher wildcardMatcher = getWildcardMatcher(evalContext);
+            boolean         ret             = wildcardMatcher.isPrefixMatch(resourceValue, ioCase);
 
-            LOG.debug("<== RecursiveWildcardResourceMatcher.isPrefixMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, expandedValue, ret);
+            LOG.debug("<== RecursiveWildcardResourceMatcher.isPrefixMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, wildcardMatcher.getPattern(), ret);
 
             return ret;
         }
@@ -585,7 +596,7 @@ public boolean isChildMatch(String resourceValue, Map<String, Object> evalContex
 
                 String[] shorterWildCardPathElements = StringUtils.split(shorterExpandedValue, pathSeparatorChar);
 
-                ret = function.apply(resourceValue, shorterExpandedValue, pathSeparatorChar, ioCase, shorterWildCardPathElements);
+                ret = function.apply(resourceValue, new WildcardMatcher(shorterExpandedValue), pathSeparatorChar, ioCase, shorterWildCardPathElements);
             }
 
             return ret;
@@ -651,10 +662,10 @@ boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
             LOG.debug("==> RecursiveWildcardResourceMatcher.isPrefixMatch(resourceValue={}, evalContext={})", resourceValue, evalContext);
 
-            String  expandedValue = getExpandedValue(evalContext);
-            boolean ret           = ResourceMatcher.wildcardPrefixMatch(resourceValue, expandedValue, ioCase);
+            WildcardMatcher wildcardMatcher = getWildcardMatcher(evalContext);
+            boolean         ret             = wildcardMatcher.isPrefixMatch(resourceValue, ioCase);
 
-            LOG.debug("<== RecursiveWildcardResourceMatcher.isPrefixMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, expandedValue, ret);
+            LOG.debug("<== RecursiveWildcardResourceMatcher.isPrefixMatch(resourceValue={}, expandedValue={}) : result:[{}]", resourceValue, wildcardMatcher.getPattern(), ret);
 
             return ret;
         }
@@ -20,7 +20,6 @@
 package org.apache.ranger.plugin.resourcematcher;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOCase;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
@@ -43,7 +42,7 @@ public class RangerURLResourceMatcher extends RangerDefaultResourceMatcher {
     boolean policyIsRecursive;
     char    pathSeparatorChar = DEFAULT_PATH_SEPARATOR_CHAR;
 
-    static boolean isRecursiveWildCardMatch(String pathToCheck, String wildcardPath, char pathSeparatorChar, IOCase caseSensitivity) {
+    static boolean isRecursiveWildCardMatch(String pathToCheck, WildcardMatcher wildcardMatcher, char pathSeparatorChar, IOCase caseSensitivity) {
         boolean ret = false;
         String  url = StringUtils.trim(pathToCheck);
 
@@ -67,7 +66,7 @@ static boolean isRecursiveWildCardMatch(String pathToCheck, String wildcardPath,
                 for (String p : pathElements) {
                     sb.append(p);
 
-                    ret = FilenameUtils.wildcardMatch(sb.toString(), wildcardPath, caseSensitivity);
+                    ret = wildcardMatcher.isMatch(sb, sb.length(), caseSensitivity);
 
                     if (ret) {
                         break;
@@ -81,12 +80,12 @@ static boolean isRecursiveWildCardMatch(String pathToCheck, String wildcardPath,
                     if (!isEndsWithPathSeparator) {
                         sb.deleteCharAt(sb.length() - 1);
                     }
-                    ret = FilenameUtils.wildcardMatch(sb.toString(), wildcardPath, caseSensitivity);
+                    ret = wildcardMatcher.isMatch(sb, sb.length(), caseSensitivity);
                 }
 
                 sb = null;
             } else { // pathToCheck consists of only pathSeparatorChar
-                ret = FilenameUtils.wildcardMatch(pathToCheck, wildcardPath, caseSensitivity);
+                ret = wildcardMatcher.isMatch(pathToCheck, caseSensitivity);
             }
         }
 
@@ -231,12 +230,12 @@ static final class CaseSensitiveURLRecursiveWildcardMatcher extends AbstractStri
 
         @Override
         boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
-            return RangerURLResourceMatcher.isRecursiveWildCardMatch(resourceValue, getExpandedValue(evalContext), levelSeparatorChar, IOCase.SENSITIVE);
+            return RangerURLResourceMatcher.isRecursiveWildCardMatch(resourceValue, getWildcardMatcher(evalContext), levelSeparatorChar, IOCase.SENSITIVE);
         }
 
         @Override
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
-            return ResourceMatcher.wildcardPrefixMatch(resourceValue, getExpandedValue(evalContext), IOCase.SENSITIVE);
+            return getWildcardMatcher(evalContext).isPrefixMatch(resourceValue, IOCase.SENSITIVE);
         }
 
         int getPriority() {
@@ -254,12 +253,12 @@ static final class CaseInsensitiveURLRecursiveWildcardMatcher extends AbstractSt
 
         @Override
         boolean isMatch(String resourceValue, Map<String, Object> evalContext) {
-            return RangerURLResourceMatcher.isRecursiveWildCardMatch(resourceValue, getExpandedValue(evalContext), levelSeparatorChar, IOCase.INSENSITIVE);
+            return RangerURLResourceMatcher.isRecursiveWildCardMatch(resourceValue, getWildcardMatcher(evalContext), levelSeparatorChar, IOCase.INSENSITIVE);
         }
 
         @Override
         public boolean isPrefixMatch(String resourceValue, Map<String, Object> evalContext) {
-            return ResourceMatcher.wildcardPrefixMatch(resourceValue, getExpandedValue(evalContext), IOCase.INSENSITIVE);
+            return getWildcardMatcher(evalContext).isPrefixMatch(resourceValue, IOCase.INSENSITIVE);
         }
 
         int getPriority() {
@@ -31,12 +31,8 @@
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 abstract class ResourceMatcher {
     static final         int                       DYNAMIC_EVALUATION_PENALTY = 8;
@@ -44,6 +40,7 @@ abstract class ResourceMatcher {
     protected final      String                    value;
     protected final      RangerRequestExprResolver exprResolver;
     protected            StringTokenReplacer       tokenReplacer;
+    private              WildcardMatcher           wildcardMatcher;
 
     ResourceMatcher(String value, Map<String, String> options) {
         this.value = value;
@@ -102,115 +99,7 @@ public static boolean wildcardPrefixMatch(String value, String wildcardMatcher,
             return false;
         }
 
-        if (caseSensitivity == null) {
-            caseSensitivity = IOCase.SENSITIVE;
-        }
-
-        List<String> wcsTokens = splitOnTokens(wildcardMatcher);
-        boolean      anyChars  = false;
-        int          textIdx   = 0;
-        int          wcsIdx    = 0;
-        Stack<int[]> backtrack = new Stack<>();
-
-        do {
-            if (!backtrack.isEmpty()) {
-                int[] array = backtrack.pop();
-
-                wcsIdx   = array[0];
-                textIdx  = array[1];
-                anyChars = true;
-            }
-
-            for (; wcsIdx < wcsTokens.size(); ++wcsIdx) {
-                String wcsToken = wcsTokens.get(wcsIdx);
-
-                if (wcsToken.equals("?")) {
-                    ++textIdx;
-
-                    if (textIdx > value.length()) {
-                        break;
-                    }
-
-                    anyChars = false;
-                } else if (wcsToken.equals("*")) {
-                    anyChars = true;
-
-                    if (wcsIdx == wcsTokens.size() - 1) {
-                        textIdx = value.length();
-                    }
-                } else {
-                    // changes from FilenameUtils.wildcardMatch(): added following 3 lines to check if value is a prefix match for wildcardMatcher
-                    if (wcsToken.length() > (value.length() - textIdx)) {
-                        wcsToken = wcsToken.substring(0, value.length() - textIdx);
-                    }
-
-                    if (anyChars) {
-                        textIdx = caseSensitivity.checkIndexOf(value, textIdx, wcsToken);
-
-                        if (textIdx == -1) {
-                            break;
-                        }
-
-                        int repeat = caseSensitivity.checkIndexOf(value, textIdx + 1, wcsToken);
-
-                        if (repeat >= 0) {
-                            backtrack.push(new int[] {wcsIdx, repeat});
-                        }
-                    } else if (!caseSensitivity.checkRegionMatches(value, textIdx, wcsToken)) {
-                        break;
-                    }
-
-                    textIdx += wcsToken.length();
-
-                    anyChars = false;
-                }
-            }
-
-            // changes from FilenameUtils.wildcardMatch(): replaced the condition in 'if' below to check if value is a prefix match for wildcardMatcher
-            //   original if: if (wcsIdx == wcsTokens.size() && textIdx == value.length())
-            if (wcsIdx == wcsTokens.size() || textIdx == value.length()) {
-                return true;
-            }
-        }
-        while (!backtrack.isEmpty());
-
-        return anyChars;
-    }
-
-    static List<String> splitOnTokens(String text) {
-        if (text.indexOf(63) == -1 && text.indexOf(42) == -1) {
-            return Collections.singletonList(text);
-        } else {
-            char[]        array    = text.toCharArray();
-            List<String>  list     = new ArrayList<>(2);
-            StringBuilder buffer   = new StringBuilder();
-            char          prevChar = 0;
-
-            for (char ch : array) {
-                if (ch != '?' && ch != '*') {
-                    buffer.append(ch);
-                } else {
-                    if (buffer.length() != 0) {
-                        list.add(buffer.toString());
-                        buffer.setLength(0);
-                    }
-
-                    if (ch == '?') {
-                        list.add("?");
-                    } else if (prevChar != '*') {
-                        list.add("*");
-                    }
-                }
-
-                prevChar = ch;
-            }
-
-            if (buffer.length() != 0) {
-                list.add(buffer.toString());
-            }
-
-            return list;
-        }
+        return new WildcardMatcher(wildcardMatcher).isPrefixMatch(value, caseSensitivity);
     }
 
     @Override
@@ -288,6 +177,23 @@ String getExpandedValue(Map<String, Object> evalContext) {
         return ret;
     }
 
+    // policy value is compiled once; values with tokens/expressions are compiled after expansion for each request
+    WildcardMatcher getWildcardMatcher(Map<String, Object> evalContext) {
+        if (getNeedsDynamicEval()) {
+            return new WildcardMatcher(getExpandedValue(evalContext));
+        }
+
+        WildcardMatcher ret = wildcardMatcher;
+
+        if (ret == null) {
+            ret = new WildcardMatcher(value);
+
+            wildcardMatcher = ret; // benign race: WildcardMatcher is immutable
+        }
+
+        return ret;
+    }
+
     public static class PriorityComparator implements Comparator<ResourceMatcher>, Serializable {
         @Override
         public int compare(ResourceMatcher me, ResourceMatcher other) {
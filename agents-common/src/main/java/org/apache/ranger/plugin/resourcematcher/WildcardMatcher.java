@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.resourcematcher;
+
+import org.apache.commons.io.IOCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A wildcard pattern ('?' and '*'), tokenized once so that it can be matched repeatedly without allocation.
+ *
+ * isMatch() has the same semantics as FilenameUtils.wildcardMatch(). The pattern is split on '*' into fixed-length
+ * segments, which may contain '?'; the first and last segments are anchored at start and end of the value, and each
+ * segment in between is matched at its leftmost position - which needs no backtracking.
+ *
+ * isPrefixMatch() has the same semantics as ResourceMatcher.wildcardPrefixMatch().
+ *
+ * Instances are immutable and can be shared by threads.
+ */
+final class WildcardMatcher {
+    private static final char   CHAR_ANY_CHAR   = '?';
+    private static final char   CHAR_ANY_CHARS  = '*';
+    private static final String TOKEN_ANY_CHAR  = "?";
+    private static final String TOKEN_ANY_CHARS = "*";
+
+    private final String   pattern;
+    private final boolean  hasAnyChars;  // true if pattern has '*'
+    private final String   prefix;       // segment before the first '*'; entire pattern if there is no '*'
+    private final String   suffix;       // segment after the last '*'
+    private final String[] segments;     // non-empty segments between first and last '*'
+    private final String[] tokens;       // literals, TOKEN_ANY_CHAR and TOKEN_ANY_CHARS - as used by isPrefixMatch()
+
+    WildcardMatcher(String pattern) {
+        this.pattern = pattern;
+
+        if (pattern == null) {
+            hasAnyChars = false;
+            prefix      = null;
+            suffix      = null;
+            segments    = null;
+            tokens      = null;
+        } else {
+            String matchPattern = removeAnyCharsBeforeAnyChar(pattern);
+            int    firstIdx     = matchPattern.indexOf(CHAR_ANY_CHARS);
+
+            if (firstIdx == -1) {
+                hasAnyChars = false;
+                prefix      = matchPattern;
+                suffix      = "";
+                segments    = new String[0];
+            } else {
+                int          lastIdx     = matchPattern.lastIndexOf(CHAR_ANY_CHARS);
+                List<String> midSegments = new ArrayList<>();
+
+                for (int startIdx = firstIdx + 1; startIdx < lastIdx; ) {
+                    int endIdx = matchPattern.indexOf(CHAR_ANY_CHARS, startIdx);
+
+                    if (endIdx > startIdx) {
+                        midSegments.add(matchPattern.substring(startIdx, endIdx));
+                    }
+
+                    startIdx = endIdx + 1;
+                }
+
+                hasAnyChars = true;
+                prefix      = matchPattern.substring(0, firstIdx);
+                suffix      = matchPattern.substring(lastIdx + 1);
+                segments    = midSegments.toArray(new String[0]);
+            }
+
+            tokens = splitOnTokens(pattern);
+        }
+    }
+
+    String getPattern() {
+        return pattern;
+    }
+
+    boolean isMatch(String value, IOCase caseSensitivity) {
+        return value == null ? pattern == null : isMatch(value, value.length(), caseSensitivity);
+    }
+
+    /**
+     * Matches the first 'length' characters of value, for example a parent-path, without creating a substring.
+     */
+    boolean isMatch(CharSequence value, int length, IOCase caseSensitivity) {
+        if (value == null || pattern == null) {
+            return value == null && pattern == null;
+        }
+
+        final boolean ignoreCase = caseSensitivity != null && !caseSensitivity.isCaseSensitive();
+
+        if (!hasAnyChars) {
+            return length == prefix.length() && regionMatches(value, 0, prefix, prefix.length(), ignoreCase);
+        }
+
+        final int suffixIdx = length - suffix.length();
+
+        if (suffixIdx < prefix.length() || !regionMatches(value, 0, prefix, prefix.length(), ignoreCase) || !regionMatches(value, suffixIdx, suffix, suffix.length(), ignoreCase)) {
+            return false;
+        }
+
+        int textIdx = prefix.length();
+
+        for (String segment : segments) {
+            textIdx = indexOf(value, textIdx, suffixIdx, segment, segment.length(), ignoreCase);
+
+            if (textIdx == -1) {
+                return false;
+            }
+
+            textIdx += segment.length();
+        }
+
+        return true;
+    }
+
+    // same as ResourceMatcher.wildcardPrefixMatch(), on precomputed tokens
+    boolean isPrefixMatch(String value, IOCase caseSensitivity) {
+        if (value == null || pattern == null) {
+            return value == null && pattern == null;
+        }
+
+        final boolean ignoreCase    = caseSensitivity != null && !caseSensitivity.isCaseSensitive();
+        final int     valueLen      = value.length();
+        boolean       anyChars      = false;
+        int           textIdx       = 0;
+        int           tokenIdx      = 0;
+        int[]         backtrack     = null; // pairs of (tokenIdx, textIdx); allocated only when a literal repeats after '*'
+        int           backtrackSize = 0;
+
+        do {
+            if (backtrackSize > 0) {
+                backtrackSize -= 2;
+
+                tokenIdx = backtrack[backtrackSize];
+                textIdx  = backtrack[backtrackSize + 1];
+                anyChars = true;
+            }
+
+            for (; tokenIdx < tokens.length; ++tokenIdx) {
+                String token = tokens[tokenIdx];
+
+                if (TOKEN_ANY_CHAR.equals(token)) {
+                    ++textIdx;
+
+                    if (textIdx > valueLen) {
+                        break;
+                    }
+
+                    anyChars = false;
+                } else if (TOKEN_ANY_CHARS.equals(token)) {
+                    anyChars = true;
+
+                    if (tokenIdx == tokens.length - 1) {
+                        textIdx = valueLen;
+                    }
+                } else {
+                    // match only the part of the literal that fits in rest of the value
+                    int tokenLen = Math.min(token.length(), valueLen - textIdx);
+
+                    if (anyChars) {
+                        textIdx = indexOf(value, textIdx, valueLen, token, tokenLen, ignoreCase);
+
+                        if (textIdx == -1) {
+                            break;
+                        }
+
+                        int repeat = indexOf(value, textIdx + 1, valueLen, token, tokenLen, ignoreCase);
+
+                        if (repeat >= 0) {
+                            if (backtrack == null) {
+                                backtrack = new int[8];
+                            } else if (backtrackSize == backtrack.length) {
+                                int[] newBacktrack = new int[backtrack.length * 2];
+
+                                System.arraycopy(backtrack, 0, newBacktrack, 0, backtrackSize);
+
+                                backtrack = newBacktrack;
+                            }
+
+                            backtrack[backtrackSize++] = tokenIdx;
+                            backtrack[backtrackSize++] = repeat;
+                        }
+                    } else if (!regionMatches(value, textIdx, token, tokenLen, ignoreCase)) {
+                        break;
+                    }
+
+                    textIdx += tokenLen;
+
+                    anyChars = false;
+                }
+            }
+
+            if (tokenIdx == tokens.length || textIdx == valueLen) {
+                return true;
+            }
+        }
+        while (backtrackSize > 0);
+
+        return anyChars;
+    }
+
+    @Override
+    public String toString() {
+        return "WildcardMatcher(" + pattern + ")";
+    }
+
+    // splits the pattern into literals, TOKEN_ANY_CHAR and TOKEN_ANY_CHARS; consecutive '*' are collapsed into one
+    static String[] splitOnTokens(String text) {
+        if (text.indexOf(CHAR_ANY_CHAR) == -1 && text.indexOf(CHAR_ANY_CHARS) == -1) {
+            return new String[] {text};
+        }
+
+        List<String>  list     = new ArrayList<>(2);
+        StringBuilder buffer   = new StringBuilder();
+        char          prevChar = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+
+            if (ch != CHAR_ANY_CHAR && ch != CHAR_ANY_CHARS) {
+                buffer.append(ch);
+            } else {
+                if (buffer.length() != 0) {
+                    list.add(buffer.toString());
+                    buffer.setLength(0);
+                }
+
+                if (ch == CHAR_ANY_CHAR) {
+                    list.add(TOKEN_ANY_CHAR);
+                } else if (prevChar != CHAR_ANY_CHARS) {
+                    list.add(TOKEN_ANY_CHARS);
+                }
+            }
+
+            prevChar = ch;
+        }
+
+        if (buffer.length() != 0) {
+            list.add(buffer.toString());
+        }
+
+        return list.toArray(new String[0]);
+    }
+
+    // FilenameUtils.wildcardMatch() matches '*' followed by '?' with an empty string, for example "db*?" matches "db1" but not "db12";
+    // such '*' are removed so that policies continue to be evaluated as before
+    static String removeAnyCharsBeforeAnyChar(String pattern) {
+        if (!pattern.contains("*?")) {
+            return pattern;
+        }
+
+        StringBuilder sb = new StringBuilder(pattern.length());
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char ch = pattern.charAt(i);
+
+            if (ch == CHAR_ANY_CHARS) {
+                int nextIdx = i + 1;
+
+                while (nextIdx < pattern.length() && pattern.charAt(nextIdx) == CHAR_ANY_CHARS) {
+                    nextIdx++;
+                }
+
+                if (nextIdx < pattern.length() && pattern.charAt(nextIdx) == CHAR_ANY_CHAR) {
+                    i = nextIdx - 1;
+
+                    continue;
+                }
+            }
+
+            sb.append(ch);
+        }
+
+        return sb.toString();
+    }
+
+    // index of the first match of segment[0, segmentLen) in value[fromIdx, toIdx), or -1
+    private static int indexOf(CharSequence value, int fromIdx, int toIdx, String segment, int segmentLen, boolean ignoreCase) {
+        for (int i = fromIdx, lastIdx = toIdx - segmentLen; i <= lastIdx; i++) {
+            if (regionMatches(value, i, segment, segmentLen, ignoreCase)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // '?' in segment matches any character; caller ensures that value has segmentLen characters from offset
+    private static boolean regionMatches(CharSequence value, int offset, String segment, int segmentLen, boolean ignoreCase) {
+        for (int i = 0; i < segmentLen; i++) {
+            char sc = segment.charAt(i);
+
+            if (sc != CHAR_ANY_CHAR && !charEquals(value.charAt(offset + i), sc, ignoreCase)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // same comparison as String.regionMatches(ignoreCase, ...), which is used by IOCase
+    private static boolean charEquals(char c1, char c2, boolean ignoreCase) {
+        if (c1 == c2) {
+            return true;
+        } else if (!ignoreCase) {
+            return false;
+        }
+
+        char u1 = Character.toUpperCase(c1);
+        char u2 = Character.toUpperCase(c2);
+
+        return u1 == u2 || Character.toLowerCase(u1) == Character.toLowerCase(u2);
+    }
+}
@@ -29,6 +29,7 @@
 import org.apache.ranger.audit.provider.AuditProviderFactory;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.audit.provider.StandAloneAuditProviderFactory;
+import org.apache.ranger.audit.queue.AuditAsyncQueue;
 import org.apache.ranger.authorization.hadoop.config.RangerAuditConfig;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
@@ -61,6 +62,7 @@
 import org.apache.ranger.plugin.util.GrantRevokeRoleRequest;
 import org.apache.ranger.plugin.util.PerfDataRecorder;
 import org.apache.ranger.plugin.util.PolicyRefresher;
+import org.apache.ranger.plugin.util.RangerMetricsUtil;
 import org.apache.ranger.plugin.util.RangerPolicyDeltaUtil;
 import org.apache.ranger.plugin.util.RangerRoles;
 import org.apache.ranger.plugin.util.RangerRolesUtil;
@@ -397,6 +399,10 @@ public void init() {
             }
         }
 
+        if (providerFactory.isInitDone()) {
+            registerAuditQueueMetrics(providerFactory.getAuditProvider());
+        }
+
         if (!pluginConfig.getPolicyEngineOptions().disablePolicyRefresher) {
             refresher = new PolicyRefresher(this);
 
@@ -634,6 +640,8 @@ public void cleanup() {
         if (policyEngine != null) {
             ((RangerPolicyEngineImpl) policyEngine).releaseResources(true);
         }
+
+        pluginContext.shutdownBatchEvaluationPool();
     }
 
     public RangerAccessResultProcessor getResultProcessor() {
@@ -862,6 +870,30 @@ public RangerResourceACLs getResourceACLs(RangerAccessRequest request, Integer p
         return ret;
     }
 
+    /*
+     * Returns true if access policies of this plugin allow the user the given access on at least one resource of the given type.
+     * Tag-based policies, chained-plugins and GDS are not consulted.
+     */
+    public boolean isAccessAllowedOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups) {
+        boolean            ret          = false;
+        RangerPolicyEngine policyEngine = this.policyEngine;
+
+        if (policyEngine != null) {
+            ret = policyEngine.isAccessAllowedOnAnyResource(resourceName, accessType, user, userGroups);
+        }
+
+        return ret;
+    }
+
+    /*
+     * Returns true if result of isAccessAllowedOnAnyResource() for the given resource type can change with time, without a policy change.
+     */
+    public boolean hasValidityScheduleForResourceType(String resourceName) {
+        RangerPolicyEngine policyEngine = this.policyEngine;
+
+        return policyEngine != null && policyEngine.hasValidityScheduleForResourceType(resourceName);
+    }
+
     public Set<String> getRolesFromUserAndGroups(String user, Set<String> groups) {
         RangerPolicyEngine policyEngine = this.policyEngine;
 
@@ -1439,6 +1471,18 @@ private static AuditProviderFactory getAuditProviderFactory(String serviceName)
         return ret;
     }
 
+    /**
+     * Reports queue size and overflow counts of the audit queue, which is shared by all plugins in the process, to
+     * ranger-metrics as "audit.queue.<name>"; registering again for the same queue replaces the earlier source.
+     */
+    private static void registerAuditQueueMetrics(AuditHandler auditProvider) {
+        if (auditProvider instanceof AuditAsyncQueue) {
+            AuditAsyncQueue queue = (AuditAsyncQueue) auditProvider;
+
+            RangerMetricsUtil.registerPluginMetricsSource("audit.queue." + queue.getName(), queue::getMetrics);
+        }
+    }
+
     private static final class LogHistory {
         long lastLogTime;
         int  counter;
@@ -0,0 +1,1014 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary format for the policy, tag, role and userstore caches saved by plugins.
+ *
+ * The object is serialized with the same ObjectMapper (and hence the same annotations and settings) used for the JSON
+ * cache files, but to a token stream in which numbers are stored as varints and each distinct field name and short
+ * string value is stored only once. At startup the file is memory-mapped and the objects are built directly from the
+ * mapped buffer, skipping the text parsing and the char[]/String garbage of reading a large JSON file.
+ *
+ * File layout:
+ *   header : MAGIC (int), FORMAT_VERSION (int), last-modified time (long) and length (long) of the JSON cache file when
+ *            this file was written, name of the cached class (modified UTF-8)
+ *   payload: tokens
+ *   trailer: length of payload (long), CRC32 of payload (long), MAGIC (int)
+ *
+ * A file that is truncated, corrupt, of another format version or of another class is rejected with an IOException,
+ * so that callers can fall back to the JSON cache file. loadFromBinaryCache() also falls back to the JSON cache file
+ * when it was updated after the binary file was written, for example by an older plugin or after a failed binary write.
+ */
+public final class BinaryCacheUtil {
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryCacheUtil.class);
+
+    public static final int    MAGIC          = 0x524E4742; // "RNGB"
+    public static final int    FORMAT_VERSION = 2;
+    public static final String FILE_EXTENSION = ".bin";
+
+    private static final String JSON_FILE_EXTENSION      = ".json";
+    private static final String TMP_FILE_EXTENSION       = ".tmp";
+    private static final int    TRAILER_SIZE             = 8 + 8 + 4;
+    private static final int    CLASS_NAME_OFFSET        = 4 + 4 + 8 + 8;
+    private static final long   UNKNOWN_JSON_FILE_STAMP  = -1;
+    private static final int    MAX_SHARED_STRING_LENGTH = 256; // longer strings are not added to the string table
+    private static final int    WRITE_BUFFER_SIZE        = 64 * 1024;
+
+    private static final byte TOKEN_START_OBJECT  = 1;
+    private static final byte TOKEN_END_OBJECT    = 2;
+    private static final byte TOKEN_START_ARRAY   = 3;
+    private static final byte TOKEN_END_ARRAY     = 4;
+    private static final byte TOKEN_FIELD_NAME    = 5;  // followed by string-table reference or new string
+    private static final byte TOKEN_STRING        = 6;  // followed by string-table reference or new string
+    private static final byte TOKEN_STRING_INLINE = 7;  // followed by length and UTF-8 bytes; not added to string table
+    private static final byte TOKEN_INT           = 8;  // zigzag varint
+    private static final byte TOKEN_LONG          = 9;  // zigzag varint
+    private static final byte TOKEN_FLOAT         = 10;
+    private static final byte TOKEN_DOUBLE        = 11;
+    private static final byte TOKEN_BIG_INTEGER   = 12; // decimal string
+    private static final byte TOKEN_BIG_DECIMAL   = 13; // decimal string
+    private static final byte TOKEN_TRUE          = 14;
+    private static final byte TOKEN_FALSE         = 15;
+    private static final byte TOKEN_NULL          = 16;
+    private static final byte TOKEN_BINARY        = 17; // followed by length and bytes
+
+    private BinaryCacheUtil() {
+        // to block instantiation
+    }
+
+    /**
+     * @return the binary cache file to be used along with the given JSON cache file: 'hive_dev_hive.json' => 'hive_dev_hive.bin'
+     */
+    public static File getBinaryCacheFile(File jsonCacheFile) {
+        String name = jsonCacheFile.getName();
+
+        if (name.endsWith(JSON_FILE_EXTENSION)) {
+            name = name.substring(0, name.length() - JSON_FILE_EXTENSION.length());
+        }
+
+        return new File(jsonCacheFile.getParentFile(), name + FILE_EXTENSION);
+    }
+
+    /**
+     * Saves the object in the binary cache file of the given JSON cache file. Errors are logged and the binary cache
+     * file is removed, so that a stale binary file is never preferred over the JSON file.
+     *
+     * @return true if the binary cache file was written
+     */
+    public static boolean saveToBinaryCache(File jsonCacheFile, Object obj) {
+        File    binaryCacheFile = getBinaryCacheFile(jsonCacheFile);
+        boolean ret             = false;
+
+        try {
+            writeToFile(obj, binaryCacheFile, jsonCacheFile.lastModified(), jsonCacheFile.length());
+
+            ret = true;
+        } catch (Exception excp) {
+            LOG.error("failed to save to binary cache file '{}'", binaryCacheFile.getAbsolutePath(), excp);
+
+            deleteBinaryCache(jsonCacheFile);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Loads the object from the binary cache file of the given JSON cache file.
+     *
+     * @return the object; null if the binary cache file doesn't exist, can't be used or is older than the JSON cache file,
+     *         in which case the caller should load the JSON cache file
+     */
+    public static <T> T loadFromBinaryCache(File jsonCacheFile, Class<T> cls) {
+        File binaryCacheFile = getBinaryCacheFile(jsonCacheFile);
+        T    ret             = null;
+
+        if (binaryCacheFile.isFile() && binaryCacheFile.canRead()) {
+            try {
+                ret = readFromFile(binaryCacheFile, cls, jsonCacheFile);
+            } catch (StaleBinaryCacheException excp) {
+                LOG.info("{}. Will use JSON cache file '{}'", excp.getMessage(), jsonCacheFile.getAbsolutePath());
+            } catch (Exception excp) {
+                LOG.warn("failed to load from binary cache file '{}'. Will use JSON cache file '{}'", binaryCacheFile.getAbsolutePath(), jsonCacheFile.getAbsolutePath(), excp);
+            }
+        } else {
+            LOG.debug("binary cache file does not exist or not readable '{}'", binaryCacheFile.getAbsolutePath());
+        }
+
+        return ret;
+    }
+
+    public static void deleteBinaryCache(File jsonCacheFile) {
+        File binaryCacheFile = getBinaryCacheFile(jsonCacheFile);
+
+        if (binaryCacheFile.exists()) {
+            if (binaryCacheFile.delete()) {
+                LOG.debug("deleted binary cache file '{}'", binaryCacheFile.getAbsolutePath());
+            } else {
+                LOG.warn("failed to delete binary cache file '{}'", binaryCacheFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Writes the object to a temporary file, which then replaces the given file - so that a reader never sees a partially written file.
+     */
+    public static void writeToFile(Object obj, File file) throws IOException {
+        writeToFile(obj, file, UNKNOWN_JSON_FILE_STAMP, UNKNOWN_JSON_FILE_STAMP);
+    }
+
+    public static <T> T readFromFile(File file, Class<T> cls) throws IOException {
+        return readFromFile(file, cls, null);
+    }
+
+    private static void writeToFile(Object obj, File file, long jsonFileLastModified, long jsonFileLength) throws IOException {
+        File tmpFile = new File(file.getPath() + TMP_FILE_EXTENSION);
+
+        try (FileOutputStream fileOut = new FileOutputStream(tmpFile)) {
+            DataOutputStream headerOut = new DataOutputStream(fileOut);
+
+            headerOut.writeInt(MAGIC);
+            headerOut.writeInt(FORMAT_VERSION);
+            headerOut.writeLong(jsonFileLastModified);
+            headerOut.writeLong(jsonFileLength);
+            headerOut.writeUTF(obj.getClass().getName());
+            headerOut.flush();
+
+            long  payloadStart = fileOut.getChannel().position();
+            CRC32 crc          = new CRC32();
+
+            try (BinaryGenerator generator = new BinaryGenerator(JsonUtils.getMapper(), new BufferedOutputStream(new CheckedOutputStream(new NonClosingOutputStream(fileOut), crc), WRITE_BUFFER_SIZE))) {
+                JsonUtils.getMapper().writeValue(generator, obj);
+            }
+
+            long payloadLength = fileOut.getChannel().position() - payloadStart;
+
+            headerOut.writeLong(payloadLength);
+            headerOut.writeLong(crc.getValue());
+            headerOut.writeInt(MAGIC);
+            headerOut.flush();
+        } catch (IOException | RuntimeException excp) {
+            if (!tmpFile.delete()) {
+                LOG.debug("failed to delete temporary file '{}'", tmpFile.getAbsolutePath());
+            }
+
+            throw excp;
+        }
+
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException excp) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static <T> T readFromFile(File file, Class<T> cls, File jsonCacheFile) throws IOException {
+        final MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file.getAbsolutePath() + ": file too large to map (" + size + " bytes)");
+            }
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        return readFromBuffer(buffer, cls, file.getAbsolutePath(), jsonCacheFile);
+    }
+
+    /**
+     * @param jsonCacheFile if not null, the buffer is rejected with StaleBinaryCacheException when this file was updated after the buffer was written
+     */
+    private static <T> T readFromBuffer(ByteBuffer buffer, Class<T> cls, String source, File jsonCacheFile) throws IOException {
+        final ByteBuffer payload;
+
+        try {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(buffer.limit() - 4) != MAGIC) {
+                throw new IOException(source + ": not a binary cache file, or incomplete");
+            }
+
+            int formatVersion = buffer.getInt(4);
+
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(source + ": unsupported format version " + formatVersion + "; expected " + FORMAT_VERSION);
+            }
+
+            long jsonFileLastModified = buffer.getLong(8);
+            long jsonFileLength       = buffer.getLong(16);
+
+            // JSON cache file written after this file, for example by an older version of the plugin, has newer contents
+            if (jsonCacheFile != null && jsonFileLastModified != UNKNOWN_JSON_FILE_STAMP && (jsonCacheFile.lastModified() != jsonFileLastModified || jsonCacheFile.length() != jsonFileLength)) {
+                throw new StaleBinaryCacheException(source + ": JSON cache file '" + jsonCacheFile.getAbsolutePath() + "' was updated after this file was written");
+            }
+
+            int        classNameLen = buffer.getShort(CLASS_NAME_OFFSET) & 0xFFFF;
+            byte[]     className    = new byte[classNameLen];
+            ByteBuffer classNameBuf = buffer.duplicate();
+
+            // calls through Buffer, so that the classes built by JDK 9+ for Java 8 don't link to ByteBuffer methods only in Java 9+
+            ((Buffer) classNameBuf).position(CLASS_NAME_OFFSET + 2);
+
+            classNameBuf.get(className);
+
+            // class names are ASCII, hence same in modified UTF-8 and UTF-8
+            if (!cls.getName().equals(new String(className, StandardCharsets.UTF_8))) {
+                throw new IOException(source + ": contains " + new String(className, StandardCharsets.UTF_8) + "; expected " + cls.getName());
+            }
+
+            int  payloadStart  = CLASS_NAME_OFFSET + 2 + classNameLen;
+            int  payloadEnd    = buffer.limit() - TRAILER_SIZE;
+            long payloadLength = buffer.getLong(payloadEnd);
+            long payloadCrc    = buffer.getLong(payloadEnd + 8);
+
+            if (payloadLength != (payloadEnd - payloadStart)) {
+                throw new IOException(source + ": payload length mismatch: expected " + payloadLength + ", found " + (payloadEnd - payloadStart));
+            }
+
+            payload = buffer.duplicate();
+
+            ((Buffer) payload).position(payloadStart);
+            ((Buffer) payload).limit(payloadEnd);
+
+            CRC32 crc = new CRC32();
+
+            crc.update(payload.duplicate());
+
+            if (crc.getValue() != payloadCrc) {
+                throw new IOException(source + ": checksum mismatch");
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | BufferUnderflowException excp) {
+            throw new IOException(source + ": not a binary cache file, or incomplete", excp);
+        }
+
+        ObjectMapper mapper = JsonUtils.getMapper();
+
+        try (BinaryParser parser = new BinaryParser(mapper, payload)) {
+            return mapper.readValue(parser, cls);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException excp) {
+            throw new IOException(source + ": invalid content", excp);
+        }
+    }
+
+    /**
+     * JsonGenerator that writes the token stream to the given stream, which is closed when the generator is closed.
+     */
+    static final class BinaryGenerator extends GeneratorBase {
+        private final OutputStream         out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        BinaryGenerator(ObjectCodec codec, OutputStream out) {
+            super(0, codec);
+
+            this.out = out;
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            _verifyValueWrite("start an array");
+
+            _writeContext = _writeContext.createChildArrayContext();
+
+            out.write(TOKEN_START_ARRAY);
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            if (!_writeContext.inArray()) {
+                _reportError("Current context not Array but " + _writeContext.typeDesc());
+            }
+
+            _writeContext = _writeContext.clearAndGetParent();
+
+            out.write(TOKEN_END_ARRAY);
+        }
+
+        @Override
+        public void writeStartObject() throws IOException {
+            _verifyValueWrite("start an object");
+
+            _writeContext = _writeContext.createChildObjectContext();
+
+            out.write(TOKEN_START_OBJECT);
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            if (!_writeContext.inObject()) {
+                _reportError("Current context not Object but " + _writeContext.typeDesc());
+            }
+
+            _writeContext = _writeContext.clearAndGetParent();
+
+            out.write(TOKEN_END_OBJECT);
+        }
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+                _reportError("Can not write a field name, expecting a value");
+            }
+
+            out.write(TOKEN_FIELD_NAME);
+
+            writeSharedString(name);
+        }
+
+        @Override
+        public void writeString(String text) throws IOException {
+            if (text == null) {
+                writeNull();
+            } else {
+                _verifyValueWrite("write a string");
+
+                if (text.length() <= MAX_SHARED_STRING_LENGTH) {
+                    out.write(TOKEN_STRING);
+
+                    writeSharedString(text);
+                } else {
+                    out.write(TOKEN_STRING_INLINE);
+
+                    writeBytes(text.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        @Override
+        public void writeString(char[] text, int offset, int len) throws IOException {
+            writeString(new String(text, offset, len));
+        }
+
+        @Override
+        public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+            writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+            writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeRaw(String text) {
+            throw new UnsupportedOperationException("writeRaw() not supported by binary cache format");
+        }
+
+        @Override
+        public void writeRaw(String text, int offset, int len) {
+            throw new UnsupportedOperationException("writeRaw() not supported by binary cache format");
+        }
+
+        @Override
+        public void writeRaw(char[] text, int offset, int len) {
+            throw new UnsupportedOperationException("writeRaw() not supported by binary cache format");
+        }
+
+        @Override
+        public void writeRaw(char c) {
+            throw new UnsupportedOperationException("writeRaw() not supported by binary cache format");
+        }
+
+        @Override
+        public void writeBinary(Base64Variant bv, byte[] data, int offset, int len) throws IOException {
+            _verifyValueWrite("write a binary value");
+
+            out.write(TOKEN_BINARY);
+
+            writeVarint(len);
+
+            out.write(data, offset, len);
+        }
+
+        @Override
+        public void writeNumber(int v) throws IOException {
+            _verifyValueWrite("write a number");
+
+            out.write(TOKEN_INT);
+
+            writeVarint((v << 1) ^ (v >> 31));
+        }
+
+        @Override
+        public void writeNumber(long v) throws IOException {
+            _verifyValueWrite("write a number");
+
+            out.write(TOKEN_LONG);
+
+            writeVarint((v << 1) ^ (v >> 63));
+        }
+
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if (v == null) {
+                writeNull();
+            } else {
+                _verifyValueWrite("write a number");
+
+                out.write(TOKEN_BIG_INTEGER);
+
+                writeBytes(v.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public void writeNumber(double v) throws IOException {
+            _verifyValueWrite("write a number");
+
+            out.write(TOKEN_DOUBLE);
+
+            writeFixed(Double.doubleToRawLongBits(v), 8);
+        }
+
+        @Override
+        public void writeNumber(float v) throws IOException {
+            _verifyValueWrite("write a number");
+
+            out.write(TOKEN_FLOAT);
+
+            writeFixed(Float.floatToRawIntBits(v), 4);
+        }
+
+        @Override
+        public void writeNumber(BigDecimal v) throws IOException {
+            if (v == null) {
+                writeNull();
+            } else {
+                _verifyValueWrite("write a number");
+
+                out.write(TOKEN_BIG_DECIMAL);
+
+                writeBytes(v.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public void writeNumber(String encodedValue) throws IOException {
+            if (encodedValue == null) {
+                writeNull();
+            } else {
+                _verifyValueWrite("write a number");
+
+                boolean isIntegral = encodedValue.indexOf('.') == -1 && encodedValue.indexOf('e') == -1 && encodedValue.indexOf('E') == -1;
+
+                out.write(isIntegral ? TOKEN_BIG_INTEGER : TOKEN_BIG_DECIMAL);
+
+                writeBytes(encodedValue.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public void writeBoolean(boolean state) throws IOException {
+            _verifyValueWrite("write a boolean value");
+
+            out.write(state ? TOKEN_TRUE : TOKEN_FALSE);
+        }
+
+        @Override
+        public void writeNull() throws IOException {
+            _verifyValueWrite("write a null");
+
+            out.write(TOKEN_NULL);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!isClosed()) {
+                super.close();
+
+                out.close();
+            }
+        }
+
+        @Override
+        protected void _releaseBuffers() {
+        }
+
+        @Override
+        protected void _verifyValueWrite(String typeMsg) throws IOException {
+            if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+                _reportError("Can not " + typeMsg + ", expecting field name");
+            }
+        }
+
+        // first occurrence: index 0, followed by the string; subsequent occurrences: 1 + index of the string in the table
+        private void writeSharedString(String str) throws IOException {
+            Integer idx = strings.get(str);
+
+            if (idx != null) {
+                writeVarint(idx + 1L);
+            } else {
+                strings.put(str, strings.size());
+
+                writeVarint(0);
+                writeBytes(str.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeVarint(bytes.length);
+
+            out.write(bytes);
+        }
+
+        private void writeVarint(long v) throws IOException {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+
+                v >>>= 7;
+            }
+
+            out.write((int) v);
+        }
+
+        private void writeFixed(long v, int numBytes) throws IOException {
+            for (int shift = (numBytes - 1) * 8; shift >= 0; shift -= 8) {
+                out.write((int) (v >>> shift));
+            }
+        }
+    }
+
+    /**
+     * JsonParser that reads the token stream directly from the given buffer, for example a memory-mapped file.
+     */
+    static final class BinaryParser extends ParserMinimalBase {
+        private final ByteBuffer      buffer;
+        private final List<String>    strings = new ArrayList<>();
+        private       ObjectCodec     codec;
+        private       JsonReadContext context = JsonReadContext.createRootContext(null);
+        private       boolean         closed;
+        private       String          text;
+        private       Number          number;
+        private       NumberType      numberType;
+        private       byte[]          binary;
+        private       byte[]          scratch = new byte[256];
+
+        BinaryParser(ObjectCodec codec, ByteBuffer buffer) {
+            this.codec  = codec;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException {
+            if (closed || !buffer.hasRemaining()) {
+                _currToken = null;
+
+                return null;
+            }
+
+            final byte token = buffer.get();
+
+            switch (token) {
+                case TOKEN_START_OBJECT:
+                    context    = context.createChildObjectContext(-1, -1);
+                    _currToken = JsonToken.START_OBJECT;
+                    break;
+
+                case TOKEN_END_OBJECT:
+                    context    = context.clearAndGetParent();
+                    _currToken = JsonToken.END_OBJECT;
+                    break;
+
+                case TOKEN_START_ARRAY:
+                    context    = context.createChildArrayContext(-1, -1);
+                    _currToken = JsonToken.START_ARRAY;
+                    break;
+
+                case TOKEN_END_ARRAY:
+                    context    = context.clearAndGetParent();
+                    _currToken = JsonToken.END_ARRAY;
+                    break;
+
+                case TOKEN_FIELD_NAME:
+                    context.setCurrentName(readSharedString());
+                    _currToken = JsonToken.FIELD_NAME;
+                    break;
+
+                case TOKEN_STRING:
+                    text       = readSharedString();
+                    _currToken = JsonToken.VALUE_STRING;
+                    break;
+
+                case TOKEN_STRING_INLINE:
+                    text       = readString();
+                    _currToken = JsonToken.VALUE_STRING;
+                    break;
+
+                case TOKEN_INT: {
+                    long v = readVarint();
+
+                    number     = (int) ((v >>> 1) ^ -(v & 1));
+                    numberType = NumberType.INT;
+                    _currToken = JsonToken.VALUE_NUMBER_INT;
+                }
+                break;
+
+                case TOKEN_LONG: {
+                    long v = readVarint();
+
+                    number     = (v >>> 1) ^ -(v & 1);
+                    numberType = NumberType.LONG;
+                    _currToken = JsonToken.VALUE_NUMBER_INT;
+                }
+                break;
+
+                case TOKEN_BIG_INTEGER:
+                    number     = new BigInteger(readString());
+                    numberType = NumberType.BIG_INTEGER;
+                    _currToken = JsonToken.VALUE_NUMBER_INT;
+                    break;
+
+                case TOKEN_FLOAT:
+                    number     = buffer.getFloat();
+                    numberType = NumberType.FLOAT;
+                    _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+                    break;
+
+                case TOKEN_DOUBLE:
+                    number     = buffer.getDouble();
+                    numberType = NumberType.DOUBLE;
+                    _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+                    break;
+
+                case TOKEN_BIG_DECIMAL:
+                    number     = new BigDecimal(readString());
+                    numberType = NumberType.BIG_DECIMAL;
+                    _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+                    break;
+
+                case TOKEN_TRUE:
+                    _currToken = JsonToken.VALUE_TRUE;
+                    break;
+
+                case TOKEN_FALSE:
+                    _currToken = JsonToken.VALUE_FALSE;
+                    break;
+
+                case TOKEN_NULL:
+                    _currToken = JsonToken.VALUE_NULL;
+                    break;
+
+                case TOKEN_BINARY:
+                    binary     = new byte[readLength()];
+                    buffer.get(binary);
+                    _currToken = JsonToken.VALUE_EMBEDDED_OBJECT;
+                    break;
+
+                default:
+                    _reportError("Invalid token " + token + " at offset " + (buffer.position() - 1));
+            }
+
+            return _currToken;
+        }
+
+        @Override
+        protected void _handleEOF() {
+        }
+
+        @Override
+        public String getCurrentName() {
+            if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+                JsonReadContext parent = context.getParent();
+
+                return parent == null ? null : parent.getCurrentName();
+            }
+
+            return context.getCurrentName();
+        }
+
+        @Override
+        public void overrideCurrentName(String name) {
+            JsonReadContext ctx = context;
+
+            if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+                ctx = ctx.getParent();
+            }
+
+            try {
+                ctx.setCurrentName(name);
+            } catch (IOException excp) {
+                throw new IllegalStateException(excp);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public JsonStreamContext getParsingContext() {
+            return context;
+        }
+
+        @Override
+        public JsonLocation getCurrentLocation() {
+            return JsonLocation.NA;
+        }
+
+        @Override
+        public JsonLocation getTokenLocation() {
+            return JsonLocation.NA;
+        }
+
+        @Override
+        public String getText() {
+            if (_currToken == null) {
+                return null;
+            }
+
+            switch (_currToken) {
+                case FIELD_NAME:
+                    return context.getCurrentName();
+
+                case VALUE_STRING:
+                    return text;
+
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return number.toString();
+
+                default:
+                    return _currToken.asString();
+            }
+        }
+
+        @Override
+        public char[] getTextCharacters() {
+            String ret = getText();
+
+            return ret == null ? null : ret.toCharArray();
+        }
+
+        @Override
+        public boolean hasTextCharacters() {
+            return false;
+        }
+
+        @Override
+        public int getTextLength() {
+            String ret = getText();
+
+            return ret == null ? 0 : ret.length();
+        }
+
+        @Override
+        public int getTextOffset() {
+            return 0;
+        }
+
+        @Override
+        public byte[] getBinaryValue(Base64Variant bv) throws IOException {
+            if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                return binary;
+            } else if (_currToken == JsonToken.VALUE_STRING) {
+                return bv.decode(text);
+            }
+
+            _reportError("Current token (" + _currToken + ") not VALUE_EMBEDDED_OBJECT or VALUE_STRING, can not access as binary");
+
+            return null;
+        }
+
+        @Override
+        public Object getEmbeddedObject() {
+            return _currToken == JsonToken.VALUE_EMBEDDED_OBJECT ? binary : null;
+        }
+
+        @Override
+        public ObjectCodec getCodec() {
+            return codec;
+        }
+
+        @Override
+        public void setCodec(ObjectCodec codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        public Version version() {
+            return Version.unknownVersion();
+        }
+
+        @Override
+        public Number getNumberValue() throws IOException {
+            checkNumberToken();
+
+            return number;
+        }
+
+        @Override
+        public NumberType getNumberType() throws IOException {
+            checkNumberToken();
+
+            return numberType;
+        }
+
+        @Override
+        public int getIntValue() throws IOException {
+            return getNumberValue().intValue();
+        }
+
+        @Override
+        public long getLongValue() throws IOException {
+            return getNumberValue().longValue();
+        }
+
+        @Override
+        public BigInteger getBigIntegerValue() throws IOException {
+            Number value = getNumberValue();
+
+            return value instanceof BigInteger ? (BigInteger) value : getDecimalValue().toBigInteger();
+        }
+
+        @Override
+        public float getFloatValue() throws IOException {
+            return getNumberValue().floatValue();
+        }
+
+        @Override
+        public double getDoubleValue() throws IOException {
+            return getNumberValue().doubleValue();
+        }
+
+        @Override
+        public BigDecimal getDecimalValue() throws IOException {
+            Number value = getNumberValue();
+
+            return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+        }
+
+        private void checkNumberToken() throws IOException {
+            if (_currToken != JsonToken.VALUE_NUMBER_INT && _currToken != JsonToken.VALUE_NUMBER_FLOAT) {
+                _reportError("Current token (" + _currToken + ") not numeric, can not use numeric value accessors");
+            }
+        }
+
+        private String readSharedString() throws IOException {
+            long ref = readVarint();
+
+            if (ref == 0) {
+                String ret = readString();
+
+                strings.add(ret);
+
+                return ret;
+            } else if (ref > strings.size()) {
+                _reportError("Invalid string reference " + ref + " at offset " + buffer.position());
+            }
+
+            return strings.get((int) (ref - 1));
+        }
+
+        private String readString() throws IOException {
+            int len = readLength();
+
+            if (len > scratch.length) {
+                scratch = new byte[Math.max(len, scratch.length * 2)];
+            }
+
+            buffer.get(scratch, 0, len);
+
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        private int readLength() throws IOException {
+            long ret = readVarint();
+
+            if (ret > buffer.remaining()) {
+                _reportError("Invalid length " + ret + " at offset " + buffer.position());
+            }
+
+            return (int) ret;
+        }
+
+        private long readVarint() throws IOException {
+            long ret = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+
+                ret |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return ret;
+                }
+            }
+
+            _reportError("Invalid varint at offset " + buffer.position());
+
+            return ret;
+        }
+    }
+
+    private static final class StaleBinaryCacheException extends IOException {
+        StaleBinaryCacheException(String message) {
+            super(message);
+        }
+    }
+
+    // CheckedOutputStream.close() would close the file stream, which is still needed to write the trailer
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
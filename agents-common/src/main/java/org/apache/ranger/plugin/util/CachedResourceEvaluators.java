@@ -25,6 +25,7 @@
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
+import org.apache.ranger.plugin.policyengine.ConcurrentCacheMap;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
 import org.apache.ranger.plugin.policyengine.RangerAccessResource;
@@ -36,19 +37,36 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Cache of service-resource-matchers looked up from the tag resource-trie, keyed by resource and element matching-scopes.
+ *
+ * Number of resources cached is bounded - least recently used ones are evicted (CLOCK approximation) when the capacity is
+ * reached. Lookups don't take a lock, hence don't wait for updates by tag-enricher on receipt of tag deltas.
+ */
 public class CachedResourceEvaluators {
     private static final Logger LOG                           = LoggerFactory.getLogger(CachedResourceEvaluators.class);
     private static final Logger PERF_EVALUATORS_RETRIEVAL_LOG = RangerPerfTracer.getPerfLogger("CachedResourceEvaluators.retrieval");
 
-    private final Map<String, Map<Map<String, ResourceElementMatchingScope>, Collection<RangerServiceResourceMatcher>>> cache     = new HashMap<>();
-    private final RangerReadWriteLock                                                                                   cacheLock = new RangerReadWriteLock(true);
+    public static final int DEFAULT_CACHE_SIZE = 100000;
 
-    public CachedResourceEvaluators() {}
+    private final ConcurrentCacheMap<String, Map<Map<String, ResourceElementMatchingScope>, Collection<RangerServiceResourceMatcher>>> cache;
+    private final LongAdder                                                                                                           hitCount  = new LongAdder();
+    private final LongAdder                                                                                                           missCount = new LongAdder();
+
+    public CachedResourceEvaluators() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public CachedResourceEvaluators(int cacheSize) {
+        this.cache = new ConcurrentCacheMap<>(cacheSize);
+    }
 
     public static Collection<RangerServiceResourceMatcher> getEvaluators(RangerAccessRequest request, Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie, CachedResourceEvaluators cache) {
         LOG.debug("==> CachedResourceEvaluators.getEvaluators(request={})", request);
@@ -120,31 +138,67 @@ public static boolean excludeDescendantMatches(RangerAccessResource resource) {
     }
 
     public Collection<RangerServiceResourceMatcher> getEvaluators(String resourceKey, Map<String, ResourceElementMatchingScope> scopes) {
-        Collection<RangerServiceResourceMatcher> ret;
+        Map<Map<String, ResourceElementMatchingScope>, Collection<RangerServiceResourceMatcher>> evaluatorsByScopes = resourceKey != null ? cache.get(resourceKey) : null;
+        Collection<RangerServiceResourceMatcher>                                                 ret                = evaluatorsByScopes != null ? evaluatorsByScopes.get(toKey(scopes)) : null;
 
-        try (RangerReadWriteLock.RangerLock ignored = cacheLock.getReadLock()) {
-            ret = cache.getOrDefault(resourceKey, Collections.emptyMap()).get(scopes);
+        if (ret != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
         }
 
         return ret;
     }
 
     public void cacheEvaluators(String resource, Map<String, ResourceElementMatchingScope> scopes, Collection<RangerServiceResourceMatcher> evaluators) {
-        try (RangerReadWriteLock.RangerLock ignored = cacheLock.getWriteLock()) {
-            cache.computeIfAbsent(resource, k -> new HashMap<>()).put(scopes, evaluators);
+        if (resource != null && evaluators != null) {
+            // computeIfAbsent(): concurrent callers for the same resource must share one map of scopes, or their entries are lost
+            cache.computeIfAbsent(resource, k -> new ConcurrentHashMap<>()).put(toKey(scopes), evaluators);
         }
     }
 
     public void removeCacheEvaluators(Set<String> resources) {
-        try (RangerReadWriteLock.RangerLock ignored = cacheLock.getWriteLock()) {
-            resources.forEach(cache::remove);
-        }
+        resources.forEach(cache::remove);
     }
 
     public void clearCache() {
-        try (RangerReadWriteLock.RangerLock ignored = cacheLock.getWriteLock()) {
-            cache.clear();
-        }
+        cache.clear();
+    }
+
+    public int getCapacity() {
+        return cache.getCapacity();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put("capacity", getCapacity());
+        ret.put("size", getSize());
+        ret.put("hitCount", getHitCount());
+        ret.put("missCount", getMissCount());
+        ret.put("evictionCount", getEvictionCount());
+
+        return ret;
+    }
+
+    private static Map<String, ResourceElementMatchingScope> toKey(Map<String, ResourceElementMatchingScope> scopes) {
+        return scopes != null ? scopes : Collections.emptyMap();
     }
 
     private static class SelfOrAncestorPredicate implements Predicate {
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Long-polls Ranger Admin for changes and triggers a download as soon as a change is notified, instead of waiting
+ * for the next scheduled poll. Scheduled polls by DownloaderTask continue as well, as a fallback.
+ */
+public final class ChangeNotificationListener extends Thread {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeNotificationListener.class);
+
+    private final ChangeWaiter                   changeWaiter;
+    private final LongSupplier                   versionSupplier;
+    private final BlockingQueue<DownloadTrigger> downloadQueue;
+    private final long                           timeoutMs;
+    private final long                           retryIntervalMs;
+
+    /**
+     * @param name            name of the thread
+     * @param changeWaiter    waits for a change from the version last downloaded
+     * @param versionSupplier version last downloaded; used to detect failed downloads
+     * @param downloadQueue   queue of the refresher to trigger downloads
+     * @param timeoutMs       time to wait for a change, in each request to Ranger Admin
+     * @param retryIntervalMs time to wait after a failure, before the next request to Ranger Admin
+     */
+    public ChangeNotificationListener(String name, ChangeWaiter changeWaiter, LongSupplier versionSupplier, BlockingQueue<DownloadTrigger> downloadQueue, long timeoutMs, long retryIntervalMs) {
+        super(name);
+
+        this.changeWaiter    = changeWaiter;
+        this.versionSupplier = versionSupplier;
+        this.downloadQueue   = downloadQueue;
+        this.timeoutMs       = timeoutMs;
+        this.retryIntervalMs = retryIntervalMs;
+
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        LOG.debug("==> ChangeNotificationListener({}).run()", getName());
+
+        while (!isInterrupted()) {
+            try {
+                if (changeWaiter.waitForChange(timeoutMs)) {
+                    long            lastKnownVersion = versionSupplier.getAsLong();
+                    DownloadTrigger trigger          = new DownloadTrigger();
+
+                    downloadQueue.put(trigger);
+                    trigger.waitForCompletion();
+
+                    if (versionSupplier.getAsLong() == lastKnownVersion) { // download failed; avoid retrying in a tight loop
+                        LOG.debug("ChangeNotificationListener({}): no change in version {} after download. Will retry after {} ms", getName(), lastKnownVersion, retryIntervalMs);
+
+                        Thread.sleep(retryIntervalMs);
+                    }
+                }
+            } catch (InterruptedException excp) {
+                LOG.debug("ChangeNotificationListener({}).run(): interrupted! Exiting thread", getName());
+
+                break;
+            } catch (UnsupportedOperationException excp) {
+                LOG.info("ChangeNotificationListener({}): change notification is not supported. Changes will be downloaded on schedule", getName());
+
+                break;
+            } catch (NotificationUnavailableException excp) {
+                LOG.debug("ChangeNotificationListener({}): change notification is unavailable ({}). Will retry after {} ms", getName(), excp.getMessage(), retryIntervalMs);
+
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            } catch (Exception excp) {
+                LOG.warn("ChangeNotificationListener({}): failed to get change notification. Will retry after {} ms", getName(), retryIntervalMs, excp);
+
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+
+        LOG.debug("<== ChangeNotificationListener({}).run()", getName());
+    }
+
+    public interface ChangeWaiter {
+        /**
+         * @return true if a change is available for download; false if there was no change in timeoutMs
+         */
+        boolean waitForChange(long timeoutMs) throws Exception;
+    }
+
+    /**
+     * Thrown by ChangeWaiter when Ranger Admin can't serve the notification request for now - for example, when too
+     * many requests are waiting or the service is not found. Changes continue to be downloaded on schedule.
+     */
+    public static class NotificationUnavailableException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public NotificationUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
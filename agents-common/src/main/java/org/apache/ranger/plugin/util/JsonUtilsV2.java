@@ -23,6 +23,7 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.jersey.api.client.ClientResponse;
 
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.Writer;
@@ -91,6 +92,16 @@ public static <T> T readResponse(ClientResponse response, Class<T> cls) throws E
         return jsonToObj(jsonStr, cls);
     }
 
+    /**
+     * Reads the response entity directly from the response stream - without first reading the entity into a String.
+     * Preferred for large responses, like policies/tags/roles downloaded by plugins.
+     */
+    public static <T> T readResponseStream(ClientResponse response, Class<T> cls) throws Exception {
+        try (InputStream in = response.getEntityInputStream()) {
+            return getMapper().readValue(in, cls);
+        }
+    }
+
     public static <T> T readResponse(ClientResponse response, TypeReference<T> cls) throws Exception {
         String jsonStr = response.getEntity(String.class);
 
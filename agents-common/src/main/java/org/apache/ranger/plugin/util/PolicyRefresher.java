@@ -37,6 +37,7 @@
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Timer;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -51,10 +52,14 @@ public class PolicyRefresher extends Thread {
     private final RangerAdminClient              rangerAdmin;
     private final RangerRolesProvider            rolesProvider;
     private final long                           pollingIntervalMs;
+    private final boolean                        isChangeNotificationEnabled;
+    private final long                           changeNotificationTimeoutMs;
     private final String                         cacheFileName;
     private final String                         cacheDir;
+    private final boolean                        isBinaryCacheEnabled;
     private final BlockingQueue<DownloadTrigger> policyDownloadQueue = new LinkedBlockingQueue<>();
     private       Timer                          policyDownloadTimer;
+    private       ChangeNotificationListener     changeNotificationListener;
     private       long                           lastKnownVersion    = -1L;
     private       long                           lastActivationTimeInMillis;
     private       boolean                        policiesSetInPlugin;
@@ -71,6 +76,8 @@ public PolicyRefresher(RangerBasePlugin plugIn) {
         this.serviceName = plugIn.getServiceName();
         this.cacheDir    = pluginConfig.get(propertyPrefix + ".policy.cache.dir");
 
+        this.isBinaryCacheEnabled = pluginConfig.getBoolean(propertyPrefix + ".policy.cache.binary.enabled", false);
+
         String appId         = StringUtils.isEmpty(plugIn.getAppId()) ? serviceType : plugIn.getAppId();
         String cacheFilename = String.format("%s_%s.json", appId, serviceName);
 
@@ -86,6 +93,9 @@ public PolicyRefresher(RangerBasePlugin plugIn) {
         this.rolesProvider     = new RangerRolesProvider(getServiceType(), appId, getServiceName(), rangerAdmin, cacheDir, pluginConfig);
         this.pollingIntervalMs = pluginConfig.getLong(propertyPrefix + ".policy.pollIntervalMs", 30 * 1000L);
 
+        this.isChangeNotificationEnabled = pluginConfig.getBoolean(propertyPrefix + ".policy.change.notification.enabled", false);
+        this.changeNotificationTimeoutMs = pluginConfig.getLong(propertyPrefix + ".policy.change.notification.timeoutMs", 60 * 1000L);
+
         setName("PolicyRefresher(serviceName=" + serviceName + ")-" + getId());
 
         LOG.debug("<== PolicyRefresher(serviceName={}).PolicyRefresher()", serviceName);
@@ -145,17 +155,34 @@ public void startRefresher() {
 
             policyDownloadTimer = null;
         }
+
+        if (isChangeNotificationEnabled) {
+            changeNotificationListener = new ChangeNotificationListener("PolicyChangeNotificationListener(serviceName=" + serviceName + ")",
+                    timeoutMs -> rangerAdmin.waitForPolicyChange(lastKnownVersion, rolesProvider.getLastKnownRoleVersion(), timeoutMs),
+                    () -> Objects.hash(lastKnownVersion, rolesProvider.getLastKnownRoleVersion()),
+                    policyDownloadQueue, changeNotificationTimeoutMs, pollingIntervalMs);
+
+            changeNotificationListener.start();
+
+            LOG.debug("Started {}", changeNotificationListener.getName());
+        }
     }
 
     public void stopRefresher() {
-        Timer policyDownloadTimer = this.policyDownloadTimer;
+        Timer                      policyDownloadTimer        = this.policyDownloadTimer;
+        ChangeNotificationListener changeNotificationListener = this.changeNotificationListener;
 
-        this.policyDownloadTimer = null;
+        this.policyDownloadTimer        = null;
+        this.changeNotificationListener = null;
 
         if (policyDownloadTimer != null) {
             policyDownloadTimer.cancel();
         }
 
+        if (changeNotificationListener != null) {
+            changeNotificationListener.interrupt();
+        }
+
         if (super.isAlive()) {
             super.interrupt();
 
@@ -268,6 +295,11 @@ public void saveToCache(ServicePolicies policies) {
                     }
                 }
 
+                // deltas are saved in separate files; binary cache is kept only for the complete set of policies
+                if (isBinaryCacheEnabled && CollectionUtils.isEmpty(policies.getPolicyDeltas())) {
+                    BinaryCacheUtil.saveToBinaryCache(cacheFile, policies);
+                }
+
                 RangerPerfTracer.log(perf);
             }
 
@@ -424,8 +456,14 @@ private ServicePolicies loadFromCache() {
             }
 
             try {
-                reader   = new FileReader(cacheFile);
-                policies = JsonUtils.jsonToObject(reader, ServicePolicies.class);
+                if (isBinaryCacheEnabled) {
+                    policies = BinaryCacheUtil.loadFromBinaryCache(cacheFile, ServicePolicies.class);
+                }
+
+                if (policies == null) {
+                    reader   = new FileReader(cacheFile);
+                    policies = JsonUtils.jsonToObject(reader, ServicePolicies.class);
+                }
 
                 if (policies != null) {
                     if (!StringUtils.equals(serviceName, policies.getServiceName())) {
@@ -521,6 +559,10 @@ private void disableCache() {
             LOG.debug("No local policy cache found. No need to disable it!");
         }
 
+        if (cacheFile != null) {
+            BinaryCacheUtil.deleteBinaryCache(cacheFile);
+        }
+
         LOG.debug("<== PolicyRefresher.disableCache(serviceName={})", serviceName);
     }
 
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compact map keyed by primitive char, used to hold children of resource-trie nodes.
+ *
+ * Entries are kept in a sorted char[] with a parallel value array, looked up by binary search, while the
+ * number of entries is small. Once the fan-out goes beyond SORTED_ARRAY_MAX_SIZE, entries are moved to an
+ * open-addressing (linear probing) table. Lookups with get(char) do not box the key.
+ *
+ * Null values are not supported. This class is not thread-safe; callers must synchronize updates.
+ */
+public class RangerCharMap<V> extends AbstractMap<Character, V> {
+    static final int SORTED_ARRAY_MAX_SIZE = 16;
+
+    private static final char[]   EMPTY_KEYS   = new char[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private char[]   keys   = EMPTY_KEYS;
+    private Object[] values = EMPTY_VALUES;
+    private int      size;
+    private boolean  isHashed;
+
+    public RangerCharMap() {
+    }
+
+    public V get(char key) {
+        final int idx = isHashed ? hashIndexOf(key) : Arrays.binarySearch(keys, 0, size, key);
+
+        return idx >= 0 ? (V) values[idx] : null;
+    }
+
+    public V put(char key, V value) {
+        requireNonNull(value, "value");
+
+        final V ret;
+
+        if (isHashed) {
+            ret = hashPut(key, value);
+        } else {
+            int idx = Arrays.binarySearch(keys, 0, size, key);
+
+            if (idx >= 0) {
+                ret = (V) values[idx];
+
+                values[idx] = value;
+            } else if (size < SORTED_ARRAY_MAX_SIZE) {
+                ret = null;
+
+                sortedInsert(-(idx + 1), key, value);
+            } else {
+                ret = null;
+
+                convertToHashed();
+                hashPut(key, value);
+            }
+        }
+
+        return ret;
+    }
+
+    public V remove(char key) {
+        final V ret;
+
+        if (isHashed) {
+            ret = hashRemove(key);
+        } else {
+            int idx = Arrays.binarySearch(keys, 0, size, key);
+
+            if (idx >= 0) {
+                ret = (V) values[idx];
+
+                sortedRemove(idx);
+            } else {
+                ret = null;
+            }
+        }
+
+        return ret;
+    }
+
+    public boolean containsKey(char key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Character ? get(((Character) key).charValue()) : null;
+    }
+
+    @Override
+    public V put(Character key, V value) {
+        return put(key.charValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Character ? remove(((Character) key).charValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        keys     = EMPTY_KEYS;
+        values   = EMPTY_VALUES;
+        size     = 0;
+        isHashed = false;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    V getItem(int slot) {
+                        return (V) values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Character, V>> entrySet() {
+        return new AbstractSet<Entry<Character, V>>() {
+            @Override
+            public Iterator<Entry<Character, V>> iterator() {
+                return new SlotIterator<Entry<Character, V>>() {
+                    @Override
+                    Entry<Character, V> getItem(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], (V) values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void sortedInsert(int pos, char key, V value) {
+        // grow by exactly one slot: trie nodes are rarely updated after build, and most have very few children
+        char[]   newKeys   = new char[size + 1];
+        Object[] newValues = new Object[size + 1];
+
+        System.arraycopy(keys, 0, newKeys, 0, pos);
+        System.arraycopy(values, 0, newValues, 0, pos);
+        System.arraycopy(keys, pos, newKeys, pos + 1, size - pos);
+        System.arraycopy(values, pos, newValues, pos + 1, size - pos);
+
+        newKeys[pos]   = key;
+        newValues[pos] = value;
+
+        keys   = newKeys;
+        values = newValues;
+        size++;
+    }
+
+    private void sortedRemove(int idx) {
+        if (size == 1) {
+            keys   = EMPTY_KEYS;
+            values = EMPTY_VALUES;
+        } else {
+            char[]   newKeys   = new char[size - 1];
+            Object[] newValues = new Object[size - 1];
+
+            System.arraycopy(keys, 0, newKeys, 0, idx);
+            System.arraycopy(values, 0, newValues, 0, idx);
+            System.arraycopy(keys, idx + 1, newKeys, idx, size - idx - 1);
+            System.arraycopy(values, idx + 1, newValues, idx, size - idx - 1);
+
+            keys   = newKeys;
+            values = newValues;
+        }
+
+        size--;
+    }
+
+    private void convertToHashed() {
+        char[]   oldKeys   = keys;
+        Object[] oldValues = values;
+        int      oldSize   = size;
+
+        keys     = new char[SORTED_ARRAY_MAX_SIZE * 4];
+        values   = new Object[SORTED_ARRAY_MAX_SIZE * 4];
+        size     = 0;
+        isHashed = true;
+
+        for (int i = 0; i < oldSize; i++) {
+            hashPut(oldKeys[i], (V) oldValues[i]);
+        }
+    }
+
+    private int hashIndexOf(char key) {
+        final int mask = keys.length - 1;
+
+        for (int idx = hash(key) & mask; values[idx] != null; idx = (idx + 1) & mask) {
+            if (keys[idx] == key) {
+                return idx;
+            }
+        }
+
+        return -1;
+    }
+
+    private V hashPut(char key, V value) {
+        int mask = keys.length - 1;
+        int idx  = hash(key) & mask;
+
+        for (; values[idx] != null; idx = (idx + 1) & mask) {
+            if (keys[idx] == key) {
+                V ret = (V) values[idx];
+
+                values[idx] = value;
+
+                return ret;
+            }
+        }
+
+        keys[idx]   = key;
+        values[idx] = value;
+        size++;
+
+        if (size * 2 > keys.length) { // keep load factor at or below 0.5
+            rehash(keys.length * 2);
+        }
+
+        return null;
+    }
+
+    private V hashRemove(char key) {
+        int idx = hashIndexOf(key);
+
+        if (idx < 0) {
+            return null;
+        }
+
+        final V   ret  = (V) values[idx];
+        final int mask = keys.length - 1;
+
+        values[idx] = null;
+        size--;
+
+        // backward-shift deletion: move up entries in the same probe sequence to fill the hole
+        for (int hole = idx, curr = (idx + 1) & mask; values[curr] != null; curr = (curr + 1) & mask) {
+            int home = hash(keys[curr]) & mask;
+
+            if (((curr - home) & mask) >= ((curr - hole) & mask)) {
+                keys[hole]   = keys[curr];
+                values[hole] = values[curr];
+                values[curr] = null;
+                hole         = curr;
+            }
+        }
+
+        return ret;
+    }
+
+    private void rehash(int newCapacity) {
+        char[]   oldKeys   = keys;
+        Object[] oldValues = values;
+
+        keys   = new char[newCapacity];
+        values = new Object[newCapacity];
+        size   = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                hashPut(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(char key) {
+        int h = key * 0x9E3779B1;
+
+        return h ^ (h >>> 16);
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < (isHashed ? values.length : size);
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int slot = next;
+
+            next = advance(next + 1);
+
+            return getItem(slot);
+        }
+
+        abstract E getItem(int slot);
+
+        private int advance(int from) {
+            if (isHashed) {
+                while (from < values.length && values[from] == null) {
+                    from++;
+                }
+            }
+
+            return from;
+        }
+    }
+}
@@ -37,6 +37,9 @@
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Connect Worker system and runtime information.
@@ -55,6 +58,8 @@ public class RangerMetricsUtil {
     private static final long                  UP_TIME_OF_JVM                  = RUNTIME.getUptime();
     private static final String                JVM_VENDOR_NAME                 = RUNTIME.getVmVendor();
 
+    private static final Map<String, Supplier<Map<String, Object>>> PLUGIN_METRICS_SOURCES = new ConcurrentHashMap<>();
+
     private static int isRoleActive;
 
     public static int getIsRoleActive() {
@@ -65,6 +70,45 @@ public static void setIsRoleActive(int isRoleActive) {
         RangerMetricsUtil.isRoleActive = isRoleActive;
     }
 
+    /**
+     * Registers a source of metrics, like cache hit/miss counts, of a component in the plugin. Metrics from registered sources are
+     * included in getVMStatus() under "plugin", keyed by the given name; a source registered earlier with the same name is replaced.
+     */
+    public static void registerPluginMetricsSource(String name, Supplier<Map<String, Object>> source) {
+        LOG.debug("RangerMetricsUtil.registerPluginMetricsSource({})", name);
+
+        PLUGIN_METRICS_SOURCES.put(name, source);
+    }
+
+    public static void unregisterPluginMetricsSource(String name) {
+        LOG.debug("RangerMetricsUtil.unregisterPluginMetricsSource({})", name);
+
+        PLUGIN_METRICS_SOURCES.remove(name);
+    }
+
+    /**
+     * Unregisters the given source, only if it is the one currently registered with the name.
+     */
+    public static void unregisterPluginMetricsSource(String name, Supplier<Map<String, Object>> source) {
+        LOG.debug("RangerMetricsUtil.unregisterPluginMetricsSource({}, {})", name, source);
+
+        PLUGIN_METRICS_SOURCES.remove(name, source);
+    }
+
+    public static Map<String, Object> getPluginMetrics() {
+        Map<String, Object> ret = new TreeMap<>();
+
+        for (Map.Entry<String, Supplier<Map<String, Object>>> entry : PLUGIN_METRICS_SOURCES.entrySet()) {
+            try {
+                ret.put(entry.getKey(), entry.getValue().get());
+            } catch (Exception excp) {
+                LOG.warn("RangerMetricsUtil.getPluginMetrics(): failed to get metrics from source {}", entry.getKey(), excp);
+            }
+        }
+
+        return ret;
+    }
+
     public Map<String, Object> getValues() {
         LOG.debug("==> RangerMetricsUtil.getValues()");
 
@@ -95,6 +139,12 @@ public RangerMetrics getVMStatus() {
 
         jvm.put("jvm", vmDetails);
 
+        Map<String, Object> pluginMetrics = getPluginMetrics();
+
+        if (!pluginMetrics.isEmpty()) {
+            jvm.put("plugin", pluginMetrics);
+        }
+
         LOG.debug("<== RangerMetricsUtil.getVMStatus(): {}", jvm);
 
         return new RangerMetrics(jvm);
@@ -27,6 +27,7 @@
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
 import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 import org.apache.commons.lang.StringUtils;
@@ -102,6 +103,7 @@ public class RangerRESTClient {
     private          int          maxRetryAttempts;
     private          int          retryIntervalMs;
     private          int          lastKnownActiveUrlIndex;
+    private          boolean      isCompressionEnabled = true;
     private volatile Client       client;
     private volatile Client       cookieAuthClient;
     private          ClientFilter basicAuthFilter;
@@ -734,6 +736,10 @@ private Client buildClient() {
             client.addFilter(basicAuthFilter);
         }
 
+        if (isCompressionEnabled) {
+            client.addFilter(new GZIPContentEncodingFilter(false)); // accept gzip encoded responses; request entity is not compressed
+        }
+
         // Set Connection Timeout and ReadTime for the PolicyRefresh
         client.setConnectTimeout(mRestClientConnTimeOutMs);
         client.setReadTimeout(mRestClientReadTimeOutMs);
@@ -792,6 +798,8 @@ private void init(Configuration config) {
         if (StringUtils.isNotBlank(username) && StringUtils.isNotBlank(password)) {
             setBasicAuthFilter(username, password);
         }
+
+        isCompressionEnabled = config.getBoolean(pluginPropertyPrefix + ".policy.rest.client.compression.enabled", true);
     }
 
     private boolean isSslEnabled(String url) {
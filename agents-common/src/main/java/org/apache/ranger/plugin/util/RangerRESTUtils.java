@@ -70,6 +70,11 @@ public class RangerRESTUtils {
     public static final  String REST_PARAM_ZONE_NAME                              = "zoneName";
     public static final  String REST_PARAM_EXEC_USER                              = "execUser";
     public static final  String REST_PARAM_CAPABILITIES                           = "pluginCapabilities";
+    public static final  String REST_PARAM_TIMEOUT_MS                             = "timeoutMs";
+    public static final  String REST_URL_POLICY_CHANGE_NOTIFICATION               = "/service/plugins/policies/notification/";
+    public static final  String REST_URL_SECURE_POLICY_CHANGE_NOTIFICATION        = "/service/plugins/secure/policies/notification/";
+    public static final  String REST_URL_TAG_CHANGE_NOTIFICATION                  = "/service/tags/notification/";
+    public static final  String REST_URL_SECURE_TAG_CHANGE_NOTIFICATION           = "/service/tags/secure/notification/";
     private static final Logger LOG                                               = LoggerFactory.getLogger(RangerRESTUtils.class);
     private static final int    MAX_PLUGIN_ID_LEN                                 = 255;
 
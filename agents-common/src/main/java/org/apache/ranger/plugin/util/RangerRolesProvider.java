@@ -46,6 +46,7 @@ public class RangerRolesProvider {
     private final String            cacheFileNamePrefix;
     private final String            cacheDir;
     private final boolean           disableCacheIfServiceNotFound;
+    private final boolean           isBinaryCacheEnabled;
     private       long              lastActivationTimeInMillis;
     private       long              lastKnownRoleVersion = -1L;
     private       boolean           rangerUserGroupRolesSetInPlugin;
@@ -75,10 +76,15 @@ public RangerRolesProvider(String serviceType, String appId, String serviceName,
         String propertyPrefix = config.getPropertyPrefix();
 
         disableCacheIfServiceNotFound = config.getBoolean(propertyPrefix + ".disable.cache.if.servicenotfound", true);
+        isBinaryCacheEnabled          = config.getBoolean(propertyPrefix + ".policy.cache.binary.enabled", false);
 
         LOG.debug("<== RangerRolesProvider(serviceName={}).RangerRolesProvider()", serviceName);
     }
 
+    public long getLastKnownRoleVersion() {
+        return lastKnownRoleVersion;
+    }
+
     public long getLastActivationTimeInMillis() {
         return lastActivationTimeInMillis;
     }
@@ -201,6 +207,10 @@ public void saveToCache(RangerRoles roles) {
                     }
                 }
 
+                if (isBinaryCacheEnabled) {
+                    BinaryCacheUtil.saveToBinaryCache(cacheFile, roles);
+                }
+
                 RangerPerfTracer.log(perf);
             }
         } else {
@@ -268,8 +278,14 @@ private RangerRoles loadUserGroupRolesFromCache() {
             }
 
             try {
-                reader = new FileReader(cacheFile);
-                roles  = JsonUtils.jsonToObject(reader, RangerRoles.class);
+                if (isBinaryCacheEnabled) {
+                    roles = BinaryCacheUtil.loadFromBinaryCache(cacheFile, RangerRoles.class);
+                }
+
+                if (roles == null) {
+                    reader = new FileReader(cacheFile);
+                    roles  = JsonUtils.jsonToObject(reader, RangerRoles.class);
+                }
 
                 if (roles != null) {
                     if (!StringUtils.equals(serviceName, roles.getServiceName())) {
@@ -328,6 +344,10 @@ private void disableCache() {
             LOG.debug("No local RangerRoles cache found. No need to disable it!");
         }
 
+        if (cacheFile != null) {
+            BinaryCacheUtil.deleteBinaryCache(cacheFile);
+        }
+
         LOG.debug("<== RangerRolesProvider.disableCache(serviceName={})", serviceName);
     }
 }
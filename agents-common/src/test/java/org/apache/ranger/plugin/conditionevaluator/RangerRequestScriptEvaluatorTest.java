@@ -26,6 +26,7 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResource;
 import org.apache.ranger.plugin.policyengine.RangerRequestScriptEvaluator;
+import org.apache.ranger.plugin.policyengine.RangerScriptCache;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
 import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerUserStore;
@@ -425,6 +426,31 @@ public void testIntersectsIncludes() {
         Assert.assertFalse("test: TAGS.DEPTS.names.split(',').includes(USER.dept)", (Boolean) evaluator.evaluateScript("TAGS.DEPTS.names.split(',').includes(USER.dept)"));
     }
 
+    @Test
+    public void testCompiledScripts() {
+        RangerScriptCache   scriptCache = new RangerScriptCache(scriptEngine, 1);
+        RangerTag           tagDepts    = new RangerTag("DEPTS", Collections.singletonMap("names", "ENGG,SALES"));
+        String              script      = "TAGS.DEPTS.names.split(',').includes(USER.dept) && IS_IN_GROUP('test-group2')";
+        RangerAccessRequest request     = createRequest("test-user2", Collections.singleton("test-group2"), Collections.singleton("test-role2"), Collections.singletonList(tagDepts));
+
+        try (RangerRequestScriptEvaluator evaluator = new RangerRequestScriptEvaluator(request, scriptCache, true)) {
+            Assert.assertTrue("test: " + script, (Boolean) evaluator.evaluateScript(script));
+            Assert.assertEquals("test: leaked = 1", 1, ((Number) evaluator.evaluateScript("leaked = 1")).intValue());
+            Assert.assertNull("test: java.lang.System.out.println(\"test\");", evaluator.evaluateScript("java.lang.System.out.println(\"test\");"));
+        }
+
+        // switch context to user test-user3, who has a different value for dept; the Bindings used above are reused
+        request = createRequest("test-user3", Collections.singleton("test-group3"), Collections.singleton("test-role3"), Collections.singletonList(tagDepts));
+
+        try (RangerRequestScriptEvaluator evaluator = new RangerRequestScriptEvaluator(request, scriptCache, true)) {
+            Assert.assertFalse("test: " + script, (Boolean) evaluator.evaluateScript(script));
+            Assert.assertTrue("test: variables set by earlier evaluation are removed", (Boolean) evaluator.evaluateScript("typeof leaked == 'undefined'"));
+        }
+
+        Assert.assertEquals(4, scriptCache.getCompiledScriptCount());
+        Assert.assertSame(scriptCache.getCompiledScript(script), scriptCache.getCompiledScript(script));
+    }
+
     @Test
     public void testBlockJavaClassReferences() {
         RangerAccessRequest          request   = createRequest("test-user", Collections.emptySet(), Collections.emptySet(), Collections.emptyList());
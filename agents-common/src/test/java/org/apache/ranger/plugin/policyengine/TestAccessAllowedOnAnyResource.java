@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.model.RangerValiditySchedule;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestAccessAllowedOnAnyResource {
+    private static final Set<String> GROUPS = new HashSet<>(Collections.singletonList("group1"));
+
+    @Test
+    public void testAllowOnAnyResource() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(
+                createPolicy(1, "topic", "finance_*", userItem("publish", "user1"), null),
+                createPolicy(2, "consumergroup", "cg1", groupItem("consume", "group1"), null));
+
+        assertTrue(policyEngine.isAccessAllowedOnAnyResource("topic", "publish", "user1", GROUPS));
+        assertTrue(policyEngine.isAccessAllowedOnAnyResource("consumergroup", "consume", "user2", GROUPS));
+
+        assertFalse(policyEngine.isAccessAllowedOnAnyResource("topic", "consume", "user1", GROUPS));
+        assertFalse(policyEngine.isAccessAllowedOnAnyResource("topic", "publish", "user2", Collections.emptySet()));
+        assertFalse(policyEngine.isAccessAllowedOnAnyResource("transactionalid", "publish", "user1", GROUPS));
+    }
+
+    @Test
+    public void testDenyOnAllResources() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(
+                createPolicy(1, "topic", "finance_*", userItem("publish", "user1", "user2"), null),
+                createPolicy(2, "topic", "*", null, userItem("publish", "user1")),
+                createPolicy(3, "topic", "hr_*", null, userItem("publish", "user2")));
+
+        // deny on all topics overrides the allow
+        assertFalse(policyEngine.isAccessAllowedOnAnyResource("topic", "publish", "user1", GROUPS));
+
+        // deny on a subset of topics doesn't
+        assertTrue(policyEngine.isAccessAllowedOnAnyResource("topic", "publish", "user2", GROUPS));
+    }
+
+    @Test
+    public void testConditionalAllow() throws Exception {
+        RangerPolicyItem allowItem = userItem("publish", "user1");
+
+        allowItem.setConditions(Collections.singletonList(new RangerPolicyItemCondition("ip-range", Collections.singletonList("10.1.1.*"))));
+
+        RangerPolicyEngine policyEngine = createPolicyEngine(createPolicy(1, "topic", "finance_*", allowItem, null));
+
+        assertFalse(policyEngine.isAccessAllowedOnAnyResource("topic", "publish", "user1", GROUPS));
+    }
+
+    @Test
+    public void testValiditySchedule() throws Exception {
+        RangerPolicy expired = createPolicy(1, "topic", "finance_*", userItem("publish", "user1"), null);
+        RangerPolicy current = createPolicy(2, "topic", "hr_*", userItem("consume", "user1"), null);
+        RangerPolicy allTime = createPolicy(3, "consumergroup", "cg1", userItem("consume", "user1"), null);
+
+        expired.setValiditySchedules(Collections.singletonList(new RangerValiditySchedule("2000/01/01 00:00:00", "2001/01/01 00:00:00", null, null)));
+        current.setValiditySchedules(Collections.singletonList(new RangerValiditySchedule("2000/01/01 00:00:00", "2999/01/01 00:00:00", null, null)));
+
+        RangerPolicyEngine policyEngine = createPolicyEngine(expired, current, allTime);
+
+        assertFalse(policyEngine.isAccessAllowedOnAnyResource("topic", "publish", "user1", GROUPS));
+        assertTrue(policyEngine.isAccessAllowedOnAnyResource("topic", "consume", "user1", GROUPS));
+
+        // results for topics can change at the schedule edges, hence must not be cached
+        assertTrue(policyEngine.hasValidityScheduleForResourceType("topic"));
+        assertFalse(policyEngine.hasValidityScheduleForResourceType("consumergroup"));
+        assertFalse(policyEngine.hasValidityScheduleForResourceType("transactionalid"));
+    }
+
+    private static RangerPolicyEngine createPolicyEngine(RangerPolicy... policies) throws Exception {
+        RangerServiceDef serviceDef = new RangerServiceDef();
+
+        serviceDef.updateFrom(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef("kafka"));
+
+        ServicePolicies servicePolicies = new ServicePolicies();
+
+        servicePolicies.setServiceName("dev_kafka");
+        servicePolicies.setServiceId(1L);
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setServiceDef(serviceDef);
+        servicePolicies.setPolicies(new ArrayList<>(Arrays.asList(policies)));
+        servicePolicies.setSecurityZones(new HashMap<>());
+
+        RangerPluginContext pluginContext = new RangerPluginContext(new RangerPluginConfig("kafka", null, "kafka", "cl1", "on-prem", null));
+
+        return new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    private static RangerPolicy createPolicy(long id, String resourceName, String resourceValue, RangerPolicyItem allowItem, RangerPolicyItem denyItem) {
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService("dev_kafka");
+        ret.setResources(Collections.singletonMap(resourceName, new RangerPolicyResource(resourceValue)));
+
+        if (allowItem != null) {
+            ret.setPolicyItems(new ArrayList<>(Collections.singletonList(allowItem)));
+        }
+
+        if (denyItem != null) {
+            ret.setDenyPolicyItems(new ArrayList<>(Collections.singletonList(denyItem)));
+        }
+
+        return ret;
+    }
+
+    private static RangerPolicyItem userItem(String accessType, String... users) {
+        return new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess(accessType)), Arrays.asList(users), null, null, null, false);
+    }
+
+    private static RangerPolicyItem groupItem(String accessType, String... groups) {
+        return new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess(accessType)), null, Arrays.asList(groups), null, null, false);
+    }
+}
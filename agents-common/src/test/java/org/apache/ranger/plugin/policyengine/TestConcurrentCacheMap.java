@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestConcurrentCacheMap {
+    private static final int CAPACITY = 16;
+
+    @Test
+    public void testEvictsUnreferencedEntries() {
+        ConcurrentCacheMap<String, String> cache = new ConcurrentCacheMap<>(CAPACITY);
+
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.put(String.valueOf(i), String.valueOf(i));
+        }
+
+        // reference the first half; these should survive the next batch of inserts
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            assertEquals(String.valueOf(i), cache.get(String.valueOf(i)));
+        }
+
+        for (int i = CAPACITY; i < CAPACITY + CAPACITY / 2; i++) {
+            cache.put(String.valueOf(i), String.valueOf(i));
+        }
+
+        assertEquals(CAPACITY, cache.size());
+
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            assertNotNull("referenced entry " + i + " was evicted", cache.get(String.valueOf(i)));
+        }
+
+        for (int i = CAPACITY / 2; i < CAPACITY; i++) {
+            assertNull("unreferenced entry " + i + " was not evicted", cache.get(String.valueOf(i)));
+        }
+
+        assertEquals(CAPACITY / 2, cache.getEvictionCount());
+        assertEquals(CAPACITY, cache.getHitCount());
+        assertEquals(CAPACITY / 2, cache.getMissCount());
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        ConcurrentCacheMap<String, String> cache = new ConcurrentCacheMap<>(CAPACITY);
+
+        assertNull(cache.put("key", "value1"));
+        assertEquals("value1", cache.put("key", "value2"));
+        assertEquals("value2", cache.get("key"));
+        assertEquals(1, cache.size());
+        assertEquals("value2", cache.remove("key"));
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testComputeIfAbsent() {
+        ConcurrentCacheMap<String, String> cache = new ConcurrentCacheMap<>(CAPACITY);
+
+        assertEquals("value1", cache.computeIfAbsent("key", k -> "value1"));
+        assertEquals("value1", cache.computeIfAbsent("key", k -> "value2"));
+        assertNull(cache.computeIfAbsent("key2", k -> null));
+        assertEquals(1, cache.size());
+
+        for (int i = 0; i < CAPACITY * 2; i++) {
+            cache.computeIfAbsent(String.valueOf(i), k -> k);
+        }
+
+        assertEquals(CAPACITY, cache.size());
+    }
+
+    @Test
+    public void testRemoveKeepsEvictionQueueBounded() {
+        ConcurrentCacheMap<Integer, Integer> cache = new ConcurrentCacheMap<>(1000);
+
+        for (int i = 0; i < 200000; i++) {
+            cache.put(i, i);
+            cache.remove(i);
+        }
+
+        assertTrue(cache.isEmpty());
+        assertTrue("eviction queue size " + cache.getEvictionQueueSize() + " not bounded by map size", cache.getEvictionQueueSize() <= 16 + 1);
+
+        for (int i = 0; i < 500; i++) {
+            cache.put(i, i);
+        }
+
+        for (int i = 0; i < 200000; i++) {
+            cache.put(-i - 1, i);
+            cache.remove(-i - 1);
+        }
+
+        assertEquals(500, cache.size());
+        assertTrue("eviction queue size " + cache.getEvictionQueueSize() + " not bounded by map size", cache.getEvictionQueueSize() <= 2 * 500 + 1);
+
+        cache.clear();
+
+        assertEquals(0, cache.getEvictionQueueSize());
+    }
+
+    @Test
+    public void testConcurrentAccessStaysBounded() throws Exception {
+        final ConcurrentCacheMap<Integer, Integer> cache    = new ConcurrentCacheMap<>(CAPACITY * 4);
+        final ExecutorService                      executor = Executors.newFixedThreadPool(8);
+        final List<Future<?>>                      futures  = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        int     key   = ThreadLocalRandom.current().nextInt(CAPACITY * 16);
+                        Integer value = cache.get(key);
+
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else {
+                            assertEquals(key, value.intValue());
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue("cache size " + cache.size() + " exceeds capacity", cache.size() <= CAPACITY * 4 + 8);
+        assertEquals(8 * 20000, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -66,7 +66,8 @@ public class TestPathResourceTrie {
             EVAL_TMPdTXT,
             EVAL_TMPA_B);
 
-    private final RangerResourceTrie<RangerResourceEvaluator> trie = new RangerResourceTrie<>(PATH_RESOURCE_DEF, EVALUATORS);
+    private final RangerResourceTrie<RangerResourceEvaluator> trie        = new RangerResourceTrie<>(PATH_RESOURCE_DEF, EVALUATORS);
+    private final RangerResourceTrie<RangerResourceEvaluator> compactTrie = new RangerResourceTrie<>(PATH_RESOURCE_DEF, EVALUATORS, true, false, true, null);
 
     @Test
     public void testChildrenScope() {
@@ -118,6 +119,10 @@ private void verifyEvaluators(String resource, ResourceElementMatchingScope scop
         Set<RangerResourceEvaluator> result   = trie.getEvaluatorsForResource(resource, scope);
 
         assertEquals("incorrect evaluators for resource " + resource, expected, result);
+
+        result = compactTrie.getEvaluatorsForResource(resource, scope);
+
+        assertEquals("incorrect evaluators from compact trie for resource " + resource, expected, result);
     }
 
     private static RangerResourceDef getPathResourceDef() {
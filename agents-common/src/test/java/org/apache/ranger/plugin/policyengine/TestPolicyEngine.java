@@ -365,6 +365,30 @@ public void testPolicyEngine_hdfsForZones() {
         runTestsFromResourceFiles(hdfsTestResourceFiles);
     }
 
+    @Test
+    public void testPolicyEngine_withAccessResultCache() {
+        String[] resourceFiles = {"/policyengine/test_policyengine_hdfs.json",
+                "/policyengine/test_policyengine_hdfs_zones.json",
+                "/policyengine/test_policyengine_tag_hdfs.json",
+                "/policyengine/test_policyengine_hive.json",
+                "/policyengine/test_policyengine_conditions.json",
+                "/policyengine/test_policyengine_policylevel_conditions.json",
+                "/policyengine/test_policyengine_owner.json",
+                "/policyengine/test_policyengine_with_roles.json",
+                "/policyengine/test_policyengine_super_user_access.json",
+                "/policyengine/test_policyengine_audit_exclude_users_groups_roles.json"};
+
+        RangerPolicyEngineOptions options = pluginContext.getConfig().getPolicyEngineOptions();
+
+        options.cacheAccessResults = true;
+
+        try {
+            runTestsFromResourceFiles(resourceFiles);
+        } finally {
+            options.cacheAccessResults = false;
+        }
+    }
+
     @Test
     public void testPolicyEngine_hive_with_partial_resource_policies() {
         String[] hiveTestResourceFiles = {"/policyengine/test_policyengine_hive_with_partial_resource_policies.json"};
@@ -902,6 +926,11 @@ private void runTestCaseTests(RangerPolicyEngine policyEngine, RangerServiceDef
 
                 result = policyEngine.evaluatePolicies(request, RangerPolicy.POLICY_TYPE_ACCESS, auditHandler);
 
+                if (policyEngine instanceof RangerPolicyEngineImpl && ((RangerPolicyEngineImpl) policyEngine).getAccessResultCache() != null) {
+                    // evaluate again, to verify the result returned from access-result cache
+                    result = policyEngine.evaluatePolicies(request, RangerPolicy.POLICY_TYPE_ACCESS, auditHandler);
+                }
+
                 policyEngine.evaluateAuditPolicies(result);
 
                 assertNotNull("result was null! - " + test.name, result);
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TestPolicyEngineBatchEvaluation {
+    private static final String[] TOPICS = {"finance_payments", "finance_ledger", "hr_payroll", "sales_leads", "finance_audit"};
+    private static final String[] USERS  = {"user1", "user2", "user3"};
+
+    @Test
+    public void testParallelEvaluationMatchesSequential() throws Exception {
+        RangerPluginContext sequentialContext = createPluginContext(0);
+        RangerPluginContext parallelContext   = createPluginContext(4);
+
+        try {
+            RangerPolicyEngine sequentialEngine = createPolicyEngine(sequentialContext);
+            RangerPolicyEngine parallelEngine   = createPolicyEngine(parallelContext);
+
+            List<RangerAccessResult>    processedResults = new ArrayList<>();
+            RangerAccessResultProcessor resultProcessor  = new RangerAccessResultProcessor() {
+                @Override
+                public void processResult(RangerAccessResult result) {
+                    processedResults.add(result);
+                }
+
+                @Override
+                public void processResults(Collection<RangerAccessResult> results) {
+                    processedResults.addAll(results);
+                }
+            };
+
+            Collection<RangerAccessResult> expected = sequentialEngine.evaluatePolicies(createRequests(500), RangerPolicy.POLICY_TYPE_ACCESS, null);
+            List<RangerAccessRequest>      requests = createRequests(500);
+            Collection<RangerAccessResult> actual   = parallelEngine.evaluatePolicies(requests, RangerPolicy.POLICY_TYPE_ACCESS, resultProcessor);
+
+            assertEquals(expected.size(), actual.size());
+            assertEquals(new ArrayList<>(actual), processedResults);
+
+            Iterator<RangerAccessResult>  iterExpected = expected.iterator();
+            Iterator<RangerAccessRequest> iterRequest  = requests.iterator();
+
+            for (RangerAccessResult result : actual) {
+                RangerAccessResult expectedResult = iterExpected.next();
+
+                assertSame(iterRequest.next(), result.getAccessRequest());
+                assertEquals(expectedResult.getIsAllowed(), result.getIsAllowed());
+                assertEquals(expectedResult.getPolicyId(), result.getPolicyId());
+            }
+        } finally {
+            parallelContext.shutdownBatchEvaluationPool();
+        }
+    }
+
+    private static List<RangerAccessRequest> createRequests(int count) {
+        List<RangerAccessRequest> ret = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            RangerAccessResourceImpl resource = new RangerAccessResourceImpl(Collections.<String, Object>singletonMap("topic", TOPICS[i % TOPICS.length]));
+
+            ret.add(new RangerAccessRequestImpl(resource, (i % 2) == 0 ? "publish" : "consume", USERS[i % USERS.length], Collections.emptySet(), Collections.emptySet()));
+        }
+
+        return ret;
+    }
+
+    private static RangerPluginContext createPluginContext(int parallelism) {
+        RangerPluginConfig config = new RangerPluginConfig("kafka", null, "kafka", "cl1", "on-prem", null);
+
+        config.setInt(config.getPropertyPrefix() + ".policyengine.batch.evaluation.parallelism", parallelism);
+        config.setInt(config.getPropertyPrefix() + ".policyengine.batch.evaluation.min.size", 50);
+
+        return new RangerPluginContext(config);
+    }
+
+    private static RangerPolicyEngine createPolicyEngine(RangerPluginContext pluginContext) throws Exception {
+        RangerServiceDef serviceDef = new RangerServiceDef();
+
+        serviceDef.updateFrom(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef("kafka"));
+
+        ServicePolicies servicePolicies = new ServicePolicies();
+
+        servicePolicies.setServiceName("dev_kafka");
+        servicePolicies.setServiceId(1L);
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setServiceDef(serviceDef);
+        servicePolicies.setPolicies(new ArrayList<>(Arrays.asList(createPolicy(1, "finance_*", "publish", "user1"), createPolicy(2, "*", "consume", "user2"), createPolicy(3, "hr_*", "publish", "user3"))));
+        servicePolicies.setSecurityZones(new HashMap<>());
+
+        return new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    private static RangerPolicy createPolicy(long id, String topic, String accessType, String user) {
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService("dev_kafka");
+        ret.setResources(Collections.singletonMap("topic", new RangerPolicyResource(topic)));
+        ret.setPolicyItems(new ArrayList<>(Collections.singletonList(new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess(accessType)), Collections.singletonList(user), null, null, null, false))));
+
+        return ret;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerAccessResultCache {
+    @Test
+    public void testGetAndPut() {
+        RangerAccessResultCache     cache      = new RangerAccessResultCache(16, 0);
+        long                        generation = cache.checkVersions(1, 1, 1);
+        RangerAccessRequest         request    = createRequest("/tmp/file1", "read", "user1", "group1", "group2");
+        RangerAccessResultCache.Key key        = cache.getKey(request);
+
+        assertNotNull(key);
+        assertNull(cache.get(key, generation, request));
+
+        cache.put(key, generation, createResult(request, true, 10));
+
+        // groups in different order, in a different request object, should find the entry
+        RangerAccessRequest request2 = createRequest("/tmp/file1", "read", "user1", "group2", "group1");
+        RangerAccessResult  result   = cache.get(cache.getKey(request2), generation, request2);
+
+        assertNotNull(result);
+        assertSame(request2, result.getAccessRequest());
+        assertTrue(result.getIsAllowed());
+        assertTrue(result.getIsAccessDetermined());
+        assertEquals(10, result.getPolicyId());
+
+        assertNull(cache.get(cache.getKey(createRequest("/tmp/file2", "read", "user1", "group1", "group2")), generation, request));
+        assertNull(cache.get(cache.getKey(createRequest("/tmp/file1", "write", "user1", "group1", "group2")), generation, request));
+        assertNull(cache.get(cache.getKey(createRequest("/tmp/file1", "read", "user2", "group1", "group2")), generation, request));
+        assertNull(cache.get(cache.getKey(createRequest("/tmp/file1", "read", "user1", "group1")), generation, request));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void testResultsNotCached() {
+        RangerAccessResultCache     cache      = new RangerAccessResultCache(16, 0);
+        long                        generation = cache.checkVersions(1, 1, 1);
+        RangerAccessRequest         request    = createRequest("/tmp/file1", "read", "user1", "group1");
+        RangerAccessResultCache.Key key        = cache.getKey(request);
+        RangerAccessResult          result     = createResult(request, true, 10);
+
+        result.setIsCacheable(false);
+
+        cache.put(key, generation, result);
+
+        assertEquals(0, cache.getSize());
+
+        result = createResult(request, false, -1);
+
+        result.setIsAccessDetermined(false);
+
+        cache.put(key, generation, result);
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testBypass() {
+        RangerAccessResultCache cache = new RangerAccessResultCache(16, 0);
+
+        RangerAccessRequestImpl anyAccessRequest = createRequest("/tmp/file1", RangerPolicyEngine.ANY_ACCESS, "user1", "group1");
+
+        assertNull(cache.getKey(anyAccessRequest));
+
+        RangerAccessRequestImpl multiAccessRequest = createRequest("/tmp/file1", "read", "user1", "group1");
+
+        RangerAccessRequestUtil.setAllRequestedAccessTypes(multiAccessRequest.getContext(), new HashSet<>(Arrays.asList("read", "write")));
+
+        assertNull(cache.getKey(multiAccessRequest));
+
+        assertEquals(2, cache.getBypassCount());
+    }
+
+    @Test
+    public void testInvalidation() {
+        RangerAccessResultCache     cache      = new RangerAccessResultCache(16, 0);
+        long                        generation = cache.checkVersions(1, 1, 1);
+        RangerAccessRequest         request    = createRequest("/tmp/file1", "read", "user1", "group1");
+        RangerAccessResultCache.Key key        = cache.getKey(request);
+
+        cache.put(key, generation, createResult(request, true, 10));
+
+        assertNotNull(cache.get(key, generation, request));
+        assertEquals(generation, cache.checkVersions(1, 1, 1));
+
+        // change in tag version must invalidate the cache
+        long newGeneration = cache.checkVersions(1, 2, 1);
+
+        assertTrue(generation != newGeneration);
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get(key, newGeneration, request));
+
+        // result computed before the invalidation must not be cached
+        cache.put(key, generation, createResult(request, true, 10));
+
+        assertEquals(0, cache.getSize());
+
+        cache.put(key, newGeneration, createResult(request, true, 10));
+
+        assertNotNull(cache.get(key, newGeneration, request));
+
+        cache.invalidateAll();
+
+        assertNull(cache.get(key, newGeneration, request));
+        assertEquals(3, cache.getInvalidationCount()); // includes the one by first call to checkVersions()
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        RangerAccessResultCache     cache      = new RangerAccessResultCache(16, 1);
+        long                        generation = cache.checkVersions(1, 1, 1);
+        RangerAccessRequest         request    = createRequest("/tmp/file1", "read", "user1", "group1");
+        RangerAccessResultCache.Key key        = cache.getKey(request);
+
+        cache.put(key, generation, createResult(request, true, 10));
+
+        Thread.sleep(10);
+
+        assertNull(cache.get(key, generation, request));
+        assertFalse(cache.getHitRate() > 0);
+    }
+
+    private static RangerAccessRequestImpl createRequest(String path, String accessType, String user, String... groups) {
+        Map<String, Object> elements = new HashMap<>();
+
+        elements.put("path", path);
+
+        Set<String> userGroups = new HashSet<>(Arrays.asList(groups));
+
+        return new RangerAccessRequestImpl(new RangerAccessResourceImpl(elements), accessType, user, userGroups, Collections.emptySet());
+    }
+
+    private static RangerAccessResult createResult(RangerAccessRequest request, boolean isAllowed, long policyId) {
+        RangerAccessResult ret = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "dev_hdfs", null, request);
+
+        ret.setIsAllowed(isAllowed);
+        ret.setIsAccessDetermined(true);
+        ret.setPolicyId(policyId);
+
+        return ret;
+    }
+}
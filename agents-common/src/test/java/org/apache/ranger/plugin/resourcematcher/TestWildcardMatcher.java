@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.resourcematcher;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOCase;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestWildcardMatcher {
+    private static final IOCase[] CASES = {IOCase.SENSITIVE, IOCase.INSENSITIVE};
+
+    @Test
+    public void testMatch() {
+        assertTrue(new WildcardMatcher("db_*").isMatch("db_finance", IOCase.SENSITIVE));
+        assertTrue(new WildcardMatcher("*_tmp_*").isMatch("sales_tmp_2024", IOCase.SENSITIVE));
+        assertTrue(new WildcardMatcher("/data/*/2024/*.orc").isMatch("/data/sales/2024/part-0001.orc", IOCase.SENSITIVE));
+        assertTrue(new WildcardMatcher("tbl_??").isMatch("TBL_01", IOCase.INSENSITIVE));
+        assertTrue(new WildcardMatcher("a*b*a").isMatch("abba", IOCase.SENSITIVE));
+        assertTrue(new WildcardMatcher("").isMatch("", IOCase.SENSITIVE));
+        assertTrue(new WildcardMatcher(null).isMatch(null, IOCase.SENSITIVE));
+
+        assertFalse(new WildcardMatcher("tbl_??").isMatch("TBL_01", IOCase.SENSITIVE));
+        assertFalse(new WildcardMatcher("tbl_??").isMatch("tbl_001", IOCase.SENSITIVE));
+        assertFalse(new WildcardMatcher("a*b*a").isMatch("ab", IOCase.SENSITIVE));
+        assertFalse(new WildcardMatcher("db_*").isMatch(null, IOCase.SENSITIVE));
+        assertFalse(new WildcardMatcher(null).isMatch("db_finance", IOCase.SENSITIVE));
+
+        // as FilenameUtils.wildcardMatch(), '*' followed by '?' matches an empty string
+        assertTrue(new WildcardMatcher("db*?").isMatch("db1", IOCase.SENSITIVE));
+        assertFalse(new WildcardMatcher("db*?").isMatch("db12", IOCase.SENSITIVE));
+    }
+
+    @Test
+    public void testMatchLength() {
+        WildcardMatcher matcher = new WildcardMatcher("/data/*/2024");
+        String          path    = "/data/sales/2024/01/part-0001.orc";
+
+        assertTrue(matcher.isMatch(path, "/data/sales/2024".length(), IOCase.SENSITIVE));
+        assertFalse(matcher.isMatch(path, "/data/sales/2024/01".length(), IOCase.SENSITIVE));
+        assertFalse(matcher.isMatch(path, path.length(), IOCase.SENSITIVE));
+        assertTrue(matcher.isMatch(new StringBuilder(path), "/data/sales/2024".length(), IOCase.SENSITIVE));
+    }
+
+    @Test
+    public void testPrefixMatch() {
+        WildcardMatcher matcher = new WildcardMatcher("/data/*/2024/*.orc");
+
+        assertTrue(matcher.isPrefixMatch("/data", IOCase.SENSITIVE));
+        assertTrue(matcher.isPrefixMatch("/data/sales/20", IOCase.SENSITIVE));
+        assertTrue(matcher.isPrefixMatch("/DATA/", IOCase.INSENSITIVE));
+        assertFalse(matcher.isPrefixMatch("/DATA/", IOCase.SENSITIVE));
+        assertFalse(matcher.isPrefixMatch("/tmp", IOCase.SENSITIVE));
+
+        assertEquals(ResourceMatcher.wildcardPrefixMatch("/data/sales", "/data/*/2024/*.orc", IOCase.SENSITIVE), matcher.isPrefixMatch("/data/sales", IOCase.SENSITIVE));
+    }
+
+    @Test
+    public void testSameAsFilenameUtils() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < 100_000; i++) {
+            String pattern = randomString(random, "ab/?*", random.nextInt(8));
+            String value   = randomString(random, "aAb/", random.nextInt(10));
+
+            WildcardMatcher matcher = new WildcardMatcher(pattern);
+
+            for (IOCase caseSensitivity : CASES) {
+                assertEquals(pattern + " : " + value, FilenameUtils.wildcardMatch(value, pattern, caseSensitivity), matcher.isMatch(value, caseSensitivity));
+            }
+        }
+    }
+
+    @Test
+    public void testRecursivePathMatch() {
+        WildcardMatcher matcher  = new WildcardMatcher("/data/*/2024");
+        String[]        elements = StringUtils.split(matcher.getPattern(), '/');
+
+        assertTrue(RangerPathResourceMatcher.isRecursiveWildCardMatch("/data/sales/2024/01/part-0001.orc", matcher, '/', IOCase.SENSITIVE, elements));
+        assertTrue(RangerPathResourceMatcher.isRecursiveWildCardMatch("//data//sales/2024/", matcher, '/', IOCase.SENSITIVE, elements));
+        assertFalse(RangerPathResourceMatcher.isRecursiveWildCardMatch("/data/sales/2023/01", matcher, '/', IOCase.SENSITIVE, elements));
+        assertFalse(RangerPathResourceMatcher.isRecursiveWildCardMatch("/DATA/sales/2024", matcher, '/', IOCase.SENSITIVE, elements));
+        assertTrue(RangerPathResourceMatcher.isRecursiveWildCardMatch("/DATA/sales/2024", matcher, '/', IOCase.INSENSITIVE, elements));
+
+        assertEquals("/a/b/", RangerPathResourceMatcher.collapsePathSeparators("//a///b/", '/'));
+    }
+
+    private static String randomString(Random random, String chars, int length) {
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++) {
+            sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RangerCharMapTest {
+    @Test
+    public void testSortedArrayMode() {
+        RangerCharMap<String> map = new RangerCharMap<>();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get('a'));
+
+        map.put('c', "c");
+        map.put('a', "a");
+        map.put('b', "b");
+
+        assertEquals(3, map.size());
+        assertEquals("a", map.get('a'));
+        assertEquals("b", map.get(Character.valueOf('b')));
+        assertEquals("c", map.put('c', "c2"));
+        assertEquals(3, map.size());
+
+        List<String> values = new ArrayList<>(map.values());
+
+        assertEquals(3, values.size());
+        assertEquals("a", values.get(0));
+        assertEquals("b", values.get(1));
+        assertEquals("c2", values.get(2));
+
+        assertEquals("b", map.remove('b'));
+        assertNull(map.remove('b'));
+        assertEquals(2, map.size());
+        assertNull(map.get('b'));
+        assertEquals("a", map.get('a'));
+        assertEquals("c2", map.get('c'));
+    }
+
+    @Test
+    public void testHashedModeMatchesHashMap() {
+        RangerCharMap<Integer>  map      = new RangerCharMap<>();
+        Map<Character, Integer> expected = new HashMap<>();
+        Random                  random   = new Random(42);
+
+        // exercise transition from sorted arrays to hashed table, rehash and backward-shift deletes
+        for (int i = 0; i < 20000; i++) {
+            char ch = (char) random.nextInt(512);
+
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(ch), map.remove(ch));
+            } else {
+                assertEquals(expected.put(ch, i), map.put(ch, Integer.valueOf(i)));
+            }
+
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (char ch = 0; ch < 600; ch++) {
+            assertEquals(expected.get(ch), map.get(ch));
+        }
+
+        assertEquals(expected, map);
+
+        List<Integer> expectedValues = new ArrayList<>(expected.values());
+        List<Integer> actualValues   = new ArrayList<>(map.values());
+
+        Collections.sort(expectedValues);
+        Collections.sort(actualValues);
+
+        assertEquals(expectedValues, actualValues);
+    }
+
+    @Test
+    public void testPutAll() {
+        Map<Character, String> source = new HashMap<>();
+
+        for (char ch = 'a'; ch <= 'z'; ch++) {
+            source.put(ch, String.valueOf(ch));
+        }
+
+        RangerCharMap<String> map = new RangerCharMap<>();
+
+        map.putAll(source);
+
+        assertEquals(source, map);
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get('a'));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestBinaryCacheUtil {
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testServicePolicies() throws Exception {
+        verifyRoundTrip(readResource("/policyengine/comparison/success/myServicePolicies.json", ServicePolicies.class), ServicePolicies.class);
+    }
+
+    @Test
+    public void testServiceTags() throws Exception {
+        verifyRoundTrip(readResource("/policyengine/plugin/resourceTags.json", ServiceTags.class), ServiceTags.class);
+    }
+
+    @Test
+    public void testUserStore() throws Exception {
+        RangerUserStore userStore = readResource("/plugin/hive_user_store.json", RangerUserStore.class);
+
+        userStore.setUserGroupMapping(Collections.singletonMap("user1", new HashSet<>(Arrays.asList("group1", "group2"))));
+
+        verifyRoundTrip(userStore, RangerUserStore.class);
+    }
+
+    @Test
+    public void testRoles() throws Exception {
+        RangerRoles roles = new RangerRoles();
+
+        roles.setServiceName("dev_hive");
+        roles.setRoleVersion(-1L);
+        roles.setRangerRoles(new HashSet<>(Collections.singletonList(new RangerRole("role1", "test role", null, Collections.singletonList(new RangerRole.RoleMember("user1", true)), null))));
+
+        verifyRoundTrip(roles, RangerRoles.class);
+    }
+
+    @Test
+    public void testValueTypes() throws Exception {
+        Map<String, Object> values = new LinkedHashMap<>();
+
+        values.put("int", -12345);
+        values.put("long", Long.MIN_VALUE);
+        values.put("double", 3.25);
+        values.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+        values.put("bigDecimal", new BigDecimal("1234567890.0123456789"));
+        values.put("true", true);
+        values.put("false", false);
+        values.put("null", null);
+        values.put("unicode", "déjà vu 数据");
+        values.put("long-string", StringUtils.repeat("x", 1000));
+        values.put("list", Arrays.asList("a", "b", "a", Collections.singletonMap("a", "b")));
+
+        File jsonFile = new File(tmpFolder.getRoot(), "values.json");
+
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, values));
+
+        Map<?, ?> loaded = BinaryCacheUtil.loadFromBinaryCache(jsonFile, LinkedHashMap.class);
+
+        assertNotNull(loaded);
+        assertEquals(JsonUtils.objectToJson(values), JsonUtils.objectToJson(loaded));
+    }
+
+    @Test
+    public void testFallbackOnInvalidFile() throws Exception {
+        ServicePolicies policies = readResource("/policyengine/comparison/success/myServicePolicies.json", ServicePolicies.class);
+        File            jsonFile = new File(tmpFolder.getRoot(), "hive_dev_hive.json");
+        File            binFile  = BinaryCacheUtil.getBinaryCacheFile(jsonFile);
+
+        assertEquals("hive_dev_hive.bin", binFile.getName());
+        assertNull(BinaryCacheUtil.loadFromBinaryCache(jsonFile, ServicePolicies.class)); // no binary file
+
+        // corrupt payload
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, policies));
+        updateByte(binFile, binFile.length() / 2);
+        assertNull(BinaryCacheUtil.loadFromBinaryCache(jsonFile, ServicePolicies.class));
+        assertReadFails(binFile, ServicePolicies.class, "checksum mismatch");
+
+        // another format version
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, policies));
+        updateByte(binFile, 7);
+        assertReadFails(binFile, ServicePolicies.class, "unsupported format version");
+
+        // another class
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, policies));
+        assertReadFails(binFile, ServiceTags.class, "expected " + ServiceTags.class.getName());
+
+        // truncated
+        try (RandomAccessFile file = new RandomAccessFile(binFile, "rw")) {
+            file.setLength(file.length() - 10);
+        }
+
+        assertReadFails(binFile, ServicePolicies.class, "incomplete");
+
+        BinaryCacheUtil.deleteBinaryCache(jsonFile);
+
+        assertFalse(binFile.exists());
+    }
+
+    @Test
+    public void testFallbackOnNewerJsonFile() throws Exception {
+        ServicePolicies policies = readResource("/policyengine/comparison/success/myServicePolicies.json", ServicePolicies.class);
+        File            jsonFile = new File(tmpFolder.getRoot(), "hive_dev_hive.json");
+
+        writeJson(jsonFile, policies);
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, policies));
+        assertNotNull(BinaryCacheUtil.loadFromBinaryCache(jsonFile, ServicePolicies.class));
+
+        // JSON cache file written after the binary file, for example by an older plugin: binary file must not be used
+        policies.setPolicyVersion(policies.getPolicyVersion() + 1);
+
+        writeJson(jsonFile, policies);
+        assertTrue(jsonFile.setLastModified(jsonFile.lastModified() + 2000));
+        assertNull(BinaryCacheUtil.loadFromBinaryCache(jsonFile, ServicePolicies.class));
+
+        // binary file saved after the JSON file is used again
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, policies));
+        assertEquals(policies.getPolicyVersion(), BinaryCacheUtil.loadFromBinaryCache(jsonFile, ServicePolicies.class).getPolicyVersion());
+
+        // JSON cache file replaced with another of the same modified time, but different content
+        long lastModified = jsonFile.lastModified();
+
+        policies.setServiceName(policies.getServiceName() + "_renamed");
+
+        writeJson(jsonFile, policies);
+        assertTrue(jsonFile.setLastModified(lastModified));
+        assertNull(BinaryCacheUtil.loadFromBinaryCache(jsonFile, ServicePolicies.class));
+    }
+
+    private <T> void verifyRoundTrip(T obj, Class<T> cls) {
+        File jsonFile = new File(tmpFolder.getRoot(), cls.getSimpleName() + ".json");
+
+        assertTrue(BinaryCacheUtil.saveToBinaryCache(jsonFile, obj));
+        assertFalse(new File(BinaryCacheUtil.getBinaryCacheFile(jsonFile).getPath() + ".tmp").exists());
+
+        T loaded = BinaryCacheUtil.loadFromBinaryCache(jsonFile, cls);
+
+        assertNotNull(loaded);
+        assertEquals(JsonUtils.objectToJson(obj), JsonUtils.objectToJson(loaded));
+    }
+
+    private static void writeJson(File file, Object obj) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            JsonUtils.objectToWriter(writer, obj);
+        }
+    }
+
+    private static void assertReadFails(File file, Class<?> cls, String expectedMessage) {
+        try {
+            BinaryCacheUtil.readFromFile(file, cls);
+
+            fail("expected IOException reading " + file);
+        } catch (IOException excp) {
+            assertTrue(excp.getMessage(), excp.getMessage().contains(expectedMessage));
+        }
+    }
+
+    private static void updateByte(File file, long offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+
+            int b = raf.read();
+
+            raf.seek(offset);
+            raf.write(b ^ 0x5A);
+        }
+    }
+
+    private <T> T readResource(String name, Class<T> cls) throws IOException {
+        try (InputStream inStream = getClass().getResourceAsStream(name); Reader reader = new InputStreamReader(inStream, StandardCharsets.UTF_8)) {
+            T ret = JsonUtils.jsonToObject(reader, cls);
+
+            assertNotNull(name, ret);
+
+            return ret;
+        }
+    }
+}
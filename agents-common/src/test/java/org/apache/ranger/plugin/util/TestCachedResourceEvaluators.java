@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.plugin.contextenricher.RangerServiceResourceMatcher;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestCachedResourceEvaluators {
+    private static final Map<String, ResourceElementMatchingScope> SCOPES = Collections.singletonMap("database", ResourceElementMatchingScope.SELF_OR_PREFIX);
+
+    @Test
+    public void testGetAndCache() {
+        CachedResourceEvaluators                 cache       = new CachedResourceEvaluators(16);
+        Collection<RangerServiceResourceMatcher> evaluators  = new ArrayList<>();
+        Collection<RangerServiceResourceMatcher> evaluators2 = new ArrayList<>();
+
+        assertNull(cache.getEvaluators("db1", null));
+
+        cache.cacheEvaluators("db1", null, evaluators);
+        cache.cacheEvaluators("db1", SCOPES, evaluators2);
+
+        assertSame(evaluators, cache.getEvaluators("db1", null));
+        assertSame(evaluators, cache.getEvaluators("db1", Collections.emptyMap())); // null scopes same as empty
+        assertSame(evaluators2, cache.getEvaluators("db1", SCOPES));
+        assertNull(cache.getEvaluators("db2", null));
+
+        cache.removeCacheEvaluators(new HashSet<>(Collections.singletonList("db1")));
+
+        assertNull(cache.getEvaluators("db1", null));
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testConcurrentCacheOfScopes() throws Exception {
+        CachedResourceEvaluators cache    = new CachedResourceEvaluators(16);
+        ExecutorService          executor = Executors.newFixedThreadPool(8);
+        List<Future<?>>          futures  = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 64; i++) {
+                Map<String, ResourceElementMatchingScope> scopes = Collections.singletonMap("database" + i, ResourceElementMatchingScope.SELF);
+
+                futures.add(executor.submit(() -> cache.cacheEvaluators("db1", scopes, new ArrayList<>())));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < 64; i++) {
+            assertNotNull("entry for scope " + i + " was lost", cache.getEvaluators("db1", Collections.singletonMap("database" + i, ResourceElementMatchingScope.SELF)));
+        }
+    }
+
+    @Test
+    public void testBounded() {
+        CachedResourceEvaluators cache = new CachedResourceEvaluators(16);
+
+        for (int i = 0; i < 100; i++) {
+            cache.cacheEvaluators("db" + i, null, new ArrayList<>());
+        }
+
+        assertEquals(16, cache.getSize());
+        assertEquals(84, cache.getEvictionCount());
+        assertEquals(16, cache.getMetrics().get("size"));
+
+        cache.clearCache();
+
+        assertEquals(0, cache.getSize());
+    }
+}
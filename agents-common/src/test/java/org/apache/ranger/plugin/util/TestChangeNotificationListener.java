@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TestChangeNotificationListener {
+    @Test
+    public void testDownloadOnChange() throws Exception {
+        BlockingQueue<DownloadTrigger> queue        = new LinkedBlockingQueue<>();
+        AtomicLong                     version      = new AtomicLong(1);
+        AtomicInteger                  waitCount    = new AtomicInteger();
+        ChangeNotificationListener     listener     = new ChangeNotificationListener("test", timeoutMs -> {
+            // change notified in the 1st and 3rd calls
+            int count = waitCount.incrementAndGet();
+
+            if (count > 3) {
+                Thread.sleep(timeoutMs);
+            }
+
+            return count != 2;
+        }, version::get, queue, 60 * 1000L, 60 * 1000L);
+
+        listener.start();
+
+        for (int i = 0; i < 2; i++) {
+            DownloadTrigger trigger = queue.poll(10, TimeUnit.SECONDS);
+
+            assertNotNull("download not triggered on change notification", trigger);
+
+            version.incrementAndGet();
+            trigger.signalCompletion();
+        }
+
+        for (int i = 0; i < 100 && waitCount.get() < 4; i++) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(4, waitCount.get());
+        assertNull(queue.poll());
+
+        listener.interrupt();
+        listener.join(10 * 1000L);
+
+        assertFalse(listener.isAlive());
+    }
+
+    @Test
+    public void testExitWhenNotSupported() throws Exception {
+        BlockingQueue<DownloadTrigger> queue    = new LinkedBlockingQueue<>();
+        ChangeNotificationListener     listener = new ChangeNotificationListener("test", timeoutMs -> {
+            throw new UnsupportedOperationException("waitForChange");
+        }, () -> 1L, queue, 60 * 1000L, 60 * 1000L);
+
+        listener.start();
+        listener.join(10 * 1000L);
+
+        assertFalse(listener.isAlive());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testRetryWhenUnavailable() throws Exception {
+        BlockingQueue<DownloadTrigger> queue     = new LinkedBlockingQueue<>();
+        AtomicInteger                  waitCount = new AtomicInteger();
+        ChangeNotificationListener     listener  = new ChangeNotificationListener("test", timeoutMs -> {
+            // unavailable in the 1st call, change notified in the 2nd call
+            int count = waitCount.incrementAndGet();
+
+            if (count == 1) {
+                throw new ChangeNotificationListener.NotificationUnavailableException("status=503");
+            } else if (count > 2) {
+                Thread.sleep(timeoutMs);
+            }
+
+            return true;
+        }, () -> 1L, queue, 60 * 1000L, 100L);
+
+        listener.start();
+
+        DownloadTrigger trigger = queue.poll(10, TimeUnit.SECONDS);
+
+        assertNotNull("download not triggered after notification became available", trigger);
+        assertEquals(2, waitCount.get());
+
+        trigger.signalCompletion();
+
+        listener.interrupt();
+        listener.join(10 * 1000L);
+
+        assertFalse(listener.isAlive());
+    }
+}
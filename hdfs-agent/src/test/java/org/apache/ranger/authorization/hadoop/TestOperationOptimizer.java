@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hadoop;
+
+import org.apache.hadoop.hdfs.DFSUtil;
+import org.apache.hadoop.hdfs.server.namenode.INode;
+import org.apache.hadoop.hdfs.server.namenode.INodeAttributes;
+import org.apache.ranger.authorization.hadoop.RangerAccessControlEnforcer.OptimizedAuthzContext;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TestOperationOptimizer {
+    @Test
+    public void testContextIsLocalToRpc() {
+        RangerHdfsPlugin            plugin    = Mockito.mock(RangerHdfsPlugin.class);
+        RangerAccessControlEnforcer enforcer1 = new RangerAccessControlEnforcer(plugin, null);
+        RangerAccessControlEnforcer enforcer2 = new RangerAccessControlEnforcer(plugin, null);
+        OptimizedAuthzContext       context   = optimizeListStatus(enforcer1, "/tmp/dir1");
+
+        // a repeated check in the same RPC reuses the context, along with the decision recorded in it
+        assertSame(context, optimizeListStatus(enforcer1, "/tmp/dir1"));
+        assertNotSame(context, optimizeListStatus(enforcer1, "/tmp/dir2"));
+
+        // another RPC, which would audit the access, must evaluate it again
+        assertNotSame(context, optimizeListStatus(enforcer2, "/tmp/dir1"));
+        assertEquals(2, enforcer1.getOrCreateCache().size());
+        assertEquals(1, enforcer2.getOrCreateCache().size());
+    }
+
+    private static OptimizedAuthzContext optimizeListStatus(RangerAccessControlEnforcer enforcer, String path) {
+        byte[][] components = DFSUtil.getPathComponents(path);
+        INode    inode      = Mockito.mock(INode.class);
+
+        return new OperationOptimizer(enforcer, OperationOptimizer.OPERATION_NAME_LISTSTATUS, path, null, null, null, null, components, new INodeAttributes[components.length], 0, null, null, inode).optimize();
+    }
+}
@@ -303,88 +303,70 @@ public void engineLoad(InputStream stream, char[] password) throws IOException,
         }
 
         Map<String, Object> keyEntries = new ConcurrentHashMap<>();
+        MessageDigest       md         = null;
+        byte[]              computed   = {};
 
-        if (keyVaultEnabled) {
-            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-                String encodedStr  = rangerKey.getEncoded();
-                byte[] encodedByte = DatatypeConverter.parseBase64Binary(encodedStr);
-                String alias       = rangerKey.getAlias();
-
-                SecretKeyByteEntry entry = new SecretKeyByteEntry(new Date(rangerKey.getCreatedDate()), encodedByte,
-                        rangerKey.getCipher(), rangerKey.getBitLength(),
-                        rangerKey.getDescription(), rangerKey.getVersion(),
-                        rangerKey.getAttributes());
+        if (!keyVaultEnabled && password != null) {
+            md       = getKeyedMessageDigest(password);
+            computed = md.digest();
+        }
 
-                logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
+        for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
+            Object entry = toKeyEntry(rangerKey, password, md, computed);
 
-                keyEntries.put(alias, entry);
-            }
-        } else {
-            MessageDigest md = null;
+            logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
 
-            if (password != null) {
-                md = getKeyedMessageDigest(password);
-            }
-
-            byte[] computed = {};
+            // Add the entry to the list
+            keyEntries.put(rangerKey.getAlias(), entry);
+        }
 
-            if (md != null) {
-                computed = md.digest();
-            }
+        logger.debug("engineLoad(): loaded {} keys", keyEntries.size());
 
-            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-                String encoded = rangerKey.getEncoded();
-                byte[] data    = DatatypeConverter.parseBase64Binary(encoded);
+        this.keyEntries = keyEntries;
 
-                if (data != null && data.length > 0) {
-                    stream = new ByteArrayInputStream(data);
-                } else {
-                    logger.error("No Key found for alias {}", rangerKey.getAlias());
-                }
+        logger.debug("engineLoad(): keyEntries switched with {} keys", keyEntries.size());
+    }
 
-                if (computed != null) {
-                    int counter = 0;
+    /**
+     * Refreshes a single entry from the database, without reloading other entries. An entry that is no longer in the
+     * database is removed; an entry having changes not yet stored is left as is.
+     *
+     * @return true if the entry exists after the refresh
+     */
+    public boolean engineLoadAlias(String alias, char[] password) throws IOException, NoSuchAlgorithmException {
+        logger.debug("==> engineLoadAlias({})", alias);
 
-                    for (int i = computed.length - 1; i >= 0; i--) {
-                        if (data == null || computed[i] != data[data.length - (1 + counter)]) {
-                            Throwable t = new UnrecoverableKeyException("Password verification failed");
+        alias = convertAlias(alias);
 
-                            logger.error("Keystore was tampered with, or password was incorrect.", t);
+        final boolean ret;
 
-                            throw new IOException("Keystore was tampered with, or password was incorrect", t);
-                        } else {
-                            counter++;
-                        }
-                    }
-                }
+        if (deltaEntries.containsKey(alias)) {
+            ret = keyEntries.containsKey(alias);
+        } else {
+            XXRangerKeyStore rangerKey = dbOperationLoad(alias);
 
-                SealedObject sealedKey;
+            if (rangerKey != null) {
+                MessageDigest md       = null;
+                byte[]        computed = {};
 
-                // read the (entry creation) date
-                // read the sealed key
-                try (DataInputStream dis = password != null ? new DataInputStream(new DigestInputStream(stream, md)) : new DataInputStream(stream);
-                        ObjectInputStream ois = new ObjectInputStream(dis)) {
-                    sealedKey = (SealedObject) ois.readObject();
-                } catch (ClassNotFoundException cnfe) {
-                    throw new IOException(cnfe.getMessage());
+                if (!keyVaultEnabled && password != null) {
+                    md       = getKeyedMessageDigest(password);
+                    computed = md.digest();
                 }
 
-                SecretKeyEntry entry = new SecretKeyEntry(new Date(rangerKey.getCreatedDate()), sealedKey, rangerKey.getCipher(),
-                        rangerKey.getBitLength(), rangerKey.getDescription(), rangerKey.getVersion(),
-                        rangerKey.getAttributes());
+                keyEntries.put(alias, toKeyEntry(rangerKey, password, md, computed));
 
-                logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
+                ret = true;
+            } else {
+                keyEntries.remove(alias);
 
-                // Add the entry to the list
-                keyEntries.put(rangerKey.getAlias(), entry);
+                ret = false;
             }
         }
 
-        logger.debug("engineLoad(): loaded {} keys", keyEntries.size());
-
-        this.keyEntries = keyEntries;
+        logger.debug("<== engineLoadAlias({}): ret={}", alias, ret);
 
-        logger.debug("engineLoad(): keyEntries switched with {} keys", keyEntries.size());
+        return ret;
     }
 
     public byte[] engineGetDecryptedZoneKeyByte(String alias) throws Exception {
@@ -889,6 +871,80 @@ private List<XXRangerKeyStore> dbOperationLoad() {
         return ret;
     }
 
+    private XXRangerKeyStore dbOperationLoad(String alias) {
+        logger.debug("==> dbOperationLoad({})", alias);
+
+        XXRangerKeyStore ret = null;
+
+        try {
+            if (kmsDao != null) {
+                ret = kmsDao.getKey(alias);
+            }
+        } catch (Exception e) {
+            logger.error("dbOperationLoad({}) error", alias, e);
+        }
+
+        logger.debug("<== dbOperationLoad({}): found={}", alias, ret != null);
+
+        return ret;
+    }
+
+    private Object toKeyEntry(XXRangerKeyStore rangerKey, char[] password, MessageDigest md, byte[] computed) throws IOException {
+        final Object ret;
+
+        if (keyVaultEnabled) {
+            byte[] encodedByte = DatatypeConverter.parseBase64Binary(rangerKey.getEncoded());
+
+            ret = new SecretKeyByteEntry(new Date(rangerKey.getCreatedDate()), encodedByte,
+                    rangerKey.getCipher(), rangerKey.getBitLength(),
+                    rangerKey.getDescription(), rangerKey.getVersion(),
+                    rangerKey.getAttributes());
+        } else {
+            String      encoded = rangerKey.getEncoded();
+            byte[]      data    = DatatypeConverter.parseBase64Binary(encoded);
+            InputStream stream  = null;
+
+            if (data != null && data.length > 0) {
+                stream = new ByteArrayInputStream(data);
+            } else {
+                logger.error("No Key found for alias {}", rangerKey.getAlias());
+            }
+
+            if (computed != null) {
+                int counter = 0;
+
+                for (int i = computed.length - 1; i >= 0; i--) {
+                    if (data == null || computed[i] != data[data.length - (1 + counter)]) {
+                        Throwable t = new UnrecoverableKeyException("Password verification failed");
+
+                        logger.error("Keystore was tampered with, or password was incorrect.", t);
+
+                        throw new IOException("Keystore was tampered with, or password was incorrect", t);
+                    } else {
+                        counter++;
+                    }
+                }
+            }
+
+            SealedObject sealedKey;
+
+            // read the (entry creation) date
+            // read the sealed key
+            try (DataInputStream dis = password != null ? new DataInputStream(new DigestInputStream(stream, md)) : new DataInputStream(stream);
+                    ObjectInputStream ois = new ObjectInputStream(dis)) {
+                sealedKey = (SealedObject) ois.readObject();
+            } catch (ClassNotFoundException cnfe) {
+                throw new IOException(cnfe.getMessage());
+            }
+
+            ret = new SecretKeyEntry(new Date(rangerKey.getCreatedDate()), sealedKey, rangerKey.getCipher(),
+                    rangerKey.getBitLength(), rangerKey.getDescription(), rangerKey.getVersion(),
+                    rangerKey.getAttributes());
+        }
+
+        return ret;
+    }
+
     /**
      * To guard against tampering with the keystore, we append a keyed
      * hash with a bit of whitener.
@@ -241,15 +241,7 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
         try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
             if (keyVaultEnabled) {
                 try {
-                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
-
-                    if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
-
-                        versionNameExists = dbStore.engineContainsAlias(versionName);
-                    }
-
-                    if (versionNameExists) {
+                    if (containsAlias(versionName)) {
                         byte[] decryptKeyByte;
 
                         try {
@@ -264,29 +256,17 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
                     }
                 } catch (NoSuchAlgorithmException e) {
                     throw new IOException("Can't get algorithm for key " + e.getMessage());
-                } catch (CertificateException e) {
-                    throw new IOException("Certificate exception storing key", e);
                 }
             } else {
                 SecretKeySpec key = null;
                 try {
-                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
-
-                    if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
-
-                        versionNameExists = dbStore.engineContainsAlias(versionName);
-                    }
-
-                    if (versionNameExists) {
+                    if (containsAlias(versionName)) {
                         key = (SecretKeySpec) dbStore.engineGetKey(versionName, masterKey);
                     }
                 } catch (NoSuchAlgorithmException e) {
                     throw new IOException("Can't get algorithm for key " + key, e);
                 } catch (UnrecoverableKeyException e) {
                     throw new IOException("Can't recover key " + key, e);
-                } catch (CertificateException e) {
-                    throw new IOException("Certificate exception storing key", e);
                 }
 
                 if (key != null) {
@@ -363,11 +343,7 @@ public Metadata getMetadata(String name) throws IOException {
             ret = cache.get(name);
 
             if (ret == null) {
-                if (!dbStore.engineContainsAlias(name)) {
-                    dbStore.engineLoad(null, masterKey);
-                }
-
-                if (dbStore.engineContainsAlias(name)) {
+                if (containsAlias(name)) {
                     if (keyVaultEnabled) {
                         ret = dbStore.engineGetKeyMetadata(name);
 
@@ -413,9 +389,7 @@ public KeyVersion createKey(String name, byte[] material, Options options) throw
         KeyVersion ret;
 
         try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
-            reloadKeys();
-
-            if (dbStore.engineContainsAlias(name) || cache.containsKey(name)) {
+            if (reloadKey(name)) {
                 throw new IOException("Key " + name + " already exists");
             }
 
@@ -440,7 +414,7 @@ public void deleteKey(String name) throws IOException {
         logger.debug("==> deleteKey({})", name);
 
         try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
-            reloadKeys();
+            reloadKey(name);
 
             Metadata meta = getMetadata(name);
 
@@ -452,9 +426,8 @@ public void deleteKey(String name) throws IOException {
                 String versionName = buildVersionName(name, v);
 
                 try {
-                    if (dbStore.engineContainsAlias(versionName)) {
-                        dbStore.engineDeleteEntry(versionName);
-                    }
+                    // versions are loaded only on access, hence are deleted even if not loaded
+                    dbStore.engineDeleteEntry(versionName);
                 } catch (KeyStoreException e) {
                     throw new IOException("Problem removing " + versionName, e);
                 }
@@ -483,7 +456,7 @@ public KeyVersion rollNewVersion(String name, byte[] material) throws IOExceptio
         KeyVersion ret = null;
 
         try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
-            reloadKeys();
+            reloadKey(name);
 
             Metadata meta = getMetadata(name);
 
@@ -513,9 +486,8 @@ public void flush() throws IOException {
         if (changed) {
             try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
                 try {
+                    // stored entries are already in the keystore; other keys are loaded on access
                     dbStore.engineStore(null, masterKey);
-
-                    reloadKeys();
                 } catch (NoSuchAlgorithmException e) {
                     throw new IOException("No such algorithm storing key", e);
                 } catch (CertificateException e) {
@@ -679,6 +651,28 @@ private void saveKey(String name, Metadata metadata) throws IOException {
         }
     }
 
+    private boolean containsAlias(String alias) throws IOException, NoSuchAlgorithmException {
+        return dbStore.engineContainsAlias(alias) || dbStore.engineLoadAlias(alias, masterKey);
+    }
+
+    private boolean reloadKey(String name) throws IOException {
+        logger.debug("==> reloadKey({})", name);
+
+        boolean ret;
+
+        try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
+            cache.remove(name);
+
+            ret = dbStore.engineLoadAlias(name, masterKey);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Can't load key " + name, e);
+        }
+
+        logger.debug("<== reloadKey({}): ret={}", name, ret);
+
+        return ret;
+    }
+
     private void reloadKeys() throws IOException {
         logger.debug("==> reloadKeys()");
 
@@ -17,6 +17,7 @@
  */
 package org.apache.hadoop.crypto.key.kms.server;
 
+import com.codahale.metrics.Timer;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.crypto.key.KeyProvider;
@@ -521,7 +522,8 @@ public Response generateEncryptedKeys(@PathParam("name") final String name, @Que
             @DefaultValue("1") @QueryParam(KMSRESTConstants.EEK_NUM_KEYS) final int numKeys, @Context HttpServletRequest request) throws Exception {
         LOG.debug("==> generateEncryptedKeys(name={}, eekOp={}, numKeys={})", name, edekOp, numKeys);
 
-        try (APIMetric apiElapsedMetric = kmsMetricsCollector.createAPIMetric(KMSMetrics.KMSMetric.EEK_GENERATE_COUNT, KMSMetrics.KMSMetric.EEK_GENERATE_ELAPSED_TIME)) {
+        try (APIMetric apiElapsedMetric = kmsMetricsCollector.createAPIMetric(KMSMetrics.KMSMetric.EEK_GENERATE_COUNT, KMSMetrics.KMSMetric.EEK_GENERATE_ELAPSED_TIME);
+                Timer.Context timerContext = KMSWebApp.getGenerateEEKCallsTimer().time()) {
             UserGroupInformation user = HttpUserGroupInformation.get();
 
             checkNotEmpty(name, "name");
@@ -671,15 +673,17 @@ public Response handleEncryptedKeyOp(@PathParam("versionName") final String vers
                 KMSWebApp.getDecryptEEKCallsMeter().mark();
                 apiMetric.setMetrics(KMSMetrics.KMSMetric.EEK_DECRYPT_COUNT, KMSMetrics.KMSMetric.EEK_DECRYPT_ELAPSED_TIME);
 
-                assertAccess(Type.DECRYPT_EEK, user, KMSOp.DECRYPT_EEK, keyName, request.getRemoteAddr());
+                try (Timer.Context timerContext = KMSWebApp.getDecryptEEKCallsTimer().time()) {
+                    assertAccess(Type.DECRYPT_EEK, user, KMSOp.DECRYPT_EEK, keyName, request.getRemoteAddr());
 
-                KeyVersion retKeyVersion = user.doAs((PrivilegedExceptionAction<KeyVersion>) () -> {
-                    KMSEncryptedKeyVersion ekv = new KMSEncryptedKeyVersion(keyName, versionName, iv, KeyProviderCryptoExtension.EEK, encMaterial);
+                    KeyVersion retKeyVersion = user.doAs((PrivilegedExceptionAction<KeyVersion>) () -> {
+                        KMSEncryptedKeyVersion ekv = new KMSEncryptedKeyVersion(keyName, versionName, iv, KeyProviderCryptoExtension.EEK, encMaterial);
 
-                    return provider.decryptEncryptedKey(ekv);
-                });
+                        return provider.decryptEncryptedKey(ekv);
+                    });
 
-                retJSON = KMSUtil.toJSON(retKeyVersion);
+                    retJSON = KMSUtil.toJSON(retKeyVersion);
+                }
 
                 kmsAudit.ok(user, KMSOp.DECRYPT_EEK, keyName, "");
             } else if (eekOp.equals(KMSRESTConstants.EEK_REENCRYPT)) {
@@ -20,6 +20,7 @@
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.crypto.key.CachingKeyProvider;
@@ -61,6 +62,8 @@ public class KMSWebApp implements ServletContextListener {
     private static final String DECRYPT_EEK_METER           = METRICS_PREFIX + "decrypt_eek.calls.meter";
     private static final String REENCRYPT_EEK_METER         = METRICS_PREFIX + "reencrypt_eek.calls.meter";
     private static final String REENCRYPT_EEK_BATCH_METER   = METRICS_PREFIX + "reencrypt_eek_batch.calls.meter";
+    private static final String GENERATE_EEK_TIMER          = METRICS_PREFIX + "generate_eek.calls.timer";
+    private static final String DECRYPT_EEK_TIMER           = METRICS_PREFIX + "decrypt_eek.calls.timer";
 
     private static MetricRegistry             metricRegistry;
     private static Configuration              kmsConf;
@@ -74,6 +77,8 @@ public class KMSWebApp implements ServletContextListener {
     private static Meter                      reencryptEEKBatchCallsMeter;
     private static Meter                      generateEEKCallsMeter;
     private static Meter                      invalidCallsMeter;
+    private static Timer                      generateEEKCallsTimer;
+    private static Timer                      decryptEEKCallsTimer;
     private static KMSAudit                   kmsAudit;
     private static KeyProviderCryptoExtension keyProviderCryptoExtension;
     private static KMSMetricsCollector        kmsMetricsCollector;
@@ -124,6 +129,14 @@ public static Meter getUnauthenticatedCallsMeter() {
         return unauthenticatedCallsMeter;
     }
 
+    public static Timer getGenerateEEKCallsTimer() {
+        return generateEEKCallsTimer;
+    }
+
+    public static Timer getDecryptEEKCallsTimer() {
+        return decryptEEKCallsTimer;
+    }
+
     public static KeyProviderCryptoExtension getKeyProvider() {
         return keyProviderCryptoExtension;
     }
@@ -178,6 +191,8 @@ public void contextInitialized(ServletContextEvent sce) {
             invalidCallsMeter           = metricRegistry.register(INVALID_CALLS_METER, new Meter());
             unauthorizedCallsMeter      = metricRegistry.register(UNAUTHORIZED_CALLS_METER, new Meter());
             unauthenticatedCallsMeter   = metricRegistry.register(UNAUTHENTICATED_CALLS_METER, new Meter());
+            generateEEKCallsTimer       = metricRegistry.register(GENERATE_EEK_TIMER, new Timer());
+            decryptEEKCallsTimer        = metricRegistry.register(DECRYPT_EEK_TIMER, new Timer());
 
             kmsAudit = new KMSAudit(kmsConf);
 
@@ -204,6 +219,7 @@ public void contextInitialized(ServletContextEvent sce) {
 
             log.info("keyProvider = {}", keyProvider);
 
+            // key versions and metadata are cached only here: RangerKeyStoreProvider keeps no cache of its own, a miss loads just the requested key from the database
             if (kmsConf.getBoolean(KMSConfiguration.KEY_CACHE_ENABLE, KMSConfiguration.KEY_CACHE_ENABLE_DEFAULT)) {
                 long keyTimeOutMillis     = kmsConf.getLong(KMSConfiguration.KEY_CACHE_TIMEOUT_KEY, KMSConfiguration.KEY_CACHE_TIMEOUT_DEFAULT);
                 long currKeyTimeOutMillis = kmsConf.getLong(KMSConfiguration.CURR_KEY_CACHE_TIMEOUT_KEY, KMSConfiguration.CURR_KEY_CACHE_TIMEOUT_DEFAULT);
@@ -30,14 +30,15 @@
 public class RangerKMSDao extends BaseDao<XXRangerKeyStore> {
     private static final Logger logger = LoggerFactory.getLogger(RangerKMSDao.class);
 
-    private static final String GET_ALL_KEYS_QUERY_NAME = "XXRangerKeyStore.getAllKeys";
+    private static final String GET_ALL_KEYS_QUERY_NAME  = "XXRangerKeyStore.getAllKeys";
+    private static final String FIND_BY_ALIAS_QUERY_NAME = "XXRangerKeyStore.findByAlias";
 
     RangerKMSDao(DaoManagerBase daoManager) {
         super(daoManager);
     }
 
     public XXRangerKeyStore findByAlias(String alias) {
-        return super.findByAlias("XXRangerKeyStore.findByAlias", alias);
+        return super.findByAlias(FIND_BY_ALIAS_QUERY_NAME, alias);
     }
 
     public int deleteByAlias(String alias) {
@@ -84,4 +85,32 @@ public List<XXRangerKeyStore> getAllKeys() {
 
         return ret;
     }
+
+    /**
+     * Reads the key with the given alias from the database, bypassing the persistence context cache; used to
+     * load a single key without reloading all keys.
+     */
+    public XXRangerKeyStore getKey(String alias) {
+        XXRangerKeyStore ret = null;
+        EntityManager    em  = null;
+
+        try {
+            em = getEntityManager();
+
+            List<XXRangerKeyStore> rows = em.createNamedQuery(FIND_BY_ALIAS_QUERY_NAME, XXRangerKeyStore.class)
+                    .setParameter("alias", alias)
+                    .setHint("eclipselink.refresh", "true")
+                    .getResultList();
+
+            if (rows != null && !rows.isEmpty()) {
+                ret = rows.get(0);
+            }
+        } finally {
+            if (em != null) {
+                em.clear();
+            }
+        }
+
+        return ret;
+    }
 }
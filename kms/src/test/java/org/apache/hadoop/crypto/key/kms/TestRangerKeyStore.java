@@ -18,7 +18,9 @@
 package org.apache.hadoop.crypto.key.kms;
 
 import org.apache.hadoop.crypto.key.RangerKeyStore;
+import org.apache.ranger.entity.XXRangerKeyStore;
 import org.apache.ranger.kms.dao.DaoManager;
+import org.apache.ranger.kms.dao.RangerKMSDao;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,10 +28,12 @@
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.crypto.KeyGenerator;
+import javax.crypto.spec.SecretKeySpec;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -129,6 +133,41 @@ public void testValidKey2() throws NoSuchAlgorithmException, CertificateExceptio
         inputStream.close();
     }
 
+    @Test
+    public void testLoadAlias() throws Exception {
+        DaoManager   daoManager = Mockito.mock(DaoManager.class);
+        RangerKMSDao kmsDao     = Mockito.mock(RangerKMSDao.class);
+        Key          key        = new SecretKeySpec(new byte[16], "AES");
+
+        Mockito.when(daoManager.getRangerKMSDao()).thenReturn(kmsDao);
+
+        // store a key, to get the entity written to the database
+        RangerKeyStore rangerKeyStore = new RangerKeyStore(daoManager);
+
+        rangerKeyStore.addKeyEntry("enckey@0", key, masterKey, "AES/CTR/NoPadding", 128, "test", 1, "{}");
+        rangerKeyStore.engineStore(null, masterKey);
+
+        ArgumentCaptor<XXRangerKeyStore> stored = ArgumentCaptor.forClass(XXRangerKeyStore.class);
+
+        Mockito.verify(kmsDao).create(stored.capture());
+
+        // another instance loads only the requested key
+        RangerKeyStore rangerKeyStore2 = new RangerKeyStore(daoManager);
+
+        Mockito.when(kmsDao.getKey("enckey@0")).thenReturn(stored.getValue());
+
+        Assertions.assertFalse(rangerKeyStore2.engineContainsAlias("enckey@0"));
+        Assertions.assertTrue(rangerKeyStore2.engineLoadAlias("enckey@0", masterKey));
+        Assertions.assertEquals(1, rangerKeyStore2.engineSize());
+        Assertions.assertArrayEquals(key.getEncoded(), rangerKeyStore2.engineGetKey("enckey@0", masterKey).getEncoded());
+
+        // key deleted from the database is removed on reload
+        Mockito.when(kmsDao.getKey("enckey@0")).thenReturn(null);
+
+        Assertions.assertFalse(rangerKeyStore2.engineLoadAlias("enckey@0", masterKey));
+        Assertions.assertFalse(rangerKeyStore2.engineContainsAlias("enckey@0"));
+    }
+
     private InputStream generateKeyStoreFile(String keyValue) throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException {
         FileOutputStream stream = new FileOutputStream(new File(keyStoreFileName));
         KeyStore         ks;
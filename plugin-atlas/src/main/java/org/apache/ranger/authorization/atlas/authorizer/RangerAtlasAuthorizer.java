@@ -38,7 +38,9 @@
 import org.apache.ranger.audit.model.AuthzAuditEvent;
 import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
 import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResource;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
@@ -46,10 +48,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -290,27 +295,26 @@ public void scrubSearchResults(AtlasSearchResultScrubRequest request) {
                 perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "RangerAtlasAuthorizer.scrubSearchResults(" + request + ")");
             }
 
-            final AtlasSearchResult result = request.getSearchResult();
+            final AtlasSearchResult      result   = request.getSearchResult();
+            final Set<AtlasEntityHeader> entities = Collections.newSetFromMap(new IdentityHashMap<>()); // an entity header can be present in more than one list
 
             if (CollectionUtils.isNotEmpty(result.getEntities())) {
-                for (AtlasEntityHeader entity : result.getEntities()) {
-                    checkAccessAndScrub(entity, request);
-                }
+                entities.addAll(result.getEntities());
             }
 
             if (CollectionUtils.isNotEmpty(result.getFullTextResult())) {
                 for (AtlasSearchResult.AtlasFullTextResult fullTextResult : result.getFullTextResult()) {
                     if (fullTextResult != null) {
-                        checkAccessAndScrub(fullTextResult.getEntity(), request);
+                        entities.add(fullTextResult.getEntity());
                     }
                 }
             }
 
             if (MapUtils.isNotEmpty(result.getReferredEntities())) {
-                for (AtlasEntityHeader entity : result.getReferredEntities().values()) {
-                    checkAccessAndScrub(entity, request);
-                }
+                entities.addAll(result.getReferredEntities().values());
             }
+
+            checkAccessAndScrub(entities, request);
         } finally {
             RangerPerfTracer.log(perf);
         }
@@ -359,16 +363,54 @@ private boolean isAccessAllowed(AtlasEntityAccessRequest request, RangerAtlasAud
         boolean ret = false;
 
         try {
-            final String                   action         = request.getAction() != null ? request.getAction().getType() : null;
-            final Set<String>              entityTypes    = request.getEntityTypeAndAllSuperTypes();
-            final String                   entityId       = request.getEntityId();
-            final String                   classification = request.getClassification() != null ? request.getClassification().getTypeName() : null;
+            // check authorization for each classification
+            for (RangerAccessRequestImpl rangerRequest : getRangerRequests(request)) {
+                ret = checkAccess(rangerRequest, auditHandler);
+
+                if (!ret) {
+                    break;
+                }
+            }
+        } finally {
+            if (auditHandler != null) {
+                auditHandler.flushAudit();
+            }
+        }
+
+        LOG.debug("<== isAccessAllowed({}): {}", request, ret);
+
+        return ret;
+    }
+
+    /**
+     * @return one request for each classification of the entity; access to the entity requires all these requests to be allowed
+     */
+    private List<RangerAccessRequestImpl> getRangerRequests(AtlasEntityAccessRequest request) {
+        final String             action                = request.getAction() != null ? request.getAction().getType() : null;
+        final Set<String>        entityTypes           = request.getEntityTypeAndAllSuperTypes();
+        final String             entityId              = request.getEntityId();
+        final String             classification        = request.getClassification() != null ? request.getClassification().getTypeName() : null;
+        final String             ownerUser             = request.getEntity() != null ? (String) request.getEntity().getAttribute(RESOURCE_ENTITY_OWNER) : null;
+        final Collection<String> entityClassifications = request.getEntityClassifications();
+        final List<Object>       classificationValues  = new ArrayList<>();
+
+        if (CollectionUtils.isNotEmpty(entityClassifications)) {
+            for (String classificationToAuthorize : entityClassifications) {
+                classificationValues.add(request.getClassificationTypeAndAllSuperTypes(classificationToAuthorize));
+            }
+        } else {
+            classificationValues.add(ENTITY_NOT_CLASSIFIED);
+        }
+
+        List<RangerAccessRequestImpl> ret = new ArrayList<>(classificationValues.size());
+
+        for (Object classificationValue : classificationValues) {
             final RangerAccessRequestImpl  rangerRequest  = new RangerAccessRequestImpl();
             final RangerAccessResourceImpl rangerResource = new RangerAccessResourceImpl();
-            final String                   ownerUser      = request.getEntity() != null ? (String) request.getEntity().getAttribute(RESOURCE_ENTITY_OWNER) : null;
 
             rangerResource.setValue(RESOURCE_ENTITY_TYPE, entityTypes);
             rangerResource.setValue(RESOURCE_ENTITY_ID, entityId);
+            rangerResource.setValue(RESOURCE_ENTITY_CLASSIFICATION, classificationValue);
             rangerResource.setOwnerUser(ownerUser);
 
             rangerRequest.setAccessType(action);
@@ -389,30 +431,9 @@ private boolean isAccessAllowed(AtlasEntityAccessRequest request, RangerAtlasAud
                 rangerResource.setValue(RESOURCE_CLASSIFICATION, request.getClassificationTypeAndAllSuperTypes(classification));
             }
 
-            if (CollectionUtils.isNotEmpty(request.getEntityClassifications())) {
-                // check authorization for each classification
-                for (String classificationToAuthorize : request.getEntityClassifications()) {
-                    rangerResource.setValue(RESOURCE_ENTITY_CLASSIFICATION, request.getClassificationTypeAndAllSuperTypes(classificationToAuthorize));
-
-                    ret = checkAccess(rangerRequest, auditHandler);
-
-                    if (!ret) {
-                        break;
-                    }
-                }
-            } else {
-                rangerResource.setValue(RESOURCE_ENTITY_CLASSIFICATION, ENTITY_NOT_CLASSIFIED);
-
-                ret = checkAccess(rangerRequest, auditHandler);
-            }
-        } finally {
-            if (auditHandler != null) {
-                auditHandler.flushAudit();
-            }
+            ret.add(rangerRequest);
         }
 
-        LOG.debug("<== isAccessAllowed({}): {}", request, ret);
-
         return ret;
     }
 
@@ -446,16 +467,81 @@ private boolean checkAccess(RangerAccessRequestImpl request, RangerAtlasAuditHan
         return ret;
     }
 
-    private void checkAccessAndScrub(AtlasEntityHeader entity, AtlasSearchResultScrubRequest request) {
-        if (entity != null && request != null) {
+    /**
+     * Checks entity-read access to the given entities and scrubs the entities that the user doesn't have access to.
+     * All requests are evaluated with one call to the policy engine. Since the entity id is part of the resource, only
+     * requests for the same entity are evaluated once, as when the entity is present in entities and in referredEntities
+     * as different header objects. Like for a single entity, results are not audited.
+     */
+    private void checkAccessAndScrub(Collection<AtlasEntityHeader> entities, AtlasSearchResultScrubRequest request) {
+        if (CollectionUtils.isEmpty(entities) || request == null) {
+            return;
+        }
+
+        RangerBasePlugin plugin = atlasPlugin;
+
+        if (plugin == null) {
+            LOG.warn("RangerAtlasPlugin not initialized. Access blocked!!!");
+        }
+
+        final Map<RangerAccessResource, Integer>    requestIndexes = new HashMap<>();
+        final List<RangerAccessRequest>             uniqueRequests = new ArrayList<>();
+        final Map<AtlasEntityHeader, List<Integer>> entityRequests = new IdentityHashMap<>();
+
+        for (AtlasEntityHeader entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+
             final AtlasEntityAccessRequest entityAccessRequest = new AtlasEntityAccessRequest(request.getTypeRegistry(), AtlasPrivilege.ENTITY_READ, entity, request.getUser(), request.getUserGroups());
 
             entityAccessRequest.setClientIPAddress(request.getClientIPAddress());
             entityAccessRequest.setForwardedAddresses(request.getForwardedAddresses());
             entityAccessRequest.setRemoteIPAddress(request.getRemoteIPAddress());
 
-            if (!isAccessAllowed(entityAccessRequest, null)) {
-                scrubEntityHeader(entity);
+            List<RangerAccessRequestImpl> rangerRequests = getRangerRequests(entityAccessRequest);
+            List<Integer>                 indexes        = new ArrayList<>(rangerRequests.size());
+
+            for (RangerAccessRequestImpl rangerRequest : rangerRequests) {
+                // user, groups, access-type and client details are same for all requests; hence resource identifies the request.
+                // The resource includes the entity id, so only requests for the same entity and classification are shared
+                Integer index = requestIndexes.get(rangerRequest.getResource());
+
+                if (index == null) {
+                    index = uniqueRequests.size();
+
+                    requestIndexes.put(rangerRequest.getResource(), index);
+                    uniqueRequests.add(rangerRequest);
+                }
+
+                indexes.add(index);
+            }
+
+            entityRequests.put(entity, indexes);
+        }
+
+        final boolean[]                      isAllowed = new boolean[uniqueRequests.size()];
+        final Collection<RangerAccessResult> results   = plugin != null && !uniqueRequests.isEmpty() ? plugin.isAccessAllowed(uniqueRequests, null) : null;
+
+        if (results != null) {
+            Iterator<RangerAccessResult> iter = results.iterator();
+
+            for (int i = 0; i < isAllowed.length && iter.hasNext(); i++) {
+                RangerAccessResult result = iter.next();
+
+                isAllowed[i] = result != null && result.getIsAllowed();
+            }
+        }
+
+        LOG.debug("checkAccessAndScrub(): entities={}, requests={}", entityRequests.size(), uniqueRequests.size());
+
+        for (Map.Entry<AtlasEntityHeader, List<Integer>> entry : entityRequests.entrySet()) {
+            for (Integer index : entry.getValue()) {
+                if (!isAllowed[index]) {
+                    scrubEntityHeader(entry.getKey());
+
+                    break;
+                }
             }
         }
     }
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.atlas.authorizer;
+
+import org.apache.atlas.authorize.AtlasSearchResultScrubRequest;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.ranger.services.atlas.RangerServiceAtlas.RESOURCE_ENTITY_CLASSIFICATION;
+import static org.apache.ranger.services.atlas.RangerServiceAtlas.RESOURCE_ENTITY_ID;
+
+public class RangerAtlasAuthorizerTest {
+    private static final String      USER   = "user1";
+    private static final Set<String> GROUPS = Collections.singleton("group1");
+
+    private AtlasTypeRegistry typeRegistry;
+    private StubPlugin        plugin;
+    private TestAuthorizer    authorizer;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(new AtlasEntityDef("hive_table")));
+        typesDef.setClassificationDefs(Arrays.asList(new AtlasClassificationDef("PII"), new AtlasClassificationDef("PUBLIC")));
+
+        typeRegistry = new AtlasTypeRegistry();
+
+        AtlasTypeRegistry.AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        plugin     = new StubPlugin();
+        authorizer = new TestAuthorizer();
+
+        setAtlasPlugin(plugin);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        setAtlasPlugin(null);
+    }
+
+    @Test
+    public void testAllowedAndScrubbedHeaders() {
+        AtlasEntityHeader table1 = createEntity("guid-1", "db1.table1@cl1", "PUBLIC");
+        AtlasEntityHeader table2 = createEntity("guid-2", "db1.table2@cl1", "PUBLIC");
+        AtlasEntityHeader table3 = createEntity("guid-3", "db1.table3@cl1");
+
+        plugin.deniedEntityIds.add("db1.table2@cl1");
+
+        scrub(Arrays.asList(table1, table2, table3), Collections.emptyMap());
+
+        Assertions.assertEquals(1, plugin.batchCount);
+        Assertions.assertEquals(3, plugin.requests.size());
+        Assertions.assertEquals(Collections.singleton(table2), authorizer.scrubbed.keySet());
+    }
+
+    @Test
+    public void testSameEntityInEntitiesAndReferredEntities() {
+        AtlasEntityHeader table1    = createEntity("guid-1", "db1.table1@cl1", "PII");
+        AtlasEntityHeader table1Ref = createEntity("guid-1", "db1.table1@cl1", "PII");
+        AtlasEntityHeader table2    = createEntity("guid-2", "db1.table2@cl1", "PUBLIC");
+
+        plugin.deniedEntityIds.add("db1.table1@cl1");
+
+        Map<String, AtlasEntityHeader> referredEntities = new HashMap<>();
+
+        referredEntities.put(table1Ref.getGuid(), table1Ref);
+        referredEntities.put(table2.getGuid(), table2);
+
+        scrub(Arrays.asList(table1, table2), referredEntities);
+
+        // table2 is checked once though present in both lists; table1 and its copy share one request
+        Assertions.assertEquals(1, plugin.batchCount);
+        Assertions.assertEquals(2, plugin.requests.size());
+        Assertions.assertEquals(2, authorizer.scrubbed.size());
+        Assertions.assertTrue(authorizer.scrubbed.containsKey(table1));
+        Assertions.assertTrue(authorizer.scrubbed.containsKey(table1Ref));
+    }
+
+    @Test
+    public void testMultipleClassifications() {
+        AtlasEntityHeader table1 = createEntity("guid-1", "db1.table1@cl1", "PUBLIC", "PII");
+        AtlasEntityHeader table2 = createEntity("guid-2", "db1.table2@cl1", "PUBLIC");
+
+        plugin.deniedClassifications.add("PII");
+
+        scrub(Arrays.asList(table1, table2), Collections.emptyMap());
+
+        // one request for each classification of each entity; an entity is scrubbed if any of its requests is denied
+        Assertions.assertEquals(1, plugin.batchCount);
+        Assertions.assertEquals(3, plugin.requests.size());
+        Assertions.assertEquals(Collections.singleton(table1), authorizer.scrubbed.keySet());
+    }
+
+    private void scrub(List<AtlasEntityHeader> entities, Map<String, AtlasEntityHeader> referredEntities) {
+        AtlasSearchResult searchResult = new AtlasSearchResult();
+
+        searchResult.setEntities(new ArrayList<>(entities));
+        searchResult.setReferredEntities(referredEntities);
+
+        authorizer.scrubSearchResults(new AtlasSearchResultScrubRequest(typeRegistry, searchResult, USER, GROUPS));
+    }
+
+    private static AtlasEntityHeader createEntity(String guid, String qualifiedName, String... classifications) {
+        Map<String, Object> attributes = new HashMap<>();
+
+        attributes.put("qualifiedName", qualifiedName);
+
+        AtlasEntityHeader         ret                   = new AtlasEntityHeader("hive_table", guid, attributes);
+        List<AtlasClassification> entityClassifications = new ArrayList<>();
+
+        for (String classification : classifications) {
+            entityClassifications.add(new AtlasClassification(classification));
+        }
+
+        ret.setClassifications(entityClassifications);
+        ret.setClassificationNames(Arrays.asList(classifications));
+
+        return ret;
+    }
+
+    private static void setAtlasPlugin(RangerBasePlugin plugin) throws Exception {
+        Field field = RangerAtlasAuthorizer.class.getDeclaredField("atlasPlugin");
+
+        field.setAccessible(true);
+        field.set(null, plugin);
+    }
+
+    private static class TestAuthorizer extends RangerAtlasAuthorizer {
+        final Map<AtlasEntityHeader, Boolean> scrubbed = new IdentityHashMap<>();
+
+        @Override
+        public void scrubEntityHeader(AtlasEntityHeader entity) {
+            scrubbed.put(entity, Boolean.TRUE);
+        }
+    }
+
+    private static class StubPlugin extends RangerBasePlugin {
+        final Set<String>               deniedEntityIds       = new HashSet<>();
+        final Set<String>               deniedClassifications = new HashSet<>();
+        final List<RangerAccessRequest> requests              = new ArrayList<>();
+        int                             batchCount;
+
+        StubPlugin() {
+            super("atlas", "atlas");
+        }
+
+        @Override
+        public Collection<RangerAccessResult> isAccessAllowed(Collection<RangerAccessRequest> requests, RangerAccessResultProcessor resultProcessor) {
+            List<RangerAccessResult> ret = new ArrayList<>(requests.size());
+
+            batchCount++;
+
+            for (RangerAccessRequest request : requests) {
+                RangerAccessResult result = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "atlas", null, request);
+
+                result.setIsAccessDetermined(true);
+                result.setIsAllowed(!isDenied(request));
+
+                this.requests.add(request);
+
+                ret.add(result);
+            }
+
+            return ret;
+        }
+
+        private boolean isDenied(RangerAccessRequest request) {
+            Object entityId       = request.getResource().getValue(RESOURCE_ENTITY_ID);
+            Object classification = request.getResource().getValue(RESOURCE_ENTITY_CLASSIFICATION);
+
+            if (deniedEntityIds.contains(entityId)) {
+                return true;
+            }
+
+            if (classification instanceof Collection) {
+                for (Object name : (Collection<?>) classification) {
+                    if (deniedClassifications.contains(name)) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+    }
+}
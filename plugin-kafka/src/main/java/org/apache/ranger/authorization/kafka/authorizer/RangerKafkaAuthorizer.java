@@ -41,6 +41,7 @@
 import org.apache.kafka.server.authorizer.Authorizer;
 import org.apache.kafka.server.authorizer.AuthorizerServerInfo;
 import org.apache.ranger.audit.provider.MiscUtil;
+import org.apache.ranger.plugin.policyengine.ConcurrentCacheMap;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
@@ -57,6 +58,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -88,6 +90,8 @@ public class RangerKafkaAuthorizer implements Authorizer {
 
     RangerKafkaAuditHandler auditHandler;
 
+    final ResourceTypeAccessCache resourceTypeAccessCache = new ResourceTypeAccessCache(ResourceTypeAccessCache.DEFAULT_CACHE_SIZE);
+
     public RangerKafkaAuthorizer() {
     }
 
@@ -211,18 +215,51 @@ public Iterable<AclBinding> acls(AclBindingFilter filter) {
         throw new UnsupportedOperationException("(getting) acls is not supported by Ranger for Kafka");
     }
 
-    // TODO: provide a real implementation (RANGER-3809)
-    // Currently we return a dummy implementation because KAFKA-13598 makes producers idempotent by default and this causes
-    // a failure in the InitProducerId API call on the broker side because of the missing acls() method implementation.
-    // Overriding this with a dummy impl will make Kafka return an authorization error instead of an exception if the
-    // IDEMPOTENT_WRITE permission wasn't set on the producer.
+    // Called by Kafka to find if the principal has access to at least one resource of the given type; for example, by
+    // InitProducerId to check for WRITE on any topic when the producer is idempotent. Result for a principal is cached until
+    // policies or roles change, unless policies of the resource type have validity schedules.
     @Override
     public AuthorizationResult authorizeByResourceType(AuthorizableRequestContext requestContext, AclOperation op, ResourceType resourceType) {
         SecurityUtils.authorizeByResourceTypeCheckArgs(op, resourceType);
 
-        logger.debug("authorizeByResourceType call is not supported by Ranger for Kafka yet");
+        RangerBasePlugin plugin = rangerPlugin;
+
+        if (plugin == null) {
+            MiscUtil.logErrorMessageByInterval(logger, "Authorizer is still not initialized");
+
+            return AuthorizationResult.DENIED;
+        }
+
+        String accessType      = mapToRangerAccessType(op);
+        String resourceTypeKey = mapToResourceType(resourceType);
 
-        return AuthorizationResult.DENIED;
+        if (accessType == null || resourceTypeKey == null) {
+            MiscUtil.logErrorMessageByInterval(logger, "Unsupported operation or resource type, requestContext=" + toString(requestContext) + ", operation=" + op + ", resourceType=" + resourceType);
+
+            return AuthorizationResult.DENIED;
+        }
+
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_KAFKAAUTH_REQUEST_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_KAFKAAUTH_REQUEST_LOG, "RangerKafkaAuthorizer.authorizeByResourceType(operation=" + op + ", resourceType=" + resourceType + ")");
+        }
+
+        try {
+            String      userName   = requestContext.principal() == null ? null : requestContext.principal().getName();
+            Set<String> userGroups = MiscUtil.getGroupsForRequestUser(userName);
+            boolean     isAllowed  = resourceTypeAccessCache.isAllowed(plugin, resourceTypeKey, accessType, userName, userGroups);
+
+            logger.debug("authorizeByResourceType(requestContext={}, operation={}, resourceType={}): isAllowed={}", toString(requestContext), op, resourceType, isAllowed);
+
+            return isAllowed ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
+        } catch (Throwable t) {
+            logger.error("Error while calling isAccessAllowedOnAnyResource(). requestContext={}, operation={}, resourceType={}", toString(requestContext), op, resourceType, t);
+
+            return AuthorizationResult.DENIED;
+        } finally {
+            RangerPerfTracer.log(perf);
+        }
     }
 
     private static String mapToRangerAccessType(AclOperation operation) {
@@ -412,4 +449,104 @@ private Set<String> parseSuperUsersFromKafkaConfig(Map<String, ?> configs) {
 
         return Collections.unmodifiableSet(superUserNames);
     }
+
+    /*
+     * Results of authorizeByResourceType() per principal, access-type and resource-type; flushed when policies or roles change.
+     * Results for resource-types having policies with validity schedule are not cached.
+     */
+    static final class ResourceTypeAccessCache {
+        static final int DEFAULT_CACHE_SIZE = 10000;
+
+        private final ConcurrentCacheMap<Key, Boolean> cache;
+        private volatile long                          policyVersion = -1;
+        private volatile long                          roleVersion   = -1;
+
+        ResourceTypeAccessCache(int cacheSize) {
+            this.cache = new ConcurrentCacheMap<>(cacheSize);
+        }
+
+        boolean isAllowed(RangerBasePlugin plugin, String resourceTypeKey, String accessType, String userName, Set<String> userGroups) {
+            checkVersions(plugin);
+
+            // policies with validity schedule can allow or deny at the window edges, without a policy change
+            if (plugin.hasValidityScheduleForResourceType(resourceTypeKey)) {
+                return plugin.isAccessAllowedOnAnyResource(resourceTypeKey, accessType, userName, userGroups);
+            }
+
+            Key     key = new Key(resourceTypeKey, accessType, userName, userGroups);
+            Boolean ret = cache.get(key);
+
+            if (ret == null) {
+                ret = plugin.isAccessAllowedOnAnyResource(resourceTypeKey, accessType, userName, userGroups);
+
+                cache.put(key, ret);
+            }
+
+            return ret;
+        }
+
+        int getSize() {
+            return cache.size();
+        }
+
+        long getHitCount() {
+            return cache.getHitCount();
+        }
+
+        private void checkVersions(RangerBasePlugin plugin) {
+            long policyVersion = plugin.getPoliciesVersion();
+            long roleVersion   = plugin.getRolesVersion();
+
+            if (policyVersion != this.policyVersion || roleVersion != this.roleVersion) {
+                synchronized (this) {
+                    if (policyVersion != this.policyVersion || roleVersion != this.roleVersion) {
+                        logger.debug("ResourceTypeAccessCache.checkVersions(): policyVersion={}, roleVersion={}; earlier policyVersion={}, roleVersion={}", policyVersion, roleVersion, this.policyVersion, this.roleVersion);
+
+                        cache.clear();
+
+                        this.policyVersion = policyVersion;
+                        this.roleVersion   = roleVersion;
+                    }
+                }
+            }
+        }
+
+        private static final class Key {
+            private final String      resourceTypeKey;
+            private final String      accessType;
+            private final String      userName;
+            private final Set<String> userGroups;
+            private final int         hashCode;
+
+            Key(String resourceTypeKey, String accessType, String userName, Set<String> userGroups) {
+                this.resourceTypeKey = resourceTypeKey;
+                this.accessType      = accessType;
+                this.userName        = userName;
+                this.userGroups      = userGroups != null ? userGroups : Collections.emptySet();
+                this.hashCode        = Objects.hash(resourceTypeKey, accessType, userName, this.userGroups);
+            }
+
+            @Override
+            public int hashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (this == obj) {
+                    return true;
+                } else if (!(obj instanceof Key)) {
+                    return false;
+                }
+
+                Key other = (Key) obj;
+
+                return hashCode == other.hashCode &&
+                        Objects.equals(userName, other.userName) &&
+                        Objects.equals(resourceTypeKey, other.resourceTypeKey) &&
+                        Objects.equals(accessType, other.accessType) &&
+                        userGroups.equals(other.userGroups);
+            }
+        }
+    }
 }
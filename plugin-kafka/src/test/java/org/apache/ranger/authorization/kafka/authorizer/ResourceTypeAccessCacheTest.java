@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+public class ResourceTypeAccessCacheTest {
+    private static final Set<String> GROUPS = Collections.singleton("group1");
+
+    @Test
+    public void testCachedUntilPolicyChange() {
+        StubPlugin                                    plugin = new StubPlugin(false);
+        RangerKafkaAuthorizer.ResourceTypeAccessCache cache  = new RangerKafkaAuthorizer.ResourceTypeAccessCache(10);
+
+        Assertions.assertTrue(cache.isAllowed(plugin, "topic", "publish", "user1", GROUPS));
+
+        plugin.isAllowed = false;
+
+        Assertions.assertTrue(cache.isAllowed(plugin, "topic", "publish", "user1", GROUPS));
+        Assertions.assertEquals(1, plugin.evaluationCount);
+
+        plugin.policyVersion++;
+
+        Assertions.assertFalse(cache.isAllowed(plugin, "topic", "publish", "user1", GROUPS));
+        Assertions.assertEquals(2, plugin.evaluationCount);
+    }
+
+    @Test
+    public void testNotCachedWithValiditySchedule() {
+        StubPlugin                                    plugin = new StubPlugin(true);
+        RangerKafkaAuthorizer.ResourceTypeAccessCache cache  = new RangerKafkaAuthorizer.ResourceTypeAccessCache(10);
+
+        Assertions.assertTrue(cache.isAllowed(plugin, "topic", "publish", "user1", GROUPS));
+
+        // validity schedule of a policy ended, without a policy change
+        plugin.isAllowed = false;
+
+        Assertions.assertFalse(cache.isAllowed(plugin, "topic", "publish", "user1", GROUPS));
+        Assertions.assertEquals(2, plugin.evaluationCount);
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    private static class StubPlugin extends RangerBasePlugin {
+        final boolean hasValiditySchedule;
+        boolean       isAllowed     = true;
+        long          policyVersion = 1;
+        int           evaluationCount;
+
+        StubPlugin(boolean hasValiditySchedule) {
+            super("kafka", "kafka");
+
+            this.hasValiditySchedule = hasValiditySchedule;
+        }
+
+        @Override
+        public boolean isAccessAllowedOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups) {
+            evaluationCount++;
+
+            return isAllowed;
+        }
+
+        @Override
+        public boolean hasValidityScheduleForResourceType(String resourceName) {
+            return hasValiditySchedule;
+        }
+
+        @Override
+        public long getPoliciesVersion() {
+            return policyVersion;
+        }
+
+        @Override
+        public long getRolesVersion() {
+            return 1;
+        }
+    }
+}
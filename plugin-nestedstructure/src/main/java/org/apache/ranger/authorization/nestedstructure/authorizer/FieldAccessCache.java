@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.nestedstructure.authorizer;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches field level access decisions per (schema, user, user groups, access type). Decisions of a principal set are
+ * discarded when the version of policies, tags, roles or user-store of the plugin changes. Only decisions that don't
+ * depend on the context of the request - like time or client IP address - are cached.
+ **/
+class FieldAccessCache {
+    private final int                      maxFieldsPerEntry;
+    private final Map<Key, FieldDecisions> cache;
+    private final LongAdder                hitCount  = new LongAdder();
+    private final LongAdder                missCount = new LongAdder();
+
+    FieldAccessCache(int maxEntries, int maxFieldsPerEntry) {
+        this.maxFieldsPerEntry = maxFieldsPerEntry;
+        this.cache             = Collections.synchronizedMap(new LinkedHashMap<Key, FieldDecisions>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FieldDecisions> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * @return cached decisions of the given principal set, for the given versions of policies/tags/roles/user-store
+     */
+    FieldDecisions getFieldDecisions(String schema, String user, Set<String> userGroups, String accessType, long[] versions) {
+        Key            key = new Key(schema, user, userGroups, accessType);
+        FieldDecisions ret = cache.get(key);
+
+        if (ret == null || !Arrays.equals(ret.versions, versions)) {
+            ret = new FieldDecisions(versions);
+
+            cache.put(key.copy(), ret);
+        }
+
+        return ret;
+    }
+
+    Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new HashMap<>();
+
+        ret.put("entryCount", cache.size());
+        ret.put("hitCount", hitCount.sum());
+        ret.put("missCount", missCount.sum());
+
+        return ret;
+    }
+
+    /**
+     * Access decision of a field, with the results the decision was made from. Cached decisions hold the results
+     * without reference to the request they were evaluated for, so that they can be audited again for later requests.
+     */
+    static class FieldDecision {
+        final FieldLevelAccess   access;
+        final RangerAccessResult accessResult;
+        final RangerAccessResult maskResult;
+
+        FieldDecision(FieldLevelAccess access, RangerAccessResult accessResult, RangerAccessResult maskResult) {
+            this.access       = access;
+            this.accessResult = accessResult;
+            this.maskResult   = maskResult;
+        }
+
+        boolean isCacheable() {
+            return accessResult.getIsCacheable() && (maskResult == null || maskResult.getIsCacheable());
+        }
+
+        boolean isAudited() {
+            return accessResult.getIsAudited() || (maskResult != null && maskResult.getIsAudited());
+        }
+
+        RangerAccessResult getAccessResult(RangerAccessRequest request) {
+            return copyOf(accessResult, request);
+        }
+
+        RangerAccessResult getMaskResult(RangerAccessRequest request) {
+            return maskResult != null ? copyOf(maskResult, request) : null;
+        }
+
+        private static RangerAccessResult copyOf(RangerAccessResult result, RangerAccessRequest request) {
+            RangerAccessResult ret = new RangerAccessResult(result.getPolicyType(), result.getServiceName(), result.getServiceDef(), request);
+
+            ret.setAccessResultFrom(result); // includes mask type and masked value, held in additionalInfo
+            ret.setAuditResultFrom(result);
+
+            return ret;
+        }
+    }
+
+    class FieldDecisions {
+        private final long[]                     versions;
+        private final Map<String, FieldDecision> decisions = new ConcurrentHashMap<>();
+
+        FieldDecisions(long[] versions) {
+            this.versions = versions;
+        }
+
+        FieldDecision get(String field) {
+            FieldDecision ret = decisions.get(field);
+
+            if (ret != null) {
+                hitCount.increment();
+            } else {
+                missCount.increment();
+            }
+
+            return ret;
+        }
+
+        void put(String field, FieldDecision decision) {
+            if (decisions.size() < maxFieldsPerEntry) {
+                decisions.put(field, new FieldDecision(decision.access, decision.getAccessResult(null), decision.getMaskResult(null)));
+            }
+        }
+    }
+
+    private static class Key {
+        private final String      schema;
+        private final String      user;
+        private final Set<String> userGroups;
+        private final String      accessType;
+        private final int         hashCode;
+
+        Key(String schema, String user, Set<String> userGroups, String accessType) {
+            this.schema     = schema;
+            this.user       = user;
+            this.userGroups = userGroups != null ? userGroups : Collections.emptySet();
+            this.accessType = accessType;
+            this.hashCode   = Objects.hash(schema, user, this.userGroups, accessType);
+        }
+
+        // userGroups of the request could be modified by the caller after the request
+        Key copy() {
+            return new Key(schema, user, new HashSet<>(userGroups), accessType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return hashCode == other.hashCode && Objects.equals(schema, other.schema) && Objects.equals(user, other.user) &&
+                    Objects.equals(accessType, other.accessType) && userGroups.equals(other.userGroups);
+        }
+    }
+}
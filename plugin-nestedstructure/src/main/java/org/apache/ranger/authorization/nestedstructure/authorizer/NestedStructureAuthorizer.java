@@ -24,6 +24,7 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.RangerPolicyEngineOptions;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.RangerMetricsUtil;
 import org.apache.ranger.plugin.util.RangerRoles;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.apache.ranger.plugin.util.ServiceTags;
@@ -31,7 +32,9 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -41,18 +44,37 @@ public class NestedStructureAuthorizer {
     private static final String RANGER_CMT_SERVICETYPE = "nestedstructure";
     private static final String RANGER_CMT_APPID       = "nestedstructure";
 
+    private static final String PROP_STREAMING_ENABLED             = ".authorize.streaming.enabled";
+    private static final String PROP_FIELD_ACCESS_CACHE_SIZE       = ".field.access.cache.size";
+    private static final String PROP_FIELD_ACCESS_CACHE_MAX_FIELDS = ".field.access.cache.max.fields";
+    private static final String FIELD_ACCESS_CACHE_METRICS_NAME    = "nestedStructureFieldAccessCache";
+
     private static volatile NestedStructureAuthorizer instance;
 
     private final RangerBasePlugin plugin;
+    private final boolean          streamingEnabled;
+    private final FieldAccessCache fieldAccessCache;
 
     private NestedStructureAuthorizer() {
         plugin = new RangerBasePlugin(RANGER_CMT_SERVICETYPE, RANGER_CMT_APPID);
 
         plugin.init();
+
+        streamingEnabled = isStreamingEnabled(plugin.getConfig());
+        fieldAccessCache = createFieldAccessCache(plugin.getConfig());
+
+        if (fieldAccessCache != null) {
+            RangerMetricsUtil.registerPluginMetricsSource(FIELD_ACCESS_CACHE_METRICS_NAME, fieldAccessCache::getMetrics);
+        }
     }
 
     // for testing purpose only
     public NestedStructureAuthorizer(ServicePolicies policies, ServiceTags tags, RangerRoles roles) {
+        this(policies, tags, roles, null);
+    }
+
+    // for testing purpose only
+    public NestedStructureAuthorizer(ServicePolicies policies, ServiceTags tags, RangerRoles roles, Map<String, String> configs) {
         RangerPolicyEngineOptions options = new RangerPolicyEngineOptions();
 
         options.disablePolicyRefresher    = true;
@@ -61,7 +83,13 @@ public NestedStructureAuthorizer(ServicePolicies policies, ServiceTags tags, Ran
 
         RangerPluginConfig pluginConfig = new RangerPluginConfig(RANGER_CMT_SERVICETYPE, policies.getServiceName(), RANGER_CMT_APPID, null, null, options);
 
-        plugin = new RangerBasePlugin(pluginConfig, policies, tags, roles);
+        if (configs != null) {
+            configs.forEach(pluginConfig::set);
+        }
+
+        plugin           = new RangerBasePlugin(pluginConfig, policies, tags, roles);
+        streamingEnabled = isStreamingEnabled(pluginConfig);
+        fieldAccessCache = createFieldAccessCache(pluginConfig);
     }
 
     public static NestedStructureAuthorizer getInstance() {
@@ -97,7 +125,11 @@ public AccessResult authorize(String schema, String user, Set<String> userGroups
         NestedStructureAuditHandler auditHandler = new NestedStructureAuditHandler(plugin.getConfig());
 
         try {
-            ret = privateAuthorize(schema, user, userGroups, json, accessType, auditHandler);
+            if (streamingEnabled) {
+                ret = privateAuthorizeStreaming(schema, user, userGroups, json, accessType, auditHandler);
+            } else {
+                ret = privateAuthorize(schema, user, userGroups, json, accessType, auditHandler);
+            }
         } catch (Exception e) {
             logger.warn("exception during processing, user: {}\n json: {}", user, json, e);
 
@@ -117,13 +149,14 @@ private AccessResult privateAuthorize(String schema, String user, Set<String> us
         } else if (!hasAccessToRecord(schema, user, userGroups, json, accessType, auditHandler)) {
             ret = new AccessResult(false, null);
         } else {
-            boolean                accessDenied    = false;
-            JsonManipulator        jsonManipulator = new JsonManipulator(json);
-            List<FieldLevelAccess> fieldResults    = new ArrayList<>();
+            boolean                         accessDenied    = false;
+            JsonManipulator                 jsonManipulator = new JsonManipulator(json);
+            List<FieldLevelAccess>          fieldResults    = new ArrayList<>();
+            FieldAccessCache.FieldDecisions fieldDecisions  = getCachedFieldDecisions(schema, user, userGroups, accessType);
 
             //check each field individually - both if the user has access and if so, what masking is required
             for (String field : jsonManipulator.getFields()) {
-                FieldLevelAccess fieldAccess = hasFieldAccess(schema, user, userGroups, field, accessType, auditHandler);
+                FieldLevelAccess fieldAccess = hasFieldAccess(schema, user, userGroups, field, accessType, auditHandler, fieldDecisions);
 
                 fieldResults.add(fieldAccess);
 
@@ -148,6 +181,43 @@ private AccessResult privateAuthorize(String schema, String user, Set<String> us
         return ret;
     }
 
+    /**
+     * Same as privateAuthorize(), but checks and masks the fields in a single pass over the json, without building a
+     * document from it. Access of each distinct field is checked once per record.
+     */
+    private AccessResult privateAuthorizeStreaming(String schema, String user, Set<String> userGroups, String json, NestedStructureAccessType accessType, NestedStructureAuditHandler auditHandler) {
+        final AccessResult ret;
+
+        if (!hasAccessToSchemaOrAnyField(schema, user, userGroups, accessType, auditHandler)) {
+            ret = new AccessResult(false, null);
+        } else if (!hasAccessToRecord(schema, user, userGroups, json, accessType, auditHandler)) {
+            ret = new AccessResult(false, null);
+        } else {
+            FieldAccessCache.FieldDecisions fieldDecisions = getCachedFieldDecisions(schema, user, userGroups, accessType);
+            Map<String, FieldLevelAccess>   fieldResults   = new HashMap<>();
+            String                          maskedJson     = StreamingJsonMasker.authorizeAndMask(json, field -> fieldResults.computeIfAbsent(field, f -> hasFieldAccess(schema, user, userGroups, f, accessType, auditHandler, fieldDecisions)));
+
+            //the user must have access to all fields; maskedJson is null if the user doesn't have access to one of the fields
+            ret = maskedJson != null ? new AccessResult(true, maskedJson) : new AccessResult(false, null);
+        }
+
+        return ret;
+    }
+
+    private FieldAccessCache.FieldDecisions getCachedFieldDecisions(String schema, String user, Set<String> userGroups, NestedStructureAccessType accessType) {
+        final FieldAccessCache.FieldDecisions ret;
+
+        if (fieldAccessCache != null) {
+            long[] versions = {plugin.getPoliciesVersion(), plugin.getTagsVersion(), plugin.getRolesVersion(), plugin.getUserStoreVersion()};
+
+            ret = fieldAccessCache.getFieldDecisions(schema, user, userGroups, accessType.getValue(), versions);
+        } else {
+            ret = null;
+        }
+
+        return ret;
+    }
+
     /**
      * Checks to see that the user has access to the specific field in this schema
      * @param schema atlas schema name
@@ -155,27 +225,48 @@ private AccessResult privateAuthorize(String schema, String user, Set<String> us
      * @param userGroups atlas user groups
      * @param fld field name
      * @param accessType access type requested; must be included in NestedStructureAccessType.
+     * @param fieldDecisions cached decisions for the user; null if field access decisions are not cached
      * @return a pojo describing access level and masking
      */
-    private FieldLevelAccess hasFieldAccess(String schema, String user, Set<String> userGroups, String fld, NestedStructureAccessType accessType, NestedStructureAuditHandler auditHandler) {
-        String atlasString = fld.replaceAll("\\.\\[\\*\\]\\.'", ".") //removes ".[*]."
-                .replaceAll("\\.\\*\\.", "."); //removes ".*."
+    private FieldLevelAccess hasFieldAccess(String schema, String user, Set<String> userGroups, String fld, NestedStructureAccessType accessType, NestedStructureAuditHandler auditHandler, FieldAccessCache.FieldDecisions fieldDecisions) {
+        FieldAccessCache.FieldDecision decision = fieldDecisions != null ? fieldDecisions.get(fld) : null;
 
-        NestedStructureResource resource = new NestedStructureResource(Optional.of(schema), Optional.of(atlasString));
-        RangerAccessRequest     request  = new RangerAccessRequestImpl(resource, accessType.getValue(), user, userGroups, null);
-        RangerAccessResult      result   = plugin.isAccessAllowed(request, auditHandler);
+        if (decision != null) {
+            // policies are not evaluated again; audit the cached results as results of a new request
+            if (decision.isAudited()) {
+                RangerAccessRequest request = createFieldAccessRequest(schema, user, userGroups, fld, accessType);
+
+                auditFieldAccess(decision.getAccessResult(request), decision.getMaskResult(request), auditHandler);
+            }
+        } else {
+            decision = evalFieldAccess(schema, user, userGroups, fld, accessType);
+
+            auditFieldAccess(decision.accessResult, decision.maskResult, auditHandler);
+
+            if (fieldDecisions != null && decision.isCacheable()) {
+                fieldDecisions.put(fld, decision);
+            }
+        }
+
+        return decision.access;
+    }
+
+    private FieldAccessCache.FieldDecision evalFieldAccess(String schema, String user, Set<String> userGroups, String fld, NestedStructureAccessType accessType) {
+        RangerAccessRequest request     = createFieldAccessRequest(schema, user, userGroups, fld, accessType);
+        Object              atlasString = request.getResource().getValue(NestedStructureResource.KEY_FIELD);
+        RangerAccessResult  result      = plugin.isAccessAllowed(request, null);
 
         if (result == null) {
             throw new MaskingException("unable to determine access");
         }
 
-        boolean          hasAccess = result.getIsAccessDetermined() && result.getIsAllowed();
-        FieldLevelAccess ret;
+        boolean                        hasAccess = result.getIsAccessDetermined() && result.getIsAllowed();
+        FieldAccessCache.FieldDecision ret;
 
         logger.debug("checking at line 123 {} access to {}.{} as {} for user: {} has access ? {} policyId:  {}", accessType, schema, fld, atlasString, user, hasAccess ? "yes" : "no", result.getPolicyId());
 
         if (!hasAccess) {
-            ret = new FieldLevelAccess(fld, hasAccess, -1L, true, null, null);
+            ret = new FieldAccessCache.FieldDecision(new FieldLevelAccess(fld, hasAccess, -1L, true, null, null), result, null);
         } else {
             RangerAccessResult maskResult = plugin.evalDataMaskPolicies(request, null);
 
@@ -186,21 +277,34 @@ private FieldLevelAccess hasFieldAccess(String schema, String user, Set<String>
             boolean isMasked     = maskResult.isMaskEnabled();
             Long    maskPolicyId = maskResult.getPolicyId();
 
-            // generate audit log for masking only when masking is enabled for the field
-            if (isMasked) {
-                auditHandler.processResult(maskResult);
-            }
-
             String maskPolicy = isMasked ? (" policyId:  " + maskPolicyId) : "";
 
             logger.debug("attribute {} as {} masked ? {}{}", fld, atlasString, isMasked ? "yes" : "no", maskPolicy);
 
-            ret = new FieldLevelAccess(fld, hasAccess, maskPolicyId, isMasked, maskResult.getMaskType(), maskResult.getMaskedValue());
+            ret = new FieldAccessCache.FieldDecision(new FieldLevelAccess(fld, hasAccess, maskPolicyId, isMasked, maskResult.getMaskType(), maskResult.getMaskedValue()), result, maskResult);
         }
 
         return ret;
     }
 
+    private RangerAccessRequest createFieldAccessRequest(String schema, String user, Set<String> userGroups, String fld, NestedStructureAccessType accessType) {
+        String atlasString = fld.replaceAll("\\.\\[\\*\\]\\.'", ".") //removes ".[*]."
+                .replaceAll("\\.\\*\\.", "."); //removes ".*."
+
+        NestedStructureResource resource = new NestedStructureResource(Optional.of(schema), Optional.of(atlasString));
+
+        return new RangerAccessRequestImpl(resource, accessType.getValue(), user, userGroups, null);
+    }
+
+    private void auditFieldAccess(RangerAccessResult accessResult, RangerAccessResult maskResult, NestedStructureAuditHandler auditHandler) {
+        auditHandler.processResult(accessResult);
+
+        // generate audit log for masking only when masking is enabled for the field
+        if (maskResult != null && maskResult.isMaskEnabled()) {
+            auditHandler.processResult(maskResult);
+        }
+    }
+
     /**
      * record-level filtering of schema
      * note that while determining the filter to apply for a table, Apache Ranger policy engine evaluates
@@ -272,4 +376,17 @@ private boolean hasAccessToSchemaOrAnyField(String schema, String user, Set<Stri
 
         return ret;
     }
+
+    private static boolean isStreamingEnabled(RangerPluginConfig config) {
+        return config.getBoolean(config.getPropertyPrefix() + PROP_STREAMING_ENABLED, false);
+    }
+
+    private static FieldAccessCache createFieldAccessCache(RangerPluginConfig config) {
+        int cacheSize = config.getInt(config.getPropertyPrefix() + PROP_FIELD_ACCESS_CACHE_SIZE, 0);
+        int maxFields = config.getInt(config.getPropertyPrefix() + PROP_FIELD_ACCESS_CACHE_MAX_FIELDS, 10000);
+
+        logger.info("streamingEnabled={}, fieldAccessCacheSize={}, fieldAccessCacheMaxFields={}", isStreamingEnabled(config), cacheSize, maxFields);
+
+        return cacheSize > 0 ? new FieldAccessCache(cacheSize, maxFields) : null;
+    }
 }
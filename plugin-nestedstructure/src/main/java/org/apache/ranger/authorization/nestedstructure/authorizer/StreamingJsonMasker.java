@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.nestedstructure.authorizer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Authorizes and masks a json document in a single pass over its tokens, without building a tree of the document.
+ * Leaf fields are named the same way as in {@link JsonManipulator#getFields()}: names of nested fields are separated by '.',
+ * and array elements are named '*'; for example: address.city, phones.*.number, tags.*
+ **/
+public class StreamingJsonMasker {
+    // lenient like the parsers used by JsonManipulator
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder().enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES).enable(JsonReadFeature.ALLOW_SINGLE_QUOTES).build();
+
+    private StreamingJsonMasker() {
+    }
+
+    /**
+     * @param jsonString json to be authorized and masked
+     * @param fieldAccessProvider returns the access of the given leaf field; called for each occurrence of the field
+     * @return the masked json; null if access to one of the fields is denied
+     */
+    public static String authorizeAndMask(String jsonString, Function<String, FieldLevelAccess> fieldAccessProvider) {
+        StringWriter writer = new StringWriter(jsonString.length());
+
+        try (JsonParser parser = JSON_FACTORY.createParser(jsonString); JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            FieldPath path  = new FieldPath();
+            JsonToken token = parser.nextToken();
+
+            if (token == null) {
+                throw new MaskingException("invalid input json; unable to mask");
+            }
+
+            do {
+                FieldLevelAccess fieldAccess;
+                String           emptyField;
+
+                switch (token) {
+                    case FIELD_NAME:
+                        path.setFieldName(parser.currentName());
+
+                        generator.copyCurrentEvent(parser);
+                        break;
+
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        path.startValue();
+                        path.push(token == JsonToken.START_ARRAY);
+
+                        generator.copyCurrentEvent(parser);
+                        break;
+
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        emptyField = path.pop();
+
+                        // an empty object or array is a leaf field as well
+                        if (emptyField != null) {
+                            fieldAccess = fieldAccessProvider.apply(emptyField);
+
+                            if (!fieldAccess.hasAccess) {
+                                return null;
+                            }
+
+                            if (fieldAccess.isMasked) {
+                                throw new MaskingException("unable to determine field type: " + emptyField);
+                            }
+                        }
+
+                        generator.copyCurrentEvent(parser);
+                        break;
+
+                    default:
+                        path.startValue();
+
+                        fieldAccess = path.isRoot() ? null : fieldAccessProvider.apply(path.toString());
+
+                        if (fieldAccess == null || (fieldAccess.hasAccess && !fieldAccess.isMasked)) {
+                            generator.copyCurrentEvent(parser);
+                        } else if (fieldAccess.hasAccess) {
+                            writeValue(generator, maskValue(getValue(parser, token), fieldAccess));
+                        } else {
+                            return null;
+                        }
+                        break;
+                }
+
+                token = path.isRoot() ? null : parser.nextToken();
+            } while (token != null);
+
+            if (parser.nextToken() != null) {
+                throw new MaskingException("invalid input json; unable to mask");
+            }
+        } catch (JsonProcessingException e) {
+            throw new MaskingException("invalid input json; unable to mask", e);
+        } catch (IOException e) {
+            throw new MaskingException("failed to mask json", e);
+        }
+
+        return writer.toString();
+    }
+
+    private static Object getValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getBooleanValue();
+
+            default:
+                return null;
+        }
+    }
+
+    private static Object maskValue(Object realValue, FieldLevelAccess fa) {
+        final Object ret;
+
+        if (realValue instanceof String) {
+            ret = DataMasker.maskString((String) realValue, fa.maskType, fa.customMaskedValue);
+        } else if (realValue instanceof Number) {
+            ret = DataMasker.maskNumber((Number) realValue, fa.maskType, fa.customMaskedValue);
+        } else if (realValue instanceof Boolean) {
+            ret = DataMasker.maskBoolean((Boolean) realValue, fa.maskType, fa.customMaskedValue);
+        } else {
+            throw new MaskingException("unable to determine field type: " + realValue);
+        }
+
+        return ret;
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).longValue());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Name of the current field, maintained in a single buffer as the parser enters and leaves objects and arrays.
+     */
+    private static class FieldPath {
+        private final StringBuilder path = new StringBuilder();
+
+        private int       depth;
+        private int[]     startLengths = new int[16];
+        private boolean[] isArray      = new boolean[16];
+        private boolean[] hasValues    = new boolean[16];
+
+        boolean isRoot() {
+            return depth == 0;
+        }
+
+        void setFieldName(String name) {
+            int startLength = startLengths[depth];
+
+            path.setLength(startLength);
+
+            if (startLength > 0) {
+                path.append('.');
+            }
+
+            path.append(name);
+
+            hasValues[depth] = true;
+        }
+
+        // called at the start of every value; names elements of the current array
+        void startValue() {
+            if (depth > 0 && isArray[depth]) {
+                int startLength = startLengths[depth];
+
+                path.setLength(startLength);
+                path.append(startLength > 0 ? ".*" : "*");
+
+                hasValues[depth] = true;
+            }
+        }
+
+        void push(boolean isArray) {
+            depth++;
+
+            if (depth == startLengths.length) {
+                startLengths   = Arrays.copyOf(startLengths, depth * 2);
+                this.isArray   = Arrays.copyOf(this.isArray, depth * 2);
+                this.hasValues = Arrays.copyOf(hasValues, depth * 2);
+            }
+
+            startLengths[depth]   = path.length();
+            this.isArray[depth]   = isArray;
+            this.hasValues[depth] = false;
+        }
+
+        /**
+         * @return name of the field, if the object or array being closed is an empty nested field; otherwise null
+         */
+        String pop() {
+            String ret = null;
+
+            path.setLength(startLengths[depth]);
+
+            if (!hasValues[depth] && depth > 1) {
+                ret = path.toString();
+            }
+
+            depth--;
+
+            return ret;
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.nestedstructure.authorizer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Compares the time taken to authorize and mask deep and wide json records with JsonManipulator, in single pass
+ * (streaming) mode and in single pass mode with cached field access decisions. Not run as part of the build; run with:
+ *   mvn test -Dtest=NestedStructureAuthorizerBenchmark [-Dbenchmark.iterations=1000]
+ */
+public class NestedStructureAuthorizerBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(NestedStructureAuthorizerBenchmark.class);
+
+    private static final int         ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final String      SCHEMA     = "customer";
+    private static final String      USER       = "user1";
+    private static final Set<String> GROUPS     = Collections.singleton("analysts");
+
+    private NestedStructureAuthorizer jsonManipulatorAuthorizer;
+    private NestedStructureAuthorizer streamingAuthorizer;
+    private NestedStructureAuthorizer cachingAuthorizer;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        Gson gson = new GsonBuilder().setDateFormat("yyyyMMdd-HH:mm:ss.SSSZ").create();
+
+        TestNestedStructureAuthorizer.NestedStructureTestCase testCase;
+
+        try (InputStream inStream = getClass().getResourceAsStream("/test_customer_records.json"); InputStreamReader reader = new InputStreamReader(inStream)) {
+            testCase = gson.fromJson(reader, TestNestedStructureAuthorizer.NestedStructureTestCase.class);
+        }
+
+        try (InputStream inStream = getClass().getResourceAsStream(testCase.serviceDefFilename); InputStreamReader reader = new InputStreamReader(inStream)) {
+            testCase.policies.setServiceDef(gson.fromJson(reader, RangerServiceDef.class));
+        }
+
+        Map<String, String> streamingConfigs = new HashMap<>();
+        Map<String, String> cachingConfigs   = new HashMap<>();
+
+        streamingConfigs.put("ranger.plugin.nestedstructure.authorize.streaming.enabled", "true");
+        cachingConfigs.putAll(streamingConfigs);
+        cachingConfigs.put("ranger.plugin.nestedstructure.field.access.cache.size", "100");
+
+        jsonManipulatorAuthorizer = new NestedStructureAuthorizer(testCase.policies, testCase.tags, testCase.roles, null);
+        streamingAuthorizer       = new NestedStructureAuthorizer(testCase.policies, testCase.tags, testCase.roles, streamingConfigs);
+        cachingAuthorizer         = new NestedStructureAuthorizer(testCase.policies, testCase.tags, testCase.roles, cachingConfigs);
+    }
+
+    @Test
+    public void benchmarkDeepRecord() {
+        runBenchmark("deep", createRecord(20, 4, 3));
+    }
+
+    @Test
+    public void benchmarkWideRecord() {
+        runBenchmark("wide", createRecord(1, 500, 50));
+    }
+
+    private void runBenchmark(String name, String json) {
+        AccessResult expected = jsonManipulatorAuthorizer.authorize(SCHEMA, USER, GROUPS, json, NestedStructureAccessType.READ);
+
+        assertTrue(expected.hasAccess());
+
+        for (NestedStructureAuthorizer authorizer : new NestedStructureAuthorizer[] {streamingAuthorizer, cachingAuthorizer}) {
+            AccessResult result = authorizer.authorize(SCHEMA, USER, GROUPS, json, NestedStructureAccessType.READ);
+
+            assertTrue(result.hasAccess());
+            assertEquals(JsonParser.parseString(expected.getJson()), JsonParser.parseString(result.getJson()));
+        }
+
+        LOG.info("{} record ({} bytes): JsonManipulator={}us, streaming={}us, streaming+cache={}us per record", name, json.length(),
+                timeMicros(jsonManipulatorAuthorizer, json), timeMicros(streamingAuthorizer, json), timeMicros(cachingAuthorizer, json));
+    }
+
+    private static long timeMicros(NestedStructureAuthorizer authorizer, String json) {
+        for (int i = 0; i < ITERATIONS / 10; i++) { // warm up
+            authorizer.authorize(SCHEMA, USER, GROUPS, json, NestedStructureAccessType.READ);
+        }
+
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            authorizer.authorize(SCHEMA, USER, GROUPS, json, NestedStructureAccessType.READ);
+        }
+
+        return (System.nanoTime() - startTime) / 1000 / ITERATIONS;
+    }
+
+    /**
+     * @param depth number of levels of nested records
+     * @param width number of scalar fields in each level
+     * @param orderCount number of elements in recentOrders array of each level
+     */
+    private static String createRecord(int depth, int width, int orderCount) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int level = 0; level < depth; level++) {
+            sb.append("{\"id\":\"").append(level).append("\",\"name\":\"customer-").append(level).append("\",\"lastOrderDate\":\"2022-07-16\"");
+
+            for (int i = 0; i < width; i++) {
+                sb.append(",\"attr").append(i).append("\":").append(i % 3 == 0 ? "\"value-" + i + "\"" : (i % 3 == 1 ? Integer.toString(i) : "true"));
+            }
+
+            sb.append(",\"recentOrders\":[");
+
+            for (int i = 0; i < orderCount; i++) {
+                sb.append(i > 0 ? "," : "").append("{\"orderId\":").append(i).append(",\"orderDate\":\"2022-06-14\",\"orderAmount\":").append(100 + i).append(".25}");
+            }
+
+            sb.append(']');
+
+            if (level + 1 < depth) {
+                sb.append(",\"child\":");
+            }
+        }
+
+        for (int level = 0; level < depth; level++) {
+            sb.append('}');
+        }
+
+        return sb.toString();
+    }
+}
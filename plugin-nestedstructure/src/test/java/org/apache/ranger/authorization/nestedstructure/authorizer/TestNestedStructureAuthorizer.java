@@ -32,7 +32,9 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.testng.AssertJUnit.assertEquals;
@@ -48,18 +50,28 @@ public static void setUpBeforeClass() {
 
     @Test
     public void test_customer_records() {
-        runTestsFromResourceFile("/test_customer_records.json");
+        runTestsFromResourceFile("/test_customer_records.json", null);
     }
 
-    private void runTestsFromResourceFile(String resourceName) {
+    @Test
+    public void test_customer_records_streaming() {
+        Map<String, String> configs = new HashMap<>();
+
+        configs.put("ranger.plugin.nestedstructure.authorize.streaming.enabled", "true");
+        configs.put("ranger.plugin.nestedstructure.field.access.cache.size", "100");
+
+        runTestsFromResourceFile("/test_customer_records.json", configs);
+    }
+
+    private void runTestsFromResourceFile(String resourceName, Map<String, String> configs) {
         try (InputStream inStream = this.getClass().getResourceAsStream(resourceName);
                 InputStreamReader reader = new InputStreamReader(inStream)) {
-            runTests(reader, resourceName);
+            runTests(reader, resourceName, configs);
         } catch (IOException ignored) {
         }
     }
 
-    private void runTests(InputStreamReader reader, String testName) {
+    private void runTests(InputStreamReader reader, String testName, Map<String, String> configs) {
         NestedStructureTestCase testCase = gsonBuilder.fromJson(reader, NestedStructureTestCase.class);
 
         assertTrue("invalid input: " + testName, testCase != null && testCase.policies != null && testCase.tests != null);
@@ -72,14 +84,17 @@ private void runTests(InputStreamReader reader, String testName) {
             }
         }
 
-        NestedStructureAuthorizer authorizer = new NestedStructureAuthorizer(testCase.policies, testCase.tags, testCase.roles);
+        NestedStructureAuthorizer authorizer = new NestedStructureAuthorizer(testCase.policies, testCase.tags, testCase.roles, configs);
 
-        for (NestedStructureTestCase.TestData test : testCase.tests) {
-            AccessResult expected = test.result;
-            AccessResult result   = authorizer.authorize(test.schema, test.user, test.userGroups, test.json, NestedStructureAccessType.getAccessType(test.accessType));
+        // run the tests twice, so that the second run uses cached field access decisions, if enabled
+        for (int i = 0; i < 2; i++) {
+            for (NestedStructureTestCase.TestData test : testCase.tests) {
+                AccessResult expected = test.result;
+                AccessResult result   = authorizer.authorize(test.schema, test.user, test.userGroups, test.json, NestedStructureAccessType.getAccessType(test.accessType));
 
-            assertEquals(test.name + ": hasAccess doesn't match: expected=" + expected.hasAccess() + ", actual=" + result.hasAccess(), expected.hasAccess(), result.hasAccess());
-            assertEquals(test.name + ": json doesn't match: expected=" + expected.getJson() + ", actual=" + result.getJson(), expected.getJson(), result.getJson());
+                assertEquals(test.name + ": hasAccess doesn't match: expected=" + expected.hasAccess() + ", actual=" + result.hasAccess(), expected.hasAccess(), result.hasAccess());
+                assertEquals(test.name + ": json doesn't match: expected=" + expected.getJson() + ", actual=" + result.getJson(), expected.getJson(), result.getJson());
+            }
         }
     }
 
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.nestedstructure.authorizer;
+
+import com.google.gson.JsonParser;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.apache.ranger.authorization.nestedstructure.authorizer.MaskTypes.MASK;
+import static org.apache.ranger.authorization.nestedstructure.authorizer.MaskTypes.MASK_NULL;
+import static org.apache.ranger.authorization.nestedstructure.authorizer.MaskTypes.MASK_SHOW_LAST_4;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestStreamingJsonMasker {
+    static final String bigTester = "{" +
+            "    \"someString\": \"42207ad4-590e-4d5d-a65f-6a4ccddca9e3002\"," +
+            "    \"someNumber\": 12345678," +
+            "    \"someBoolean\": true," +
+            "    \"stringArray\": [\"thing1\", \"thing2\"]," +
+            "    \"numberArray\": [1, 2, 3]," +
+            "    \"booleanArray\": [true, false, true]," +
+            "    \"aMap\": {" +
+            "      \"mapString\": \"123 Main St\"," +
+            "      \"mapBoolean\": false," +
+            "      \"mapNumber\": 987.5," +
+            "      \"mapStrinArray\": [\"one\", \"two\"]," +
+            "      \"mapMap\": {\"mapMapString\": \"19019\"}" +
+            "    }\n" +
+            "}\n";
+
+    @Test
+    public void testFieldNames() {
+        List<String> fields = new ArrayList<>();
+        String       json   = JsonParser.parseString(bigTester).toString();
+        String       result = StreamingJsonMasker.authorizeAndMask(json, field -> {
+            fields.add(field);
+
+            return new FieldLevelAccess(field, true, null, false, null, null);
+        });
+
+        assertEquals(result, json);
+        assertEquals(new HashSet<>(fields), new HashSet<>(Arrays.asList("someString", "someNumber", "someBoolean", "stringArray.*", "numberArray.*", "booleanArray.*",
+                "aMap.mapString", "aMap.mapBoolean", "aMap.mapNumber", "aMap.mapStrinArray.*", "aMap.mapMap.mapMapString")));
+        assertEquals(fields.size(), 17); // each array element is a separate occurrence of the field
+    }
+
+    @Test
+    public void testLenientJson() {
+        String result = StreamingJsonMasker.authorizeAndMask("{foo: 1, 'bar': 'x'}", field -> new FieldLevelAccess(field, true, null, false, null, null));
+
+        assertEquals(result, "{\"foo\":1,\"bar\":\"x\"}");
+    }
+
+    @Test
+    public void testMaskFields() {
+        String json   = "{\"id\":\"12345678\",\"count\":42,\"active\":true,\"nested\":{\"list\":[{\"x\":\"abcdef\"},{\"x\":\"ghijkl\"}],\"empty\":{}}}";
+        String result = StreamingJsonMasker.authorizeAndMask(json, field -> {
+            switch (field) {
+                case "id":
+                    return new FieldLevelAccess(field, true, 1L, true, MASK_SHOW_LAST_4, null);
+                case "count":
+                case "active":
+                    return new FieldLevelAccess(field, true, 1L, true, MASK, null);
+                case "nested.list.*.x":
+                    return new FieldLevelAccess(field, true, 1L, true, MASK_NULL, null);
+                default:
+                    return new FieldLevelAccess(field, true, null, false, null, null);
+            }
+        });
+
+        assertEquals(result, "{\"id\":\"xxxx5678\",\"count\":-11111,\"active\":false,\"nested\":{\"list\":[{\"x\":null},{\"x\":null}],\"empty\":{}}}");
+    }
+
+    @Test
+    public void testDeniedField() {
+        String json = "{\"a\":1,\"b\":{\"c\":[]}}";
+
+        assertNull(StreamingJsonMasker.authorizeAndMask(json, field -> new FieldLevelAccess(field, !field.equals("a"), null, false, null, null)));
+
+        // empty array is checked as a leaf field
+        assertNull(StreamingJsonMasker.authorizeAndMask(json, field -> new FieldLevelAccess(field, !field.equals("b.c"), null, false, null, null)));
+    }
+
+    @Test(expectedExceptions = MaskingException.class)
+    public void testInvalidJson() {
+        StreamingJsonMasker.authorizeAndMask("{foo:\"bar\"", field -> new FieldLevelAccess(field, true, null, false, null, null));
+    }
+
+    @Test(expectedExceptions = MaskingException.class)
+    public void testTrailingContent() {
+        StreamingJsonMasker.authorizeAndMask("{\"foo\":\"bar\"} {}", field -> new FieldLevelAccess(field, true, null, false, null, null));
+    }
+
+    @Test(expectedExceptions = MaskingException.class)
+    public void testMaskNull() {
+        StreamingJsonMasker.authorizeAndMask("{\"foo\":null}", field -> new FieldLevelAccess(field, true, 1L, true, MASK, null));
+    }
+}
@@ -36,7 +36,9 @@
 import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,11 +48,16 @@
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 public class RangerSystemAccessControl implements SystemAccessControl {
     private static final Logger LOG = LoggerFactory.getLogger(RangerSystemAccessControl.class);
@@ -67,6 +74,10 @@ public class RangerSystemAccessControl implements SystemAccessControl {
     private       boolean          useUgi;
 
     public RangerSystemAccessControl(Map<String, String> config) {
+        this(config, new RangerBasePlugin(RANGER_PRESTO_SERVICETYPE, RANGER_PRESTO_APPID));
+    }
+
+    RangerSystemAccessControl(Map<String, String> config, RangerBasePlugin rangerPlugin) {
         super();
 
         Configuration hadoopConf = new Configuration();
@@ -110,7 +121,7 @@ public RangerSystemAccessControl(Map<String, String> config) {
             useUgi = true;
         }
 
-        rangerPlugin = new RangerBasePlugin(RANGER_PRESTO_SERVICETYPE, RANGER_PRESTO_APPID);
+        this.rangerPlugin = rangerPlugin;
 
         rangerPlugin.init();
         rangerPlugin.setResultProcessor(new RangerDefaultAuditHandler());
@@ -186,11 +197,19 @@ public void checkCanAccessCatalog(SystemSecurityContext context, String catalogN
     public Set<String> filterCatalogs(SystemSecurityContext context, Set<String> catalogs) {
         LOG.debug("==> RangerSystemAccessControl.filterCatalogs{}", catalogs);
 
-        Set<String> filteredCatalogs = new HashSet<>(catalogs.size());
+        List<String>               catalogNames     = new ArrayList<>(catalogs);
+        List<RangerPrestoResource> resources        = new ArrayList<>(catalogNames.size());
+        Set<String>                filteredCatalogs = new HashSet<>(catalogNames.size());
+
+        for (String catalog : catalogNames) {
+            resources.add(createResource(catalog));
+        }
+
+        boolean[] isAllowed = hasPermissions(resources, null, context, PrestoAccessType.SELECT);
 
-        for (String catalog : catalogs) {
-            if (hasPermission(createResource(catalog), context, PrestoAccessType.SELECT)) {
-                filteredCatalogs.add(catalog);
+        for (int i = 0; i < isAllowed.length; i++) {
+            if (isAllowed[i]) {
+                filteredCatalogs.add(catalogNames.get(i));
             }
         }
 
@@ -258,11 +277,19 @@ public void checkCanShowSchemas(SystemSecurityContext context, String catalogNam
     public Set<String> filterSchemas(SystemSecurityContext context, String catalogName, Set<String> schemaNames) {
         LOG.debug("==> RangerSystemAccessControl.filterSchemas({}) denied", catalogName);
 
-        Set<String> filteredSchemaNames = new HashSet<>(schemaNames.size());
+        List<String>               names               = new ArrayList<>(schemaNames);
+        List<RangerPrestoResource> resources           = new ArrayList<>(names.size());
+        Set<String>                filteredSchemaNames = new HashSet<>(names.size());
+
+        for (String schemaName : names) {
+            resources.add(createResource(catalogName, schemaName));
+        }
+
+        boolean[] isAllowed = hasPermissions(resources, schema -> createResource(catalogName), context, PrestoAccessType.SELECT);
 
-        for (String schemaName : schemaNames) {
-            if (hasPermission(createResource(catalogName, schemaName), context, PrestoAccessType.SELECT)) {
-                filteredSchemaNames.add(schemaName);
+        for (int i = 0; i < isAllowed.length; i++) {
+            if (isAllowed[i]) {
+                filteredSchemaNames.add(names.get(i));
             }
         }
 
@@ -343,13 +370,19 @@ public void checkCanShowTables(SystemSecurityContext context, CatalogSchemaName
     public Set<SchemaTableName> filterTables(SystemSecurityContext context, String catalogName, Set<SchemaTableName> tableNames) {
         LOG.debug("==> RangerSystemAccessControl.filterTables({})", catalogName);
 
-        Set<SchemaTableName> filteredTableNames = new HashSet<>(tableNames.size());
+        List<SchemaTableName>      names              = new ArrayList<>(tableNames);
+        List<RangerPrestoResource> resources          = new ArrayList<>(names.size());
+        Set<SchemaTableName>       filteredTableNames = new HashSet<>(names.size());
 
-        for (SchemaTableName tableName : tableNames) {
-            RangerPrestoResource res = createResource(catalogName, tableName.getSchemaName(), tableName.getTableName());
+        for (SchemaTableName tableName : names) {
+            resources.add(createResource(catalogName, tableName.getSchemaName(), tableName.getTableName()));
+        }
+
+        boolean[] isAllowed = hasPermissions(resources, table -> createResource(catalogName, (String) table.getValue(RangerPrestoResource.KEY_SCHEMA)), context, PrestoAccessType.SELECT);
 
-            if (hasPermission(res, context, PrestoAccessType.SELECT)) {
-                filteredTableNames.add(tableName);
+        for (int i = 0; i < isAllowed.length; i++) {
+            if (isAllowed[i]) {
+                filteredTableNames.add(names.get(i));
             }
         }
 
@@ -368,11 +401,29 @@ public void checkCanShowColumns(SystemSecurityContext context, CatalogSchemaTabl
     }
 
     /**
-     * This is a NOOP, no filtering is applied
+     * Returns the columns the user has SELECT access to, in the given order
      */
     @Override
     public List<ColumnMetadata> filterColumns(SystemSecurityContext context, CatalogSchemaTableName table, List<ColumnMetadata> columns) {
-        return columns;
+        LOG.debug("==> RangerSystemAccessControl.filterColumns({})", table);
+
+        List<RangerPrestoResource> resources       = new ArrayList<>(columns.size());
+        List<ColumnMetadata>       filteredColumns = new ArrayList<>(columns.size());
+
+        for (ColumnMetadata column : columns) {
+            resources.add(createResource(table.getCatalogName(), table.getSchemaTableName().getSchemaName(), table.getSchemaTableName().getTableName(), Optional.of(column.getName())));
+        }
+
+        RangerPrestoResource tableResource = createResource(table);
+        boolean[]            isAllowed     = hasPermissions(resources, column -> tableResource, context, PrestoAccessType.SELECT);
+
+        for (int i = 0; i < isAllowed.length; i++) {
+            if (isAllowed[i]) {
+                filteredColumns.add(columns.get(i));
+            }
+        }
+
+        return filteredColumns;
     }
 
     /**
@@ -649,6 +700,11 @@ private boolean isRowFilterEnabled(RangerAccessResult result) {
      **/
 
     private RangerPrestoAccessRequest createAccessRequest(RangerPrestoResource resource, SystemSecurityContext context, PrestoAccessType accessType) {
+        return createAccessRequests(Collections.singletonList(resource), context, accessType).get(0);
+    }
+
+    // user and groups are resolved once for all the resources
+    private List<RangerPrestoAccessRequest> createAccessRequests(List<RangerPrestoResource> resources, SystemSecurityContext context, PrestoAccessType accessType) {
         String      userName;
         Set<String> userGroups = null;
 
@@ -667,7 +723,13 @@ private RangerPrestoAccessRequest createAccessRequest(RangerPrestoResource resou
             userGroups = context.getIdentity().getGroups();
         }
 
-        return new RangerPrestoAccessRequest(resource, userName, userGroups, accessType);
+        List<RangerPrestoAccessRequest> ret = new ArrayList<>(resources.size());
+
+        for (RangerPrestoResource resource : resources) {
+            ret.add(new RangerPrestoAccessRequest(resource, userName, userGroups, accessType));
+        }
+
+        return ret;
     }
 
     private boolean hasPermission(RangerPrestoResource resource, SystemSecurityContext context, PrestoAccessType accessType) {
@@ -682,6 +744,83 @@ private boolean hasPermission(RangerPrestoResource resource, SystemSecurityConte
         return ret;
     }
 
+    /**
+     * Checks access to the given resources, like those listed by a filter call, with user and groups resolved once.
+     * Each distinct parent of the resources is evaluated once, unaudited, with SELF_OR_DESCENDANTS scope; resources whose
+     * parent has no descendant accessible to the user are denied with the parent's result, without being evaluated.
+     * Remaining resources are evaluated in a single call to the plugin; results of all resources are audited as one batch.
+     *
+     * @param parentOf returns the parent of the given resource; null when resources have no parent to check
+     * @return whether access is allowed, for each of the resources in the given order
+     */
+    private boolean[] hasPermissions(List<RangerPrestoResource> resources, Function<RangerPrestoResource, RangerPrestoResource> parentOf, SystemSecurityContext context, PrestoAccessType accessType) {
+        boolean[] ret = new boolean[resources.size()];
+
+        if (resources.isEmpty()) {
+            return ret;
+        }
+
+        List<RangerPrestoAccessRequest>               requests      = createAccessRequests(resources, context, accessType);
+        Map<RangerPrestoResource, RangerAccessResult> parentResults = new HashMap<>();
+        List<RangerAccessRequest>                     evalRequests  = new ArrayList<>(requests.size());
+        List<Integer>                                 evalIndexes   = new ArrayList<>(requests.size());
+        List<RangerAccessResult>                      auditResults  = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            RangerPrestoAccessRequest request      = requests.get(i);
+            RangerPrestoResource      parent       = parentOf != null ? parentOf.apply(resources.get(i)) : null;
+            RangerAccessResult        parentResult = parent != null ? parentResults.computeIfAbsent(parent, p -> getDescendantsAccessResult(p, request, accessType)) : null;
+
+            if (parentResult != null && !parentResult.getIsAllowed()) {
+                RangerAccessResult result = new RangerAccessResult(parentResult.getPolicyType(), parentResult.getServiceName(), parentResult.getServiceDef(), request);
+
+                result.setAccessResultFrom(parentResult);
+                result.setAuditResultFrom(parentResult);
+
+                rangerPlugin.evalAuditPolicies(result);
+
+                auditResults.add(result);
+            } else {
+                evalRequests.add(request);
+                evalIndexes.add(i);
+            }
+        }
+
+        LOG.debug("RangerSystemAccessControl.hasPermissions(): resources={}, parents={}, evaluated={}", resources.size(), parentResults.size(), evalRequests.size());
+
+        Collection<RangerAccessResult> results = evalRequests.isEmpty() ? null : rangerPlugin.isAccessAllowed(evalRequests, null);
+
+        if (results != null) {
+            Iterator<Integer> iterIndexes = evalIndexes.iterator();
+
+            for (RangerAccessResult result : results) {
+                int idx = iterIndexes.next();
+
+                ret[idx] = result != null && result.getIsAllowed();
+
+                if (result != null) {
+                    auditResults.add(result);
+                }
+            }
+        }
+
+        RangerAccessResultProcessor resultProcessor = rangerPlugin.getResultProcessor();
+
+        if (resultProcessor != null && !auditResults.isEmpty()) {
+            resultProcessor.processResults(auditResults);
+        }
+
+        return ret;
+    }
+
+    private RangerAccessResult getDescendantsAccessResult(RangerPrestoResource parent, RangerPrestoAccessRequest request, PrestoAccessType accessType) {
+        RangerPrestoAccessRequest parentRequest = new RangerPrestoAccessRequest(parent, request.getUser(), request.getUserGroups(), accessType);
+
+        parentRequest.setResourceMatchingScope(RangerAccessRequest.ResourceMatchingScope.SELF_OR_DESCENDANTS);
+
+        return rangerPlugin.isAccessAllowed(parentRequest, null);
+    }
+
     private static RangerPrestoResource createUserResource(String userName) {
         RangerPrestoResource res = new RangerPrestoResource();
 
@@ -20,23 +20,37 @@
 import io.prestosql.spi.connector.CatalogSchemaName;
 import io.prestosql.spi.connector.CatalogSchemaRoutineName;
 import io.prestosql.spi.connector.CatalogSchemaTableName;
+import io.prestosql.spi.connector.ColumnMetadata;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.security.AccessDeniedException;
 import io.prestosql.spi.security.Identity;
 import io.prestosql.spi.security.PrestoPrincipal;
 import io.prestosql.spi.security.SystemSecurityContext;
 import io.prestosql.spi.security.ViewExpression;
+import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.type.VarcharType;
 import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableSet;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResource;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import javax.security.auth.kerberos.KerberosPrincipal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.StringJoiner;
 
 import static io.prestosql.spi.security.PrincipalType.USER;
 import static io.prestosql.spi.security.Privilege.SELECT;
@@ -62,11 +76,13 @@ public class RangerSystemAccessControlTest {
     private static final CatalogSchemaRoutineName aliceProcedure = new CatalogSchemaRoutineName("alice-catalog", "schema", "procedure");
     private static final String                   functionName   = new String("function");
     static RangerSystemAccessControl accessControlManager;
+    static RequestRecordingPlugin    rangerPlugin;
 
     @BeforeClass
     public static void setUpBeforeClass() throws Exception {
         Map<String, String> config = new HashMap<>();
-        accessControlManager = new RangerSystemAccessControl(config);
+        rangerPlugin         = new RequestRecordingPlugin();
+        accessControlManager = new RangerSystemAccessControl(config, rangerPlugin);
     }
 
     @Test
@@ -124,6 +140,10 @@ public void testTableOperations() {
         assertEquals(accessControlManager.filterTables(context(alice), aliceCatalog, aliceTables), aliceTables);
         assertEquals(accessControlManager.filterTables(context(bob), "alice-catalog", aliceTables), ImmutableSet.of());
 
+        List<ColumnMetadata> aliceColumns = Arrays.asList(new ColumnMetadata("id", BigintType.BIGINT), new ColumnMetadata("name", VarcharType.VARCHAR));
+        assertEquals(accessControlManager.filterColumns(context(bob), aliceTable, aliceColumns), Collections.emptyList());
+        assertEquals(accessControlManager.filterColumns(context(alice), aliceTable, aliceColumns), Collections.singletonList(aliceColumns.get(0)));
+
         accessControlManager.checkCanCreateTable(context(alice), aliceTable);
         accessControlManager.checkCanDropTable(context(alice), aliceTable);
         accessControlManager.checkCanSelectFromColumns(context(alice), aliceTable, ImmutableSet.of());
@@ -137,6 +157,26 @@ public void testTableOperations() {
         }
     }
 
+    @Test
+    public void testFilterPrunesChildrenOfDeniedParent() {
+        Set<String>          schemas = ImmutableSet.of("schema", "schema1", "schema2");
+        Set<SchemaTableName> tables  = ImmutableSet.of(new SchemaTableName("schema", "table"), new SchemaTableName("schema", "alice"), new SchemaTableName("schema1", "table"));
+
+        // bob has no access to alice-catalog or anything in it: only the parents are evaluated, not each name
+        rangerPlugin.evaluatedResources.clear();
+        assertEquals(accessControlManager.filterSchemas(context(bob), aliceCatalog, schemas), ImmutableSet.of());
+        assertEquals(rangerPlugin.evaluatedResources, Collections.singletonList("alice-catalog"));
+
+        rangerPlugin.evaluatedResources.clear();
+        assertEquals(accessControlManager.filterTables(context(bob), aliceCatalog, tables), ImmutableSet.of());
+        assertEquals(new HashSet<>(rangerPlugin.evaluatedResources), ImmutableSet.of("alice-catalog/schema", "alice-catalog/schema1"));
+
+        // alice has access to tables in alice-catalog.schema, which are evaluated; schema1 is pruned
+        rangerPlugin.evaluatedResources.clear();
+        assertEquals(accessControlManager.filterTables(context(alice), aliceCatalog, tables), ImmutableSet.of(new SchemaTableName("schema", "table"), new SchemaTableName("schema", "alice")));
+        assertEquals(rangerPlugin.evaluatedResources.size(), 4);
+    }
+
     @Test
     @SuppressWarnings("PMD")
     public void testViewOperations() {
@@ -181,4 +221,40 @@ public void testMisc() {
     private SystemSecurityContext context(Identity id) {
         return new SystemSecurityContext(id, Optional.empty());
     }
+
+    static class RequestRecordingPlugin extends RangerBasePlugin {
+        final List<String> evaluatedResources = new ArrayList<>();
+
+        RequestRecordingPlugin() {
+            super(RangerSystemAccessControl.RANGER_PRESTO_SERVICETYPE, RangerSystemAccessControl.RANGER_PRESTO_APPID);
+        }
+
+        @Override
+        public RangerAccessResult isAccessAllowed(RangerAccessRequest request, RangerAccessResultProcessor resultProcessor) {
+            evaluatedResources.add(toString(request.getResource()));
+
+            return super.isAccessAllowed(request, resultProcessor);
+        }
+
+        @Override
+        public Collection<RangerAccessResult> isAccessAllowed(Collection<RangerAccessRequest> requests, RangerAccessResultProcessor resultProcessor) {
+            for (RangerAccessRequest request : requests) {
+                evaluatedResources.add(toString(request.getResource()));
+            }
+
+            return super.isAccessAllowed(requests, resultProcessor);
+        }
+
+        private static String toString(RangerAccessResource resource) {
+            StringJoiner ret = new StringJoiner("/");
+
+            for (String key : new String[] {RangerPrestoResource.KEY_CATALOG, RangerPrestoResource.KEY_SCHEMA, RangerPrestoResource.KEY_TABLE, RangerPrestoResource.KEY_COLUMN}) {
+                if (resource.exists(key)) {
+                    ret.add(String.valueOf(resource.getValue(key)));
+                }
+            }
+
+            return ret.toString();
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.policyengine;
+
+import org.apache.hadoop.thirdparty.com.google.common.base.Charsets;
+import org.apache.hadoop.thirdparty.com.google.common.io.Files;
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.util.BinaryCacheUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A parameterized JUnit test that measures the time taken by a plugin at startup to load policies from its local
+ * cache, for JSON and binary cache files of Hive policies. Heap allocated while loading is reported as well.
+ * Results are written to target/ranger-policy-cache-load-performance.csv.
+ */
+@RunWith(Parameterized.class)
+public class RangerPolicyCacheLoadPerformanceTest {
+    private static final int WARM_UP__ITERATIONS = 5;
+    private static final int TEST__ITERATIONS    = 10;
+
+    @Parameter
+    public Integer numberOfPolicies;
+
+    @Parameters(name = "{index}: loadFromCache(numberOfPolicies: {0})")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][] {{1_000}, {10_000}, {50_000}});
+    }
+
+    @BeforeClass
+    public static void init() throws IOException {
+        Files.write("number-of-policies;json-file-bytes;binary-file-bytes;json-load-ms;binary-load-ms;json-allocated-mb;binary-allocated-mb;\n", outputFile(), Charsets.UTF_8);
+    }
+
+    @Test
+    public void policyCacheLoadTest() throws IOException {
+        ServicePolicies policies = createServicePolicies(numberOfPolicies);
+        File            jsonFile = new File("target", "perf_hive_" + numberOfPolicies + ".json");
+        File            binFile  = BinaryCacheUtil.getBinaryCacheFile(jsonFile);
+
+        try (Writer writer = new FileWriter(jsonFile)) {
+            JsonUtils.objectToWriter(writer, policies);
+        }
+
+        BinaryCacheUtil.writeToFile(policies, binFile);
+
+        assertEquals(JsonUtils.objectToJson(loadJson(jsonFile)), JsonUtils.objectToJson(BinaryCacheUtil.readFromFile(binFile, ServicePolicies.class)));
+
+        for (int i = 0; i < WARM_UP__ITERATIONS; i++) {
+            System.identityHashCode(loadJson(jsonFile));
+            System.identityHashCode(BinaryCacheUtil.readFromFile(binFile, ServicePolicies.class));
+        }
+
+        long jsonNs          = 0;
+        long binaryNs        = 0;
+        long jsonAllocated   = 0;
+        long binaryAllocated = 0;
+
+        for (int i = 0; i < TEST__ITERATIONS; i++) {
+            long startAllocated = allocatedBytes();
+            long startTime      = System.nanoTime();
+
+            System.identityHashCode(loadJson(jsonFile));
+
+            jsonNs        += (System.nanoTime() - startTime);
+            jsonAllocated += (allocatedBytes() - startAllocated);
+
+            startAllocated = allocatedBytes();
+            startTime      = System.nanoTime();
+
+            System.identityHashCode(BinaryCacheUtil.readFromFile(binFile, ServicePolicies.class));
+
+            binaryNs        += (System.nanoTime() - startTime);
+            binaryAllocated += (allocatedBytes() - startAllocated);
+        }
+
+        Files.append(String.format("%s;%s;%s;%s;%s;%s;%s;\n", numberOfPolicies, jsonFile.length(), binFile.length(),
+                jsonNs / TEST__ITERATIONS / 1_000_000, binaryNs / TEST__ITERATIONS / 1_000_000,
+                jsonAllocated / TEST__ITERATIONS / (1024 * 1024), binaryAllocated / TEST__ITERATIONS / (1024 * 1024)), outputFile(), Charsets.UTF_8);
+
+        jsonFile.delete();
+        binFile.delete();
+    }
+
+    // same as PolicyRefresher.loadFromCache()
+    private static ServicePolicies loadJson(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return JsonUtils.jsonToObject(reader, ServicePolicies.class);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static ServicePolicies createServicePolicies(int count) {
+        List<RangerPolicy> policyList = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            RangerPolicy                      policy    = new RangerPolicy();
+            Map<String, RangerPolicyResource> resources = new HashMap<>();
+
+            resources.put("database", new RangerPolicyResource("db_" + (i % 100)));
+            resources.put("table", new RangerPolicyResource("tbl_" + i + "_*"));
+            resources.put("column", new RangerPolicyResource("*"));
+
+            policy.setId((long) i);
+            policy.setGuid("guid-" + i);
+            policy.setName("policy-" + i);
+            policy.setService("dev_hive");
+            policy.setDescription("policy for table tbl_" + i + " in database db_" + (i % 100));
+            policy.setResources(resources);
+            policy.setPolicyItems(new ArrayList<>(Arrays.asList(
+                    new RangerPolicyItem(Arrays.asList(new RangerPolicyItemAccess("select"), new RangerPolicyItemAccess("update")), Arrays.asList("user" + (i % 50), "etl"), Arrays.asList("analysts"), null, null, false),
+                    new RangerPolicyItem(Arrays.asList(new RangerPolicyItemAccess("all")), null, Arrays.asList("admins"), Arrays.asList("dba"), null, true))));
+
+            policyList.add(policy);
+        }
+
+        ServicePolicies ret = new ServicePolicies();
+
+        ret.setServiceName("dev_hive");
+        ret.setServiceId(1L);
+        ret.setPolicyVersion(1L);
+        ret.setPolicies(policyList);
+
+        return ret;
+    }
+
+    private static File outputFile() {
+        return new File("target", "ranger-policy-cache-load-performance.csv");
+    }
+}
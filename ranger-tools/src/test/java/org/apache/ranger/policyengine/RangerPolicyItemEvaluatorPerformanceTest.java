@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.policyengine;
+
+import org.apache.hadoop.thirdparty.com.google.common.base.Charsets;
+import org.apache.hadoop.thirdparty.com.google.common.io.Files;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngine;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineOptions;
+import org.apache.ranger.plugin.policyevaluator.RangerDefaultPolicyItemEvaluator;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyItemEvaluator;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A parameterized JUnit test that measures RangerDefaultPolicyItemEvaluator.matchUserGroupAndOwner() on wide policy-items,
+ * i.e. items with a large number of users, groups and roles - as is common for policies synced from large AD groups.
+ * The time taken by the evaluator is compared with a lookup directly on the lists in the policy-item.
+ * Results are written to target/ranger-policy-item-evaluator-performance.csv.
+ */
+@RunWith(Parameterized.class)
+public class RangerPolicyItemEvaluatorPerformanceTest {
+    /* pre-warming unit-under-test's method with this many call iterations, so all possible JIT optimization happen before measuring performance */
+    private static final int WARM_UP__ITERATIONS = 50_000;
+    private static final int TEST__ITERATIONS    = 200_000;
+
+    @Parameter
+    public Integer principalsPerItem;
+
+    @Parameters(name = "{index}: matchUserGroupAndOwner(principals per item: {0})")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][] {{10}, {100}, {500}, {1_000}, {5_000}});
+    }
+
+    @BeforeClass
+    public static void init() throws IOException {
+        Files.write("principals-per-item;list-lookup-ns;evaluator-ns;\n", outputFile(), Charsets.UTF_8);
+    }
+
+    @Test
+    public void policyItemEvaluatorTest() throws IOException {
+        RangerPolicyItem          policyItem = createPolicyItem(principalsPerItem);
+        RangerPolicyItemEvaluator evaluator  = new RangerDefaultPolicyItemEvaluator(new RangerServiceDef(), new RangerPolicy(), policyItem, RangerPolicyItemEvaluator.POLICY_ITEM_TYPE_ALLOW, 0, new RangerPolicyEngineOptions());
+
+        evaluator.init();
+
+        // requests from principals not in the policy-item, hence every user/group/role in the item is looked at
+        String      user       = "non-matching-user";
+        Set<String> userGroups = new HashSet<>(Arrays.asList("non-matching-group-1", "non-matching-group-2", "non-matching-group-3"));
+        Set<String> userRoles  = new HashSet<>(Arrays.asList("non-matching-role-1", "non-matching-role-2"));
+
+        assertEquals(false, evaluator.matchUserGroupAndOwner(user, userGroups, userRoles, null));
+        assertEquals(true, evaluator.matchUserGroupAndOwner("user-" + (principalsPerItem - 1), userGroups, userRoles, null));
+
+        for (int i = 0; i < WARM_UP__ITERATIONS; i++) {
+            System.identityHashCode(matchUsingLists(policyItem, user, userGroups, userRoles));
+            System.identityHashCode(evaluator.matchUserGroupAndOwner(user, userGroups, userRoles, null));
+        }
+
+        long listLookupNs = 0;
+        long evaluatorNs  = 0;
+
+        for (int i = 0; i < TEST__ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+
+            System.identityHashCode(matchUsingLists(policyItem, user, userGroups, userRoles));
+
+            listLookupNs += (System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+
+            System.identityHashCode(evaluator.matchUserGroupAndOwner(user, userGroups, userRoles, null));
+
+            evaluatorNs += (System.nanoTime() - startTime);
+        }
+
+        Files.append(String.format("%s;%s;%s;\n", principalsPerItem, listLookupNs / TEST__ITERATIONS, evaluatorNs / TEST__ITERATIONS), outputFile(), Charsets.UTF_8);
+    }
+
+    private static RangerPolicyItem createPolicyItem(int principalCount) {
+        List<String> users  = new ArrayList<>(principalCount);
+        List<String> groups = new ArrayList<>(principalCount);
+        List<String> roles  = new ArrayList<>(principalCount);
+
+        for (int i = 0; i < principalCount; i++) {
+            users.add("user-" + i);
+            groups.add("group-" + i);
+            roles.add("role-" + i);
+        }
+
+        return new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess("select")), users, groups, roles, null, false);
+    }
+
+    // lookup directly on policy-item lists, as done by the evaluator before hashed sets were precomputed
+    private static boolean matchUsingLists(RangerPolicyItem policyItem, String user, Set<String> userGroups, Set<String> userRoles) {
+        boolean ret = policyItem.getUsers().contains(user);
+
+        if (!ret) {
+            ret = policyItem.getGroups().contains(RangerPolicyEngine.GROUP_PUBLIC) || !Collections.disjoint(policyItem.getGroups(), userGroups);
+        }
+
+        if (!ret) {
+            ret = !Collections.disjoint(policyItem.getRoles(), userRoles);
+        }
+
+        return ret;
+    }
+
+    private static File outputFile() {
+        return new File("target", "ranger-policy-item-evaluator-performance.csv");
+    }
+}
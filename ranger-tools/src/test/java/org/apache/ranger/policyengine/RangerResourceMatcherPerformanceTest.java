@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.policyengine;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOCase;
+import org.apache.hadoop.thirdparty.com.google.common.base.Charsets;
+import org.apache.hadoop.thirdparty.com.google.common.io.Files;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
+import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerDefaultResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerPathResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A parameterized JUnit test that measures wildcard matching by resource matchers, on Hive and HDFS policy values.
+ * The time taken by the matcher is compared with a call to FilenameUtils.wildcardMatch() - which the matchers used
+ * to call, to re-tokenize the policy value, on each evaluation.
+ * Results are written to target/ranger-resource-matcher-performance.csv.
+ */
+@RunWith(Parameterized.class)
+public class RangerResourceMatcherPerformanceTest {
+    /* pre-warming unit-under-test's method with this many call iterations, so all possible JIT optimization happen before measuring performance */
+    private static final int WARM_UP__ITERATIONS = 100_000;
+    private static final int TEST__ITERATIONS    = 1_000_000;
+
+    @Parameter
+    public String serviceType;
+
+    @Parameter(1)
+    public String policyValue;
+
+    @Parameter(2)
+    public String resourceValue;
+
+    @Parameter(3)
+    public Boolean expectedResult;
+
+    @Parameters(name = "{index}: {0}: isMatch(policyValue: {1}, resourceValue: {2})")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"hive", "db_*", "db_finance", true},
+                {"hive", "sales_??", "SALES_01", true},
+                {"hive", "*_tmp_*", "customer_tmp_20240101", true},
+                {"hive", "fin*_202?_*", "finance_ledger_2024_q1", true},
+                {"hive", "*_pii_*", "customer_orders_2024_q1", false},
+                {"hdfs", "/data/*/2024/*.orc", "/data/sales/2024/part-00001-c000.snappy.orc", true},
+                {"hdfs", "/user/*/warehouse/*.db", "/user/hive/warehouse/finance.db", true},
+                {"hdfs", "/apps/hive/*/tmp_*", "/apps/hive/warehouse/staging/tbl_001/part-0001", false},
+        });
+    }
+
+    @BeforeClass
+    public static void init() throws IOException {
+        Files.write("service-type;policy-value;resource-value;filename-utils-ns;resource-matcher-ns;\n", outputFile(), Charsets.UTF_8);
+    }
+
+    @Test
+    public void resourceMatcherTest() throws IOException {
+        boolean               isHive      = "hive".equals(serviceType);
+        IOCase                ioCase      = isHive ? IOCase.INSENSITIVE : IOCase.SENSITIVE;
+        RangerResourceMatcher matcher     = createMatcher(isHive);
+        Map<String, Object>   evalContext = new HashMap<>();
+
+        assertEquals(expectedResult, FilenameUtils.wildcardMatch(resourceValue, policyValue, ioCase));
+        assertEquals(expectedResult, matcher.isMatch(resourceValue, ResourceElementMatchingScope.SELF, evalContext));
+
+        for (int i = 0; i < WARM_UP__ITERATIONS; i++) {
+            System.identityHashCode(FilenameUtils.wildcardMatch(resourceValue, policyValue, ioCase));
+            System.identityHashCode(matcher.isMatch(resourceValue, ResourceElementMatchingScope.SELF, evalContext));
+        }
+
+        long filenameUtilsNs   = 0;
+        long resourceMatcherNs = 0;
+
+        for (int i = 0; i < TEST__ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+
+            System.identityHashCode(FilenameUtils.wildcardMatch(resourceValue, policyValue, ioCase));
+
+            filenameUtilsNs += (System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+
+            System.identityHashCode(matcher.isMatch(resourceValue, ResourceElementMatchingScope.SELF, evalContext));
+
+            resourceMatcherNs += (System.nanoTime() - startTime);
+        }
+
+        Files.append(String.format("%s;%s;%s;%s;%s;\n", serviceType, policyValue, resourceValue, filenameUtilsNs / TEST__ITERATIONS, resourceMatcherNs / TEST__ITERATIONS), outputFile(), Charsets.UTF_8);
+    }
+
+    // matcher options as in Hive database/table and HDFS path resource-defs
+    private RangerResourceMatcher createMatcher(boolean isHive) {
+        RangerResourceMatcher ret         = isHive ? new RangerDefaultResourceMatcher() : new RangerPathResourceMatcher();
+        RangerResourceDef     resourceDef = new RangerResourceDef();
+        Map<String, String>   options     = new HashMap<>();
+
+        options.put(RangerAbstractResourceMatcher.OPTION_WILD_CARD, Boolean.TRUE.toString());
+        options.put(RangerAbstractResourceMatcher.OPTION_IGNORE_CASE, Boolean.toString(isHive));
+
+        resourceDef.setName(isHive ? "table" : "path");
+        resourceDef.setMatcherOptions(options);
+
+        RangerPolicyResource policyResource = new RangerPolicyResource();
+
+        policyResource.setValues(Collections.singletonList(policyValue));
+        policyResource.setIsRecursive(false);
+
+        ret.setResourceDef(resourceDef);
+        ret.setPolicyResource(policyResource);
+        ret.init();
+
+        return ret;
+    }
+
+    private static File outputFile() {
+        return new File("target", "ranger-resource-matcher-performance.csv");
+    }
+}
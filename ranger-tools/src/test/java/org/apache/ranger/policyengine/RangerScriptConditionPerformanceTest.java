@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.policyengine;
+
+import org.apache.hadoop.thirdparty.com.google.common.base.Charsets;
+import org.apache.hadoop.thirdparty.com.google.common.io.Files;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerRequestScriptEvaluator;
+import org.apache.ranger.plugin.policyengine.RangerScriptCache;
+import org.apache.ranger.plugin.util.ScriptEngineUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import javax.script.ScriptEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A parameterized JUnit test that measures the per-request cost of evaluating ABAC policy condition scripts. The time
+ * taken to evaluate a script with a script engine, as done earlier for each request, is compared with evaluation of the
+ * script compiled once by RangerScriptCache, with pooled Bindings.
+ * Results are written to target/ranger-script-condition-performance.csv.
+ */
+@RunWith(Parameterized.class)
+public class RangerScriptConditionPerformanceTest {
+    private static final int WARM_UP__ITERATIONS = 2_000;
+    private static final int TEST__ITERATIONS    = 10_000;
+
+    private static ScriptEngine scriptEngine;
+
+    @Parameter
+    public String script;
+
+    @Parameter(1)
+    public Boolean expectedResult;
+
+    @Parameters(name = "{index}: evaluate(script: {0})")
+    public static Iterable<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"IS_IN_GROUP('analysts') && !IS_IN_GROUP('contractors')", true},
+                {"IS_ACCESS_TIME_BETWEEN('2010/01/01', '2100/01/01')", true},
+                {"REQ.accessType == 'select' && REQ.action == 'query'", true},
+                {"['sales', 'finance'].intersects(UGNAMES)", true},
+                {"UGNAMES.includes('hr') || REQ.resource.database == 'hr_db'", false},
+        });
+    }
+
+    @BeforeClass
+    public static void init() throws IOException {
+        scriptEngine = ScriptEngineUtil.createScriptEngine("hive");
+
+        Files.write("script;eval-us;compiled-us;\n", outputFile(), Charsets.UTF_8);
+    }
+
+    @Test
+    public void scriptConditionTest() throws IOException {
+        RangerScriptCache   scriptCache   = new RangerScriptCache(scriptEngine);
+        RangerAccessRequest request       = createRequest();
+        boolean             enableJsonCtx = RangerRequestScriptEvaluator.needsJsonCtxEnabled(script);
+
+        assertEquals(expectedResult, evaluate(request, enableJsonCtx));
+        assertEquals(expectedResult, evaluateCompiled(request, scriptCache, enableJsonCtx));
+
+        for (int i = 0; i < WARM_UP__ITERATIONS; i++) {
+            System.identityHashCode(evaluate(request, enableJsonCtx));
+            System.identityHashCode(evaluateCompiled(request, scriptCache, enableJsonCtx));
+        }
+
+        long evalNs     = 0;
+        long compiledNs = 0;
+
+        for (int i = 0; i < TEST__ITERATIONS; i++) {
+            long startTime = System.nanoTime();
+
+            System.identityHashCode(evaluate(request, enableJsonCtx));
+
+            evalNs += (System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+
+            System.identityHashCode(evaluateCompiled(request, scriptCache, enableJsonCtx));
+
+            compiledNs += (System.nanoTime() - startTime);
+        }
+
+        Files.append(String.format("%s;%s;%s;\n", script, evalNs / TEST__ITERATIONS / 1000, compiledNs / TEST__ITERATIONS / 1000), outputFile(), Charsets.UTF_8);
+    }
+
+    // same as RangerScriptConditionEvaluator.isMatched() did earlier
+    private Boolean evaluate(RangerAccessRequest request, boolean enableJsonCtx) {
+        RangerRequestScriptEvaluator evaluator = new RangerRequestScriptEvaluator(request, scriptEngine, enableJsonCtx);
+
+        evaluator.evaluateConditionScript(script);
+
+        return evaluator.getResult();
+    }
+
+    private Boolean evaluateCompiled(RangerAccessRequest request, RangerScriptCache scriptCache, boolean enableJsonCtx) {
+        try (RangerRequestScriptEvaluator evaluator = new RangerRequestScriptEvaluator(request, scriptCache, enableJsonCtx)) {
+            evaluator.evaluateConditionScript(script);
+
+            return evaluator.getResult();
+        }
+    }
+
+    private static RangerAccessRequest createRequest() {
+        Map<String, Object> elements = new HashMap<>();
+
+        elements.put("database", "sales_db");
+        elements.put("table", "orders");
+
+        RangerAccessRequestImpl ret = new RangerAccessRequestImpl(new RangerAccessResourceImpl(elements), "select", "user1", new HashSet<>(Arrays.asList("analysts", "sales")), Collections.emptySet());
+
+        ret.setAction("query");
+
+        return ret;
+    }
+
+    private static File outputFile() {
+        return new File("target", "ranger-script-condition-performance.csv");
+    }
+}
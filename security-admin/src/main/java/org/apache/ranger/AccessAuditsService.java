@@ -23,6 +23,7 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
+import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.SortField;
 import org.apache.ranger.common.SortField.SORT_ORDER;
@@ -37,6 +38,13 @@
 import java.util.Map;
 
 public class AccessAuditsService {
+    /**
+     * Search parameter to page through audits by token instead of by offset: FIRST_PAGE_TOKEN for the first page,
+     * then nextPageToken of the previous page. Audit stores resume from the token without skipping over earlier pages.
+     */
+    public static final String PAGE_TOKEN_PARAM = "pageToken";
+    public static final String FIRST_PAGE_TOKEN = "*";
+
     protected List<SortField>   sortFields   = new ArrayList<>();
     protected List<SearchField> searchFields = new ArrayList<>();
 
@@ -95,6 +103,15 @@ public AccessAuditsService() {
         sortFields.add(new SortField("clientIP", "cliIP", false, SORT_ORDER.ASC));
     }
 
+    /**
+     * @return page token given in the search criteria; null if audits are to be paged by offset
+     */
+    public static String getPageToken(SearchCriteria searchCriteria) {
+        Object ret = searchCriteria.getParamValue(PAGE_TOKEN_PARAM);
+
+        return ret != null && StringUtils.isNotBlank(ret.toString()) ? ret.toString() : null;
+    }
+
     protected void updateUserExclusion(Map<String, Object> paramList) {
         String val = (String) paramList.get("excludeServiceUser");
 
@@ -20,12 +20,14 @@
 package org.apache.ranger.biz;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.amazon.cloudwatch.CloudWatchAccessAuditsService;
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.common.AppConstants;
 import org.apache.ranger.common.DateUtil;
 import org.apache.ranger.common.JSONUtil;
 import org.apache.ranger.common.MessageEnums;
+import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RangerCommonEnums;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.SearchCriteria;
@@ -40,6 +42,7 @@
 import org.apache.ranger.entity.XXUser;
 import org.apache.ranger.plugin.model.RangerPluginInfo;
 import org.apache.ranger.plugin.store.PList;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.plugin.util.RangerPluginCapability;
 import org.apache.ranger.plugin.util.RangerRESTUtils;
 import org.apache.ranger.plugin.util.SearchFilter;
@@ -54,6 +57,7 @@
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.solr.SolrAccessAuditsService;
 import org.apache.ranger.util.RestUtil;
+import org.apache.ranger.view.VXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXAsset;
 import org.apache.ranger.view.VXAuditMap;
@@ -82,6 +86,8 @@
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Date;
@@ -90,6 +96,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Component
@@ -101,6 +108,14 @@ public class AssetMgr extends AssetMgrBase {
     private static final String PROP_PLUGIN_ACTIVITY_AUDIT_COMMIT_INLINE = "ranger.plugin.activity.audit.commit.inline";
     private static final String adminCapabilities = Long.toHexString(new RangerPluginCapability().getPluginCapabilities());
 
+    public static final String EXPORT_FORMAT_CSV  = "csv";
+    public static final String EXPORT_FORMAT_JSON = "json";
+
+    private static final String   LINE_SEPARATOR          = "\n";
+    private static final String   CSV_FORMULA_CHARS       = "=+-@\t\r";
+    private static final String[] ACCESS_AUDIT_CSV_HEADER = {"Policy ID", "Policy Version", "Event Time", "Application", "User", "Service Name", "Service Type", "Resource Name", "Resource Type",
+            "Access Type", "Permission", "Result", "Access Enforcer", "Agent Host", "Client IP", "Cluster Name", "Zone Name", "Event Count", "Tags", "Request Data", "Event Id"};
+
     @Autowired
     XPermMapService xPermMapService;
 
@@ -668,6 +683,83 @@ public VXAccessAuditList getAccessLogs(SearchCriteria searchCriteria) {
             searchCriteria = new SearchCriteria();
         }
 
+        updateAccessLogsSearchCriteria(searchCriteria);
+
+        return searchAccessLogs(searchCriteria);
+    }
+
+    /**
+     * Writes access audits matching the given criteria as CSV, or as a JSON array. Audits are read from the audit store
+     * one page at a time, by page token if supported by the store, so that memory used doesn't grow with the number of audits.
+     *
+     * @param auditProcessor called for each audit before it is written
+     */
+    public void exportAccessLogs(SearchCriteria searchCriteria, String format, Consumer<VXAccessAudit> auditProcessor, Writer writer) throws IOException {
+        boolean isJson   = EXPORT_FORMAT_JSON.equalsIgnoreCase(format);
+        int     pageSize = PropertiesUtil.getIntProperty("ranger.audit.export.page.size", 1000);
+        long    count    = 0;
+
+        updateAccessLogsSearchCriteria(searchCriteria);
+
+        searchCriteria.setStartIndex(0);
+        searchCriteria.setMaxRows(pageSize);
+        searchCriteria.getParamList().put(AccessAuditsService.PAGE_TOKEN_PARAM, AccessAuditsService.FIRST_PAGE_TOKEN);
+
+        if (isJson) {
+            writer.write('[');
+        } else {
+            writeCsvRecord(writer, ACCESS_AUDIT_CSV_HEADER);
+        }
+
+        while (true) {
+            // audit services update the criteria given to them, like adding excluded users; hence each page searches with a copy
+            VXAccessAuditList   page   = searchAccessLogs(copyOf(searchCriteria));
+            List<VXAccessAudit> audits = page.getVXAccessAudits();
+
+            for (VXAccessAudit audit : audits) {
+                auditProcessor.accept(audit);
+
+                if (isJson) {
+                    if (count > 0) {
+                        writer.write(',');
+                    }
+
+                    try {
+                        writer.write(JsonUtilsV2.objToJson(audit));
+                    } catch (Exception excp) {
+                        throw new IOException("failed to convert audit to json: eventId=" + audit.getEventId(), excp);
+                    }
+                } else {
+                    writeCsvRecord(writer, toCsvRecord(audit));
+                }
+
+                count++;
+            }
+
+            writer.flush();
+
+            if (audits.size() < pageSize) {
+                break;
+            }
+
+            if (page.getNextPageToken() != null) {
+                searchCriteria.getParamList().put(AccessAuditsService.PAGE_TOKEN_PARAM, page.getNextPageToken());
+            } else { // audit store doesn't support page tokens, or failed to create one: continue after the audits exported so far
+                searchCriteria.getParamList().remove(AccessAuditsService.PAGE_TOKEN_PARAM);
+                searchCriteria.setStartIndex((int) count);
+            }
+        }
+
+        if (isJson) {
+            writer.write(']');
+        }
+
+        writer.flush();
+
+        logger.info("exportAccessLogs(): exported {} audits as {}", count, isJson ? EXPORT_FORMAT_JSON : EXPORT_FORMAT_CSV);
+    }
+
+    private void updateAccessLogsSearchCriteria(SearchCriteria searchCriteria) {
         if (searchCriteria.getParamList() != null && !searchCriteria.getParamList().isEmpty()) {
             int      clientTimeOffsetInMinute = RestUtil.getClientTimeOffset();
             DateUtil dateUtil                 = new DateUtil();
@@ -725,7 +817,9 @@ public VXAccessAuditList getAccessLogs(SearchCriteria searchCriteria) {
                 }
             }
         }
+    }
 
+    private VXAccessAuditList searchAccessLogs(SearchCriteria searchCriteria) {
         if (RangerBizUtil.AUDIT_STORE_SOLR.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
             return solrAccessAuditsService.searchXAccessAudits(searchCriteria);
         } else if (RangerBizUtil.AUDIT_STORE_ELASTIC_SEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
@@ -737,6 +831,73 @@ public VXAccessAuditList getAccessLogs(SearchCriteria searchCriteria) {
         }
     }
 
+    private static SearchCriteria copyOf(SearchCriteria searchCriteria) {
+        SearchCriteria ret = new SearchCriteria();
+
+        ret.getParamList().putAll(searchCriteria.getParamList());
+        ret.setStartIndex(searchCriteria.getStartIndex());
+        ret.setMaxRows(searchCriteria.getMaxRows());
+        ret.setSortBy(searchCriteria.getSortBy());
+        ret.setSortType(searchCriteria.getSortType());
+
+        return ret;
+    }
+
+    private static String[] toCsvRecord(VXAccessAudit audit) {
+        return new String[] {
+                String.valueOf(audit.getPolicyId()),
+                audit.getPolicyVersion() != null ? audit.getPolicyVersion().toString() : null,
+                audit.getZonedEventTime(),
+                toCsvText(audit.getAgentId()),
+                toCsvText(audit.getRequestUser()),
+                toCsvText(audit.getRepoName()),
+                toCsvText(audit.getServiceType()),
+                toCsvText(audit.getResourcePath()),
+                toCsvText(audit.getResourceType()),
+                toCsvText(audit.getAccessType()),
+                toCsvText(audit.getAction()),
+                audit.getAccessResult() == RangerCommonEnums.ACCESS_RESULT_ALLOWED ? "Allowed" : "Denied",
+                toCsvText(audit.getAclEnforcer()),
+                toCsvText(audit.getAgentHost()),
+                toCsvText(audit.getClientIP()),
+                toCsvText(audit.getClusterName()),
+                toCsvText(audit.getZoneName()),
+                String.valueOf(audit.getEventCount()),
+                toCsvText(audit.getTags()),
+                toCsvText(audit.getRequestData()),
+                toCsvText(audit.getEventId())
+        };
+    }
+
+    // keeps spreadsheet applications from evaluating text from audits as a formula; not for values like policy ID, which can be -1
+    private static String toCsvText(String value) {
+        return value != null && !value.isEmpty() && CSV_FORMULA_CHARS.indexOf(value.charAt(0)) != -1 ? "'" + value : value;
+    }
+
+    private static void writeCsvRecord(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            if (value == null) {
+                continue;
+            }
+
+            if (value.indexOf(',') != -1 || value.indexOf('"') != -1 || value.indexOf('\n') != -1 || value.indexOf('\r') != -1) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+
+        writer.write(LINE_SEPARATOR);
+    }
+
     public VXTrxLogList getTransactionReport(String transactionId) {
         List<VXTrxLogV2> trxLogsV2 = xTrxLogService.findByTransactionId(transactionId);
         List<VXTrxLog>   trxLogs   = new ArrayList<>();
@@ -71,6 +71,7 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_UPDATE_CONTEXT;
 
@@ -577,6 +578,19 @@ public VXPortalUser getUserProfileByLoginId(String loginId) {
         }
     }
 
+    /**
+     * @return profiles of the users with the given login ids: loginId => profile; users not found are not included
+     */
+    public Map<String, VXPortalUser> getUserProfilesByLoginIds(Collection<String> loginIds) {
+        Map<String, VXPortalUser> ret = new HashMap<>();
+
+        for (Map.Entry<String, XXPortalUser> entry : daoManager.getXXPortalUser().findByLoginIds(loginIds).entrySet()) {
+            ret.put(entry.getKey(), mapXXPortalUserVXPortalUser(entry.getValue()));
+        }
+
+        return ret;
+    }
+
     public XXPortalUser mapVXPortalUserToXXPortalUser(VXPortalUser userProfile) {
         XXPortalUser gjUser = new XXPortalUser();
 
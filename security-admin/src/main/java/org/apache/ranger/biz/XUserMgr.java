@@ -148,6 +148,7 @@ public class XUserMgr extends XUserMgrBase {
     private static final String GROUP                      = "Group";
     private static final int    MAX_DB_TRANSACTION_RETRIES = 5;
     private static final int    PASSWORD_LENGTH            = 16;
+    private static final int    BULK_UPDATE_BATCH_SIZE     = Math.max(PropertiesUtil.getIntProperty("ranger.admin.usersync.bulk.update.batch.size", 1000), 1);
 
     @Autowired
     RangerBizUtil msBizUtil;
@@ -2826,7 +2827,7 @@ public int createOrUpdateXUsers(VXUserList users) {
 
         xaBizUtil.blockAuditorRoleUser();
 
-        int ret = 0;
+        List<VXUser> validUsers = new ArrayList<>();
 
         for (VXUser vXUser : users.getList()) {
             final String userName  = vXUser == null ? null : vXUser.getName();
@@ -2846,21 +2847,50 @@ public int createOrUpdateXUsers(VXUserList users) {
 
             checkAccess(vXUser);
 
+            validUsers.add(vXUser);
+        }
+
+        // create/update users in batches, each batch in a separate transaction
+        for (int fromIndex = 0; fromIndex < validUsers.size(); fromIndex += BULK_UPDATE_BATCH_SIZE) {
+            List<VXUser>        batch      = validUsers.subList(fromIndex, Math.min(fromIndex + BULK_UPDATE_BATCH_SIZE, validUsers.size()));
             TransactionTemplate txTemplate = new TransactionTemplate(txManager);
 
             txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
             try {
                 txTemplate.execute(status -> {
-                    VXPortalUser vXPortalUser = userMgr.getUserProfileByLoginId(userName);
+                    // look up existing users of the batch with one query each, instead of one per user
+                    Set<String> userNames = new HashSet<>();
 
-                    if (vXPortalUser == null) {
-                        logger.debug("create user {}", userName);
+                    for (VXUser vXUser : batch) {
+                        userNames.add(vXUser.getName());
+                    }
 
-                        createXUser(vXUser, userName);
-                    } else {
-                        logger.debug("Update user {}", userName);
+                    Map<String, VXPortalUser> existingProfiles = userMgr.getUserProfilesByLoginIds(userNames);
+                    Map<String, XXUser>       existingXUsers   = daoManager.getXXUser().findByUserNames(userNames);
+                    Set<String>               processedUsers   = new HashSet<>();
+
+                    for (VXUser vXUser : batch) {
+                        String       userName = vXUser.getName();
+                        VXPortalUser vXPortalUser;
+                        XXUser       xUser;
+
+                        if (processedUsers.add(userName)) {
+                            vXPortalUser = existingProfiles.get(userName);
+                            xUser        = existingXUsers.get(userName.trim());
+                        } else { // repeated in the batch: the lookup above does not reflect the earlier occurrence
+                            vXPortalUser = userMgr.getUserProfileByLoginId(userName);
+                            xUser        = daoManager.getXXUser().findByUserName(userName);
+                        }
 
-                        updateXUser(vXUser, vXPortalUser);
+                        if (vXPortalUser == null) {
+                            logger.debug("create user {}", userName);
+
+                            createXUser(vXUser, userName, xUser);
+                        } else {
+                            logger.debug("Update user {}", userName);
+
+                            updateXUser(vXUser, vXPortalUser, xUser);
+                        }
                     }
 
                     return null;
@@ -2870,10 +2900,10 @@ public int createOrUpdateXUsers(VXUserList users) {
 
                 throw restErrorUtil.createRESTException("Failed to create or update users ", MessageEnums.ERROR_CREATING_OBJECT);
             }
-
-            ret++;
         }
 
+        int ret = validUsers.size();
+
         if (ret == 0) {
             logger.debug("<== createOrUpdateXUsers(): No users created or updated");
 
@@ -2923,6 +2953,10 @@ public int createOrUpdateXUsers(VXUserList users) {
 
     @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
     public int createOrUpdateXGroups(VXGroupList groups) {
+        checkAdminAccess();
+
+        xaBizUtil.blockAuditorRoleUser();
+
         for (VXGroup vXGroup : groups.getList()) {
             if (vXGroup == null || vXGroup.getName() == null || "null".equalsIgnoreCase(vXGroup.getName()) || vXGroup.getName().trim().isEmpty()) {
                 logger.warn("Ignoring invalid groupname {}", vXGroup == null ? null : vXGroup.getName());
@@ -2930,7 +2964,8 @@ public int createOrUpdateXGroups(VXGroupList groups) {
                 continue;
             }
 
-            createXGroupWithoutLogin(vXGroup);
+            // user-store version is updated once for all groups below, instead of once per group in createXGroupWithoutLogin()
+            xGroupService.createXGroupWithOutLogin(vXGroup);
         }
 
         updateUserStoreVersion("createOrUpdateXGroups(groupsCount=" + groups.getListSize() + ")");
@@ -2962,9 +2997,10 @@ public int createOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
                     logger.debug("After users from DB - Max memory = {} Free memory = {} Total memory = {}", Runtime.getRuntime().maxMemory() / mb, Runtime.getRuntime().freeMemory() / mb, Runtime.getRuntime().totalMemory() / mb);
                 }
 
-                for (GroupUserInfo groupUserInfo : groupUserInfoList) {
-                    xGroupUserService.createOrDeleteXGroupUsers(groupUserInfo, usersFromDB);
-                }
+                long startTime   = System.currentTimeMillis();
+                int  foundGroups = xGroupUserService.createOrDeleteXGroupUsers(groupUserInfoList, usersFromDB);
+
+                logger.info("createOrDeleteXGroupUserList(): processed memberships of {} groups ({} found in DB) in {} ms", groupUserInfoList.size(), foundGroups, System.currentTimeMillis() - startTime);
 
                 updatedGroups = groupUserInfoList.size();
             }
@@ -3443,7 +3479,7 @@ private <T extends RangerPolicyItem> void removeUserGroupReferences(List<T> poli
         }
     }
 
-    private void createXUser(VXUser vXUser, String username) {
+    private void createXUser(VXUser vXUser, String username, XXUser xUser) {
         logger.debug("Creating user: {}", username);
 
         VXPortalUser vXPortalUser = new VXPortalUser();
@@ -3498,8 +3534,6 @@ private void createXUser(VXUser vXUser, String username) {
             }
         }
 
-        XXUser xUser = daoManager.getXXUser().findByUserName(vXUser.getName());
-
         if (xUser == null) {
             vXUser = xUserService.createResource(vXUser);
         } else {
@@ -3605,7 +3639,7 @@ private void createOrUpdateUserPermisson(Long portalUserId, Long xUserId, Long m
         }
     }
 
-    private VXUser updateXUser(VXUser vXUser, VXPortalUser oldUserProfile) {
+    private VXUser updateXUser(VXUser vXUser, VXPortalUser oldUserProfile, XXUser xUser) {
         logger.debug("Updating user: {}", vXUser.getName());
 
         VXPortalUser vXPortalUser = new VXPortalUser();
@@ -3707,8 +3741,6 @@ private VXUser updateXUser(VXUser vXUser, VXPortalUser oldUserProfile) {
 
         // TODO I've to get the transaction log from here.
         // There is nothing to log anything in XXUser so far.
-        XXUser xUser = daoManager.getXXUser().findByUserName(vXUser.getName());
-
         if (xUser == null) {
             logger.warn("Could not find corresponding xUser for username: [{}], So not updating this user", vXPortalUser.getLoginId());
 
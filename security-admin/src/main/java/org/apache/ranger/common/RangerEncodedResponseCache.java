@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized form of responses downloaded by plugins - like policies, tags, roles and userstore. When a new version
+ * becomes available, hundreds of plugins download the same response; serializing (and compressing) it once per
+ * version avoids repeating the work for each plugin.
+ *
+ * Encoded responses are kept per key (like service name) for the latest version only; an entry is replaced when a
+ * response for another version is requested. The variant identifies request parameters that change the response
+ * for a version, like support for deltas.
+ *
+ * REST APIs call setResponseSource() to mark the response as cacheable; RangerDownloadCompressionFilter then writes
+ * the encoded bytes to the response.
+ */
+public class RangerEncodedResponseCache {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerEncodedResponseCache.class);
+
+    public static final String PROP_RESPONSE_CACHE_ENABLED = "ranger.admin.download.response.cache.enabled";
+
+    private static final String REQ_ATTR_RESPONSE_SOURCE = RangerEncodedResponseCache.class.getName() + ".responseSource";
+
+    public enum Encoding { IDENTITY, GZIP }
+
+    private final String                                    name;
+    private final boolean                                   isEnabled;
+    private final ConcurrentMap<String, VersionedResponses> responses = new ConcurrentHashMap<>();
+
+    public RangerEncodedResponseCache(String name, boolean isEnabled) {
+        this.name      = name;
+        this.isEnabled = isEnabled;
+    }
+
+    public static ResponseSource getResponseSource(HttpServletRequest request) {
+        Object ret = request != null ? request.getAttribute(REQ_ATTR_RESPONSE_SOURCE) : null;
+
+        return ret instanceof ResponseSource ? (ResponseSource) ret : null;
+    }
+
+    public static byte[] encode(Object response, Encoding encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (OutputStream stream = encoding == Encoding.GZIP ? new GZIPOutputStream(out) : out) {
+            // same mapper as RangerJsonProvider, so that the response is identical to the one serialized by the provider
+            JsonUtilsV2.getMapper().writeValue(stream, response);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Marks the response to the given request as cacheable.
+     *
+     * @param request HTTP request being served
+     * @param key     key to cache the response with - like service name
+     * @param version version of the response
+     * @param variant request parameters, other than version, that change the response
+     */
+    public void setResponseSource(HttpServletRequest request, String key, Long version, String variant) {
+        if (isEnabled && request != null && key != null && version != null) {
+            request.setAttribute(REQ_ATTR_RESPONSE_SOURCE, new ResponseSource(this, key, version, variant));
+        }
+    }
+
+    public byte[] getEncodedResponse(String key, Long version, String variant, Encoding encoding, Object response) throws IOException {
+        VersionedResponses versionedResponses = responses.compute(key, (k, existing) -> (existing != null && existing.version.equals(version)) ? existing : new VersionedResponses(version));
+
+        return versionedResponses.getEncodedResponse(variant, encoding, response);
+    }
+
+    /**
+     * @param key key to remove the encoded responses for; if blank, all encoded responses are removed
+     */
+    public void evict(String key) {
+        if (StringUtils.isBlank(key)) {
+            responses.clear();
+        } else {
+            responses.remove(key);
+        }
+    }
+
+    public static class ResponseSource {
+        private final RangerEncodedResponseCache cache;
+        private final String                     key;
+        private final Long                       version;
+        private final String                     variant;
+
+        ResponseSource(RangerEncodedResponseCache cache, String key, Long version, String variant) {
+            this.cache   = cache;
+            this.key     = key;
+            this.version = version;
+            this.variant = variant;
+        }
+
+        public byte[] getEncodedResponse(Encoding encoding, Object response) throws IOException {
+            return cache.getEncodedResponse(key, version, variant, encoding, response);
+        }
+
+        @Override
+        public String toString() {
+            return "ResponseSource={cache=" + cache.name + ", key=" + key + ", version=" + version + ", variant=" + variant + "}";
+        }
+    }
+
+    private class VersionedResponses {
+        final Long                                   version;
+        final ConcurrentMap<String, EncodedResponse> encodedResponses = new ConcurrentHashMap<>();
+
+        VersionedResponses(Long version) {
+            this.version = version;
+        }
+
+        byte[] getEncodedResponse(String variant, Encoding encoding, Object response) throws IOException {
+            EncodedResponse encodedResponse = encodedResponses.computeIfAbsent(Objects.toString(variant, "") + "/" + encoding, k -> new EncodedResponse(encoding));
+
+            return encodedResponse.get(response);
+        }
+    }
+
+    private class EncodedResponse {
+        final Encoding encoding;
+        byte[]         bytes;
+
+        EncodedResponse(Encoding encoding) {
+            this.encoding = encoding;
+        }
+
+        // concurrent requests for the same response wait for the first one to encode it
+        synchronized byte[] get(Object response) throws IOException {
+            if (bytes == null) {
+                long startTimeMs = System.currentTimeMillis();
+
+                bytes = encode(response, encoding);
+
+                LOG.debug("RangerEncodedResponseCache({}): encoded response in {} ms: encoding={}, size={}", name, System.currentTimeMillis() - startTimeMs, encoding, bytes.length);
+            }
+
+            return bytes;
+        }
+    }
+}
@@ -27,6 +27,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
@@ -40,15 +42,17 @@ public class RangerRoleCache {
 
     private static volatile RangerRoleCache sInstance;
 
-    private final int           waitTimeInSeconds;
-    private final ReentrantLock lock = new ReentrantLock();
+    private final int                        waitTimeInSeconds;
+    private final ReentrantLock              lock = new ReentrantLock();
+    private final RangerEncodedResponseCache encodedResponseCache;
 
     RangerRoleCacheWrapper roleCacheWrapper;
 
     private RangerRoleCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
-        waitTimeInSeconds = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
+        waitTimeInSeconds    = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
+        encodedResponseCache = new RangerEncodedResponseCache("roles", config.getBoolean(RangerEncodedResponseCache.PROP_RESPONSE_CACHE_ENABLED, true));
     }
 
     public static RangerRoleCache getInstance() {
@@ -68,6 +72,15 @@ public static RangerRoleCache getInstance() {
         return me;
     }
 
+    /**
+     * Marks the response to a role download request as cacheable.
+     */
+    public void setEncodedResponseSource(HttpServletRequest request, RangerRoles roles) {
+        if (roles != null) {
+            encodedResponseCache.setResponseSource(request, roles.getServiceName(), roles.getRoleVersion(), null);
+        }
+    }
+
     public RangerRoles getLatestRangerRoleOrCached(String serviceName, RoleDBStore roleDBStore, Long lastKnownRoleVersion, Long rangerRoleVersionInDB) throws Exception {
         final RangerRoles ret;
 
@@ -30,6 +30,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileWriter;
@@ -54,12 +56,15 @@ public class RangerServicePoliciesCache {
     private final int                                 waitTimeInSeconds;
     private final boolean                             dedupStrings;
     private final Map<String, ServicePoliciesWrapper> servicePoliciesMap = new HashMap<>();
+    private final RangerEncodedResponseCache          encodedResponseCache;
 
     private RangerServicePoliciesCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
         waitTimeInSeconds = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
         dedupStrings      = config.getBoolean("ranger.admin.policy.dedup.strings", Boolean.TRUE);
+
+        encodedResponseCache = new RangerEncodedResponseCache("policies", config.getBoolean(RangerEncodedResponseCache.PROP_RESPONSE_CACHE_ENABLED, true));
     }
 
     public static RangerServicePoliciesCache getInstance() {
@@ -146,6 +151,19 @@ public ServicePolicies getServicePolicies(String serviceName, Long serviceId, Lo
         return ret;
     }
 
+    /**
+     * Marks the response to a policy download request as cacheable. Only full policy sets are cached, as deltas depend
+     * on the version known to the plugin.
+     */
+    public void setEncodedResponseSource(HttpServletRequest request, ServicePolicies servicePolicies, Long lastKnownVersion, boolean supportsPolicyDeltas) {
+        if (servicePolicies != null && servicePolicies.getPolicyDeltas() == null) {
+            // ServiceDBStore.getServicePoliciesIfUpdated() filters disabled policies when all policies are requested or when deltas are not supported
+            String variant = servicePolicies.getServiceId() + "_" + (lastKnownVersion == null || lastKnownVersion == -1L) + "_" + supportsPolicyDeltas;
+
+            encodedResponseCache.setResponseSource(request, servicePolicies.getServiceName(), servicePolicies.getPolicyVersion(), variant);
+        }
+    }
+
     /**
      * Reset policy cache using serviceName if provided.
      * If serviceName is empty, reset everything.
@@ -158,6 +176,8 @@ public boolean resetCache(final String serviceName) {
 
         boolean ret = false;
 
+        encodedResponseCache.evict(serviceName);
+
         synchronized (this) {
             if (!servicePoliciesMap.isEmpty()) {
                 if (StringUtils.isBlank(serviceName)) {
@@ -29,6 +29,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,6 +50,7 @@ public class RangerServiceTagsCache {
     private final boolean dedupStrings;
 
     private final Map<String, ServiceTagsWrapper> serviceTagsMap = new HashMap<>();
+    private final RangerEncodedResponseCache      encodedResponseCache;
 
     private RangerServiceTagsCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
@@ -55,6 +58,8 @@ private RangerServiceTagsCache() {
         useServiceTagsCache = config.getBoolean("ranger.admin.tag.download.usecache", true);
         waitTimeInSeconds   = config.getInt("ranger.admin.tag.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
         dedupStrings        = config.getBoolean("ranger.admin.tag.dedup.strings", Boolean.TRUE);
+
+        encodedResponseCache = new RangerEncodedResponseCache("tags", config.getBoolean(RangerEncodedResponseCache.PROP_RESPONSE_CACHE_ENABLED, true));
     }
 
     public static RangerServiceTagsCache getInstance() {
@@ -157,6 +162,16 @@ public ServiceTags getServiceTags(String serviceName, Long serviceId, Long lastK
         return ret;
     }
 
+    /**
+     * Marks the response to a tag download request as cacheable. Only complete service tags are cached, as deltas
+     * depend on the version known to the plugin.
+     */
+    public void setEncodedResponseSource(HttpServletRequest request, ServiceTags serviceTags) {
+        if (serviceTags != null && !serviceTags.getIsDelta()) {
+            encodedResponseCache.setResponseSource(request, serviceTags.getServiceName(), serviceTags.getTagVersion(), String.valueOf(serviceTags.getServiceId()));
+        }
+    }
+
     /**
      * Reset service tag cache using serviceName if provided.
      * If serviceName is empty, reset everything.
@@ -169,6 +184,8 @@ public boolean resetCache(final String serviceName) {
 
         boolean ret = false;
 
+        encodedResponseCache.evict(serviceName);
+
         synchronized (this) {
             if (!serviceTagsMap.isEmpty()) {
                 if (StringUtils.isBlank(serviceName)) {
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.entity.XXServiceVersionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Notifies plugin long-poll requests when the policy, role or tag version of the service changes, or a timeout passes.
+ *
+ * Versions of all services are read from the database with a single query, periodically, only while there are waiting
+ * requests. This detects changes made through any API, and by other Ranger Admin instances, with a fixed database load
+ * that doesn't depend on the number of plugins.
+ *
+ * Waiting requests don't hold a thread: the caller is notified by a callback, called from the thread that checks the
+ * versions - hence callbacks must not block. Timeouts are detected at the next check of versions. Number of waiting
+ * requests is limited by ranger.admin.plugin.notification.max.waiters, beyond which requests are rejected immediately.
+ */
+@Component
+public class RangerServiceVersionNotifier {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerServiceVersionNotifier.class);
+
+    public static final String PROP_MAX_WAITERS                  = "ranger.admin.plugin.notification.max.waiters";
+    public static final String PROP_MAX_WAIT_TIME_MS             = "ranger.admin.plugin.notification.max.wait.time.ms";
+    public static final String PROP_VERSION_CHECK_INTERVAL_MS    = "ranger.admin.plugin.notification.version.check.interval.ms";
+    public static final int    DEFAULT_MAX_WAITERS               = 1000;
+    public static final long   DEFAULT_MAX_WAIT_TIME_MS          = 60 * 1000L;
+    public static final long   DEFAULT_VERSION_CHECK_INTERVAL_MS = 1000L;
+
+    public enum WaitStatus { CHANGED, NOT_CHANGED, TOO_MANY_WAITERS }
+
+    @Autowired
+    RangerDaoManager daoMgr;
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
+    private final Object                   lock          = new Object();
+    private final Set<Waiter>              waiters       = new HashSet<>();
+    private       long                     lastCheckId;  // id of the latest check started
+    private       int                      maxWaiters    = DEFAULT_MAX_WAITERS;
+    private       long                     maxWaitTimeMs = DEFAULT_MAX_WAIT_TIME_MS;
+    private       TransactionTemplate      txTemplate;
+    private       ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        RangerAdminConfig config = RangerAdminConfig.getInstance();
+
+        long versionCheckIntervalMs = config.getLong(PROP_VERSION_CHECK_INTERVAL_MS, DEFAULT_VERSION_CHECK_INTERVAL_MS);
+
+        maxWaiters    = config.getInt(PROP_MAX_WAITERS, DEFAULT_MAX_WAITERS);
+        maxWaitTimeMs = config.getLong(PROP_MAX_WAIT_TIME_MS, DEFAULT_MAX_WAIT_TIME_MS);
+        txTemplate    = new TransactionTemplate(txManager);
+        scheduler     = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread ret = new Thread(runnable, "RangerServiceVersionNotifier");
+
+            ret.setDaemon(true);
+
+            return ret;
+        });
+
+        txTemplate.setReadOnly(true);
+
+        scheduler.scheduleWithFixedDelay(this::checkVersions, versionCheckIntervalMs, versionCheckIntervalMs, MILLISECONDS);
+
+        LOG.info("{}={}", PROP_MAX_WAITERS, maxWaiters);
+        LOG.info("{}={}", PROP_MAX_WAIT_TIME_MS, maxWaitTimeMs);
+        LOG.info("{}={}", PROP_VERSION_CHECK_INTERVAL_MS, versionCheckIntervalMs);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public long getMaxWaitTimeMs() {
+        return maxWaitTimeMs;
+    }
+
+    /**
+     * Waits for policies or roles of the service to change from the given versions.
+     *
+     * @param onCompletion called once with the result of the wait; can be called before this method returns
+     */
+    public Waiter waitForPolicyChange(String serviceName, Long lastKnownVersion, Long lastKnownRoleVersion, long timeoutMs, Consumer<WaitStatus> onCompletion) {
+        // role version of a service is updated only for changes in roles referenced in its policies, hence can be lower than the version downloaded by the plugin
+        return waitForChange(serviceName, timeoutMs, versionInfo -> !Objects.equals(versionInfo.getPolicyVersion(), lastKnownVersion) ||
+                (lastKnownRoleVersion != null && versionInfo.getRoleVersion() != null && versionInfo.getRoleVersion() > lastKnownRoleVersion), onCompletion);
+    }
+
+    /**
+     * Waits for tags of the service to change from the given version.
+     *
+     * @param onCompletion called once with the result of the wait; can be called before this method returns
+     */
+    public Waiter waitForTagChange(String serviceName, Long lastKnownVersion, long timeoutMs, Consumer<WaitStatus> onCompletion) {
+        return waitForChange(serviceName, timeoutMs, versionInfo -> !Objects.equals(versionInfo.getTagVersion(), lastKnownVersion), onCompletion);
+    }
+
+    Waiter waitForChange(String serviceName, long timeoutMs, Predicate<XXServiceVersionInfo> isChanged, Consumer<WaitStatus> onCompletion) {
+        LOG.debug("==> RangerServiceVersionNotifier.waitForChange(serviceName={}, timeoutMs={})", serviceName, timeoutMs);
+
+        final Waiter  ret     = new Waiter(serviceName, System.currentTimeMillis() + Math.min(timeoutMs, maxWaitTimeMs), isChanged, onCompletion);
+        final boolean isAdded;
+
+        synchronized (lock) {
+            isAdded = waiters.size() < maxWaiters;
+
+            if (isAdded) {
+                // versions read by checks started earlier can be older than the version known to the caller
+                ret.minCheckId = lastCheckId + 1;
+
+                waiters.add(ret);
+            }
+        }
+
+        if (!isAdded) {
+            LOG.debug("RangerServiceVersionNotifier.waitForChange(serviceName={}): {} requests are already waiting", serviceName, maxWaiters);
+
+            ret.complete(WaitStatus.TOO_MANY_WAITERS);
+        } else {
+            try {
+                XXServiceVersionInfo versionInfo = txTemplate.execute(status -> daoMgr.getXXServiceVersionInfo().findByServiceName(serviceName));
+
+                if (versionInfo == null || isChanged.test(versionInfo)) { // for unknown service, let the download report the error
+                    ret.complete(WaitStatus.CHANGED);
+                }
+            } catch (Throwable excp) { // a change will be notified by the next check of versions
+                LOG.warn("RangerServiceVersionNotifier.waitForChange(serviceName={}): failed to read service version", serviceName, excp);
+            }
+        }
+
+        LOG.debug("<== RangerServiceVersionNotifier.waitForChange(serviceName={}, timeoutMs={})", serviceName, timeoutMs);
+
+        return ret;
+    }
+
+    void checkVersions() {
+        final long         checkId;
+        final List<Waiter> toCheck;
+
+        synchronized (lock) {
+            if (waiters.isEmpty()) {
+                return;
+            }
+
+            checkId = ++lastCheckId;
+        }
+
+        Map<String, XXServiceVersionInfo> versions = null;
+
+        try {
+            List<Object[]> rows = txTemplate.execute(status -> daoMgr.getXXServiceVersionInfo().getAllWithServiceNames());
+
+            versions = new HashMap<>();
+
+            if (rows != null) {
+                for (Object[] row : rows) {
+                    if (row != null && row.length == 2 && row[0] instanceof XXServiceVersionInfo && row[1] instanceof String) {
+                        versions.put((String) row[1], (XXServiceVersionInfo) row[0]);
+                    }
+                }
+            }
+        } catch (Throwable excp) { // timeouts are still processed below
+            LOG.warn("RangerServiceVersionNotifier.checkVersions(): failed to read service versions", excp);
+        }
+
+        synchronized (lock) {
+            toCheck = new ArrayList<>(waiters);
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (Waiter waiter : toCheck) {
+            if (versions != null && checkId >= waiter.minCheckId) {
+                XXServiceVersionInfo versionInfo = versions.get(waiter.serviceName);
+
+                if (versionInfo == null || waiter.isChanged.test(versionInfo)) {
+                    waiter.complete(WaitStatus.CHANGED);
+
+                    continue;
+                }
+            }
+
+            if (now >= waiter.deadline) {
+                waiter.complete(WaitStatus.NOT_CHANGED);
+            }
+        }
+    }
+
+    int getWaiterCount() {
+        synchronized (lock) {
+            return waiters.size();
+        }
+    }
+
+    /**
+     * A request waiting for a change in the version of a service.
+     */
+    public final class Waiter {
+        private final String                          serviceName;
+        private final long                            deadline;
+        private final Predicate<XXServiceVersionInfo> isChanged;
+        private final Consumer<WaitStatus>            onCompletion;
+        private final AtomicBoolean                   isCompleted = new AtomicBoolean();
+        private       long                            minCheckId;
+
+        Waiter(String serviceName, long deadline, Predicate<XXServiceVersionInfo> isChanged, Consumer<WaitStatus> onCompletion) {
+            this.serviceName  = serviceName;
+            this.deadline     = deadline;
+            this.isChanged    = isChanged;
+            this.onCompletion = onCompletion;
+        }
+
+        /**
+         * Stops waiting, without calling onCompletion; for example, when the request is closed by the client.
+         */
+        public void cancel() {
+            if (isCompleted.compareAndSet(false, true)) {
+                remove();
+            }
+        }
+
+        void complete(WaitStatus status) {
+            if (isCompleted.compareAndSet(false, true)) {
+                remove();
+
+                try {
+                    onCompletion.accept(status);
+                } catch (Throwable excp) {
+                    LOG.warn("RangerServiceVersionNotifier.Waiter.complete(serviceName={}, status={}): failed to notify", serviceName, status, excp);
+                }
+            }
+        }
+
+        private void remove() {
+            synchronized (lock) {
+                waiters.remove(this);
+            }
+        }
+    }
+}
@@ -27,6 +27,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -36,14 +38,16 @@
 public class RangerUserStoreCache {
     private static final Logger LOG = LoggerFactory.getLogger(RangerUserStoreCache.class);
 
-    private static final int MAX_WAIT_TIME_FOR_UPDATE = 10;
+    private static final int    MAX_WAIT_TIME_FOR_UPDATE = 10;
+    private static final String USERSTORE_RESPONSE_KEY   = "userstore";
 
     public static volatile RangerUserStoreCache sInstance;
 
-    private final int             waitTimeInSeconds;
-    private final boolean         dedupStrings;
-    private final ReentrantLock   lock = new ReentrantLock();
-    private       RangerUserStore rangerUserStore;
+    private final int                        waitTimeInSeconds;
+    private final boolean                    dedupStrings;
+    private final ReentrantLock              lock = new ReentrantLock();
+    private final RangerEncodedResponseCache encodedResponseCache;
+    private       RangerUserStore            rangerUserStore;
 
     private RangerUserStoreCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
@@ -51,6 +55,8 @@ private RangerUserStoreCache() {
         this.waitTimeInSeconds = config.getInt("ranger.admin.userstore.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
         this.dedupStrings      = config.getBoolean("ranger.admin.userstore.dedup.strings", Boolean.TRUE);
         this.rangerUserStore   = new RangerUserStore();
+
+        this.encodedResponseCache = new RangerEncodedResponseCache("userstore", config.getBoolean(RangerEncodedResponseCache.PROP_RESPONSE_CACHE_ENABLED, true));
     }
 
     public static RangerUserStoreCache getInstance() {
@@ -74,6 +80,16 @@ public RangerUserStore getRangerUserStore() {
         return this.rangerUserStore;
     }
 
+    /**
+     * Marks the response to a userstore download request as cacheable. Userstore is the same for all services, hence
+     * a single encoded response is shared by all services.
+     */
+    public void setEncodedResponseSource(HttpServletRequest request, RangerUserStore userStore) {
+        if (userStore != null) {
+            encodedResponseCache.setResponseSource(request, USERSTORE_RESPONSE_KEY, userStore.getUserStoreVersion(), null);
+        }
+    }
+
     public RangerUserStore getLatestRangerUserStoreOrCached(XUserMgr xUserMgr) {
         LOG.debug("==> RangerUserStoreCache.getLatestRangerUserStoreOrCached()");
 
@@ -96,6 +96,24 @@ public Map<Long, String> getAllGroupIdNames() {
         return groups;
     }
 
+    public Map<String, Long> getAllGroupIds() {
+        Map<String, Long> groups = new HashMap<>();
+
+        try {
+            List<Object[]> rows = getEntityManager().createNamedQuery("XXGroup.getAllGroupIds", Object[].class).getResultList();
+
+            if (rows != null) {
+                for (Object[] row : rows) {
+                    groups.put((String) row[0], (Long) row[1]);
+                }
+            }
+        } catch (NoResultException e) {
+            logger.debug(e.getMessage());
+        }
+
+        return groups;
+    }
+
     public List<GroupInfo> getAllGroupsInfo() {
         List<GroupInfo> ret = new ArrayList<>();
 
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.db;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXGroupUser;
@@ -29,6 +30,7 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -47,6 +49,39 @@ public void deleteByGroupIdAndUserId(Long groupId, Long userId) {
         getEntityManager().createNamedQuery("XXGroupUser.deleteByGroupIdAndUserId").setParameter("userId", userId).setParameter("parentGroupId", groupId).executeUpdate();
     }
 
+    /**
+     * @return IDs of group-user mappings of the given groups: groupId => (userId => groupUserId)
+     */
+    public Map<Long, Map<Long, Long>> findIdsByGroupIds(Collection<Long> groupIds, int batchSize) {
+        Map<Long, Map<Long, Long>> ret = new HashMap<>();
+
+        if (CollectionUtils.isNotEmpty(groupIds)) {
+            List<Long> ids = new ArrayList<>(groupIds);
+
+            for (int fromIndex = 0; fromIndex < ids.size(); fromIndex += batchSize) {
+                List<Long> subList = ids.subList(fromIndex, Math.min(fromIndex + batchSize, ids.size()));
+
+                try {
+                    List<Object[]> rows = getEntityManager().createNamedQuery("XXGroupUser.findIdsByGroupIds", Object[].class).setParameter("groupIds", subList).getResultList();
+
+                    if (rows != null) {
+                        for (Object[] row : rows) {
+                            ret.computeIfAbsent((Long) row[0], k -> new HashMap<>()).put((Long) row[1], (Long) row[2]);
+                        }
+                    }
+                } catch (NoResultException e) {
+                    logger.debug(e.getMessage());
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        batchDeleteByIds("XXGroupUser.deleteByIds", ids, "ids");
+    }
+
     public List<XXGroupUser> findByUserId(Long userId) {
         if (userId != null) {
             try {
@@ -27,6 +27,7 @@
 
 import javax.persistence.NoResultException;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -55,6 +56,25 @@ public XXPortalUser findByLoginId(String loginId) {
         return null;
     }
 
+    /**
+     * @return portal users with the given login ids: loginId => portal user
+     */
+    public Map<String, XXPortalUser> findByLoginIds(Collection<String> loginIds) {
+        Map<String, XXPortalUser> ret = new HashMap<>();
+
+        if (loginIds != null && !loginIds.isEmpty()) {
+            List<XXPortalUser> resultList = getEntityManager()
+                    .createNamedQuery("XXPortalUser.findByLoginIds", tClass)
+                    .setParameter("loginIds", loginIds).getResultList();
+
+            for (XXPortalUser user : resultList) {
+                ret.put(user.getLoginId(), user);
+            }
+        }
+
+        return ret;
+    }
+
     public XXPortalUser findByEmailAddress(String emailAddress) {
         if (daoManager.getStringUtil().isEmpty(emailAddress)) {
             return null;
@@ -33,6 +33,7 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -68,6 +69,29 @@ public XXUser findByUserName(String name) {
         return null;
     }
 
+    /**
+     * @return users with the given names: name => user; like findByUserName(), names are trimmed before lookup
+     */
+    public Map<String, XXUser> findByUserNames(Collection<String> names) {
+        Map<String, XXUser> ret = new HashMap<>();
+
+        if (names != null && !names.isEmpty()) {
+            Set<String> trimmedNames = new HashSet<>();
+
+            for (String name : names) {
+                trimmedNames.add(name.trim());
+            }
+
+            List<XXUser> users = getEntityManager().createNamedQuery("XXUser.findByUserNames", XXUser.class).setParameter("names", trimmedNames).getResultList();
+
+            for (XXUser user : users) {
+                ret.put(user.getName(), user);
+            }
+        }
+
+        return ret;
+    }
+
     public XXUser findByPortalUserId(Long portalUserId) {
         if (portalUserId == null) {
             return null;
@@ -35,6 +35,7 @@
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.search.SearchHit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -133,6 +134,13 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         returnList.setStartIndex(searchCriteria.getStartIndex());
         returnList.setVXAccessAudits(xAccessAuditList);
 
+        SearchHit[] hits = response.getHits().getHits();
+
+        // a page shorter than requested is the last one
+        if (getPageToken(searchCriteria) != null && hits.length > 0 && hits.length >= searchCriteria.getMaxRows()) {
+            returnList.setNextPageToken(elasticSearchUtil.toPageToken(hits[hits.length - 1]));
+        }
+
         return returnList;
     }
 
@@ -19,11 +19,14 @@
 
 package org.apache.ranger.elasticsearch;
 
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.common.PropertiesUtil;
+import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.SortField;
 import org.apache.ranger.common.StringUtil;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.get.MultiGetRequest;
@@ -44,9 +47,13 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -57,9 +64,14 @@
 public class ElasticSearchUtil {
     private static final Logger logger = LoggerFactory.getLogger(ElasticSearchUtil.class);
 
+    private static final String UNIQUE_KEY_FIELD = "id";
+
     @Autowired
     StringUtil stringUtil;
 
+    @Autowired
+    RESTErrorUtil restErrorUtil;
+
     final String           dateFormateStr = "yyyy-MM-dd'T'HH:mm:ss'Z'";
     final SimpleDateFormat dateFormat     = new SimpleDateFormat(dateFormateStr);
 
@@ -100,7 +112,19 @@ public SearchResponse searchResources(SearchCriteria searchCriteria, List<Search
 
         setSortClause(searchCriteria, sortFields, searchSourceBuilder);
 
-        searchSourceBuilder.from(searchCriteria.getStartIndex());
+        String pageToken = AccessAuditsService.getPageToken(searchCriteria);
+
+        if (pageToken != null) {
+            // search_after needs a sort on a unique field, to order documents having the same sort values
+            searchSourceBuilder.sort(UNIQUE_KEY_FIELD, SortOrder.ASC);
+
+            if (!AccessAuditsService.FIRST_PAGE_TOKEN.equals(pageToken)) {
+                searchSourceBuilder.searchAfter(fromPageToken(pageToken));
+            }
+        } else {
+            searchSourceBuilder.from(searchCriteria.getStartIndex());
+        }
+
         searchSourceBuilder.size(searchCriteria.getMaxRows());
         searchSourceBuilder.fetchSource(true);
 
@@ -184,6 +208,19 @@ public QueryBuilder setDateRange(String fieldName, Date fromDate, Date toDate) {
         return rangeQueryBuilder;
     }
 
+    /**
+     * @return token to search the documents after the given hit, which must be from a search sorted for search_after
+     */
+    public String toPageToken(SearchHit hit) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonUtilsV2.nonSerializableObjToJson(hit.getSortValues()).getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.warn("Failed to create page token from sort values {}", hit.getSortValues(), e);
+
+            return null;
+        }
+    }
+
     public MultiGetItemResponse[] fetch(RestHighLevelClient client, String index, SearchHit... hits) throws IOException {
         if (0 == hits.length) {
             return new MultiGetItemResponse[0];
@@ -202,6 +239,19 @@ public MultiGetItemResponse[] fetch(RestHighLevelClient client, String index, Se
         return client.multiGet(multiGetRequest, RequestOptions.DEFAULT).getResponses();
     }
 
+    /**
+     * @return sort values of the hit the given token was created from by toPageToken()
+     */
+    Object[] fromPageToken(String pageToken) {
+        try {
+            return JsonUtilsV2.jsonToObj(new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8), Object[].class);
+        } catch (Exception e) {
+            logger.warn("Invalid page token: {}", pageToken, e);
+
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Invalid page token", true);
+        }
+    }
+
     private String filterText(Object value) {
         return ClientUtils.escapeQueryChars(value.toString().trim().toLowerCase());
     }
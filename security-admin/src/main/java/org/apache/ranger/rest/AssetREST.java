@@ -20,6 +20,7 @@
 package org.apache.ranger.rest;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.admin.client.datatype.RESTResponse;
 import org.apache.ranger.biz.AssetMgr;
 import org.apache.ranger.biz.RangerBizUtil;
@@ -46,6 +47,7 @@
 import org.apache.ranger.service.XPolicyService;
 import org.apache.ranger.service.XResourceService;
 import org.apache.ranger.util.RestUtil;
+import org.apache.ranger.view.VXAccessAudit;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXAsset;
 import org.apache.ranger.view.VXAssetList;
@@ -72,6 +74,7 @@
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.Encoded;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -85,6 +88,7 @@
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -531,62 +535,56 @@ public VXTrxLogList getTransactionReport(@Context HttpServletRequest request, @P
     @Produces("application/json")
     @PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.GET_ACCESS_LOGS + "\")")
     public VXAccessAuditList getAccessLogs(@Context HttpServletRequest request, @QueryParam("timeZone") String timeZone) {
-        SearchCriteria searchCriteria = searchUtil.extractCommonCriterias(request, xAccessAuditService.sortFields);
+        SearchCriteria searchCriteria = getAccessLogsSearchCriteria(request);
 
-        searchUtil.extractString(request, searchCriteria, "accessType", "Access Type", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "aclEnforcer", "Access Enforcer", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "agentId", "Application", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "repoName", "Service Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "sessionId", "Session ID", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractStringList(request, searchCriteria, "requestUser", "Users", "requestUser", null, StringUtil.VALIDATION_TEXT);
-        searchUtil.extractStringList(request, searchCriteria, "excludeUser", "Exclude Users", "-requestUser", null, StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "requestData", "Request Data", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "resourcePath", "Resource Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "clientIP", "Client IP", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "resourceType", "Resource Type", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "excludeServiceUser", "Exclude Service User", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, AccessAuditsService.PAGE_TOKEN_PARAM, "Page Token", null);
 
-        searchUtil.extractInt(request, searchCriteria, "auditType", "Audit Type");
-        searchUtil.extractInt(request, searchCriteria, "accessResult", "Result");
-        searchUtil.extractInt(request, searchCriteria, "assetId", "Asset ID");
-        searchUtil.extractLong(request, searchCriteria, "policyId", "Policy ID");
-        searchUtil.extractInt(request, searchCriteria, "repoType", "Service Type");
-        searchUtil.extractDate(request, searchCriteria, "startDate", "Start Date", "MM/dd/yyyy");
-        searchUtil.extractDate(request, searchCriteria, "endDate", "End Date", "MM/dd/yyyy");
-        searchUtil.extractString(request, searchCriteria, "tags", "tags", null);
-        searchUtil.extractString(request, searchCriteria, "cluster", "Cluster Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractStringList(request, searchCriteria, "zoneName", "Zone Name List", "zoneName", null, null);
-        searchUtil.extractString(request, searchCriteria, "agentHost", "Agent Host Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "eventId", "Event Id", null);
-        searchUtil.extractString(request, searchCriteria, "datasets", "DataSets", null);
+        VXAccessAuditList vxAccessAuditList = assetMgr.getAccessLogs(searchCriteria);
 
-        boolean      isKeyAdmin      = msBizUtil.isKeyAdmin();
-        boolean      isAuditKeyAdmin = msBizUtil.isAuditKeyAdmin();
-        XXServiceDef xxServiceDef    = daoManager.getXXServiceDef().findByName(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KMS_NAME);
+        vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> setZonedEventTime(vxAccessAudit, timeZone));
 
-        if (isKeyAdmin && xxServiceDef != null || isAuditKeyAdmin && xxServiceDef != null) {
-            searchCriteria.getParamList().put("repoType", xxServiceDef.getId());
-        } else if (xxServiceDef != null) {
-            searchCriteria.getParamList().put("-repoType", xxServiceDef.getId());
+        return vxAccessAuditList;
+    }
+
+    @GET
+    @Path("/accessAudit/export")
+    @Produces({"text/csv", "application/json"})
+    @PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.GET_ACCESS_LOGS + "\")")
+    public void exportAccessLogs(@Context HttpServletRequest request, @Context HttpServletResponse response, @QueryParam("timeZone") String timeZone, @DefaultValue(AssetMgr.EXPORT_FORMAT_CSV) @QueryParam("format") String format) {
+        boolean isJson = AssetMgr.EXPORT_FORMAT_JSON.equalsIgnoreCase(format);
+
+        if (!isJson && !AssetMgr.EXPORT_FORMAT_CSV.equalsIgnoreCase(format)) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format + ". Supported formats: csv, json", true);
         }
 
-        VXAccessAuditList vxAccessAuditList = assetMgr.getAccessLogs(searchCriteria);
+        // validate timeZone before the response is committed, as audits are written while they are read
+        if (StringUtils.isNotBlank(timeZone) && convertToTimeZone(new Date(), timeZone) == null) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Passed timeZone value is invalid", true);
+        }
 
-        if (timeZone != null && !StringUtils.isBlank(timeZone)) {
-            vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> {
-                String zonedEventTime = convertToTimeZone(vxAccessAudit.getEventTime(), timeZone);
+        SearchCriteria searchCriteria = getAccessLogsSearchCriteria(request);
 
-                if (zonedEventTime == null || zonedEventTime.isEmpty()) {
-                    throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Passed timeZone value is invalid", true);
-                }
+        response.setContentType(isJson ? "application/json" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=ranger_access_audits." + (isJson ? AssetMgr.EXPORT_FORMAT_JSON : AssetMgr.EXPORT_FORMAT_CSV));
 
-                vxAccessAudit.setZonedEventTime(zonedEventTime);
-            });
-        } else {
-            vxAccessAuditList.getVXAccessAudits().forEach(vxAccessAudit -> vxAccessAudit.setZonedEventTime(new SimpleDateFormat(RestUtil.ZONED_EVENT_TIME_FORMAT).format(vxAccessAudit.getEventTime())));
-        }
+        try {
+            assetMgr.exportAccessLogs(searchCriteria, format, vxAccessAudit -> setZonedEventTime(vxAccessAudit, timeZone), response.getWriter());
+        } catch (Exception excp) {
+            if (response.isCommitted()) {
+                logger.error("Failed to export access audits after the response was committed; aborting the response", excp);
 
-        return vxAccessAuditList;
+                // Jersey passes exceptions other than WebApplicationException on to the servlet container, which closes the connection
+                // without ending a committed response normally; hence the client doesn't take the partial export as complete
+                throw new IllegalStateException("Access audits export aborted", excp);
+            } else if (excp instanceof WebApplicationException) {
+                throw (WebApplicationException) excp;
+            }
+
+            logger.error("Failed to export access audits", excp);
+
+            throw restErrorUtil.createRESTException(excp.getMessage());
+        }
     }
 
     @POST
@@ -683,4 +681,61 @@ public VXUgsyncAuditInfoList getUgsyncAudits(@Context HttpServletRequest request
     public VXUgsyncAuditInfoList getUgsyncAuditsBySyncSource(@PathParam("syncSource") String syncSource) {
         return assetMgr.getUgsyncAuditsBySyncSource(syncSource);
     }
+
+    private SearchCriteria getAccessLogsSearchCriteria(HttpServletRequest request) {
+        SearchCriteria searchCriteria = searchUtil.extractCommonCriterias(request, xAccessAuditService.sortFields);
+
+        searchUtil.extractString(request, searchCriteria, "accessType", "Access Type", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "aclEnforcer", "Access Enforcer", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "agentId", "Application", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "repoName", "Service Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "sessionId", "Session ID", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractStringList(request, searchCriteria, "requestUser", "Users", "requestUser", null, StringUtil.VALIDATION_TEXT);
+        searchUtil.extractStringList(request, searchCriteria, "excludeUser", "Exclude Users", "-requestUser", null, StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "requestData", "Request Data", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "resourcePath", "Resource Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "clientIP", "Client IP", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "resourceType", "Resource Type", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "excludeServiceUser", "Exclude Service User", StringUtil.VALIDATION_TEXT);
+
+        searchUtil.extractInt(request, searchCriteria, "auditType", "Audit Type");
+        searchUtil.extractInt(request, searchCriteria, "accessResult", "Result");
+        searchUtil.extractInt(request, searchCriteria, "assetId", "Asset ID");
+        searchUtil.extractLong(request, searchCriteria, "policyId", "Policy ID");
+        searchUtil.extractInt(request, searchCriteria, "repoType", "Service Type");
+        searchUtil.extractDate(request, searchCriteria, "startDate", "Start Date", "MM/dd/yyyy");
+        searchUtil.extractDate(request, searchCriteria, "endDate", "End Date", "MM/dd/yyyy");
+        searchUtil.extractString(request, searchCriteria, "tags", "tags", null);
+        searchUtil.extractString(request, searchCriteria, "cluster", "Cluster Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractStringList(request, searchCriteria, "zoneName", "Zone Name List", "zoneName", null, null);
+        searchUtil.extractString(request, searchCriteria, "agentHost", "Agent Host Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "eventId", "Event Id", null);
+        searchUtil.extractString(request, searchCriteria, "datasets", "DataSets", null);
+
+        boolean      isKeyAdmin      = msBizUtil.isKeyAdmin();
+        boolean      isAuditKeyAdmin = msBizUtil.isAuditKeyAdmin();
+        XXServiceDef xxServiceDef    = daoManager.getXXServiceDef().findByName(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KMS_NAME);
+
+        if (isKeyAdmin && xxServiceDef != null || isAuditKeyAdmin && xxServiceDef != null) {
+            searchCriteria.getParamList().put("repoType", xxServiceDef.getId());
+        } else if (xxServiceDef != null) {
+            searchCriteria.getParamList().put("-repoType", xxServiceDef.getId());
+        }
+
+        return searchCriteria;
+    }
+
+    private void setZonedEventTime(VXAccessAudit vxAccessAudit, String timeZone) {
+        if (timeZone != null && !StringUtils.isBlank(timeZone)) {
+            String zonedEventTime = convertToTimeZone(vxAccessAudit.getEventTime(), timeZone);
+
+            if (zonedEventTime == null || zonedEventTime.isEmpty()) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Passed timeZone value is invalid", true);
+            }
+
+            vxAccessAudit.setZonedEventTime(zonedEventTime);
+        } else {
+            vxAccessAudit.setZonedEventTime(new SimpleDateFormat(RestUtil.ZONED_EVENT_TIME_FORMAT).format(vxAccessAudit.getEventTime()));
+        }
+    }
 }
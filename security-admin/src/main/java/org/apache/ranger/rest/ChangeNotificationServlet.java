@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.rest;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.common.RangerServiceVersionNotifier;
+import org.apache.ranger.common.RangerServiceVersionNotifier.WaitStatus;
+import org.apache.ranger.common.RangerServiceVersionNotifier.Waiter;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.plugin.util.RangerRESTUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-poll API for plugins: returns when policies, roles or tags of the service change from the given versions, or
+ * with HTTP 304 when there is no change in timeoutMs. Plugins download the changes with the corresponding download API.
+ *
+ * Requests are suspended with AsyncContext while waiting, hence don't hold a request-processing thread. This is a
+ * servlet, instead of a REST resource, as Jersey 1.x doesn't support asynchronous resource methods; requests are
+ * validated with the same checks as the download API, by ServiceREST and TagREST.
+ */
+public class ChangeNotificationServlet extends HttpServlet {
+    private static final long   serialVersionUID = 1L;
+    private static final Logger LOG              = LoggerFactory.getLogger(ChangeNotificationServlet.class);
+
+    public static final String POLICY_NOTIFICATION_PATH        = "/service/plugins/policies/notification";
+    public static final String SECURE_POLICY_NOTIFICATION_PATH = "/service/plugins/secure/policies/notification";
+    public static final String TAG_NOTIFICATION_PATH           = "/service/tags/notification";
+    public static final String SECURE_TAG_NOTIFICATION_PATH    = "/service/tags/secure/notification";
+
+    private static final long DEFAULT_TIMEOUT_MS      = 60 * 1000L;
+    private static final long ASYNC_TIMEOUT_MARGIN_MS = 30 * 1000L; // notifier completes the request at timeoutMs; this is a safety net
+
+    private transient WebApplicationContext        appContext;
+    private transient RangerServiceVersionNotifier versionNotifier;
+
+    @Override
+    public void init() {
+        appContext      = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext());
+        versionNotifier = appContext.getBean(RangerServiceVersionNotifier.class);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final String  servletPath  = request.getServletPath();
+        final String  serviceName  = StringUtils.removeStart(request.getPathInfo(), "/");
+        final boolean isTagRequest = TAG_NOTIFICATION_PATH.equals(servletPath) || SECURE_TAG_NOTIFICATION_PATH.equals(servletPath);
+        final boolean isSecure     = SECURE_POLICY_NOTIFICATION_PATH.equals(servletPath) || SECURE_TAG_NOTIFICATION_PATH.equals(servletPath);
+        final Long    lastKnownVersion;
+        final Long    lastKnownRoleVersion;
+        final long    timeoutMs;
+
+        LOG.debug("==> ChangeNotificationServlet.doGet(servletPath={}, serviceName={})", servletPath, serviceName);
+
+        try {
+            lastKnownVersion     = getLongParam(request, isTagRequest ? RangerRESTUtils.LAST_KNOWN_TAG_VERSION_PARAM : RangerRESTUtils.REST_PARAM_LAST_KNOWN_POLICY_VERSION, -1L);
+            lastKnownRoleVersion = isTagRequest ? null : getLongParam(request, RangerRESTUtils.REST_PARAM_LAST_KNOWN_ROLE_VERSION, null);
+            timeoutMs            = getLongParam(request, RangerRESTUtils.REST_PARAM_TIMEOUT_MS, DEFAULT_TIMEOUT_MS);
+        } catch (NumberFormatException excp) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, excp.getMessage());
+
+            return;
+        }
+
+        if (StringUtils.isBlank(serviceName)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+
+            return;
+        }
+
+        if (!validateRequest(serviceName, isTagRequest, isSecure, request, response)) {
+            return;
+        }
+
+        AsyncContext        asyncContext        = request.startAsync();
+        NotificationRequest notificationRequest = new NotificationRequest(asyncContext, serviceName);
+
+        asyncContext.setTimeout(Math.min(timeoutMs, versionNotifier.getMaxWaitTimeMs()) + ASYNC_TIMEOUT_MARGIN_MS);
+        asyncContext.addListener(notificationRequest);
+
+        if (isTagRequest) {
+            notificationRequest.waiter = versionNotifier.waitForTagChange(serviceName, lastKnownVersion, timeoutMs, notificationRequest::onWaitComplete);
+        } else {
+            notificationRequest.waiter = versionNotifier.waitForPolicyChange(serviceName, lastKnownVersion, lastKnownRoleVersion, timeoutMs, notificationRequest::onWaitComplete);
+        }
+
+        if (notificationRequest.isCompleted.get()) { // completed before the waiter was set
+            notificationRequest.waiter.cancel();
+        }
+
+        LOG.debug("<== ChangeNotificationServlet.doGet(servletPath={}, serviceName={})", servletPath, serviceName);
+    }
+
+    private boolean validateRequest(String serviceName, boolean isTagRequest, boolean isSecure, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ret = false;
+
+        try {
+            if (isTagRequest) {
+                appContext.getBean(TagREST.class).validateTagChangeNotificationRequest(serviceName, isSecure, request);
+            } else {
+                appContext.getBean(ServiceREST.class).validatePolicyChangeNotificationRequest(serviceName, isSecure, request);
+            }
+
+            ret = true;
+        } catch (WebApplicationException excp) {
+            Object entity = excp.getResponse() != null ? excp.getResponse().getEntity() : null;
+
+            response.setStatus(excp.getResponse() != null ? excp.getResponse().getStatus() : HttpServletResponse.SC_BAD_REQUEST);
+
+            if (entity != null) {
+                response.setContentType(MediaType.APPLICATION_JSON);
+
+                try {
+                    JsonUtilsV2.writeValue(response.getWriter(), entity);
+                } catch (Exception e) {
+                    LOG.debug("ChangeNotificationServlet.validateRequest(serviceName={}): failed to write response", serviceName, e);
+                }
+            }
+        } catch (Exception excp) {
+            LOG.error("ChangeNotificationServlet.validateRequest(serviceName={}) failed", serviceName, excp);
+
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, excp.getMessage());
+        }
+
+        return ret;
+    }
+
+    private static Long getLongParam(HttpServletRequest request, String name, Long defaultValue) {
+        String value = request.getParameter(name);
+
+        return StringUtils.isBlank(value) ? defaultValue : Long.valueOf(value.trim());
+    }
+
+    private static final class NotificationRequest implements AsyncListener {
+        private final    AsyncContext  asyncContext;
+        private final    String        serviceName;
+        private final    AtomicBoolean isCompleted = new AtomicBoolean();
+        private volatile Waiter        waiter;
+
+        NotificationRequest(AsyncContext asyncContext, String serviceName) {
+            this.asyncContext = asyncContext;
+            this.serviceName  = serviceName;
+        }
+
+        // called from the notifier thread, which must not block: response is written by a container thread
+        void onWaitComplete(WaitStatus status) {
+            final int httpStatus;
+
+            switch (status) {
+                case CHANGED:
+                    httpStatus = HttpServletResponse.SC_OK;
+                    break;
+                case TOO_MANY_WAITERS:
+                    httpStatus = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+                    break;
+                default:
+                    httpStatus = HttpServletResponse.SC_NOT_MODIFIED;
+                    break;
+            }
+
+            try {
+                asyncContext.start(() -> complete(httpStatus));
+            } catch (IllegalStateException excp) { // request already completed, or timed out
+                LOG.debug("ChangeNotificationServlet.onWaitComplete(serviceName={}, status={}): request is no longer active", serviceName, status);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            cancelWait();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            cancelWait();
+            complete(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            LOG.debug("ChangeNotificationServlet.onError(serviceName={})", serviceName, event.getThrowable());
+
+            cancelWait();
+            complete(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void complete(int httpStatus) {
+            if (isCompleted.compareAndSet(false, true)) {
+                try {
+                    ((HttpServletResponse) asyncContext.getResponse()).setStatus(httpStatus);
+
+                    asyncContext.complete();
+                } catch (IllegalStateException excp) { // request already completed by the container
+                    LOG.debug("ChangeNotificationServlet.complete(serviceName={}, httpStatus={}): request is no longer active", serviceName, httpStatus);
+                }
+            }
+        }
+
+        private void cancelWait() {
+            Waiter waiter = this.waiter;
+
+            if (waiter != null) {
+                waiter.cancel();
+            }
+        }
+    }
+}
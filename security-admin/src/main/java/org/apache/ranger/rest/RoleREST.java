@@ -21,6 +21,7 @@
 
 import com.sun.jersey.core.header.FormDataContentDisposition;
 import com.sun.jersey.multipart.FormDataParam;
+import com.sun.jersey.spi.container.ResourceFilters;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -37,6 +38,7 @@
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
+import org.apache.ranger.common.RangerRoleCache;
 import org.apache.ranger.common.RangerSearchUtil;
 import org.apache.ranger.common.RangerValidatorFactory;
 import org.apache.ranger.common.ServiceUtil;
@@ -61,6 +63,7 @@
 import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.service.RangerRoleService;
 import org.apache.ranger.service.XUserService;
+import org.apache.ranger.service.filter.RangerDownloadCompressionFilter;
 import org.apache.ranger.view.RangerExportRoleList;
 import org.apache.ranger.view.RangerRoleList;
 import org.slf4j.Logger;
@@ -962,6 +965,7 @@ public List<String> getUserRoles(@PathParam("user") String userName, @Context Ht
     @GET
     @Path("/download/{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public RangerRoles getRangerRolesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownRoleVersion") Long lastKnownRoleVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         LOG.debug("==> RoleREST.getRangerRolesIfUpdated({}, {}, {})", serviceName, lastKnownRoleVersion, lastActivationTime);
 
@@ -1014,6 +1018,8 @@ public RangerRoles getRangerRolesIfUpdated(@PathParam("serviceName") String serv
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerRoleCache.getInstance().setEncodedResponseSource(request, ret);
+
         LOG.debug("<== RoleREST.getRangerRolesIfUpdated({}, {}, {}) ret:{}", serviceName, lastKnownRoleVersion, lastActivationTime, ret);
 
         return ret;
@@ -1022,6 +1028,7 @@ public RangerRoles getRangerRolesIfUpdated(@PathParam("serviceName") String serv
     @GET
     @Path("/secure/download/{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public RangerRoles getSecureRangerRolesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownRoleVersion") Long lastKnownRoleVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         LOG.debug("==> RoleREST.getSecureRangerRolesIfUpdated({}, {}, {})", serviceName, lastKnownRoleVersion, lastActivationTime);
         RangerRoles ret               = null;
@@ -1107,6 +1114,8 @@ public RangerRoles getSecureRangerRolesIfUpdated(@PathParam("serviceName") Strin
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerRoleCache.getInstance().setEncodedResponseSource(request, ret);
+
         LOG.debug("<== RoleREST.getSecureRangerRolesIfUpdated({}, {}, {}) ret:{}", serviceName, lastKnownRoleVersion, lastActivationTime, ret);
 
         return ret;
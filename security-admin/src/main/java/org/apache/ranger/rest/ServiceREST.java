@@ -22,6 +22,7 @@
 import com.google.gson.JsonSyntaxException;
 import com.sun.jersey.core.header.FormDataContentDisposition;
 import com.sun.jersey.multipart.FormDataParam;
+import com.sun.jersey.spi.container.ResourceFilters;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.IOUtils;
@@ -51,6 +52,7 @@
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.RangerSearchUtil;
+import org.apache.ranger.common.RangerServicePoliciesCache;
 import org.apache.ranger.common.RangerValidatorFactory;
 import org.apache.ranger.common.ServiceUtil;
 import org.apache.ranger.common.SortField.SORT_ORDER;
@@ -107,6 +109,7 @@
 import org.apache.ranger.service.RangerServiceDefService;
 import org.apache.ranger.service.RangerServiceService;
 import org.apache.ranger.service.XUserService;
+import org.apache.ranger.service.filter.RangerDownloadCompressionFilter;
 import org.apache.ranger.view.RangerExportPolicyList;
 import org.apache.ranger.view.RangerPluginInfoList;
 import org.apache.ranger.view.RangerPolicyList;
@@ -2507,6 +2510,7 @@ public RangerPolicyList getServicePoliciesByName(@PathParam("name") String servi
     @GET
     @Path("/policies/download/{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownVersion") Long lastKnownVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam("zoneName") String zoneName, @DefaultValue("false") @QueryParam("supportsPolicyDeltas") Boolean supportsPolicyDeltas, @DefaultValue("") @QueryParam("pluginCapabilities") String pluginCapabilities, @Context HttpServletRequest request) throws Exception {
         LOG.debug("==> ServiceREST.getServicePoliciesIfUpdated({}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas);
 
@@ -2563,6 +2567,8 @@ public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") Str
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerServicePoliciesCache.getInstance().setEncodedResponseSource(request, ret, lastKnownVersion, supportsPolicyDeltas);
+
         LOG.debug("<== ServiceREST.getServicePoliciesIfUpdated({}, {}, {}, {}, {}, {}) : count={}", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas, ((ret == null || ret.getPolicies() == null) ? 0 : ret.getPolicies().size()));
 
         return ret;
@@ -2571,6 +2577,7 @@ public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") Str
     @GET
     @Path("/secure/policies/download/{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownVersion") Long lastKnownVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam("zoneName") String zoneName, @DefaultValue("false") @QueryParam("supportsPolicyDeltas") Boolean supportsPolicyDeltas, @DefaultValue("") @QueryParam("pluginCapabilities") String pluginCapabilities, @Context HttpServletRequest request) throws Exception {
         LOG.debug("==> ServiceREST.getSecureServicePoliciesIfUpdated({}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas);
 
@@ -2579,8 +2586,6 @@ public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName
         String           logMsg            = null;
         RangerPerfTracer perf              = null;
         boolean          isAllowed         = false;
-        boolean          isAdmin           = bizUtil.isAdmin();
-        boolean          isKeyAdmin        = bizUtil.isKeyAdmin();
         Long             downloadedVersion = null;
         boolean          isValid           = false;
 
@@ -2602,39 +2607,7 @@ public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName
                     perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getSecureServicePoliciesIfUpdated(serviceName=" + serviceName + ",lastKnownVersion=" + lastKnownVersion + ",lastActivationTime=" + lastActivationTime + ")");
                 }
 
-                XXService     xService      = daoManager.getXXService().findByName(serviceName);
-                XXServiceDef  xServiceDef   = daoManager.getXXServiceDef().getById(xService.getType());
-                RangerService rangerService;
-
-                if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
-                    rangerService = svcStore.getServiceByNameForDP(serviceName);
-
-                    if (isKeyAdmin) {
-                        isAllowed = true;
-                    } else {
-                        if (rangerService != null) {
-                            isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download);
-
-                            if (!isAllowed) {
-                                isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
-                            }
-                        }
-                    }
-                } else {
-                    rangerService = svcStore.getServiceByName(serviceName);
-
-                    if (isAdmin) {
-                        isAllowed = true;
-                    } else {
-                        if (rangerService != null) {
-                            isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download);
-
-                            if (!isAllowed) {
-                                isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
-                            }
-                        }
-                    }
-                }
+                isAllowed = isSecurePolicyDownloadAllowed(serviceName);
 
                 if (isAllowed) {
                     ret = svcStore.getServicePoliciesIfUpdated(serviceName, lastKnownVersion, !supportsPolicyDeltas);
@@ -2672,11 +2645,44 @@ public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerServicePoliciesCache.getInstance().setEncodedResponseSource(request, ret, lastKnownVersion, supportsPolicyDeltas);
+
         LOG.debug("<== ServiceREST.getSecureServicePoliciesIfUpdated({}, {}, {}, {}, {}, {}) : count={}", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas, ((ret == null || ret.getPolicies() == null) ? 0 : ret.getPolicies().size()));
 
         return ret;
     }
 
+    /**
+     * Validates a long-poll request of plugins for notification of changes in policies or roles of the service, with
+     * the same checks as the corresponding download API. Waiting for the change is done by ChangeNotificationServlet.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void validatePolicyChangeNotificationRequest(String serviceName, boolean isSecure, HttpServletRequest request) throws Exception {
+        LOG.debug("==> ServiceREST.validatePolicyChangeNotificationRequest({}, {})", serviceName, isSecure);
+
+        if (isSecure) {
+            request.setAttribute("downloadPolicy", "secure");
+
+            if (!serviceUtil.isValidService(serviceName, request)) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Invalid service name", true);
+            }
+
+            if (!isSecurePolicyDownloadAllowed(serviceName)) {
+                LOG.error("validatePolicyChangeNotificationRequest({}) failed as User doesn't have permission to download Policy", serviceName);
+
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "User doesn't have permission to download policy", true);
+            }
+        } else {
+            bizUtil.failUnauthenticatedDownloadIfNotAllowed();
+
+            if (!serviceUtil.isValidateHttpsAuthentication(serviceName, request)) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "Unauthorized access", true);
+            }
+        }
+
+        LOG.debug("<== ServiceREST.validatePolicyChangeNotificationRequest({}, {})", serviceName, isSecure);
+    }
+
     @DELETE
     @Path("/server/policydeltas")
     @PreAuthorize("hasRole('ROLE_SYS_ADMIN')")
@@ -3934,6 +3940,33 @@ private RangerPolicyList getServicePolicies(String serviceName, SearchFilter fil
         }
     }
 
+    private boolean isSecurePolicyDownloadAllowed(String serviceName) throws Exception {
+        boolean       ret         = false;
+        XXService     xService    = daoManager.getXXService().findByName(serviceName);
+        XXServiceDef  xServiceDef = daoManager.getXXServiceDef().getById(xService.getType());
+        RangerService rangerService;
+
+        if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
+            rangerService = svcStore.getServiceByNameForDP(serviceName);
+
+            if (bizUtil.isKeyAdmin()) {
+                ret = true;
+            } else if (rangerService != null) {
+                ret = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download) || bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
+            }
+        } else {
+            rangerService = svcStore.getServiceByName(serviceName);
+
+            if (bizUtil.isAdmin()) {
+                ret = true;
+            } else if (rangerService != null) {
+                ret = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download) || bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
+            }
+        }
+
+        return ret;
+    }
+
     private void createPolicyDownloadAudit(String serviceName, Long lastKnownVersion, String pluginId, int httpRespCode, String clusterName, String zoneName, HttpServletRequest request) {
         try {
             String ipAddress = request.getHeader("X-FORWARDED-FOR");
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.rest;
 
+import com.sun.jersey.spi.container.ResourceFilters;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.biz.AssetMgr;
@@ -28,6 +29,8 @@
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerSearchUtil;
+import org.apache.ranger.common.RangerServiceTagsCache;
+import org.apache.ranger.common.ServiceUtil;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.entity.XXService;
 import org.apache.ranger.entity.XXServiceDef;
@@ -51,6 +54,7 @@
 import org.apache.ranger.service.RangerTagDefService;
 import org.apache.ranger.service.RangerTagResourceMapService;
 import org.apache.ranger.service.RangerTagService;
+import org.apache.ranger.service.filter.RangerDownloadCompressionFilter;
 import org.apache.ranger.view.RangerServiceResourceWithTagsList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -113,6 +117,9 @@ public class TagREST {
     @Autowired
     RangerSearchUtil searchUtil;
 
+    @Autowired
+    ServiceUtil serviceUtil;
+
     @Autowired
     RangerTagService tagService;
 
@@ -1240,6 +1247,7 @@ public void importServiceTags(ServiceTags serviceTags) {
     @GET
     @Path(TagRESTConstants.TAGS_DOWNLOAD + "{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public ServiceTags getServiceTagsIfUpdated(@PathParam("serviceName") String serviceName, @QueryParam(TagRESTConstants.LAST_KNOWN_TAG_VERSION_PARAM) Long lastKnownVersion, @DefaultValue("0") @QueryParam(TagRESTConstants.LAST_ACTIVATION_TIME) Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("false") @QueryParam(RangerRESTUtils.REST_PARAM_SUPPORTS_TAG_DELTAS) Boolean supportsTagDeltas, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         LOG.debug("==> TagREST.getServiceTagsIfUpdated({}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, supportsTagDeltas);
 
@@ -1290,6 +1298,8 @@ public ServiceTags getServiceTagsIfUpdated(@PathParam("serviceName") String serv
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerServiceTagsCache.getInstance().setEncodedResponseSource(request, ret);
+
         LOG.debug("<== TagREST.getServiceTagsIfUpdated({}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, supportsTagDeltas);
 
         return ret;
@@ -1300,6 +1310,7 @@ public ServiceTags getServiceTagsIfUpdated(@PathParam("serviceName") String serv
     @GET
     @Path(TagRESTConstants.TAGS_SECURE_DOWNLOAD + "{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public ServiceTags getSecureServiceTagsIfUpdated(@PathParam("serviceName") String serviceName, @QueryParam(TagRESTConstants.LAST_KNOWN_TAG_VERSION_PARAM) Long lastKnownVersion, @DefaultValue("0") @QueryParam(TagRESTConstants.LAST_ACTIVATION_TIME) Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("false") @QueryParam(RangerRESTUtils.REST_PARAM_SUPPORTS_TAG_DELTAS) Boolean supportsTagDeltas, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         LOG.debug("==> TagREST.getSecureServiceTagsIfUpdated({}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, supportsTagDeltas);
 
@@ -1323,30 +1334,8 @@ public ServiceTags getSecureServiceTagsIfUpdated(@PathParam("serviceName") Strin
         }
 
         try {
-            XXService xService = daoManager.getXXService().findByName(serviceName);
+            isAllowed = isSecureTagDownloadAllowed(serviceName, isAdmin, isKeyAdmin);
 
-            if (xService == null) {
-                LOG.error("Requested Service not found. serviceName={}", serviceName);
-
-                throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_FOUND, "Service:" + serviceName + " not found", false);
-            }
-
-            XXServiceDef  xServiceDef   = daoManager.getXXServiceDef().getById(xService.getType());
-            RangerService rangerService = svcStore.getServiceByName(serviceName);
-
-            if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
-                if (isKeyAdmin) {
-                    isAllowed = true;
-                } else {
-                    isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Tag_Download);
-                }
-            } else {
-                if (isAdmin) {
-                    isAllowed = true;
-                } else {
-                    isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Tag_Download);
-                }
-            }
             if (isAllowed) {
                 ret = tagStore.getServiceTagsIfUpdated(serviceName, lastKnownVersion, !supportsTagDeltas);
 
@@ -1382,11 +1371,38 @@ public ServiceTags getSecureServiceTagsIfUpdated(@PathParam("serviceName") Strin
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerServiceTagsCache.getInstance().setEncodedResponseSource(request, ret);
+
         LOG.debug("<== TagREST.getSecureServiceTagsIfUpdated({}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, supportsTagDeltas);
 
         return ret;
     }
 
+    /**
+     * Validates a long-poll request of plugins for notification of changes in tags of the service, with the same
+     * checks as the corresponding download API. Waiting for the change is done by ChangeNotificationServlet.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void validateTagChangeNotificationRequest(String serviceName, boolean isSecure, HttpServletRequest request) throws Exception {
+        LOG.debug("==> TagREST.validateTagChangeNotificationRequest({}, {})", serviceName, isSecure);
+
+        if (isSecure) {
+            if (!isSecureTagDownloadAllowed(serviceName, bizUtil.isAdmin(), bizUtil.isKeyAdmin())) {
+                LOG.error("validateTagChangeNotificationRequest({}) failed as User doesn't have permission to download tags", serviceName);
+
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "User doesn't have permission to download tags", true);
+            }
+        } else {
+            bizUtil.failUnauthenticatedDownloadIfNotAllowed();
+
+            if (!serviceUtil.isValidateHttpsAuthentication(serviceName, request)) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "Unauthorized access", true);
+            }
+        }
+
+        LOG.debug("<== TagREST.validateTagChangeNotificationRequest({}, {})", serviceName, isSecure);
+    }
+
     @DELETE
     @Path("/server/tagdeltas")
     @PreAuthorize("hasRole('ROLE_SYS_ADMIN')")
@@ -1401,4 +1417,26 @@ public void deleteTagDeltas(@DefaultValue("3") @QueryParam("days") Integer older
     TagStore getTagStore() {
         return tagStore;
     }
+
+    private boolean isSecureTagDownloadAllowed(String serviceName, boolean isAdmin, boolean isKeyAdmin) throws Exception {
+        final boolean ret;
+        XXService     xService = daoManager.getXXService().findByName(serviceName);
+
+        if (xService == null) {
+            LOG.error("Requested Service not found. serviceName={}", serviceName);
+
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_FOUND, "Service:" + serviceName + " not found", false);
+        }
+
+        XXServiceDef  xServiceDef   = daoManager.getXXServiceDef().getById(xService.getType());
+        RangerService rangerService = svcStore.getServiceByName(serviceName);
+
+        if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
+            ret = isKeyAdmin || bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Tag_Download);
+        } else {
+            ret = isAdmin || bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Tag_Download);
+        }
+
+        return ret;
+    }
 }
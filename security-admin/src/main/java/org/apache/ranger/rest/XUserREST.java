@@ -19,6 +19,7 @@
 
 package org.apache.ranger.rest;
 
+import com.sun.jersey.spi.container.ResourceFilters;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.biz.AssetMgr;
@@ -30,6 +31,7 @@
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
+import org.apache.ranger.common.RangerUserStoreCache;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchUtil;
 import org.apache.ranger.common.ServiceUtil;
@@ -58,6 +60,7 @@
 import org.apache.ranger.service.XResourceService;
 import org.apache.ranger.service.XUserPermissionService;
 import org.apache.ranger.service.XUserService;
+import org.apache.ranger.service.filter.RangerDownloadCompressionFilter;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
 import org.apache.ranger.ugsyncutil.model.UsersGroupRoleAssignments;
 import org.apache.ranger.view.VXAuditMap;
@@ -1375,6 +1378,7 @@ public void deleteSingleGroupByGroupId(@Context HttpServletRequest request, @Pat
     @GET
     @Path("/download/{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         logger.debug("==> XUserREST.getRangerUserStoreIfUpdated(serviceName={}, lastKnownUserStoreVersion={}, lastActivationTime={})", serviceName, lastKnownUserStoreVersion, lastActivationTime);
 
@@ -1429,6 +1433,8 @@ public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") Str
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerUserStoreCache.getInstance().setEncodedResponseSource(request, ret);
+
         logger.debug("<== XUserREST.getRangerUserStoreIfUpdated(serviceName={}, lastKnownUserStoreVersion={}, lastActivationTime={}): {}", serviceName, lastKnownUserStoreVersion, lastActivationTime, ret);
 
         return ret;
@@ -1437,6 +1443,7 @@ public RangerUserStore getRangerUserStoreIfUpdated(@PathParam("serviceName") Str
     @GET
     @Path("/secure/download/{serviceName}")
     @Produces("application/json")
+    @ResourceFilters(RangerDownloadCompressionFilter.class)
     public RangerUserStore getSecureRangerUserStoreIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam(RangerRESTUtils.REST_PARAM_CAPABILITIES) String pluginCapabilities, @Context HttpServletRequest request) {
         logger.debug("==> XUserREST.getSecureRangerUserStoreIfUpdated({}, {}, {})", serviceName, lastKnownUserStoreVersion, lastActivationTime);
 
@@ -1518,6 +1525,8 @@ public RangerUserStore getSecureRangerUserStoreIfUpdated(@PathParam("serviceName
             throw restErrorUtil.createRESTException(httpCode, logMsg, logError);
         }
 
+        RangerUserStoreCache.getInstance().setEncodedResponseSource(request, ret);
+
         logger.debug("<== XUserREST.getSecureRangerUserStoreIfUpdated({}, {}, {}): {}", serviceName, lastKnownUserStoreVersion, lastActivationTime, ret);
 
         return ret;
@@ -33,6 +33,10 @@
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,6 +44,7 @@
 @Scope("singleton")
 public class XGroupUserService extends XGroupUserServiceBase<XXGroupUser, VXGroupUser> {
     private final Long createdByUserId;
+    private final int  bulkUpdateBatchSize;
 
     @Autowired
     RangerTransactionSynchronizationAdapter transactionSynchronizationAdapter;
@@ -48,7 +53,8 @@ public XGroupUserService() {
         searchFields.add(new SearchField("xUserId", "obj.userId", SearchField.DATA_TYPE.INTEGER, SearchField.SEARCH_TYPE.FULL));
         searchFields.add(new SearchField("xGroupId", "obj.parentGroupId", SearchField.DATA_TYPE.INTEGER, SearchField.SEARCH_TYPE.FULL));
 
-        createdByUserId = PropertiesUtil.getLongProperty("ranger.xuser.createdByUserId", 1);
+        createdByUserId     = PropertiesUtil.getLongProperty("ranger.xuser.createdByUserId", 1);
+        bulkUpdateBatchSize = Math.max(PropertiesUtil.getIntProperty("ranger.admin.usersync.bulk.update.batch.size", 1000), 1);
     }
 
     public VXGroupUser createXGroupUserWithOutLogin(VXGroupUser vxGroupUser) {
@@ -84,70 +90,88 @@ public VXGroupUser createXGroupUserWithOutLogin(VXGroupUser vxGroupUser) {
         return vxGroupUser;
     }
 
-    public void createOrDeleteXGroupUsers(GroupUserInfo groupUserInfo, Map<String, Long> usersFromDB) {
-        if (logger.isDebugEnabled()) {
-            logger.debug("==>> createOrDeleteXGroupUsers for {}", groupUserInfo.getGroupName());
+    /**
+     * Applies group membership changes of all the given groups as a set: existing mappings of the groups are read with
+     * a query per batch of groups, and mappings to be added/removed are written in batches - each batch in a separate
+     * transaction after the current transaction commits. Mappings that already exist are left unchanged.
+     *
+     * @return number of groups found in the database
+     */
+    public int createOrDeleteXGroupUsers(List<GroupUserInfo> groupUserInfoList, Map<String, Long> usersFromDB) {
+        logger.debug("==> createOrDeleteXGroupUsers(groupCount={})", groupUserInfoList.size());
 
-            Long mb = 1024L * 1024L;
+        Map<String, Long>             groupsFromDB = daoManager.getXXGroup().getAllGroupIds();
+        Map<Long, String>             groupNames   = new HashMap<>();
+        Map<Long, Map<Long, Boolean>> changes      = new LinkedHashMap<>(); // groupId => (userId => isAdd)
 
-            logger.debug("==>> createOrDeleteXGroupUsers: Max memory = {} Free memory = {} Total memory = {}", Runtime.getRuntime().maxMemory() / mb, Runtime.getRuntime().freeMemory() / mb, Runtime.getRuntime().totalMemory() / mb);
-        }
-
-        String groupName = groupUserInfo.getGroupName();
+        for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+            String groupName = groupUserInfo.getGroupName();
+            Long   groupId   = groupsFromDB.get(groupName);
 
-        if (CollectionUtils.isEmpty(groupUserInfo.getAddUsers()) && CollectionUtils.isEmpty(groupUserInfo.getDelUsers())) {
-            logger.info("Group memberships for source are empty for {}", groupName);
+            if (groupId == null) {
+                logger.debug("createOrDeleteXGroupUsers(): groupName = {} doesn't exist in database. Hence ignoring group membership updates", groupName);
 
-            return;
-        }
+                continue;
+            }
 
-        XXGroup xxGroup = daoManager.getXXGroup().findByGroupName(groupName);
+            Map<Long, Boolean> groupChanges = changes.computeIfAbsent(groupId, k -> new HashMap<>());
 
-        if (xxGroup == null) {
-            logger.debug("createOrDeleteXGroupUsers(): groupName =  {} doesn't exist in database. Hence ignoring group membership updates", groupName);
+            groupNames.put(groupId, groupName);
 
-            return;
+            addChanges(groupChanges, groupUserInfo.getAddUsers(), usersFromDB, Boolean.TRUE);
+            addChanges(groupChanges, groupUserInfo.getDelUsers(), usersFromDB, Boolean.FALSE);
         }
 
-        /* findUsersByGroupName returns all the entries from x_group_users table for a given group name and corresponding usernames from x_user table.
-            Return Map has username as key and XXGroupUser object as value.
-         */
+        Map<Long, Map<Long, Long>> existingGroupUsers = daoManager.getXXGroupUser().findIdsByGroupIds(changes.keySet(), bulkUpdateBatchSize);
+        boolean                    setCreatedBy       = daoManager.getXXPortalUser().getById(createdByUserId) != null;
+        List<XXGroupUser>          toCreate           = new ArrayList<>();
+        List<Long>                 toDelete           = new ArrayList<>();
 
-        Map<String, XXGroupUser> groupUsers = daoManager.getXXGroupUser().findUsersByGroupName(groupName);
+        for (Map.Entry<Long, Map<Long, Boolean>> entry : changes.entrySet()) {
+            Long            groupId  = entry.getKey();
+            Map<Long, Long> existing = existingGroupUsers.getOrDefault(groupId, new HashMap<>());
 
-        if (CollectionUtils.isNotEmpty(groupUserInfo.getAddUsers())) {
-            Set<String> addUsers = groupUserInfo.getAddUsers();
+            for (Map.Entry<Long, Boolean> change : entry.getValue().entrySet()) {
+                Long groupUserId = existing.get(change.getKey());
 
-            logger.debug("No. of new users in group {} : {}", groupName, addUsers.size());
+                if (change.getValue()) {
+                    if (groupUserId == null) {
+                        XXGroupUser xxGroupUser = new XXGroupUser();
 
-            for (String username : addUsers) {
-                if (usersFromDB.containsKey(username)) {
-                    // Add or update group user mapping only if the user exists in x_user table.
-                    transactionSynchronizationAdapter.executeOnTransactionCommit(new GroupUserMappingUpdator(groupName, xxGroup.getId(), username, usersFromDB.get(username), groupUsers.get(username), false));
+                        xxGroupUser.setName(groupNames.get(groupId));
+                        xxGroupUser.setParentGroupId(groupId);
+                        xxGroupUser.setUserId(change.getKey());
+
+                        if (setCreatedBy) {
+                            xxGroupUser.setAddedByUserId(createdByUserId);
+                            xxGroupUser.setUpdatedByUserId(createdByUserId);
+                        }
+
+                        toCreate.add(xxGroupUser);
+                    }
+                } else if (groupUserId != null) {
+                    toDelete.add(groupUserId);
                 }
             }
         }
 
-        if (CollectionUtils.isNotEmpty(groupUserInfo.getDelUsers())) {
-            Set<String> delUsers = groupUserInfo.getDelUsers();
+        logger.info("createOrDeleteXGroupUsers(groupCount={}): group user mappings to create={}, to delete={}", changes.size(), toCreate.size(), toDelete.size());
 
-            logger.debug("No. of deleted users in group {} : {}", groupName, delUsers.size());
+        for (int fromIndex = 0; fromIndex < toDelete.size(); fromIndex += bulkUpdateBatchSize) {
+            List<Long> batch = toDelete.subList(fromIndex, Math.min(fromIndex + bulkUpdateBatchSize, toDelete.size()));
 
-            for (String username : delUsers) {
-                if (usersFromDB.containsKey(username)) {
-                    // delete group user mapping only if the user exists in x_user table..
-                    transactionSynchronizationAdapter.executeOnTransactionCommit(new GroupUserMappingUpdator(groupName, xxGroup.getId(), username, usersFromDB.get(username), groupUsers.get(username), true));
-                }
-            }
+            transactionSynchronizationAdapter.executeOnTransactionCommit(() -> daoManager.getXXGroupUser().deleteByIds(batch));
         }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("<<== createOrDeleteXGroupUsers for {}", groupUserInfo.getGroupName());
-
-            long mb = 1024L * 1024L;
+        for (int fromIndex = 0; fromIndex < toCreate.size(); fromIndex += bulkUpdateBatchSize) {
+            List<XXGroupUser> batch = toCreate.subList(fromIndex, Math.min(fromIndex + bulkUpdateBatchSize, toCreate.size()));
 
-            logger.debug("<<== createOrDeleteXGroupUsers: Max memory = {} Free memory = {} Total memory = {}", Runtime.getRuntime().maxMemory() / mb, Runtime.getRuntime().freeMemory() / mb, Runtime.getRuntime().totalMemory() / mb);
+            transactionSynchronizationAdapter.executeOnTransactionCommit(() -> daoManager.getXXGroupUser().batchCreate(batch));
         }
+
+        logger.debug("<== createOrDeleteXGroupUsers(groupCount={}): ret={}", groupUserInfoList.size(), changes.size());
+
+        return changes.size();
     }
 
     public VXGroupUser readResourceWithOutLogin(Long id) {
@@ -169,69 +193,16 @@ protected void validateForCreate(VXGroupUser vObj) {
     protected void validateForUpdate(VXGroupUser vObj, XXGroupUser mObj) {
     }
 
-    private class GroupUserMappingUpdator implements Runnable {
-        private final String      groupName;
-        private final Long        groupId;
-        private final String      userName;
-        private final Long        userId;
-        private final boolean     isDelete;
-        private       XXGroupUser xxGroupUser;
-
-        GroupUserMappingUpdator(String groupName, Long groupId, String userName, Long userId, XXGroupUser xxGroupUser, boolean isDelete) {
-            this.groupName   = groupName;
-            this.groupId     = groupId;
-            this.userName    = userName;
-            this.userId      = userId;
-            this.xxGroupUser = xxGroupUser;
-            this.isDelete    = isDelete;
-        }
-
-        @Override
-        public void run() {
-            updateGroupUserMappings();
-        }
+    private static void addChanges(Map<Long, Boolean> groupChanges, Set<String> userNames, Map<String, Long> usersFromDB, Boolean isAdd) {
+        if (CollectionUtils.isNotEmpty(userNames)) {
+            for (String userName : userNames) {
+                Long userId = usersFromDB.get(userName);
 
-        private void updateGroupUserMappings() {
-            logger.debug("==> GroupUserMappingUpdater.updateGroupUserMappings({}, {})", groupName, userName);
-
-            if (isDelete) {
-                if (xxGroupUser != null) {
-                    getDao().remove(xxGroupUser.getId());
-
-                    logger.debug("createOrDeleteXGroupUsers(): deleted group user mapping with groupname =  {} username = {}", groupName, userName);
-                }
-            } else {
-                boolean groupUserMappingExists = true;
-
-                if (xxGroupUser == null) {
-                    xxGroupUser            = new XXGroupUser();
-                    groupUserMappingExists = false;
-                }
-
-                XXPortalUser xXPortalUser = daoManager.getXXPortalUser().getById(createdByUserId);
-
-                if (xXPortalUser != null) {
-                    xxGroupUser.setAddedByUserId(createdByUserId);
-                    xxGroupUser.setUpdatedByUserId(createdByUserId);
+                // Add or delete group user mapping only if the user exists in x_user table
+                if (userId != null) {
+                    groupChanges.put(userId, isAdd);
                 }
-
-                if (groupUserMappingExists) {
-                    xxGroupUser = getDao().update(xxGroupUser);
-                } else {
-                    VXGroupUser vXGroupUser = new VXGroupUser();
-
-                    vXGroupUser.setUserId(userId);
-                    vXGroupUser.setName(groupName);
-                    vXGroupUser.setParentGroupId(groupId);
-
-                    xxGroupUser = mapViewToEntityBean(vXGroupUser, xxGroupUser, 0);
-                    xxGroupUser = getDao().create(xxGroupUser);
-                }
-
-                logger.debug("createOrDeleteXGroupUsers(): Create or update group user mapping with groupname = {}, username = {}, userId = {}", groupName, userName, xxGroupUser.getUserId());
             }
-
-            logger.debug("<== GroupUserMappingUpdater.updateGroupUserMappings({}, {})", groupName, userName);
         }
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.service.filter;
+
+import com.sun.jersey.api.container.filter.GZIPContentEncodingFilter;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ResourceFilter;
+import org.apache.ranger.common.PropertiesUtil;
+import org.apache.ranger.common.RangerEncodedResponseCache;
+import org.apache.ranger.common.RangerEncodedResponseCache.Encoding;
+import org.apache.ranger.common.RangerEncodedResponseCache.ResponseSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import java.io.IOException;
+
+/**
+ * Resource filter for plugin download APIs - policies, tags, roles, userstore and GDS info. When the client accepts
+ * gzip encoding, the response is compressed as the entity is serialized to the response stream; the uncompressed
+ * JSON is never materialized in memory.
+ *
+ * If the REST API marked the response as cacheable, with RangerEncodedResponseCache.setResponseSource(), the
+ * response is written from bytes encoded once per version instead.
+ *
+ * Usage: annotate the REST method with @ResourceFilters(RangerDownloadCompressionFilter.class)
+ */
+public class RangerDownloadCompressionFilter implements ResourceFilter, ContainerResponseFilter {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerDownloadCompressionFilter.class);
+
+    public static final String PROP_DOWNLOAD_COMPRESSION_ENABLED = "ranger.admin.download.compression.enabled";
+
+    private static final String ENCODING_GZIP = "gzip";
+
+    private final boolean                   isEnabled;
+    private final GZIPContentEncodingFilter gzipFilter = new GZIPContentEncodingFilter();
+
+    public RangerDownloadCompressionFilter() {
+        isEnabled = PropertiesUtil.getBooleanProperty(PROP_DOWNLOAD_COMPRESSION_ENABLED, true);
+    }
+
+    @Override
+    public ContainerRequestFilter getRequestFilter() {
+        return null;
+    }
+
+    @Override
+    public ContainerResponseFilter getResponseFilter() {
+        return this;
+    }
+
+    @Override
+    public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+        Object         entity         = response.getEntity();
+        ResponseSource responseSource = entity != null ? getResponseSource() : null;
+
+        if (responseSource != null) {
+            boolean useGzip = isEnabled && acceptsGzip(request);
+
+            try {
+                byte[] encodedResponse = responseSource.getEncodedResponse(useGzip ? Encoding.GZIP : Encoding.IDENTITY, entity);
+
+                if (encodedResponse != null) {
+                    MultivaluedMap<String, Object> headers = response.getHttpHeaders();
+
+                    headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_TYPE);
+
+                    if (useGzip) {
+                        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                        headers.putSingle(HttpHeaders.CONTENT_ENCODING, ENCODING_GZIP);
+                    }
+
+                    response.setEntity(encodedResponse);
+
+                    return response;
+                }
+            } catch (IOException excp) {
+                LOG.warn("failed to get encoded response from {}. Response will be serialized", responseSource, excp);
+            }
+        }
+
+        return isEnabled ? gzipFilter.filter(request, response) : response;
+    }
+
+    private static boolean acceptsGzip(ContainerRequest request) {
+        String acceptEncoding = request.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+
+        return acceptEncoding != null && acceptEncoding.contains(ENCODING_GZIP);
+    }
+
+    private static ResponseSource getResponseSource() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        return attributes instanceof ServletRequestAttributes ? RangerEncodedResponseCache.getResponseSource(((ServletRequestAttributes) attributes).getRequest()) : null;
+    }
+}
@@ -110,6 +110,13 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         returnList.setStartIndex((int) docs.getStart());
         returnList.setVXAccessAudits(xAccessAuditList);
 
+        String pageToken = getPageToken(searchCriteria);
+
+        // Solr returns the given cursorMark once there are no more documents
+        if (pageToken != null && !docs.isEmpty() && response.getNextCursorMark() != null && !response.getNextCursorMark().equals(pageToken)) {
+            returnList.setNextPageToken(response.getNextCursorMark());
+        }
+
         return returnList;
     }
 
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.solr;
 
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
@@ -34,6 +35,7 @@
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +51,8 @@
 public class SolrUtil {
     private static final Logger logger = LoggerFactory.getLogger(SolrUtil.class);
 
+    private static final String UNIQUE_KEY_FIELD = "id";
+
     @Autowired
     RESTErrorUtil restErrorUtil;
 
@@ -161,7 +165,16 @@ public QueryResponse searchResources(SearchCriteria searchCriteria, List<SearchF
 
         setSortClause(searchCriteria, sortFieldList, query);
 
-        query.setStart(searchCriteria.getStartIndex());
+        String pageToken = AccessAuditsService.getPageToken(searchCriteria);
+
+        if (pageToken != null) {
+            // cursorMark requires the sort to include the unique key, to order documents having the same sort values
+            query.addSort(UNIQUE_KEY_FIELD, ORDER.asc);
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, AccessAuditsService.FIRST_PAGE_TOKEN.equals(pageToken) ? CursorMarkParams.CURSOR_MARK_START : pageToken);
+        } else {
+            query.setStart(searchCriteria.getStartIndex());
+        }
+
         query.setRows(searchCriteria.getMaxRows());
 
         // Fields to get
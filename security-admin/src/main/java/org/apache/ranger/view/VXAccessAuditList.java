@@ -39,6 +39,8 @@ public class VXAccessAuditList extends VList {
 
     List<VXAccessAudit> vXAccessAudits = new ArrayList<>();
 
+    String nextPageToken;
+
     public VXAccessAuditList() {
         super();
     }
@@ -65,6 +67,17 @@ public void setVXAccessAudits(List<VXAccessAudit> vXAccessAudits) {
         this.vXAccessAudits = vXAccessAudits;
     }
 
+    /**
+     * @return token to get the next page of audits with; null if there are no more audits, or if not paging by token
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+
     @Override
     public int getListSize() {
         if (vXAccessAudits != null) {
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.AccessAuditsService;
+import org.apache.ranger.common.PropertiesUtil;
+import org.apache.ranger.common.SearchCriteria;
+import org.apache.ranger.solr.SolrAccessAuditsService;
+import org.apache.ranger.view.VXAccessAudit;
+import org.apache.ranger.view.VXAccessAuditList;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestAssetMgr {
+    private static final String PROP_EXPORT_PAGE_SIZE = "ranger.audit.export.page.size";
+
+    AssetMgr assetMgr = new AssetMgr();
+
+    @Mock
+    RangerBizUtil xaBizUtil;
+
+    @Mock
+    SolrAccessAuditsService solrAccessAuditsService;
+
+    @Before
+    public void setup() {
+        assetMgr.xaBizUtil               = xaBizUtil;
+        assetMgr.solrAccessAuditsService = solrAccessAuditsService;
+
+        PropertiesUtil.getPropertiesMap().put(PROP_EXPORT_PAGE_SIZE, "2");
+
+        Mockito.when(xaBizUtil.isAdmin()).thenReturn(true);
+        Mockito.when(xaBizUtil.getAuditDBType()).thenReturn(RangerBizUtil.AUDIT_STORE_SOLR);
+    }
+
+    @After
+    public void tearDown() {
+        PropertiesUtil.getPropertiesMap().remove(PROP_EXPORT_PAGE_SIZE);
+    }
+
+    @Test
+    public void testExportAccessLogsByPageToken() throws IOException {
+        Mockito.when(solrAccessAuditsService.searchXAccessAudits(Mockito.any())).thenReturn(page("t1", 0, 1), page("t2", 2, 3), page(null, 4));
+
+        List<String> processed = new ArrayList<>();
+        StringWriter writer    = new StringWriter();
+
+        assetMgr.exportAccessLogs(new SearchCriteria(), AssetMgr.EXPORT_FORMAT_CSV, audit -> processed.add(audit.getEventId()), writer);
+
+        List<SearchCriteria> searches = captureSearches(3);
+        String[]             lines    = writer.toString().split("\n");
+
+        Assert.assertEquals(Arrays.asList(AccessAuditsService.FIRST_PAGE_TOKEN, "t1", "t2"), Arrays.asList(pageToken(searches.get(0)), pageToken(searches.get(1)), pageToken(searches.get(2))));
+        Assert.assertEquals(0, searches.get(2).getStartIndex());
+        Assert.assertEquals(Arrays.asList("event-0", "event-1", "event-2", "event-3", "event-4"), processed);
+        Assert.assertEquals(6, lines.length);
+        Assert.assertTrue(lines[0].startsWith("Policy ID,"));
+        Assert.assertTrue(lines[5].endsWith(",event-4"));
+    }
+
+    @Test
+    public void testExportAccessLogsContinuesByOffsetWithoutPageToken() throws IOException {
+        // page token of the 2nd page couldn't be created; the 3rd page must continue after the audits exported so far
+        Mockito.when(solrAccessAuditsService.searchXAccessAudits(Mockito.any())).thenReturn(page("t1", 0, 1), page(null, 2, 3), page(null, 4));
+
+        StringWriter writer = new StringWriter();
+
+        assetMgr.exportAccessLogs(new SearchCriteria(), AssetMgr.EXPORT_FORMAT_CSV, audit -> {}, writer);
+
+        List<SearchCriteria> searches = captureSearches(3);
+
+        Assert.assertEquals("t1", pageToken(searches.get(1)));
+        Assert.assertNull(pageToken(searches.get(2)));
+        Assert.assertEquals(4, searches.get(2).getStartIndex());
+        Assert.assertEquals(6, writer.toString().split("\n").length);
+    }
+
+    @Test
+    public void testExportAccessLogsAsJson() throws IOException {
+        Mockito.when(solrAccessAuditsService.searchXAccessAudits(Mockito.any())).thenReturn(page("t1", 0, 1), page("t2"));
+
+        StringWriter writer = new StringWriter();
+
+        assetMgr.exportAccessLogs(new SearchCriteria(), AssetMgr.EXPORT_FORMAT_JSON, audit -> {}, writer);
+
+        String json = writer.toString();
+
+        captureSearches(2);
+
+        Assert.assertTrue(json.startsWith("[{"));
+        Assert.assertTrue(json.endsWith("}]"));
+        Assert.assertTrue(json.contains("\"event-0\"") && json.contains("},{") && json.contains("\"event-1\""));
+    }
+
+    @Test
+    public void testExportAccessLogsEscapesCsvValues() throws IOException {
+        VXAccessAuditList page  = page(null, 0);
+        VXAccessAudit     audit = page.getVXAccessAudits().get(0);
+
+        audit.setPolicyId(-1L);
+        audit.setRequestUser("=HYPERLINK(\"http://example.com\")");
+        audit.setResourcePath("-1+2");
+        audit.setResourceType("@table");
+        audit.setAccessType("\tselect");
+        audit.setRequestData("select a, b from t");
+
+        Mockito.when(solrAccessAuditsService.searchXAccessAudits(Mockito.any())).thenReturn(page);
+
+        StringWriter writer = new StringWriter();
+
+        assetMgr.exportAccessLogs(new SearchCriteria(), AssetMgr.EXPORT_FORMAT_CSV, a -> {}, writer);
+
+        String csv = writer.toString();
+
+        // numeric values built by the server aren't changed, like policy ID of audits without a matching policy
+        Assert.assertTrue(csv.split("\n")[1].startsWith("-1,"));
+        Assert.assertTrue(csv.contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\","));
+        Assert.assertTrue(csv.contains(",'-1+2,'@table,'\tselect,"));
+        Assert.assertTrue(csv.contains(",\"select a, b from t\",event-0\n"));
+    }
+
+    private List<SearchCriteria> captureSearches(int count) {
+        ArgumentCaptor<SearchCriteria> captor = ArgumentCaptor.forClass(SearchCriteria.class);
+
+        Mockito.verify(solrAccessAuditsService, Mockito.times(count)).searchXAccessAudits(captor.capture());
+
+        return captor.getAllValues();
+    }
+
+    private static String pageToken(SearchCriteria searchCriteria) {
+        return AccessAuditsService.getPageToken(searchCriteria);
+    }
+
+    private static VXAccessAuditList page(String nextPageToken, int... eventIds) {
+        List<VXAccessAudit> audits = new ArrayList<>();
+
+        for (int eventId : eventIds) {
+            VXAccessAudit audit = new VXAccessAudit();
+
+            audit.setEventId("event-" + eventId);
+
+            audits.add(audit);
+        }
+
+        VXAccessAuditList ret = new VXAccessAuditList(audits);
+
+        ret.setNextPageToken(nextPageToken);
+
+        return ret;
+    }
+}
@@ -134,6 +134,7 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -3441,6 +3442,7 @@ public void test111CreateOrUpdateXUsers() {
         XXUser xUser = xxUser(vXUser);
         Mockito.when(daoManager.getXXUser()).thenReturn(xxUserDao);
         Mockito.when(daoManager.getXXUser().findByUserName(vXUser.getName())).thenReturn(xUser);
+        Mockito.when(daoManager.getXXUser().findByUserNames(Mockito.any())).thenReturn(Collections.singletonMap(vXUser.getName(), xUser));
         Mockito.when(xUserService.populateViewBean(xUser)).thenReturn(vXUser);
 
         VXUserPermission       userPermission = vxUserPermission();
@@ -3474,6 +3476,10 @@ public void test111CreateOrUpdateXUsers() {
         Mockito.when(xUserService.getXUserByUserName("admin")).thenReturn(loggedInUser);
         int createdOrUpdatedUserCount = xUserMgr.createOrUpdateXUsers(users);
         Assert.assertEquals(1, createdOrUpdatedUserCount);
+
+        // existing users are looked up once for the batch; only the repeated user is looked up again
+        Mockito.verify(userMgr).getUserProfilesByLoginIds(Mockito.any());
+        Mockito.verify(userMgr).getUserProfileByLoginId(vXUser.getName());
     }
 
     @Test
@@ -3569,10 +3575,10 @@ public void test113CreateOrUpdateXUsers() {
         List<XXModuleDef> xXModuleDefs = new ArrayList<>();
 
         vXPortalUser.setUserRoleList(lstRole);
-        Mockito.when(userMgr.getUserProfileByLoginId(vXUser.getName())).thenReturn(vXPortalUser);
+        Mockito.when(userMgr.getUserProfilesByLoginIds(Mockito.any())).thenReturn(Collections.singletonMap(vXUser.getName(), vXPortalUser));
 
         Mockito.when(daoManager.getXXUser()).thenReturn(xxUserDao);
-        Mockito.when(xxUserDao.findByUserName(vXUser.getName())).thenReturn(xXUser);
+        Mockito.when(xxUserDao.findByUserNames(Mockito.any())).thenReturn(Collections.singletonMap(vXUser.getName(), xXUser));
         Mockito.when(daoManager.getXXModuleDef()).thenReturn(xXModuleDefDao);
         Mockito.when(xXModuleDefDao.getAll()).thenReturn(xXModuleDefs);
         Mockito.when(xUserService.updateResource(vXUser)).thenReturn(vXUser);
@@ -3599,6 +3605,8 @@ public void test113CreateOrUpdateXUsers() {
         loggedInUser.setUserRoleList(loggedInUserRole);
         Mockito.when(xUserService.getXUserByUserName("admin")).thenReturn(loggedInUser);
         xUserMgr.createOrUpdateXUsers(users);
+        Mockito.verify(userMgr, Mockito.never()).getUserProfileByLoginId(Mockito.anyString());
+        Mockito.verify(xxUserDao, Mockito.never()).findByUserName(Mockito.anyString());
         vXUserList.clear();
         vXUser.setUserSource(RangerCommonEnums.USER_APP);
         vXUser.setFirstName("testuser");
@@ -3612,7 +3620,7 @@ public void test113CreateOrUpdateXUsers() {
         vXPortalUser.setLastName("testuser");
         vXPortalUser.setPassword("TestPassword@123");
         vXPortalUser.setUserRoleList(lstRole);
-        Mockito.when(userMgr.getUserProfileByLoginId(vXUser.getName())).thenReturn(vXPortalUser);
+        Mockito.when(userMgr.getUserProfilesByLoginIds(Mockito.any())).thenReturn(Collections.singletonMap(vXUser.getName(), vXPortalUser));
         Mockito.when(userMgr.updateUserWithPass(Mockito.any())).thenReturn(xXPortalUser);
         xUserMgr.createOrUpdateXUsers(users);
         vXUser.setPassword("*****");
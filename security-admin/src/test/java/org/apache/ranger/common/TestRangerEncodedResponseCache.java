@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.ranger.common.RangerEncodedResponseCache.Encoding;
+import org.apache.ranger.common.RangerEncodedResponseCache.ResponseSource;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestRangerEncodedResponseCache {
+    @Test
+    public void testEncodedResponse() throws Exception {
+        RangerEncodedResponseCache cache    = new RangerEncodedResponseCache("policies", true);
+        ServicePolicies            policies = createServicePolicies(5L);
+
+        byte[] json = cache.getEncodedResponse("dev_hive", 5L, "1", Encoding.IDENTITY, policies);
+        byte[] gzip = cache.getEncodedResponse("dev_hive", 5L, "1", Encoding.GZIP, policies);
+
+        assertArrayEquals(JsonUtilsV2.getMapper().writeValueAsBytes(policies), json);
+        assertArrayEquals(json, gunzip(gzip));
+
+        // same version: encoded once, even if the object is different
+        assertSame(json, cache.getEncodedResponse("dev_hive", 5L, "1", Encoding.IDENTITY, createServicePolicies(5L)));
+        assertSame(gzip, cache.getEncodedResponse("dev_hive", 5L, "1", Encoding.GZIP, policies));
+
+        // another variant or service
+        assertNotSame(json, cache.getEncodedResponse("dev_hive", 5L, "2", Encoding.IDENTITY, policies));
+        assertNotSame(json, cache.getEncodedResponse("dev_hbase", 5L, "1", Encoding.IDENTITY, policies));
+
+        // new version replaces the earlier one
+        ServicePolicies policiesV6 = createServicePolicies(6L);
+        byte[]          jsonV6     = cache.getEncodedResponse("dev_hive", 6L, "1", Encoding.IDENTITY, policiesV6);
+
+        assertEquals(6L, JsonUtilsV2.getMapper().readValue(jsonV6, ServicePolicies.class).getPolicyVersion().longValue());
+        assertSame(jsonV6, cache.getEncodedResponse("dev_hive", 6L, "1", Encoding.IDENTITY, policiesV6));
+
+        cache.evict("dev_hive");
+
+        assertNotSame(jsonV6, cache.getEncodedResponse("dev_hive", 6L, "1", Encoding.IDENTITY, policiesV6));
+    }
+
+    @Test
+    public void testResponseSource() throws Exception {
+        MockHttpServletRequest     request  = new MockHttpServletRequest();
+        RangerEncodedResponseCache cache    = new RangerEncodedResponseCache("policies", true);
+        ServicePolicies            policies = createServicePolicies(5L);
+
+        assertNull(RangerEncodedResponseCache.getResponseSource(request));
+
+        cache.setResponseSource(request, "dev_hive", 5L, null);
+
+        ResponseSource source = RangerEncodedResponseCache.getResponseSource(request);
+
+        assertNotNull(source);
+        assertSame(cache.getEncodedResponse("dev_hive", 5L, null, Encoding.GZIP, policies), source.getEncodedResponse(Encoding.GZIP, policies));
+
+        // disabled cache doesn't mark the response as cacheable
+        MockHttpServletRequest request2 = new MockHttpServletRequest();
+
+        new RangerEncodedResponseCache("policies", false).setResponseSource(request2, "dev_hive", 5L, null);
+
+        assertNull(RangerEncodedResponseCache.getResponseSource(request2));
+    }
+
+    private static ServicePolicies createServicePolicies(long version) {
+        ServicePolicies ret = new ServicePolicies();
+
+        ret.setServiceName("dev_hive");
+        ret.setServiceId(1L);
+        ret.setPolicyVersion(version);
+
+        return ret;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
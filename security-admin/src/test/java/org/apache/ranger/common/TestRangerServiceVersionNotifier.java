@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.common.RangerServiceVersionNotifier.WaitStatus;
+import org.apache.ranger.common.RangerServiceVersionNotifier.Waiter;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.db.XXServiceVersionInfoDao;
+import org.apache.ranger.entity.XXServiceVersionInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TestRangerServiceVersionNotifier {
+    private static final String SERVICE_NAME = "dev_hive";
+
+    @InjectMocks
+    RangerServiceVersionNotifier notifier = new RangerServiceVersionNotifier();
+
+    @Mock
+    RangerDaoManager daoMgr;
+
+    @Mock
+    XXServiceVersionInfoDao serviceVersionInfoDao;
+
+    @Mock
+    PlatformTransactionManager txManager;
+
+    @Before
+    public void setUp() {
+        when(daoMgr.getXXServiceVersionInfo()).thenReturn(serviceVersionInfoDao);
+
+        notifier.init();
+    }
+
+    @After
+    public void tearDown() {
+        notifier.destroy();
+    }
+
+    @Test
+    public void testChanged() throws Exception {
+        when(serviceVersionInfoDao.findByServiceName(SERVICE_NAME)).thenReturn(createVersionInfo(5L, 3L, 2L));
+
+        assertEquals(WaitStatus.CHANGED, waitForPolicyChange(SERVICE_NAME, 4L, 3L, 60 * 1000L).getNow(null));
+        assertEquals(WaitStatus.CHANGED, waitForPolicyChange(SERVICE_NAME, 5L, 2L, 60 * 1000L).getNow(null));
+        assertEquals(WaitStatus.CHANGED, waitForTagChange(SERVICE_NAME, 1L, 60 * 1000L).getNow(null));
+
+        // for unknown service, download reports the error
+        assertEquals(WaitStatus.CHANGED, waitForTagChange("unknown", 1L, 60 * 1000L).getNow(null));
+        assertEquals(0, notifier.getWaiterCount());
+    }
+
+    @Test
+    public void testNotChanged() throws Exception {
+        when(serviceVersionInfoDao.findByServiceName(SERVICE_NAME)).thenReturn(createVersionInfo(5L, 3L, 2L));
+        when(serviceVersionInfoDao.getAllWithServiceNames()).thenReturn(Collections.singletonList(new Object[] {createVersionInfo(5L, 3L, 2L), SERVICE_NAME}));
+
+        // role version of the service can be lower than the version known to the plugin
+        CompletableFuture<WaitStatus> policyStatus = waitForPolicyChange(SERVICE_NAME, 5L, 4L, 100L);
+        CompletableFuture<WaitStatus> tagStatus    = waitForTagChange(SERVICE_NAME, 2L, 100L);
+
+        assertEquals(2, notifier.getWaiterCount());
+        assertEquals(WaitStatus.NOT_CHANGED, policyStatus.get(10, TimeUnit.SECONDS));
+        assertEquals(WaitStatus.NOT_CHANGED, tagStatus.get(10, TimeUnit.SECONDS));
+        assertEquals(0, notifier.getWaiterCount());
+    }
+
+    @Test
+    public void testNotifyOnChange() throws Exception {
+        when(serviceVersionInfoDao.findByServiceName(SERVICE_NAME)).thenReturn(createVersionInfo(5L, 3L, 2L));
+        when(serviceVersionInfoDao.getAllWithServiceNames()).thenReturn(Collections.singletonList(new Object[] {createVersionInfo(5L, 3L, 2L), SERVICE_NAME}));
+
+        CompletableFuture<WaitStatus> status = waitForPolicyChange(SERVICE_NAME, 5L, 3L, 60 * 1000L);
+
+        Thread.sleep(2000L); // versions are checked every second
+
+        assertFalse(status.isDone());
+
+        when(serviceVersionInfoDao.getAllWithServiceNames()).thenReturn(Collections.singletonList(new Object[] {createVersionInfo(6L, 3L, 2L), SERVICE_NAME}));
+
+        assertEquals(WaitStatus.CHANGED, status.get(10, TimeUnit.SECONDS));
+        assertEquals(0, notifier.getWaiterCount());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        when(serviceVersionInfoDao.findByServiceName(SERVICE_NAME)).thenReturn(createVersionInfo(5L, 3L, 2L));
+        when(serviceVersionInfoDao.getAllWithServiceNames()).thenReturn(Collections.singletonList(new Object[] {createVersionInfo(6L, 3L, 2L), SERVICE_NAME}));
+
+        CompletableFuture<WaitStatus> status = new CompletableFuture<>();
+        Waiter                        waiter = notifier.waitForPolicyChange(SERVICE_NAME, 5L, 3L, 60 * 1000L, status::complete);
+
+        waiter.cancel();
+
+        assertEquals(0, notifier.getWaiterCount());
+
+        Thread.sleep(2000L); // versions are checked every second
+
+        assertFalse(status.isDone());
+    }
+
+    @Test
+    public void testTooManyWaiters() throws Exception {
+        RangerAdminConfig.getInstance().setInt(RangerServiceVersionNotifier.PROP_MAX_WAITERS, 1);
+
+        try {
+            notifier.destroy();
+            notifier.init();
+
+            when(serviceVersionInfoDao.findByServiceName(SERVICE_NAME)).thenReturn(createVersionInfo(5L, 3L, 2L));
+
+            CompletableFuture<WaitStatus> status1 = waitForTagChange(SERVICE_NAME, 2L, 60 * 1000L);
+            CompletableFuture<WaitStatus> status2 = waitForTagChange(SERVICE_NAME, 2L, 60 * 1000L);
+
+            assertFalse(status1.isDone());
+            assertEquals(WaitStatus.TOO_MANY_WAITERS, status2.getNow(null));
+            assertEquals(1, notifier.getWaiterCount());
+        } finally {
+            RangerAdminConfig.getInstance().unset(RangerServiceVersionNotifier.PROP_MAX_WAITERS);
+        }
+    }
+
+    private CompletableFuture<WaitStatus> waitForPolicyChange(String serviceName, Long lastKnownVersion, Long lastKnownRoleVersion, long timeoutMs) {
+        CompletableFuture<WaitStatus> ret = new CompletableFuture<>();
+
+        notifier.waitForPolicyChange(serviceName, lastKnownVersion, lastKnownRoleVersion, timeoutMs, ret::complete);
+
+        return ret;
+    }
+
+    private CompletableFuture<WaitStatus> waitForTagChange(String serviceName, Long lastKnownVersion, long timeoutMs) {
+        CompletableFuture<WaitStatus> ret = new CompletableFuture<>();
+
+        notifier.waitForTagChange(serviceName, lastKnownVersion, timeoutMs, ret::complete);
+
+        return ret;
+    }
+
+    private static XXServiceVersionInfo createVersionInfo(Long policyVersion, Long roleVersion, Long tagVersion) {
+        XXServiceVersionInfo ret = new XXServiceVersionInfo();
+
+        ret.setPolicyVersion(policyVersion);
+        ret.setRoleVersion(roleVersion);
+        ret.setTagVersion(tagVersion);
+
+        return ret;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.elasticsearch;
+
+import org.apache.ranger.common.RESTErrorUtil;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchSortValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
+
+public class ElasticSearchUtilTest {
+    @Test
+    public void testPageTokenRoundTrip() {
+        ElasticSearchUtil elasticSearchUtil = new ElasticSearchUtil();
+        SearchHit         hit               = new SearchHit(1);
+
+        hit.sortValues(new SearchSortValues(new Object[] {1700000000000L, "event-1"}, new DocValueFormat[] {DocValueFormat.RAW, DocValueFormat.RAW}));
+
+        String pageToken = elasticSearchUtil.toPageToken(hit);
+
+        Assert.assertNotNull(pageToken);
+        Assert.assertFalse(pageToken.contains("=") || pageToken.contains("+") || pageToken.contains("/"));
+        Assert.assertArrayEquals(new Object[] {1700000000000L, "event-1"}, elasticSearchUtil.fromPageToken(pageToken));
+    }
+
+    @Test
+    public void testInvalidPageToken() {
+        ElasticSearchUtil elasticSearchUtil = new ElasticSearchUtil();
+
+        elasticSearchUtil.restErrorUtil = new RESTErrorUtil();
+
+        try {
+            elasticSearchUtil.fromPageToken("not a page token");
+
+            Assert.fail("expected an exception for an invalid page token");
+        } catch (WebApplicationException excp) {
+            Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, excp.getResponse().getStatus());
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.ranger.rest;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.admin.client.datatype.RESTResponse;
 import org.apache.ranger.biz.AssetMgr;
 import org.apache.ranger.biz.RangerBizUtil;
@@ -72,8 +73,12 @@
 import org.mockito.junit.MockitoJUnitRunner;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.WebApplicationException;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -533,7 +538,7 @@ public void testGetAccessLogs() {
         Mockito.verify(msBizUtil).isKeyAdmin();
         Mockito.verify(assetMgr).getAccessLogs(searchCriteria);
         Mockito.verify(daoManager).getXXServiceDef();
-        Mockito.verify(searchUtil, Mockito.times(15)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
+        Mockito.verify(searchUtil, Mockito.times(16)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
         Mockito.verify(searchUtil, Mockito.times(4)).extractInt(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil, Mockito.times(2)).extractDate(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil).extractLong(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
@@ -568,7 +573,7 @@ public void testGetAccessLogsForKms() {
         Mockito.verify(msBizUtil).isKeyAdmin();
         Mockito.verify(assetMgr).getAccessLogs(searchCriteria);
         Mockito.verify(daoManager).getXXServiceDef();
-        Mockito.verify(searchUtil, Mockito.times(15)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
+        Mockito.verify(searchUtil, Mockito.times(16)).extractString(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.nullable(String.class));
         Mockito.verify(searchUtil, Mockito.times(4)).extractInt(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil, Mockito.times(2)).extractDate(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
         Mockito.verify(searchUtil).extractLong(Mockito.any(), Mockito.any(), Mockito.anyString(), Mockito.anyString());
@@ -579,6 +584,60 @@ public void testGetAccessLogsForKms() {
         Mockito.verifyNoMoreInteractions(searchUtil, assetMgr, daoManager);
     }
 
+    @Test
+    public void testExportAccessLogs() throws IOException {
+        SearchCriteria      searchCriteria = new SearchCriteria();
+        HttpServletResponse response       = Mockito.mock(HttpServletResponse.class);
+        PrintWriter         writer         = new PrintWriter(new StringWriter());
+        Mockito.when(searchUtil.extractCommonCriterias(request, null)).thenReturn(searchCriteria);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xxServiceDefDao);
+        Mockito.when(response.getWriter()).thenReturn(writer);
+        assetREST.exportAccessLogs(request, response, null, AssetMgr.EXPORT_FORMAT_CSV);
+        Mockito.verify(response).setContentType("text/csv");
+        Mockito.verify(response).setHeader("Content-Disposition", "attachment; filename=ranger_access_audits.csv");
+        Mockito.verify(assetMgr).exportAccessLogs(Mockito.eq(searchCriteria), Mockito.eq(AssetMgr.EXPORT_FORMAT_CSV), Mockito.any(), Mockito.eq(writer));
+        Mockito.verify(searchUtil, Mockito.never()).extractString(Mockito.any(), Mockito.any(), Mockito.eq(AccessAuditsService.PAGE_TOKEN_PARAM), Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    public void testExportAccessLogsFailureBeforeCommit() throws IOException {
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(searchUtil.extractCommonCriterias(request, null)).thenReturn(new SearchCriteria());
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xxServiceDefDao);
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        Mockito.doThrow(new IOException("audit store unavailable")).when(assetMgr).exportAccessLogs(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.when(restErrorUtil.createRESTException("audit store unavailable")).thenReturn(new WebApplicationException());
+        thrown.expect(WebApplicationException.class);
+        assetREST.exportAccessLogs(request, response, null, AssetMgr.EXPORT_FORMAT_CSV);
+    }
+
+    @Test
+    public void testExportAccessLogsFailureAfterCommit() throws IOException {
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(searchUtil.extractCommonCriterias(request, null)).thenReturn(new SearchCriteria());
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xxServiceDefDao);
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        Mockito.when(response.isCommitted()).thenReturn(true);
+        Mockito.doThrow(new IOException("audit store unavailable")).when(assetMgr).exportAccessLogs(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        try {
+            assetREST.exportAccessLogs(request, response, null, AssetMgr.EXPORT_FORMAT_CSV);
+            fail("export should be aborted");
+        } catch (WebApplicationException excp) {
+            fail("a committed response can't be replaced by an error response");
+        } catch (IllegalStateException excp) {
+            Assert.assertTrue(excp.getCause() instanceof IOException);
+        }
+        Mockito.verify(restErrorUtil, Mockito.never()).createRESTException(Mockito.anyString());
+    }
+
+    @Test
+    public void testExportAccessLogsForInvalidFormat() {
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(restErrorUtil.createRESTException(Mockito.anyInt(), Mockito.anyString(), Mockito.anyBoolean())).thenThrow(new WebApplicationException());
+        thrown.expect(WebApplicationException.class);
+        assetREST.exportAccessLogs(request, response, null, "xml");
+    }
+
     @Test
     public void testGrantPermission() {
         RangerPolicy       policy          = rangerPolicy(Id);
@@ -22,6 +22,7 @@
 import org.apache.ranger.biz.TagDBStore;
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerSearchUtil;
+import org.apache.ranger.common.ServiceUtil;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXServiceDao;
 import org.apache.ranger.db.XXServiceDefDao;
@@ -56,6 +57,7 @@
 import org.mockito.junit.MockitoJUnitRunner;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.WebApplicationException;
 
 import java.util.ArrayList;
@@ -98,6 +100,8 @@ public class TestTagREST {
     @Mock
     RangerSearchUtil searchUtil;
     @Mock
+    ServiceUtil serviceUtil;
+    @Mock
     RangerTagDefService tagDefService;
     @Mock
     RangerTagService tagService;
@@ -1996,6 +2000,59 @@ public void test59resetTagCacheWhenServiceNameIsInvalid() {
         Mockito.verify(restErrorUtil).createRESTException(Mockito.anyInt(), Mockito.anyString(), Mockito.anyBoolean());
     }
 
+    @Test
+    public void test60validateTagChangeNotificationRequest() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+
+        Mockito.when(serviceUtil.isValidateHttpsAuthentication(serviceName, request)).thenReturn(true);
+
+        tagREST.validateTagChangeNotificationRequest(serviceName, false, request);
+
+        Mockito.verify(bizUtil).failUnauthenticatedDownloadIfNotAllowed();
+        Mockito.verify(serviceUtil).isValidateHttpsAuthentication(serviceName, request);
+    }
+
+    @Test
+    public void test61validateSecureTagChangeNotificationRequestServiceNotFound() throws Exception {
+        XXServiceDao xXServiceDao = Mockito.mock(XXServiceDao.class);
+
+        Mockito.when(daoManager.getXXService()).thenReturn(xXServiceDao);
+        Mockito.when(xXServiceDao.findByName(serviceName)).thenReturn(null);
+        Mockito.when(restErrorUtil.createRESTException(Mockito.anyInt(), Mockito.anyString(), Mockito.anyBoolean())).thenThrow(new WebApplicationException());
+        thrown.expect(WebApplicationException.class);
+
+        tagREST.validateTagChangeNotificationRequest(serviceName, true, Mockito.mock(HttpServletRequest.class));
+    }
+
+    @Test
+    public void test62validateSecureTagChangeNotificationRequestNotAllowed() throws Exception {
+        XXService xService = new XXService();
+        xService.setId(id);
+        xService.setName(serviceName);
+        xService.setType(5L);
+
+        XXServiceDef xServiceDef = new XXServiceDef();
+        xServiceDef.setId(id);
+
+        RangerService rangerService = new RangerService();
+        rangerService.setId(id);
+        rangerService.setName(serviceName);
+
+        XXServiceDao    xXServiceDao    = Mockito.mock(XXServiceDao.class);
+        XXServiceDefDao xXServiceDefDao = Mockito.mock(XXServiceDefDao.class);
+
+        Mockito.when(daoManager.getXXService()).thenReturn(xXServiceDao);
+        Mockito.when(xXServiceDao.findByName(serviceName)).thenReturn(xService);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xXServiceDefDao);
+        Mockito.when(xXServiceDefDao.getById(xService.getType())).thenReturn(xServiceDef);
+        Mockito.when(svcStore.getServiceByName(serviceName)).thenReturn(rangerService);
+        Mockito.when(bizUtil.isUserAllowed(rangerService, TagREST.Allowed_User_List_For_Tag_Download)).thenReturn(false);
+        Mockito.when(restErrorUtil.createRESTException(Mockito.eq(HttpServletResponse.SC_FORBIDDEN), Mockito.anyString(), Mockito.anyBoolean())).thenThrow(new WebApplicationException());
+        thrown.expect(WebApplicationException.class);
+
+        tagREST.validateTagChangeNotificationRequest(serviceName, true, Mockito.mock(HttpServletRequest.class));
+    }
+
     static {
         capabilityVector = Long.toHexString(new RangerPluginCapability().getPluginCapabilities());
     }
@@ -20,6 +20,7 @@
 
 import org.apache.ranger.biz.RangerBizUtil;
 import org.apache.ranger.common.db.BaseDao;
+import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXGroupDao;
 import org.apache.ranger.db.XXGroupUserDao;
@@ -30,17 +31,26 @@
 import org.apache.ranger.entity.XXGroupUser;
 import org.apache.ranger.entity.XXPortalUser;
 import org.apache.ranger.entity.XXUser;
+import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
 import org.apache.ranger.view.VXGroupUser;
+import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_CREATE_CONTEXT;
 
@@ -89,6 +99,9 @@ public class TestXGroupUserService {
     @Mock
     AbstractBaseResourceService abstractBaseResourceService;
 
+    @Mock
+    RangerTransactionSynchronizationAdapter transactionSynchronizationAdapter;
+
     @Test
     public void test1CreateXGroupUserWithOutLogin() {
         XXGroupUser resource = createXXGroupUser();
@@ -129,6 +142,63 @@ public void test3GetTransactionLog() {
         xGroupUserService.createTransactionLog(vObj, null, OPERATION_CREATE_CONTEXT);
     }
 
+    @Test
+    public void test4CreateOrDeleteXGroupUsers() {
+        Map<String, Long> groupsFromDB = new HashMap<>();
+        Map<String, Long> usersFromDB  = new HashMap<>();
+
+        groupsFromDB.put("group1", 10L);
+        usersFromDB.put("user1", 1L);
+        usersFromDB.put("user2", 2L);
+        usersFromDB.put("user3", 3L);
+
+        // user1 and user3 are members of group1; user1 is added again, user2 is added, user3 is deleted
+        Map<Long, Map<Long, Long>> existing = new HashMap<>();
+
+        existing.put(10L, new HashMap<>());
+        existing.get(10L).put(1L, 101L);
+        existing.get(10L).put(3L, 103L);
+
+        GroupUserInfo group1       = new GroupUserInfo();
+        GroupUserInfo unknownGroup = new GroupUserInfo();
+
+        group1.setGroupName("group1");
+        group1.setAddUsers(new HashSet<>(Arrays.asList("user1", "user2", "unknownUser")));
+        group1.setDelUsers(new HashSet<>(Collections.singletonList("user3")));
+        unknownGroup.setGroupName("unknownGroup");
+        unknownGroup.setAddUsers(new HashSet<>(Collections.singletonList("user1")));
+
+        Mockito.when(daoManager.getXXGroup()).thenReturn(xXGroupDao);
+        Mockito.when(xXGroupDao.getAllGroupIds()).thenReturn(groupsFromDB);
+        Mockito.when(daoManager.getXXGroupUser()).thenReturn(xXGroupUserDao);
+        Mockito.when(xXGroupUserDao.findIdsByGroupIds(Mockito.anyCollection(), Mockito.anyInt())).thenReturn(existing);
+        Mockito.when(daoManager.getXXPortalUser()).thenReturn(xXPortalUserDao);
+        Mockito.when(xXPortalUserDao.getById(1L)).thenReturn(tUser);
+
+        int ret = xGroupUserService.createOrDeleteXGroupUsers(Arrays.asList(group1, unknownGroup), usersFromDB);
+
+        Assert.assertEquals(1, ret);
+
+        ArgumentCaptor<Runnable> runnables = ArgumentCaptor.forClass(Runnable.class);
+
+        Mockito.verify(transactionSynchronizationAdapter, Mockito.times(2)).executeOnTransactionCommit(runnables.capture());
+
+        runnables.getAllValues().forEach(Runnable::run);
+
+        ArgumentCaptor<List> created = ArgumentCaptor.forClass(List.class);
+
+        Mockito.verify(xXGroupUserDao).deleteByIds(Collections.singletonList(103L));
+        Mockito.verify(xXGroupUserDao).batchCreate(created.capture());
+
+        Assert.assertEquals(1, created.getValue().size());
+
+        XXGroupUser groupUser = (XXGroupUser) created.getValue().get(0);
+
+        Assert.assertEquals(Long.valueOf(2L), groupUser.getUserId());
+        Assert.assertEquals(Long.valueOf(10L), groupUser.getParentGroupId());
+        Assert.assertEquals("group1", groupUser.getName());
+    }
+
     private XXGroup createXXGroup() {
         XXGroup xXGroup = new XXGroup();
         Date    date    = new Date();
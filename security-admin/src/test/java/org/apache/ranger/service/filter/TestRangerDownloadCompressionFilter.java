@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.service.filter;
+
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.core.header.OutBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import org.apache.commons.io.IOUtils;
+import org.apache.ranger.common.RangerEncodedResponseCache;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestRangerDownloadCompressionFilter {
+    @Mock
+    ContainerRequest request;
+
+    @Mock
+    ContainerResponse response;
+
+    @Test
+    public void testCompressWhenAccepted() {
+        RangerDownloadCompressionFilter filter          = new RangerDownloadCompressionFilter();
+        InBoundHeaders                  requestHeaders  = new InBoundHeaders();
+        OutBoundHeaders                 responseHeaders = new OutBoundHeaders();
+
+        requestHeaders.add(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        when(request.getRequestHeaders()).thenReturn(requestHeaders);
+        when(response.getHttpHeaders()).thenReturn(responseHeaders);
+        when(response.getEntity()).thenReturn(new ServicePolicies());
+
+        assertNull(filter.getRequestFilter());
+        assertSame(filter, filter.getResponseFilter());
+        assertSame(response, filter.filter(request, response));
+        assertEquals("gzip", responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, responseHeaders.getFirst(HttpHeaders.VARY));
+
+        verify(response).setContainerResponseWriter(any());
+    }
+
+    @Test
+    public void testNoCompressionWhenNotAccepted() {
+        RangerDownloadCompressionFilter filter          = new RangerDownloadCompressionFilter();
+        OutBoundHeaders                 responseHeaders = new OutBoundHeaders();
+
+        when(request.getRequestHeaders()).thenReturn(new InBoundHeaders());
+        when(response.getHttpHeaders()).thenReturn(responseHeaders);
+
+        assertSame(response, filter.filter(request, response));
+        assertNull(responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        verify(response, never()).setContainerResponseWriter(any());
+    }
+
+    @Test
+    public void testCachedResponse() throws Exception {
+        RangerDownloadCompressionFilter filter          = new RangerDownloadCompressionFilter();
+        RangerEncodedResponseCache      cache           = new RangerEncodedResponseCache("policies", true);
+        MockHttpServletRequest          httpRequest     = new MockHttpServletRequest();
+        InBoundHeaders                  requestHeaders  = new InBoundHeaders();
+        OutBoundHeaders                 responseHeaders = new OutBoundHeaders();
+        ServicePolicies                 policies        = new ServicePolicies();
+        ArgumentCaptor<Object>          entity          = ArgumentCaptor.forClass(Object.class);
+
+        policies.setServiceName("dev_hive");
+        policies.setPolicyVersion(5L);
+
+        requestHeaders.add(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        cache.setResponseSource(httpRequest, "dev_hive", 5L, null);
+
+        when(request.getRequestHeaders()).thenReturn(requestHeaders);
+        when(response.getHttpHeaders()).thenReturn(responseHeaders);
+        when(response.getEntity()).thenReturn(policies);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(httpRequest));
+
+        try {
+            assertSame(response, filter.filter(request, response));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        verify(response).setEntity(entity.capture());
+        verify(response, never()).setContainerResponseWriter(any());
+
+        assertEquals("gzip", responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, responseHeaders.getFirst(HttpHeaders.VARY));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) entity.getValue()))) {
+            assertArrayEquals(JsonUtilsV2.getMapper().writeValueAsBytes(policies), IOUtils.toByteArray(in));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.solr;
+
+import org.apache.ranger.AccessAuditsService;
+import org.apache.ranger.common.SearchCriteria;
+import org.apache.ranger.view.VXAccessAuditList;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestSolrAccessAuditsService {
+    @Test
+    public void testNextPageTokenFromCursorMark() {
+        VXAccessAuditList page = search(AccessAuditsService.FIRST_PAGE_TOKEN, "AoE1", 2);
+
+        Assert.assertEquals(2, page.getVXAccessAudits().size());
+        Assert.assertEquals("AoE1", page.getNextPageToken());
+
+        page = search("AoE1", "AoE2", 1);
+
+        Assert.assertEquals("AoE2", page.getNextPageToken());
+    }
+
+    @Test
+    public void testNoNextPageTokenAtEnd() {
+        // Solr returns the cursorMark it was given once there are no more documents
+        Assert.assertNull(search("AoE2", "AoE2", 1).getNextPageToken());
+        Assert.assertNull(search("AoE2", "AoE2", 0).getNextPageToken());
+        Assert.assertNull(search(AccessAuditsService.FIRST_PAGE_TOKEN, AccessAuditsService.FIRST_PAGE_TOKEN, 0).getNextPageToken());
+    }
+
+    @Test
+    public void testNoNextPageTokenForOffsetPaging() {
+        Assert.assertNull(search(null, null, 2).getNextPageToken());
+    }
+
+    private static VXAccessAuditList search(String pageToken, String nextCursorMark, int docCount) {
+        SolrAccessAuditsService service  = new SolrAccessAuditsService();
+        SolrDocumentList        docs     = new SolrDocumentList();
+        QueryResponse           response = Mockito.mock(QueryResponse.class);
+        SearchCriteria          criteria = new SearchCriteria();
+
+        for (int i = 0; i < docCount; i++) {
+            SolrDocument doc = new SolrDocument();
+
+            doc.setField("id", "event-" + i);
+            doc.setField("reqUser", "user" + i);
+
+            docs.add(doc);
+        }
+
+        docs.setNumFound(docCount);
+
+        if (pageToken != null) {
+            criteria.getParamList().put(AccessAuditsService.PAGE_TOKEN_PARAM, pageToken);
+        }
+
+        criteria.setMaxRows(2);
+
+        service.solrMgr  = Mockito.mock(SolrMgr.class);
+        service.solrUtil = Mockito.mock(SolrUtil.class);
+
+        Mockito.when(service.solrMgr.getSolrClient()).thenReturn(Mockito.mock(SolrClient.class));
+        Mockito.when(service.solrUtil.searchResources(Mockito.eq(criteria), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(response);
+        Mockito.when(response.getResults()).thenReturn(docs);
+        Mockito.when(response.getNextCursorMark()).thenReturn(nextCursorMark);
+
+        return service.searchXAccessAudits(criteria);
+    }
+}
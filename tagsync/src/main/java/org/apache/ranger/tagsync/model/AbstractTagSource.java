@@ -25,6 +25,9 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
 public abstract class AbstractTagSource implements TagSource {
     private static final Logger  LOG = LoggerFactory.getLogger(AbstractTagSource.class);
     private              TagSink tagSink;
@@ -77,4 +80,28 @@ protected void updateSink(final ServiceTags toUpload) throws Exception {
             throw exception;
         }
     }
+
+    protected Future<ServiceTags> updateSinkAsync(final ServiceTags toUpload) throws Exception {
+        try {
+            if (toUpload == null) {
+                LOG.debug("No ServiceTags to upload");
+
+                return CompletableFuture.completedFuture(null);
+            } else {
+                if (!TagSyncConfig.isTagSyncServiceActive()) {
+                    LOG.error("This TagSync server is not in active state. Cannot commit transaction!");
+                    throw new RuntimeException("This TagSync server is not in active state. Cannot commit transaction!");
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Queueing serviceTags for upload={}", JsonUtils.objectToJson(toUpload));
+                }
+
+                return tagSink.uploadAsync(toUpload);
+            }
+        } catch (Exception exception) {
+            LOG.error("Failed to queue serviceTags for upload: {}", JsonUtils.objectToJson(toUpload));
+            LOG.error("Exception : ", exception);
+            throw exception;
+        }
+    }
 }
@@ -22,12 +22,22 @@
 import org.apache.ranger.plugin.util.ServiceTags;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 public interface TagSink {
     boolean initialize(Properties properties);
 
     ServiceTags upload(ServiceTags toUpload) throws Exception;
 
+    /**
+     * Queues the given ServiceTags for upload, and returns without waiting for the upload to complete. Sinks that
+     * don't support asynchronous upload complete the upload before returning.
+     */
+    default Future<ServiceTags> uploadAsync(ServiceTags toUpload) throws Exception {
+        return CompletableFuture.completedFuture(upload(toUpload));
+    }
+
     boolean start();
 
     void stop();
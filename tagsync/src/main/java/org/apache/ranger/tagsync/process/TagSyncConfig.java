@@ -93,6 +93,10 @@ public class TagSyncConfig extends Configuration {
     private static final String TAGSYNC_METRICS_ENABLED_PROP                      = "ranger.tagsync.metrics.enabled";
     private static final int    DEFAULT_TAGSYNC_SINK_MAX_BATCH_SIZE = 1;
     private static final String TAGSYNC_SINK_MAX_BATCH_SIZE_PROP    = "ranger.tagsync.dest.ranger.max.batch.size";
+    private static final int    DEFAULT_TAGSYNC_SINK_MAX_CONCURRENT_UPLOADS = 1;
+    private static final String TAGSYNC_SINK_MAX_CONCURRENT_UPLOADS_PROP    = "ranger.tagsync.dest.ranger.max.concurrent.uploads";
+    private static final int    DEFAULT_TAGSYNC_SINK_MAX_PENDING_UPLOADS    = 100;
+    private static final String TAGSYNC_SINK_MAX_PENDING_UPLOADS_PROP       = "ranger.tagsync.dest.ranger.max.pending.uploads";
     private static final String TAGSYNC_ATLASREST_SOURCE_ENTITIES_BATCH_SIZE = "ranger.tagsync.source.atlasrest.entities.batch.size";
 
     private static TagSyncConfig instance;
@@ -458,6 +462,34 @@ public static int getSinkMaxBatchSize(Properties prop) {
         return ret;
     }
 
+    public static int getSinkMaxConcurrentUploads(Properties prop) {
+        int    ret = DEFAULT_TAGSYNC_SINK_MAX_CONCURRENT_UPLOADS;
+        String val = prop.getProperty(TAGSYNC_SINK_MAX_CONCURRENT_UPLOADS_PROP);
+
+        if (StringUtils.isNotEmpty(val)) {
+            try {
+                ret = Integer.parseInt(val);
+            } catch (Exception ignored) {
+            }
+        }
+
+        return ret;
+    }
+
+    public static int getSinkMaxPendingUploads(Properties prop) {
+        int    ret = DEFAULT_TAGSYNC_SINK_MAX_PENDING_UPLOADS;
+        String val = prop.getProperty(TAGSYNC_SINK_MAX_PENDING_UPLOADS_PROP);
+
+        if (StringUtils.isNotEmpty(val)) {
+            try {
+                ret = Integer.parseInt(val);
+            } catch (Exception ignored) {
+            }
+        }
+
+        return ret;
+    }
+
     public static boolean isTagSyncMetricsEnabled(Properties prop) {
         String val = prop.getProperty(TAGSYNC_METRICS_ENABLED_PROP);
 
@@ -23,10 +23,12 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.ranger.admin.client.datatype.RESTResponse;
+import org.apache.ranger.plugin.util.RangerMetricsUtil;
 import org.apache.ranger.plugin.util.RangerRESTClient;
 import org.apache.ranger.plugin.util.ServiceTags;
 import org.apache.ranger.tagsync.model.TagSink;
 import org.apache.ranger.tagsync.process.TagSyncConfig;
+import org.apache.ranger.tagsync.sink.tagadmin.TagUploadQueue.UploadBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,9 +41,8 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 public class TagAdminRESTSink implements TagSink, Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(TagAdminRESTSink.class);
@@ -49,18 +50,20 @@ public class TagAdminRESTSink implements TagSink, Runnable {
     private static final String REST_PREFIX   = "/service";
     private static final String MODULE_PREFIX = "/tags";
     private static final String REST_URL_IMPORT_SERVICETAGS_RESOURCE = REST_PREFIX + MODULE_PREFIX + "/importservicetags/";
+    private static final String METRICS_SOURCE_NAME                  = "tagAdminRESTSink";
 
     List<NewCookie> cookieList = new ArrayList<>();
 
-    private long                          rangerAdminConnectionCheckInterval;
-    private Cookie                        sessionId;
-    private boolean                       isValidRangerCookie;
-    private boolean                       isRangerCookieEnabled;
-    private String                        rangerAdminCookieName;
-    private RangerRESTClient              tagRESTClient;
-    private boolean                       isKerberized;
-    private BlockingQueue<UploadWorkItem> uploadWorkItems;
-    private Thread                        myThread;
+    private          long             rangerAdminConnectionCheckInterval;
+    private volatile Cookie           sessionId;
+    private volatile boolean          isValidRangerCookie;
+    private          boolean          isRangerCookieEnabled;
+    private          String           rangerAdminCookieName;
+    private          RangerRESTClient tagRESTClient;
+    private          boolean          isKerberized;
+    private          int              maxConcurrentUploads;
+    private          TagUploadQueue   uploadQueue;
+    private final    List<Thread>     uploadThreads = new ArrayList<>();
 
     @Override
     public boolean initialize(Properties properties) {
@@ -76,6 +79,7 @@ public boolean initialize(Properties properties) {
         isKerberized                       = TagSyncConfig.getTagsyncKerberosIdentity(properties) != null;
         isRangerCookieEnabled              = TagSyncConfig.isTagSyncRangerCookieEnabled(properties);
         rangerAdminCookieName              = TagSyncConfig.getRangerAdminCookieName(properties);
+        maxConcurrentUploads               = TagSyncConfig.getSinkMaxConcurrentUploads(properties);
         sessionId                          = null;
 
         LOG.debug("restUrl={}", restUrl);
@@ -83,6 +87,7 @@ public boolean initialize(Properties properties) {
         LOG.debug("userName={}", userName);
         LOG.debug("rangerAdminConnectionCheckInterval={}", rangerAdminConnectionCheckInterval);
         LOG.debug("isKerberized={}", isKerberized);
+        LOG.debug("maxConcurrentUploads={}", maxConcurrentUploads);
 
         if (StringUtils.isNotBlank(restUrl)) {
             tagRESTClient = new RangerRESTClient(restUrl, sslConfigFile, TagSyncConfig.getInstance());
@@ -94,8 +99,8 @@ public boolean initialize(Properties properties) {
             // Build and cache REST client. This will catch any errors in building REST client up-front
             tagRESTClient.getClient();
 
-            uploadWorkItems = new LinkedBlockingQueue<>();
-            ret             = true;
+            uploadQueue = new TagUploadQueue(TagSyncConfig.getSinkMaxPendingUploads(properties));
+            ret         = true;
         } else {
             LOG.error("No value specified for property 'ranger.tagsync.tagadmin.rest.url'!");
         }
@@ -109,33 +114,58 @@ public boolean initialize(Properties properties) {
     public ServiceTags upload(ServiceTags toUpload) throws Exception {
         LOG.debug("==> upload() ");
 
-        UploadWorkItem uploadWorkItem = new UploadWorkItem(toUpload);
-
-        uploadWorkItems.put(uploadWorkItem);
-
         // Wait until message is successfully delivered
-        ServiceTags ret = uploadWorkItem.waitForUpload();
+        ServiceTags ret = uploadAsync(toUpload).get();
 
         LOG.debug("<== upload()");
 
         return ret;
     }
 
+    /**
+     * Queues the given ServiceTags for upload; blocks while the queue is full, to slow down the source when Ranger admin
+     * can't keep up. Consecutive ServiceTags queued for a service are coalesced into a single upload.
+     */
+    @Override
+    public Future<ServiceTags> uploadAsync(ServiceTags toUpload) throws Exception {
+        LOG.debug("==> uploadAsync()");
+
+        UploadWorkItem uploadWorkItem = new UploadWorkItem(toUpload);
+
+        uploadQueue.put(uploadWorkItem);
+
+        LOG.debug("<== uploadAsync()");
+
+        return uploadWorkItem.getUploadedServiceTags();
+    }
+
     @Override
     public boolean start() {
-        myThread = new Thread(this);
+        for (int i = 0; i < maxConcurrentUploads; i++) {
+            Thread uploadThread = new Thread(this, "TagAdminRESTSink-" + i);
 
-        myThread.setDaemon(true);
-        myThread.start();
+            uploadThread.setDaemon(true);
+            uploadThread.start();
+
+            uploadThreads.add(uploadThread);
+        }
+
+        RangerMetricsUtil.registerPluginMetricsSource(METRICS_SOURCE_NAME, uploadQueue::getMetrics);
 
         return true;
     }
 
     @Override
     public void stop() {
-        if (myThread != null && myThread.isAlive()) {
-            myThread.interrupt();
+        RangerMetricsUtil.unregisterPluginMetricsSource(METRICS_SOURCE_NAME);
+
+        for (Thread uploadThread : uploadThreads) {
+            if (uploadThread.isAlive()) {
+                uploadThread.interrupt();
+            }
         }
+
+        uploadThreads.clear();
     }
 
     @Override
@@ -145,8 +175,13 @@ public void run() {
         while (true) {
             if (TagSyncConfig.isTagSyncServiceActive()) {
                 try {
-                    UploadWorkItem uploadWorkItem = uploadWorkItems.take();
-                    ServiceTags    toUpload       = uploadWorkItem.getServiceTags();
+                    UploadBatch uploadBatch = uploadQueue.take();
+                    ServiceTags toUpload    = uploadBatch.getServiceTags();
+                    long        startTime   = System.currentTimeMillis();
+
+                    if (uploadBatch.getItems().size() > 1) {
+                        LOG.debug("Coalesced {} uploads for service {}", uploadBatch.getItems().size(), uploadBatch.getServiceName());
+                    }
 
                     boolean doRetry;
 
@@ -162,7 +197,11 @@ public void run() {
                                 Thread.sleep(rangerAdminConnectionCheckInterval);
                             } else {
                                 // ServiceTags uploaded successfully
-                                uploadWorkItem.uploadCompleted(uploaded);
+                                uploadQueue.uploadCompleted(uploadBatch, System.currentTimeMillis() - startTime);
+
+                                for (UploadWorkItem uploadWorkItem : uploadBatch.getItems()) {
+                                    uploadWorkItem.uploadCompleted(uploadWorkItem.getServiceTags());
+                                }
                             }
                         } catch (InterruptedException interrupted) {
                             LOG.error("Caught exception..: ", interrupted);
@@ -347,9 +386,10 @@ private ClientResponse uploadTagsWithCookie(ServiceTags serviceTags) {
         LOG.debug("==> uploadTagsWithCookie");
 
         ClientResponse response = null;
+        Cookie         cookie   = sessionId;
 
         try {
-            response = tagRESTClient.put(REST_URL_IMPORT_SERVICETAGS_RESOURCE, serviceTags, sessionId);
+            response = tagRESTClient.put(REST_URL_IMPORT_SERVICETAGS_RESOURCE, serviceTags, cookie);
         } catch (Exception e) {
             LOG.error("Failed to get response, Error is : {}", e.getMessage());
         }
@@ -367,7 +407,7 @@ private ClientResponse uploadTagsWithCookie(ServiceTags serviceTags) {
 
                 for (NewCookie respCookie : respCookieList) {
                     if (respCookie.getName().equalsIgnoreCase(rangerAdminCookieName)) {
-                        if (!(sessionId.getValue().equalsIgnoreCase(respCookie.toCookie().getValue()))) {
+                        if (cookie == null || !(cookie.getValue().equalsIgnoreCase(respCookie.toCookie().getValue()))) {
                             sessionId = respCookie.toCookie();
                         }
 
@@ -384,13 +424,15 @@ private ClientResponse uploadTagsWithCookie(ServiceTags serviceTags) {
     }
 
     static class UploadWorkItem {
-        private       ServiceTags                serviceTags;
-        private final BlockingQueue<ServiceTags> uploadedServiceTags;
+        private       ServiceTags                    serviceTags;
+        private final CompletableFuture<ServiceTags> uploadedServiceTags;
+        private final long                           enqueueTime;
 
         UploadWorkItem(ServiceTags serviceTags) {
             setServiceTags(serviceTags);
 
-            uploadedServiceTags = new ArrayBlockingQueue<>(1);
+            uploadedServiceTags = new CompletableFuture<>();
+            enqueueTime         = System.currentTimeMillis();
         }
 
         ServiceTags getServiceTags() {
@@ -401,13 +443,17 @@ void setServiceTags(ServiceTags serviceTags) {
             this.serviceTags = serviceTags;
         }
 
-        ServiceTags waitForUpload() throws InterruptedException {
-            return uploadedServiceTags.take();
+        long getEnqueueTime() {
+            return enqueueTime;
+        }
+
+        Future<ServiceTags> getUploadedServiceTags() {
+            return uploadedServiceTags;
         }
 
-        void uploadCompleted(ServiceTags uploaded) throws InterruptedException {
+        void uploadCompleted(ServiceTags uploaded) {
             // ServiceTags uploaded successfully
-            uploadedServiceTags.put(uploaded);
+            uploadedServiceTags.complete(uploaded);
         }
     }
 }
@@ -0,0 +1,454 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.tagsync.sink.tagadmin;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.plugin.model.RangerBaseModelObject;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.model.RangerTagDef;
+import org.apache.ranger.plugin.model.RangerTagDef.RangerTagAttributeDef;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.tagsync.sink.tagadmin.TagAdminRESTSink.UploadWorkItem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue of ServiceTags to upload to Ranger admin, with items grouped by service.
+ *
+ * take() returns consecutive items of a service coalesced into a single upload, and doesn't return items of a service
+ * while an earlier upload for the service is in progress - so that uploads of a service are applied in order, while
+ * uploads of different services can proceed concurrently. put() blocks while maxPendingItems items are pending.
+ */
+class TagUploadQueue {
+    private final int                                  maxPendingItems;
+    private final ReentrantLock                        lock           = new ReentrantLock();
+    private final Condition                            notFull        = lock.newCondition();
+    private final Condition                            available      = lock.newCondition();
+    private final Map<String, Deque<UploadWorkItem>>   pendingItems   = new LinkedHashMap<>();
+    private final Map<String, Long>                    inProgress     = new HashMap<>(); // serviceName => enqueue time of the oldest item being uploaded
+    private       int                                  pendingCount;
+    private       long                                 uploadCount;
+    private       long                                 uploadedItemCount;
+    private       long                                 coalescedItemCount;
+    private       long                                 uploadTimeMs;
+    private       long                                 lastMetricsTime = System.currentTimeMillis();
+    private       long                                 lastMetricsUploadedItemCount;
+
+    TagUploadQueue(int maxPendingItems) {
+        this.maxPendingItems = Math.max(maxPendingItems, 1);
+    }
+
+    void put(UploadWorkItem item) throws InterruptedException {
+        lock.lockInterruptibly();
+
+        try {
+            while (pendingCount >= maxPendingItems) {
+                notFull.await();
+            }
+
+            pendingItems.computeIfAbsent(getServiceName(item), k -> new ArrayDeque<>()).add(item);
+
+            pendingCount++;
+
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    UploadBatch take() throws InterruptedException {
+        lock.lockInterruptibly();
+
+        try {
+            while (true) {
+                for (Iterator<Map.Entry<String, Deque<UploadWorkItem>>> iter = pendingItems.entrySet().iterator(); iter.hasNext(); ) {
+                    Map.Entry<String, Deque<UploadWorkItem>> entry = iter.next();
+
+                    if (inProgress.containsKey(entry.getKey())) {
+                        continue;
+                    }
+
+                    Deque<UploadWorkItem> items = entry.getValue();
+                    UploadBatch           ret   = coalesce(entry.getKey(), items);
+
+                    // move the service to the end, so that other services get their turn
+                    iter.remove();
+
+                    if (!items.isEmpty()) {
+                        pendingItems.put(entry.getKey(), items);
+                    }
+
+                    inProgress.put(ret.getServiceName(), ret.getEnqueueTime());
+
+                    pendingCount       -= ret.getItems().size();
+                    coalescedItemCount += ret.getItems().size() - 1;
+
+                    notFull.signalAll();
+
+                    return ret;
+                }
+
+                available.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void uploadCompleted(UploadBatch batch, long timeTakenMs) {
+        lock.lock();
+
+        try {
+            inProgress.remove(batch.getServiceName());
+
+            uploadCount++;
+            uploadedItemCount += batch.getItems().size();
+            uploadTimeMs      += timeTakenMs;
+
+            if (pendingItems.containsKey(batch.getServiceName())) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Map<String, Object> getMetrics() {
+        lock.lock();
+
+        try {
+            long                now           = System.currentTimeMillis();
+            long                oldestEnqueue = now;
+            long                elapsedMs     = Math.max(now - lastMetricsTime, 1);
+            Map<String, Object> ret           = new LinkedHashMap<>();
+
+            for (Deque<UploadWorkItem> items : pendingItems.values()) {
+                oldestEnqueue = Math.min(oldestEnqueue, items.peekFirst().getEnqueueTime());
+            }
+
+            for (Long enqueueTime : inProgress.values()) {
+                oldestEnqueue = Math.min(oldestEnqueue, enqueueTime);
+            }
+
+            ret.put("pendingUploads", pendingCount);
+            ret.put("inProgressUploads", inProgress.size());
+            ret.put("lagMs", now - oldestEnqueue);
+            ret.put("uploadCount", uploadCount);
+            ret.put("uploadedItemCount", uploadedItemCount);
+            ret.put("coalescedItemCount", coalescedItemCount);
+            ret.put("avgUploadTimeMs", uploadCount > 0 ? uploadTimeMs / uploadCount : 0);
+            ret.put("uploadedItemsPerSec", (uploadedItemCount - lastMetricsUploadedItemCount) * 1000.0 / elapsedMs);
+
+            lastMetricsTime              = now;
+            lastMetricsUploadedItemCount = uploadedItemCount;
+
+            return ret;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes consecutive items that can be uploaded together from the given queue: deltas with the same op are merged,
+     * and a replace of all tags of the service supersedes the items queued before it.
+     */
+    static UploadBatch coalesce(String serviceName, Deque<UploadWorkItem> items) {
+        List<UploadWorkItem> batchItems = new ArrayList<>();
+        long                 enqueue    = items.peek().getEnqueueTime();
+        int                  replaceIdx = -1;
+        int                  idx        = 0;
+
+        for (UploadWorkItem item : items) {
+            if (StringUtils.equals(item.getServiceTags().getOp(), ServiceTags.OP_REPLACE)) {
+                replaceIdx = idx;
+            }
+
+            idx++;
+        }
+
+        // items queued before a replace need not be uploaded
+        for (int i = 0; i < replaceIdx; i++) {
+            batchItems.add(items.poll());
+        }
+
+        UploadWorkItem first  = items.poll();
+        ServiceTags    merged = first.getServiceTags();
+
+        batchItems.add(first);
+
+        for (UploadWorkItem next = items.peek(); next != null && canMerge(merged, next.getServiceTags()); next = items.peek()) {
+            if (merged == first.getServiceTags()) {
+                merged = new ServiceTags(merged);
+            }
+
+            merge(merged, next.getServiceTags());
+
+            batchItems.add(items.poll());
+        }
+
+        return new UploadBatch(serviceName, batchItems, merged, enqueue);
+    }
+
+    static boolean canMerge(ServiceTags target, ServiceTags source) {
+        return (StringUtils.equals(target.getOp(), ServiceTags.OP_ADD_OR_UPDATE) || StringUtils.equals(target.getOp(), ServiceTags.OP_DELETE)) &&
+                StringUtils.equals(target.getOp(), source.getOp()) &&
+                StringUtils.equals(target.getServiceName(), source.getServiceName()) &&
+                Objects.equals(target.getIsDelta(), source.getIsDelta());
+    }
+
+    /**
+     * Adds tag-defs, tags and resources of source to target, with IDs reassigned to not conflict with the IDs in target.
+     * For a resource present in both, tags in source replace those in target - as if source was uploaded after target.
+     *
+     * Objects in source and target are shared with the queued items, which are uploaded as is if the merged upload
+     * fails; hence tag-defs, tags and resources are copied before being updated.
+     */
+    static void merge(ServiceTags target, ServiceTags source) {
+        Map<String, RangerTagDef> tagDefsByName = new HashMap<>();
+
+        for (RangerTagDef tagDef : target.getTagDefinitions().values()) {
+            tagDefsByName.put(tagDef.getName(), tagDef);
+        }
+
+        long nextTagDefId = nextId(target.getTagDefinitions().keySet());
+
+        for (RangerTagDef tagDef : source.getTagDefinitions().values()) {
+            RangerTagDef existing = tagDefsByName.get(tagDef.getName());
+
+            if (existing == null) {
+                RangerTagDef copy = copyOf(tagDef);
+
+                copy.setId(nextTagDefId++);
+
+                target.getTagDefinitions().put(copy.getId(), copy);
+                tagDefsByName.put(copy.getName(), copy);
+            } else if (CollectionUtils.isNotEmpty(tagDef.getAttributeDefs())) {
+                List<RangerTagAttributeDef> attrDefs = existing.getAttributeDefs() != null ? new ArrayList<>(existing.getAttributeDefs()) : new ArrayList<>();
+
+                for (RangerTagAttributeDef attrDef : tagDef.getAttributeDefs()) {
+                    boolean attrDefExists = attrDefs.stream().anyMatch(a -> StringUtils.equalsIgnoreCase(a.getName(), attrDef.getName()));
+
+                    if (!attrDefExists) {
+                        attrDefs.add(attrDef);
+                    }
+                }
+
+                if (existing.getAttributeDefs() == null || attrDefs.size() > existing.getAttributeDefs().size()) {
+                    RangerTagDef copy = copyOf(existing);
+
+                    copy.setAttributeDefs(attrDefs);
+
+                    target.getTagDefinitions().put(copy.getId(), copy);
+                    tagDefsByName.put(copy.getName(), copy);
+                }
+            }
+        }
+
+        Map<String, Integer> resourceIndex = new HashMap<>();
+
+        for (int i = 0; i < target.getServiceResources().size(); i++) {
+            resourceIndex.put(getResourceKey(target.getServiceResources().get(i)), i);
+        }
+
+        long            nextResourceId = nextResourceId(target.getServiceResources());
+        long            nextTagId      = nextId(target.getTags().keySet());
+        Map<Long, Long> tagIdMap       = new HashMap<>(); // source tag ID => target tag ID
+        Set<Long>       replacedTagIds = new HashSet<>();
+
+        for (RangerServiceResource resource : source.getServiceResources()) {
+            List<Long> sourceTagIds = source.getResourceToTagIds().get(resource.getId());
+            List<Long> tagIds       = null;
+
+            if (sourceTagIds != null) {
+                tagIds = new ArrayList<>(sourceTagIds.size());
+
+                for (Long sourceTagId : sourceTagIds) {
+                    Long tagId = tagIdMap.get(sourceTagId);
+
+                    if (tagId == null) {
+                        RangerTag tag = source.getTags().get(sourceTagId);
+
+                        if (tag == null) {
+                            continue;
+                        }
+
+                        RangerTag copy = copyOf(tag);
+
+                        copy.setId(nextTagId++);
+
+                        target.getTags().put(copy.getId(), copy);
+                        tagIdMap.put(sourceTagId, copy.getId());
+
+                        tagId = copy.getId();
+                    }
+
+                    tagIds.add(tagId);
+                }
+            }
+
+            RangerServiceResource copy          = copyOf(resource);
+            String                resourceKey   = getResourceKey(resource);
+            Integer               existingIndex = resourceIndex.get(resourceKey);
+
+            if (existingIndex != null) {
+                RangerServiceResource existing = target.getServiceResources().get(existingIndex);
+
+                copy.setId(existing.getId());
+
+                target.getServiceResources().set(existingIndex, copy);
+            } else {
+                copy.setId(nextResourceId++);
+
+                resourceIndex.put(resourceKey, target.getServiceResources().size());
+                target.getServiceResources().add(copy);
+            }
+
+            List<Long> prevTagIds = tagIds != null ? target.getResourceToTagIds().put(copy.getId(), tagIds) : target.getResourceToTagIds().remove(copy.getId());
+
+            if (prevTagIds != null) {
+                replacedTagIds.addAll(prevTagIds);
+            }
+        }
+
+        // drop tags of replaced resources that are no longer referenced
+        if (!replacedTagIds.isEmpty()) {
+            for (List<Long> tagIds : target.getResourceToTagIds().values()) {
+                replacedTagIds.removeAll(tagIds);
+            }
+
+            for (Long tagId : replacedTagIds) {
+                target.getTags().remove(tagId);
+            }
+        }
+    }
+
+    private static RangerTagDef copyOf(RangerTagDef tagDef) {
+        RangerTagDef ret = new RangerTagDef(tagDef.getName(), tagDef.getSource());
+
+        copyBaseFields(tagDef, ret);
+        ret.setAttributeDefs(tagDef.getAttributeDefs() != null ? new ArrayList<>(tagDef.getAttributeDefs()) : null);
+
+        return ret;
+    }
+
+    private static RangerTag copyOf(RangerTag tag) {
+        RangerTag ret = new RangerTag(tag.getGuid(), tag.getType(), tag.getAttributes(), tag.getOwner(), tag.getOptions(), tag.getValidityPeriods());
+
+        copyBaseFields(tag, ret);
+
+        return ret;
+    }
+
+    private static RangerServiceResource copyOf(RangerServiceResource resource) {
+        RangerServiceResource ret = new RangerServiceResource(resource.getGuid(), resource.getServiceName(), resource.getResourceElements(), resource.getResourceSignature(), resource.getOwnerUser(), resource.getAdditionalInfo());
+
+        copyBaseFields(resource, ret);
+
+        return ret;
+    }
+
+    private static void copyBaseFields(RangerBaseModelObject source, RangerBaseModelObject target) {
+        target.setId(source.getId());
+        target.setGuid(source.getGuid());
+        target.setIsEnabled(source.getIsEnabled());
+        target.setCreatedBy(source.getCreatedBy());
+        target.setUpdatedBy(source.getUpdatedBy());
+        target.setCreateTime(source.getCreateTime());
+        target.setUpdateTime(source.getUpdateTime());
+        target.setVersion(source.getVersion());
+    }
+
+    private static String getServiceName(UploadWorkItem item) {
+        return StringUtils.defaultString(item.getServiceTags().getServiceName());
+    }
+
+    private static String getResourceKey(RangerServiceResource resource) {
+        return resource.getGuid() != null ? resource.getGuid() : String.valueOf(resource.getResourceElements());
+    }
+
+    private static long nextId(Iterable<Long> ids) {
+        long ret = 0;
+
+        for (Long id : ids) {
+            if (id != null && id >= ret) {
+                ret = id + 1;
+            }
+        }
+
+        return ret;
+    }
+
+    private static long nextResourceId(List<RangerServiceResource> resources) {
+        long ret = 0;
+
+        for (RangerServiceResource resource : resources) {
+            if (resource.getId() != null && resource.getId() >= ret) {
+                ret = resource.getId() + 1;
+            }
+        }
+
+        return ret;
+    }
+
+    static class UploadBatch {
+        private final String               serviceName;
+        private final List<UploadWorkItem> items;
+        private final ServiceTags          serviceTags;
+        private final long                 enqueueTime;
+
+        UploadBatch(String serviceName, List<UploadWorkItem> items, ServiceTags serviceTags, long enqueueTime) {
+            this.serviceName = serviceName;
+            this.items       = Collections.unmodifiableList(items);
+            this.serviceTags = serviceTags;
+            this.enqueueTime = enqueueTime;
+        }
+
+        String getServiceName() {
+            return serviceName;
+        }
+
+        List<UploadWorkItem> getItems() {
+            return items;
+        }
+
+        ServiceTags getServiceTags() {
+            return serviceTags;
+        }
+
+        long getEnqueueTime() {
+            return enqueueTime;
+        }
+    }
+}
@@ -38,11 +38,15 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class AtlasTagSource extends AbstractTagSource {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTagSource.class);
@@ -155,6 +159,7 @@ private class ConsumerRunnable implements Runnable {
         private final List<RangerAtlasEntityWithTags>             atlasEntitiesWithTags = new ArrayList<>();
         private final List<AtlasKafkaMessage<EntityNotification>> messages              = new ArrayList<>();
         private       AtlasKafkaMessage<EntityNotification>       lastUnhandledMessage;
+        private final Deque<PendingCommit>                        pendingCommits        = new ArrayDeque<>();
 
         private long    offsetOfLastMessageCommittedToKafka = -1L;
         private boolean isHandlingDeleteOps;
@@ -217,9 +222,11 @@ public void run() {
                             }
                         }
                         if (lastUnhandledMessage != null) {
-                            commitToKafka(lastUnhandledMessage);
+                            pendingCommits.add(new PendingCommit(lastUnhandledMessage, Collections.emptyList()));
                             lastUnhandledMessage = null;
                         }
+
+                        commitCompletedUploads();
                     } catch (Exception exception) {
                         LOG.error("Caught exception..: ", exception);
                         // If transient error, retry after short interval
@@ -239,7 +246,8 @@ private void buildAndUploadServiceTags() throws Exception {
             LOG.debug("==> buildAndUploadServiceTags()");
 
             if (CollectionUtils.isNotEmpty(atlasEntitiesWithTags) && CollectionUtils.isNotEmpty(messages)) {
-                Map<String, ServiceTags> serviceTagsMap = AtlasNotificationMapper.processAtlasEntities(atlasEntitiesWithTags);
+                Map<String, ServiceTags>  serviceTagsMap = AtlasNotificationMapper.processAtlasEntities(atlasEntitiesWithTags);
+                List<Future<ServiceTags>> uploads        = new ArrayList<>();
 
                 if (MapUtils.isNotEmpty(serviceTagsMap)) {
                     if (serviceTagsMap.size() != 1) {
@@ -256,12 +264,14 @@ private void buildAndUploadServiceTags() throws Exception {
 
                         LOG.debug("serviceTags= {}", JsonUtils.objectToJson(entry.getValue()));
 
-                        updateSink(entry.getValue());
+                        // queue for upload without waiting, so that this batch can be coalesced with the next batches
+                        // of the service; offset of the batch is committed to Kafka after the upload completes
+                        uploads.add(updateSinkAsync(entry.getValue()));
                     }
                 }
 
-                AtlasKafkaMessage<EntityNotification> latestMessageDeliveredToRanger = messages.get(messages.size() - 1);
-                commitToKafka(latestMessageDeliveredToRanger);
+                AtlasKafkaMessage<EntityNotification> latestMessageQueuedToRanger = messages.get(messages.size() - 1);
+                pendingCommits.add(new PendingCommit(latestMessageQueuedToRanger, uploads));
 
                 atlasEntitiesWithTags.clear();
                 messages.clear();
@@ -272,6 +282,25 @@ private void buildAndUploadServiceTags() throws Exception {
             LOG.debug("<== buildAndUploadServiceTags()");
         }
 
+        /**
+         * Commits to Kafka offsets of messages whose uploads have completed, in the order the messages were received.
+         */
+        private void commitCompletedUploads() throws InterruptedException {
+            while (!pendingCommits.isEmpty()) {
+                PendingCommit pendingCommit = pendingCommits.peek();
+
+                if (!pendingCommit.isDone()) {
+                    break;
+                }
+
+                pendingCommits.poll();
+
+                if (pendingCommit.isSuccess()) {
+                    commitToKafka(pendingCommit.message);
+                }
+            }
+        }
+
         private void commitToKafka(AtlasKafkaMessage<EntityNotification> messageToCommit) {
             LOG.debug("==> commitToKafka({})", messageToCommit);
 
@@ -292,4 +321,32 @@ private void commitToKafka(AtlasKafkaMessage<EntityNotification> messageToCommit
             LOG.debug("<== commitToKafka({})", messageToCommit);
         }
     }
+
+    private static class PendingCommit {
+        final AtlasKafkaMessage<EntityNotification> message;
+        final List<Future<ServiceTags>>             uploads;
+
+        PendingCommit(AtlasKafkaMessage<EntityNotification> message, List<Future<ServiceTags>> uploads) {
+            this.message = message;
+            this.uploads = uploads;
+        }
+
+        boolean isDone() {
+            return uploads.stream().allMatch(Future::isDone);
+        }
+
+        boolean isSuccess() throws InterruptedException {
+            for (Future<ServiceTags> upload : uploads) {
+                try {
+                    upload.get();
+                } catch (ExecutionException excp) {
+                    LOG.error("Upload of service-tags failed. Offset {} will not be committed to Kafka", message.getOffset(), excp.getCause());
+
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 }
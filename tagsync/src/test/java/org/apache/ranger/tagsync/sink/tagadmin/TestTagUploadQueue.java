@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.tagsync.sink.tagadmin;
+
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.model.RangerTagDef;
+import org.apache.ranger.plugin.model.RangerTagDef.RangerTagAttributeDef;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.tagsync.sink.tagadmin.TagAdminRESTSink.UploadWorkItem;
+import org.apache.ranger.tagsync.sink.tagadmin.TagUploadQueue.UploadBatch;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TestTagUploadQueue {
+    @Test
+    public void testCoalesceDeltas() throws Exception {
+        TagUploadQueue queue = new TagUploadQueue(10);
+        UploadWorkItem item1 = new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII"));
+        UploadWorkItem item2 = new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid2", "PII"));
+        UploadWorkItem item3 = new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "FINANCE"));
+        UploadWorkItem item4 = new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_DELETE, "guid2", null));
+
+        queue.put(item1);
+        queue.put(item2);
+        queue.put(item3);
+        queue.put(item4);
+
+        UploadBatch batch = queue.take();
+
+        Assert.assertEquals(3, batch.getItems().size());
+
+        ServiceTags merged = batch.getServiceTags();
+
+        Assert.assertEquals(2, merged.getTagDefinitions().size());
+        Assert.assertEquals(2, merged.getServiceResources().size());
+
+        // tags of guid1 in the later delta replace those of the earlier delta
+        RangerServiceResource guid1 = merged.getServiceResources().get(0);
+
+        Assert.assertEquals("guid1", guid1.getGuid());
+        Assert.assertEquals("FINANCE", getTagTypes(merged, guid1).get(0));
+        Assert.assertEquals(Collections.singletonList("PII"), getTagTypes(merged, merged.getServiceResources().get(1)));
+
+        // the first item must not be modified by the merge
+        Assert.assertEquals(1, item1.getServiceTags().getServiceResources().size());
+
+        // next item of the service is not returned until the upload completes
+        Assert.assertEquals(1, queue.getMetrics().get("pendingUploads"));
+
+        queue.uploadCompleted(batch, 5);
+
+        UploadBatch batch2 = queue.take();
+
+        Assert.assertEquals(Collections.singletonList(item4), batch2.getItems());
+        Assert.assertEquals(2L, queue.getMetrics().get("coalescedItemCount"));
+    }
+
+    @Test
+    public void testMergeDropsReplacedTagsAndKeepsItemsUnchanged() throws Exception {
+        ServiceTags st1 = createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII");
+        ServiceTags st2 = createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid2", "FINANCE");
+        ServiceTags st3 = createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII");
+
+        st3.getTagDefinitions().get(0L).setAttributeDefs(new ArrayList<>(Collections.singletonList(new RangerTagAttributeDef("level", "string"))));
+
+        TagUploadQueue queue = new TagUploadQueue(10);
+
+        queue.put(new UploadWorkItem(st1));
+        queue.put(new UploadWorkItem(st2));
+        queue.put(new UploadWorkItem(st3));
+
+        ServiceTags merged = queue.take().getServiceTags();
+
+        // tag of guid1 from st1 is replaced by that from st3, and is no longer referenced
+        Assert.assertEquals(2, merged.getTags().size());
+        Assert.assertEquals(Collections.singletonList("PII"), getTagTypes(merged, merged.getServiceResources().get(0)));
+        Assert.assertEquals(Collections.singletonList("FINANCE"), getTagTypes(merged, merged.getServiceResources().get(1)));
+        Assert.assertEquals(1, merged.getTagDefinitions().get(0L).getAttributeDefs().size());
+
+        // queued items are not modified by the merge
+        Assert.assertNull(st1.getTagDefinitions().get(0L).getAttributeDefs());
+        Assert.assertEquals(Long.valueOf(0L), st2.getTags().get(0L).getId());
+        Assert.assertEquals(Long.valueOf(0L), st2.getTagDefinitions().get(0L).getId());
+        Assert.assertEquals(Long.valueOf(0L), st2.getServiceResources().get(0).getId());
+        Assert.assertEquals(Long.valueOf(0L), st3.getTags().get(0L).getId());
+    }
+
+    @Test
+    public void testReplaceSupersedesEarlierItems() throws Exception {
+        TagUploadQueue queue   = new TagUploadQueue(10);
+        ServiceTags    replace = createServiceTags("svc1", ServiceTags.OP_REPLACE, "guid3", "PII");
+
+        queue.put(new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII")));
+        queue.put(new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_DELETE, "guid2", null)));
+        queue.put(new UploadWorkItem(replace));
+
+        UploadBatch batch = queue.take();
+
+        Assert.assertEquals(3, batch.getItems().size());
+        Assert.assertSame(replace, batch.getServiceTags());
+    }
+
+    @Test
+    public void testServicesUploadConcurrently() throws Exception {
+        TagUploadQueue queue = new TagUploadQueue(10);
+
+        queue.put(new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII")));
+        queue.put(new UploadWorkItem(createServiceTags("svc2", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII")));
+
+        UploadBatch batch1 = queue.take();
+        UploadBatch batch2 = queue.take();
+
+        Assert.assertEquals("svc1", batch1.getServiceName());
+        Assert.assertEquals("svc2", batch2.getServiceName());
+        Assert.assertEquals(2, queue.getMetrics().get("inProgressUploads"));
+    }
+
+    @Test
+    public void testPutBlocksWhenFull() throws Exception {
+        TagUploadQueue queue = new TagUploadQueue(2);
+
+        queue.put(new UploadWorkItem(createServiceTags("svc1", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII")));
+        queue.put(new UploadWorkItem(createServiceTags("svc2", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII")));
+
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(new UploadWorkItem(createServiceTags("svc3", ServiceTags.OP_ADD_OR_UPDATE, "guid1", "PII")));
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        producer.start();
+        producer.join(200);
+
+        Assert.assertTrue(producer.isAlive());
+
+        queue.take();
+
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(2, queue.getMetrics().get("pendingUploads"));
+    }
+
+    private static ServiceTags createServiceTags(String serviceName, String op, String guid, String tagType) {
+        ServiceTags           ret      = new ServiceTags();
+        RangerServiceResource resource = new RangerServiceResource(guid, serviceName, Collections.singletonMap("database", new RangerPolicyResource(guid)));
+
+        ret.setServiceName(serviceName);
+        ret.setOp(op);
+        ret.setTagDefinitions(new HashMap<>());
+        ret.setTags(new HashMap<>());
+        ret.setServiceResources(new ArrayList<>());
+        ret.setResourceToTagIds(new HashMap<>());
+
+        resource.setId(0L);
+        ret.getServiceResources().add(resource);
+
+        if (tagType != null) {
+            RangerTagDef tagDef = new RangerTagDef(tagType);
+            RangerTag    tag    = new RangerTag(tagType, null);
+
+            tagDef.setId(0L);
+            tag.setId(0L);
+
+            ret.getTagDefinitions().put(0L, tagDef);
+            ret.getTags().put(0L, tag);
+            ret.getResourceToTagIds().put(0L, new ArrayList<>(Collections.singletonList(0L)));
+        }
+
+        return ret;
+    }
+
+    private static List<String> getTagTypes(ServiceTags serviceTags, RangerServiceResource resource) {
+        List<String> ret = new ArrayList<>();
+
+        for (Long tagId : serviceTags.getResourceToTagIds().get(resource.getId())) {
+            ret.add(serviceTags.getTags().get(tagId).getType());
+        }
+
+        return ret;
+    }
+}
@@ -202,6 +202,7 @@ public class UserGroupSyncConfig {
     private static final String SYNC_POLICY_MGR_USERNAME                                             = "ranger.usersync.policymgr.username";
     private static final String SYNC_POLICY_MGR_MAX_RETRY_ATTEMPTS                                   = "ranger.usersync.policymgr.max.retry.attempts";
     private static final String SYNC_POLICY_MGR_RETRY_INTERVAL_MS                                    = "ranger.usersync.policymgr.retry.interval.ms";
+    private static final String SYNC_POLICY_MGR_MAX_MEMBERSHIPS_PER_API_CALL                         = "ranger.usersync.policymgr.max.memberships.per.api.call";
     private static final String DEFAULT_POLICYMGR_USERNAME                                           = "rangerusersync";
 
     /* Other Configs */
@@ -1081,6 +1082,10 @@ public int getPolicyMgrRetryIntervalMs() {
         return getIntProperty(prop, SYNC_POLICY_MGR_RETRY_INTERVAL_MS, 1_000);
     }
 
+    public int getPolicyMgrMaxMembershipsPerAPICall() {
+        return getIntProperty(prop, SYNC_POLICY_MGR_MAX_MEMBERSHIPS_PER_API_CALL, 10_000);
+    }
+
     public String getSyncSource() {
         String syncSource = null;
 
@@ -130,6 +130,7 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
     private boolean isUserSyncNameValidationEnabled;
     private boolean isSyncSourceValidationEnabled;
     private String  recordsToPullPerCall = "10";
+    private int     maxMembershipsPerCall;
     private String  currentSyncSource;
     private String  ldapUrl;
     private String  authenticationType;
@@ -178,6 +179,7 @@ public synchronized void init() throws Throwable {
         isUserSyncNameValidationEnabled = config.isUserSyncNameValidationEnabled();
         isSyncSourceValidationEnabled   = config.isSyncSourceValidationEnabled();
         recordsToPullPerCall            = config.getMaxRecordsPerAPICall();
+        maxMembershipsPerCall           = config.getPolicyMgrMaxMembershipsPerAPICall();
         policyMgrBaseUrl                = config.getPolicyManagerBaseURL();
         isMockRun                       = config.isMockRunEnabled();
         isRangerCookieEnabled           = config.isUserSyncRangerCookieEnabled();
@@ -1214,22 +1216,20 @@ private int addOrUpdateDeltaGroupUsers(List<GroupUserInfo> groupUserInfoList) th
     private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwable {
         LOG.debug("==> PolicyMgrUserGroupBuilder.getGroupUsers()");
 
-        int ret           = 0;
-        int totalCount    = groupUserInfoList.size();
-        int uploadedCount = 0;
-        int pageSize      = Integer.parseInt(recordsToPullPerCall);
+        int                       ret           = 0;
+        int                       totalCount    = groupUserInfoList.size();
+        int                       uploadedCount = 0;
+        List<List<GroupUserInfo>> pages         = partitionGroupUsers(groupUserInfoList, Integer.parseInt(recordsToPullPerCall), maxMembershipsPerCall);
 
-        while (uploadedCount < totalCount) {
+        for (List<GroupUserInfo> pagedGroupUserInfoList : pages) {
             checkStatus();
 
-            int pagedGroupUserInfoListLen              = uploadedCount + pageSize;
-            List<GroupUserInfo> pagedGroupUserInfoList = groupUserInfoList.subList(uploadedCount, pagedGroupUserInfoListLen > totalCount ? totalCount : pagedGroupUserInfoListLen);
-            String response                            = getDataFromLdap(PM_ADD_GROUP_USER_LIST_URI, pagedGroupUserInfoList);
+            String response = getDataFromLdap(PM_ADD_GROUP_USER_LIST_URI, pagedGroupUserInfoList);
 
             if (StringUtils.isNotEmpty(response)) {
                 try {
                     ret            = Integer.parseInt(response);
-                    uploadedCount += pageSize;
+                    uploadedCount += pagedGroupUserInfoList.size();
                 } catch (NumberFormatException e) {
                     LOG.error("Failed to addOrUpdateGroupUsers {}", uploadedCount, e);
                     throw e;
@@ -1239,7 +1239,7 @@ private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwabl
                 throw new Exception("Failed to addOrUpdateGroupUsers " + uploadedCount);
             }
 
-            LOG.info("API returned: {}, No. of group memberships uploaded to ranger admin = {}", ret, (uploadedCount > totalCount ? totalCount : uploadedCount));
+            LOG.info("API returned: {}, No. of group memberships uploaded to ranger admin = {}", ret, Math.min(uploadedCount, totalCount));
         }
 
         LOG.debug("<== PolicyMgrUserGroupBuilder.getGroupUsers()");
@@ -1247,6 +1247,85 @@ private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwabl
         return ret;
     }
 
+    /**
+     * Splits group membership changes into pages to be uploaded in separate API calls, each with at most maxGroups
+     * entries and maxMemberships added/deleted users. Changes of a group having more than maxMemberships users are
+     * split into multiple entries, so that the size of a request doesn't depend on the size of the largest group.
+     */
+    static List<List<GroupUserInfo>> partitionGroupUsers(List<GroupUserInfo> groupUserInfoList, int maxGroups, int maxMemberships) {
+        List<List<GroupUserInfo>> ret         = new ArrayList<>();
+        List<GroupUserInfo>       page        = new ArrayList<>();
+        int                       memberships = 0;
+
+        for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+            for (GroupUserInfo entry : splitGroupUsers(groupUserInfo, maxMemberships)) {
+                int entryMemberships = CollectionUtils.size(entry.getAddUsers()) + CollectionUtils.size(entry.getDelUsers());
+
+                if (!page.isEmpty() && (page.size() >= maxGroups || (maxMemberships > 0 && memberships + entryMemberships > maxMemberships))) {
+                    ret.add(page);
+
+                    page        = new ArrayList<>();
+                    memberships = 0;
+                }
+
+                page.add(entry);
+
+                memberships += entryMemberships;
+            }
+        }
+
+        if (!page.isEmpty()) {
+            ret.add(page);
+        }
+
+        return ret;
+    }
+
+    private static List<GroupUserInfo> splitGroupUsers(GroupUserInfo groupUserInfo, int maxMemberships) {
+        int addCount = CollectionUtils.size(groupUserInfo.getAddUsers());
+        int delCount = CollectionUtils.size(groupUserInfo.getDelUsers());
+
+        if (maxMemberships <= 0 || addCount + delCount <= maxMemberships) {
+            return Collections.singletonList(groupUserInfo);
+        }
+
+        List<GroupUserInfo> ret = new ArrayList<>();
+
+        if (groupUserInfo.getAddUsers() != null) {
+            for (String user : groupUserInfo.getAddUsers()) {
+                addToLastEntry(ret, groupUserInfo.getGroupName(), user, true, maxMemberships);
+            }
+        }
+
+        if (groupUserInfo.getDelUsers() != null) {
+            for (String user : groupUserInfo.getDelUsers()) {
+                addToLastEntry(ret, groupUserInfo.getGroupName(), user, false, maxMemberships);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addToLastEntry(List<GroupUserInfo> entries, String groupName, String user, boolean isAdd, int maxMemberships) {
+        GroupUserInfo entry = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+
+        if (entry == null || entry.getAddUsers().size() + entry.getDelUsers().size() >= maxMemberships) {
+            entry = new GroupUserInfo();
+
+            entry.setGroupName(groupName);
+            entry.setAddUsers(new HashSet<>());
+            entry.setDelUsers(new HashSet<>());
+
+            entries.add(entry);
+        }
+
+        if (isAdd) {
+            entry.getAddUsers().add(user);
+        } else {
+            entry.getDelUsers().add(user);
+        }
+    }
+
     private String updateRoles(UsersGroupRoleAssignments ugRoleAssignments) {
         LOG.debug("==> PolicyMgrUserGroupBuilder.updateUserRole({})", ugRoleAssignments.getUsers());
 
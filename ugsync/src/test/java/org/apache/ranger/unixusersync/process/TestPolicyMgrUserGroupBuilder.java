@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.unixusersync.process;
+
+import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPolicyMgrUserGroupBuilder {
+    @Test
+    public void testPartitionByGroupCount() {
+        List<GroupUserInfo> groupUsers = Arrays.asList(groupUsers("g1", 2, 0), groupUsers("g2", 2, 0), groupUsers("g3", 2, 0));
+
+        List<List<GroupUserInfo>> pages = PolicyMgrUserGroupBuilder.partitionGroupUsers(groupUsers, 2, 0);
+
+        assertEquals(2, pages.size());
+        assertEquals(2, pages.get(0).size());
+        assertEquals(1, pages.get(1).size());
+    }
+
+    @Test
+    public void testPartitionLargeGroupByMembershipCount() {
+        List<GroupUserInfo> groupUsers = Arrays.asList(groupUsers("g1", 2, 1), groupUsers("large", 7, 3), groupUsers("g3", 1, 0));
+
+        List<List<GroupUserInfo>> pages = PolicyMgrUserGroupBuilder.partitionGroupUsers(groupUsers, 100, 4);
+
+        Set<String> addedToLarge   = new HashSet<>();
+        Set<String> deletedInLarge = new HashSet<>();
+
+        for (List<GroupUserInfo> page : pages) {
+            int memberships = 0;
+
+            for (GroupUserInfo entry : page) {
+                memberships += entry.getAddUsers().size() + entry.getDelUsers().size();
+
+                if (entry.getGroupName().equals("large")) {
+                    addedToLarge.addAll(entry.getAddUsers());
+                    deletedInLarge.addAll(entry.getDelUsers());
+                }
+            }
+
+            assertTrue("memberships=" + memberships, memberships <= 4);
+        }
+
+        assertEquals(groupUsers.get(1).getAddUsers(), addedToLarge);
+        assertEquals(groupUsers.get(1).getDelUsers(), deletedInLarge);
+        assertEquals("g1", pages.get(0).get(0).getGroupName());
+
+        List<GroupUserInfo> lastPage = pages.get(pages.size() - 1);
+
+        assertEquals("g3", lastPage.get(lastPage.size() - 1).getGroupName());
+    }
+
+    private static GroupUserInfo groupUsers(String groupName, int addCount, int delCount) {
+        GroupUserInfo ret = new GroupUserInfo();
+
+        ret.setGroupName(groupName);
+        ret.setAddUsers(users(groupName + "-add-", addCount));
+        ret.setDelUsers(users(groupName + "-del-", delCount));
+
+        return ret;
+    }
+
+    private static Set<String> users(String prefix, int count) {
+        Set<String> ret = new HashSet<>();
+
+        for (int i = 0; i < count; i++) {
+            ret.add(prefix + i);
+        }
+
+        return ret;
+    }
+}
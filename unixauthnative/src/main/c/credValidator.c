@@ -26,16 +26,22 @@
 
 #define STRLEN 64
 
-int main(int ac, char **av, char **ev)
+/*
+ * validates one request of format "LOGIN:<username> <password>"; writes the result to stdout
+ * returns 0 if the password is valid, 1 otherwise
+ */
+static int validate(const char *line)
 {
 	char username[STRLEN] ;
 	char password[STRLEN] ;
-	char line[512] ;
 	char format[20];
 	struct passwd *pwp;
 	struct spwd *spwd ;
+	int ret = 1 ;
+
+	username[0] = '\0' ;
+	password[0] = '\0' ;
 
-	fgets(line,512,stdin) ;
 	sprintf(format, "LOGIN:%%%ds %%%ds", STRLEN-1, STRLEN-1);
 	sscanf(line, format, username,password) ;
 
@@ -43,29 +49,67 @@ int main(int ac, char **av, char **ev)
 
 	if (pwp == (struct passwd *)NULL) {
 		fprintf(stdout, "FAILED: [%s] does not exists.\n", username) ;
-		exit(1) ;
 	}
-
-	spwd = getspnam(pwp->pw_name) ;
-
-	if (spwd == (struct spwd *)NULL) {
+	else if ((spwd = getspnam(pwp->pw_name)) == (struct spwd *)NULL) {
 		fprintf(stdout, "FAILED: unable to get (shadow) password for '%s', because '%s'\n", username, strerror(errno));
-		exit(1) ;
 	}
 	else {
 		char *gen = crypt(password,spwd->sp_pwdp) ;
 		if (gen == (char *)NULL) {
 			fprintf(stdout, "FAILED: crypt failed with: '%s'\n", strerror(errno));
-			exit(1);
 		}
-		if (strcmp(spwd->sp_pwdp,gen) == 0) {
+		else if (strcmp(spwd->sp_pwdp,gen) == 0) {
 			fprintf(stdout, "OK:\n") ;
-			exit(0);
+			ret = 0 ;
 		}
 		else {
 			fprintf(stdout, "FAILED: Password did not match.\n") ;
-			exit(1) ;
 		}
 	}
-	exit(0) ;
+
+	memset(password, 0, sizeof(password)) ;
+	fflush(stdout) ;
+
+	return ret ;
+}
+
+/*
+ * validates one request read from stdin. With -persistent, validates requests - one per line - until
+ * the end of input, so that a single process can serve many logins. A request that doesn't fit in the
+ * line buffer is read fully and answered with a single FAILED, so that exactly one response is written
+ * for each request
+ */
+int main(int ac, char **av, char **ev)
+{
+	char line[512] ;
+	int  persistent = (ac > 1 && strcmp(av[1], "-persistent") == 0) ;
+	int  ret        = 1 ;
+
+	memset(line, 0, sizeof(line)) ;
+
+	while (fgets(line,512,stdin) != NULL) {
+		if (memchr(line, '\n', sizeof(line)) == NULL && !feof(stdin)) {
+			int c ;
+
+			while ((c = getchar()) != EOF && c != '\n') {
+				/* discard the rest of the request */
+			}
+
+			fprintf(stdout, "FAILED: request is too long.\n") ;
+			fflush(stdout) ;
+
+			ret = 1 ;
+		}
+		else {
+			ret = validate(line) ;
+		}
+
+		memset(line, 0, sizeof(line)) ;
+
+		if (!persistent) {
+			break ;
+		}
+	}
+
+	exit(ret) ;
 }
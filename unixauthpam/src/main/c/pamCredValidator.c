@@ -56,18 +56,24 @@ int pamconv(int num_msg, const struct pam_message **msg, struct pam_response **r
 
 struct pam_conv conv = { pamconv, NULL };
 
-int main(int ac, char **av, char **ev)
+/*
+ * validates one request of format "LOGIN:<username> <password>"; writes the result to stdout
+ * returns 0 if the user is authenticated and authorized, 1 otherwise
+ */
+static int validate(const char *line)
 {
 	char username[STRLEN] ;
 	char password[STRLEN] ;
-	char line[512] ;
 	char format[20];
 
 	int retval;
+	int ret = 1;
 	pam_handle_t *pamh = NULL;
 
+	username[0] = '\0' ;
+	password[0] = '\0' ;
+
 	sprintf(format, "LOGIN:%%%ds %%%ds", STRLEN-1, STRLEN-1);
-	fgets(line,512,stdin) ;
 	sscanf(line, format, username,password) ;
 	conv.appdata_ptr = (char *) password;
 
@@ -75,46 +81,72 @@ int main(int ac, char **av, char **ev)
 	if (retval != PAM_SUCCESS) {
 		/* why expose this? */
 		fprintf(stdout, "FAILED: [%s] does not exists.\n", username) ;
-		if (pamh) {
-			pam_end(pamh, retval);
-		}
-		exit(1);
 	}
-
-	retval = pam_authenticate(pamh, 0);
-	if (retval != PAM_SUCCESS) {
+	else if ((retval = pam_authenticate(pamh, 0)) != PAM_SUCCESS) {
 		fprintf(stdout, "FAILED: Password did not match(%s).\n", pam_strerror(pamh, retval)) ;
-		if (pamh) {
-			pam_end(pamh, retval);
-		}		
-		exit(1);
 	}
-
 	/* authorize */
-	retval = pam_acct_mgmt(pamh, 0);
-	if (retval != PAM_SUCCESS) {
+	else if ((retval = pam_acct_mgmt(pamh, 0)) != PAM_SUCCESS) {
 		fprintf(stdout, "FAILED: [%s] is not authorized.\n", username) ;
-		if (pamh) {
-			pam_end(pamh, retval);
-		}
-		exit(1);
 	}
-
 	/* establish the requested credentials */
-	if ((retval = pam_setcred(pamh, PAM_ESTABLISH_CRED)) != PAM_SUCCESS) {
-			fprintf(stdout, "FAILED: Error setting credentials for [%s].\n", username) ;
-			if (pamh) {
-				pam_end(pamh, retval);
-			}
-    		exit(1);
+	else if ((retval = pam_setcred(pamh, PAM_ESTABLISH_CRED)) != PAM_SUCCESS) {
+		fprintf(stdout, "FAILED: Error setting credentials for [%s].\n", username) ;
+	}
+	else {
+		/* not opening a session, as logout has not been implemented as a remote service */
+		fprintf(stdout, "OK:\n") ;
+		ret = 0;
 	}
-
-	/* not opening a session, as logout has not been implemented as a remote service */
-	fprintf(stdout, "OK:\n") ;
 
 	if (pamh) {
 		pam_end(pamh, retval);
 	}
 
-	exit(0) ;
+	conv.appdata_ptr = NULL;
+	memset(password, 0, sizeof(password)) ;
+	fflush(stdout) ;
+
+	return ret;
+}
+
+/*
+ * validates one request read from stdin. With -persistent, validates requests - one per line - until
+ * the end of input, so that a single process can serve many logins. A request that doesn't fit in the
+ * line buffer is read fully and answered with a single FAILED, so that exactly one response is written
+ * for each request
+ */
+int main(int ac, char **av, char **ev)
+{
+	char line[512] ;
+	int  persistent = (ac > 1 && strcmp(av[1], "-persistent") == 0) ;
+	int  ret        = 1 ;
+
+	memset(line, 0, sizeof(line)) ;
+
+	while (fgets(line,512,stdin) != NULL) {
+		if (memchr(line, '\n', sizeof(line)) == NULL && !feof(stdin)) {
+			int c ;
+
+			while ((c = getchar()) != EOF && c != '\n') {
+				/* discard the rest of the request */
+			}
+
+			fprintf(stdout, "FAILED: request is too long.\n") ;
+			fflush(stdout) ;
+
+			ret = 1 ;
+		}
+		else {
+			ret = validate(line) ;
+		}
+
+		memset(line, 0, sizeof(line)) ;
+
+		if (!persistent) {
+			break ;
+		}
+	}
+
+	exit(ret) ;
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches successful validations of credentials for a short time, so that repeated logins with the same credentials
+ * don't each run the validator program. Entries are keyed by a salted SHA-256 hash of the login request, hence
+ * credentials are not held in memory; the salt is generated randomly for each instance. Failed validations are not cached.
+ */
+class CredentialValidationCache {
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final long                          ttlMs;
+    private final byte[]                        salt      = new byte[32];
+    private final Map<String, CachedValidation> cache;
+    private final LongAdder                     hitCount  = new LongAdder();
+    private final LongAdder                     missCount = new LongAdder();
+
+    CredentialValidationCache(long ttlMs, int maxSize) {
+        this.ttlMs = ttlMs;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedValidation>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValidation> eldest) {
+                return size() > maxSize;
+            }
+        });
+
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * @return response of a successful validation of the given request, if validated within the last ttlMs; otherwise null
+     */
+    String get(String request) {
+        String           key = getKey(request);
+        CachedValidation ret = cache.get(key);
+
+        if (ret != null && ret.expiryTime <= System.currentTimeMillis()) {
+            cache.remove(key);
+
+            ret = null;
+        }
+
+        if (ret != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+
+        return ret != null ? ret.response : null;
+    }
+
+    void put(String request, String response) {
+        cache.put(getKey(request), new CachedValidation(response, System.currentTimeMillis() + ttlMs));
+    }
+
+    long getHitCount() {
+        return hitCount.sum();
+    }
+
+    long getMissCount() {
+        return missCount.sum();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private String getKey(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+
+            digest.update(salt);
+
+            return Base64.getEncoder().encodeToString(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported", excp);
+        }
+    }
+
+    private static class CachedValidation {
+        final String response;
+        final long   expiryTime;
+
+        CachedValidation(String response, long expiryTime) {
+            this.response   = response;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -28,14 +28,29 @@
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PasswordValidator implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(PasswordValidator.class);
 
+    // validator programs read a request, with the newline, into a buffer of 512 bytes; username and password into buffers of 64 bytes
+    private static final String LOGIN_PREFIX          = "LOGIN:";
+    private static final int    MAX_REQUEST_LENGTH    = 510;
+    private static final int    MAX_CREDENTIAL_LENGTH = 63;
+
+    private static final LongAdder validationCount  = new LongAdder();
+    private static final LongAdder validationTimeMs = new LongAdder();
+    private static final LongAdder forkCount        = new LongAdder();
+
     private static List<String> adminUserList;
     private static String adminRoleNames;
     private static String validatorProgram;
+    private static ValidatorProcessPool validatorProcessPool;
+    private static CredentialValidationCache validationCache;
 
     private Socket client;
 
@@ -67,6 +82,43 @@ public static void setAdminRoleNames(String adminRoleNames) {
         PasswordValidator.adminRoleNames = adminRoleNames;
     }
 
+    /**
+     * Validate credentials with the given number of persistent validator processes, instead of a process per login.
+     * The validator program must support argument -persistent.
+     */
+    public static void setPersistentValidatorProcesses(int maxProcesses) {
+        PasswordValidator.validatorProcessPool = maxProcesses > 0 && validatorProgram != null ? new ValidatorProcessPool(validatorProgram, maxProcesses) : null;
+    }
+
+    /**
+     * Reuse successful validations of credentials for the given duration; 0 to validate credentials on every login.
+     */
+    public static void setValidationCache(long ttlMs, int maxSize) {
+        PasswordValidator.validationCache = ttlMs > 0 && maxSize > 0 ? new CredentialValidationCache(ttlMs, maxSize) : null;
+    }
+
+    public static Map<String, Object> getMetrics() {
+        ValidatorProcessPool      processPool = PasswordValidator.validatorProcessPool;
+        CredentialValidationCache cache       = PasswordValidator.validationCache;
+        Map<String, Object>       ret         = new HashMap<>();
+
+        ret.put("validationCount", validationCount.sum());
+        ret.put("validationTimeMs", validationTimeMs.sum());
+        ret.put("forkCount", forkCount.sum() + (processPool != null ? processPool.getForkCount() : 0));
+
+        if (processPool != null) {
+            ret.put("idleValidatorProcessCount", processPool.getIdleProcessCount());
+        }
+
+        if (cache != null) {
+            ret.put("validationCacheSize", cache.size());
+            ret.put("validationCacheHitCount", cache.getHitCount());
+            ret.put("validationCacheMissCount", cache.getMissCount());
+        }
+
+        return ret;
+    }
+
     @Override
     public void run() {
         BufferedReader reader;
@@ -79,52 +131,53 @@ public void run() {
             writer = new PrintWriter(new OutputStreamWriter(client.getOutputStream()));
             String request = reader.readLine();
 
-            if (request.startsWith("LOGIN:")) {
-                String line       = request.substring(6).trim();
+            if (request != null && request.startsWith(LOGIN_PREFIX)) {
+                String line       = request.substring(LOGIN_PREFIX.length()).trim();
                 int    passwordAt = line.indexOf(' ');
                 if (passwordAt != -1) {
                     userName = line.substring(0, passwordAt).trim();
                 }
             }
 
-            if (validatorProgram == null) {
+            if (!isValidRequest(request)) {
+                // a request the validator program would truncate or read as more than one request is not sent to it
+                String res = "FAILED: Invalid request.";
+                writer.println(res);
+                writer.flush();
+                LOG.warn("Response [{}] for user: {}", res, userName);
+            } else if (validatorProgram == null) {
                 String res = "FAILED: Unable to validate credentials.";
                 writer.println(res);
                 writer.flush();
                 LOG.error("Response [{}] for user: {} as ValidatorProgram is not defined in configuration", res, userName);
             } else {
-                BufferedReader pReader;
-                PrintWriter    pWriter;
-                Process        p       = null;
-
-                try {
-                    p = Runtime.getRuntime().exec(validatorProgram);
+                CredentialValidationCache cache     = validationCache;
+                long                      startTime = System.currentTimeMillis();
+                String                    res       = cache != null ? cache.get(request) : null;
 
-                    pReader = new BufferedReader(new InputStreamReader(p.getInputStream()));
-                    pWriter = new PrintWriter(new OutputStreamWriter(p.getOutputStream()));
+                if (res == null) {
+                    res = validate(request);
 
-                    pWriter.println(request);
-                    pWriter.flush();
+                    if (cache != null && res != null && res.startsWith("OK")) {
+                        cache.put(request, res);
+                    }
+                }
 
-                    String res = pReader.readLine();
+                validationCount.increment();
+                validationTimeMs.add(System.currentTimeMillis() - startTime);
 
-                    if (res != null && res.startsWith("OK")) {
-                        if (adminRoleNames != null && adminUserList != null) {
-                            if (adminUserList.contains(userName)) {
-                                res = res + " " + adminRoleNames;
-                            }
+                if (res != null && res.startsWith("OK")) {
+                    if (adminRoleNames != null && adminUserList != null) {
+                        if (adminUserList.contains(userName)) {
+                            res = res + " " + adminRoleNames;
                         }
                     }
+                }
 
-                    LOG.info("Response [{}] for user: {}", res, userName);
+                LOG.info("Response [{}] for user: {}", res, userName);
 
-                    writer.println(res);
-                    writer.flush();
-                } finally {
-                    if (p != null) {
-                        p.destroy();
-                    }
-                }
+                writer.println(res);
+                writer.flush();
             }
         } catch (Throwable t) {
             if (userName != null && writer != null) {
@@ -144,4 +197,59 @@ public void run() {
             }
         }
     }
+
+    /**
+     * @return true if the given request is a single LOGIN request that fits in the buffers of the validator programs
+     */
+    static boolean isValidRequest(String request) {
+        if (request == null || !request.startsWith(LOGIN_PREFIX) || request.getBytes(StandardCharsets.UTF_8).length > MAX_REQUEST_LENGTH) {
+            return false;
+        }
+
+        String line       = request.substring(LOGIN_PREFIX.length()).trim();
+        int    passwordAt = line.indexOf(' ');
+
+        if (passwordAt == -1) {
+            return false;
+        }
+
+        String userName = line.substring(0, passwordAt);
+        String password = line.substring(passwordAt + 1).trim();
+
+        return isValidCredential(userName) && userName.chars().noneMatch(Character::isWhitespace) && isValidCredential(password);
+    }
+
+    private static boolean isValidCredential(String value) {
+        return !value.isEmpty() && value.getBytes(StandardCharsets.UTF_8).length <= MAX_CREDENTIAL_LENGTH && value.chars().noneMatch(Character::isISOControl);
+    }
+
+    private static String validate(String request) throws IOException, InterruptedException {
+        ValidatorProcessPool processPool = validatorProcessPool;
+
+        if (processPool != null) {
+            return processPool.validate(request);
+        }
+
+        BufferedReader pReader;
+        PrintWriter    pWriter;
+        Process        p       = null;
+
+        try {
+            p = Runtime.getRuntime().exec(validatorProgram);
+
+            forkCount.increment();
+
+            pReader = new BufferedReader(new InputStreamReader(p.getInputStream()));
+            pWriter = new PrintWriter(new OutputStreamWriter(p.getOutputStream()));
+
+            pWriter.println(request);
+            pWriter.flush();
+
+            return pReader.readLine();
+        } finally {
+            if (p != null) {
+                p.destroy();
+            }
+        }
+    }
 }
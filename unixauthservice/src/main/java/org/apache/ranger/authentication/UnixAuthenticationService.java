@@ -20,6 +20,7 @@
 package org.apache.ranger.authentication;
 
 import org.apache.ranger.credentialapi.CredentialReader;
+import org.apache.ranger.plugin.util.RangerMetricsUtil;
 import org.apache.ranger.plugin.util.XMLUtils;
 import org.apache.ranger.unixusersync.config.UserGroupSyncConfig;
 import org.apache.ranger.unixusersync.ha.UserSyncHAInitializerImpl;
@@ -43,14 +44,23 @@
 import java.io.InputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketException;
 import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class UnixAuthenticationService {
     private static final Logger LOG = LoggerFactory.getLogger(UnixAuthenticationService.class);
@@ -69,11 +79,23 @@ public class UnixAuthenticationService {
     private static final String ADMIN_ROLE_LIST_PARAM                = "admin.roleNames";
     private static final String SSL_ENABLED_PARAM                    = "ranger.usersync.ssl";
     private static final String CREDSTORE_FILENAME_PARAM             = "ranger.usersync.credstore.filename";
+    private static final String AUTH_HANDLER_THREADS_PARAM           = "ranger.usersync.auth.handler.threads";
+    private static final String AUTH_HANDLER_QUEUE_SIZE_PARAM        = "ranger.usersync.auth.handler.queue.size";
+    private static final String AUTH_SOCKET_READ_TIMEOUT_PARAM       = "ranger.usersync.auth.socket.read.timeout.ms";
+    private static final String CRED_VALIDATOR_PERSISTENT_PARAM      = "ranger.usersync.passwordvalidator.persistent.processes";
+    private static final String CRED_VALIDATION_CACHE_TTL_PARAM      = "ranger.usersync.passwordvalidator.cache.ttl.ms";
+    private static final String CRED_VALIDATION_CACHE_SIZE_PARAM     = "ranger.usersync.passwordvalidator.cache.size";
+    private static final String METRICS_SOURCE_NAME                  = "unixAuthService";
+    private static final int    DEFAULT_AUTH_HANDLER_THREADS         = 32;
+    private static final int    DEFAULT_AUTH_HANDLER_QUEUE_SIZE      = 256;
+    private static final int    DEFAULT_AUTH_SOCKET_READ_TIMEOUT_MS  = 30 * 1000;
+    private static final int    DEFAULT_CRED_VALIDATION_CACHE_SIZE   = 1000;
     private static final String[] UGSYNC_CONFIG_XML_FILES            = {"ranger-ugsync-default.xml", "ranger-ugsync-site.xml"};
 
     private static boolean enableUnixAuth;
 
-    private final List<String> adminUserList = new ArrayList<>();
+    private final List<String> adminUserList     = new ArrayList<>();
+    private final LongAdder    backPressureCount = new LongAdder();
 
     private String adminRoleNames;
     private String keyStorePath;
@@ -87,10 +109,19 @@ public class UnixAuthenticationService {
     private UserSyncHAInitializerImpl userSyncHAInitializerImpl;
     private int portNum;
     private boolean sslEnabled;
+    private int handlerThreads = DEFAULT_AUTH_HANDLER_THREADS;
+    private int handlerQueueSize = DEFAULT_AUTH_HANDLER_QUEUE_SIZE;
+    private int socketReadTimeoutMs = DEFAULT_AUTH_SOCKET_READ_TIMEOUT_MS;
 
     public UnixAuthenticationService() {
     }
 
+    UnixAuthenticationService(int handlerThreads, int handlerQueueSize, int socketReadTimeoutMs) {
+        this.handlerThreads      = handlerThreads;
+        this.handlerQueueSize    = handlerQueueSize;
+        this.socketReadTimeoutMs = socketReadTimeoutMs;
+    }
+
     public static void main(String[] args) {
         enableUnixAuth = Arrays.stream(args).anyMatch("-enableUnixAuth"::equalsIgnoreCase);
         UnixAuthenticationService service = new UnixAuthenticationService();
@@ -198,20 +229,111 @@ public void startService() throws Throwable {
                 }
             }
 
-            Socket client;
+            serve(socket);
+        }
+    }
 
-            try {
-                while ((client = socket.accept()) != null) {
-                    Thread clientValidatorThread = new Thread(new PasswordValidator(client));
-                    clientValidatorThread.start();
+    /**
+     * Accepts connections on the given socket and handles them in the handler pool, until the socket is closed.
+     */
+    void serve(ServerSocket socket) throws IOException, InterruptedException {
+        // a connection holds a permit from accept until its validation completes; once all handler threads
+        // are busy and the queue is full, new connections wait in the socket backlog instead of creating threads
+        ThreadPoolExecutor handlerExecutor = createHandlerExecutor();
+        Semaphore          handlerPermits  = new Semaphore(handlerThreads + handlerQueueSize);
+
+        RangerMetricsUtil.registerPluginMetricsSource(METRICS_SOURCE_NAME, () -> getMetrics(handlerExecutor));
+
+        Socket client;
+
+        try {
+            acquireHandlerPermit(handlerPermits);
+
+            while ((client = socket.accept()) != null) {
+                handleConnection(client, handlerExecutor, handlerPermits);
+
+                acquireHandlerPermit(handlerPermits);
+            }
+        } catch (IOException e) {
+            socket.close();
+            throw (e);
+        } finally {
+            handlerExecutor.shutdown();
+
+            RangerMetricsUtil.unregisterPluginMetricsSource(METRICS_SOURCE_NAME);
+        }
+    }
+
+    long getBackPressureCount() {
+        return backPressureCount.sum();
+    }
+
+    private void handleConnection(Socket client, ThreadPoolExecutor handlerExecutor, Semaphore handlerPermits) {
+        try {
+            // a client that doesn't send its request must not hold a handler thread indefinitely
+            client.setSoTimeout(socketReadTimeoutMs);
+
+            PasswordValidator validator = new PasswordValidator(client);
+
+            handlerExecutor.execute(() -> {
+                try {
+                    validator.run();
+                } finally {
+                    handlerPermits.release();
                 }
-            } catch (IOException e) {
-                socket.close();
-                throw (e);
+            });
+        } catch (SocketException | RejectedExecutionException excp) {
+            LOG.warn("Failed to handle connection from {}", client.getRemoteSocketAddress(), excp);
+
+            handlerPermits.release();
+
+            try {
+                client.close();
+            } catch (IOException ioe) {
+                LOG.debug("Close socket failure. Detail: ", ioe);
             }
         }
     }
 
+    private ThreadPoolExecutor createHandlerExecutor() {
+        AtomicInteger      threadCount = new AtomicInteger();
+        ThreadPoolExecutor ret         = new ThreadPoolExecutor(handlerThreads, handlerThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(handlerQueueSize), runnable -> {
+            Thread thread = new Thread(runnable, "PasswordValidator-" + threadCount.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        ret.allowCoreThreadTimeOut(true);
+
+        LOG.info("Authentication requests will be handled by up to {} threads, with up to {} requests queued", handlerThreads, handlerQueueSize);
+
+        return ret;
+    }
+
+    private void acquireHandlerPermit(Semaphore handlerPermits) throws InterruptedException {
+        if (!handlerPermits.tryAcquire()) {
+            backPressureCount.increment();
+
+            LOG.debug("All authentication handlers are busy; waiting before accepting new connections");
+
+            handlerPermits.acquire();
+        }
+    }
+
+    private Map<String, Object> getMetrics(ThreadPoolExecutor handlerExecutor) {
+        Map<String, Object> ret = PasswordValidator.getMetrics();
+
+        ret.put("handlerThreads", handlerThreads);
+        ret.put("activeHandlerCount", handlerExecutor.getActiveCount());
+        ret.put("queuedRequestCount", handlerExecutor.getQueue().size());
+        ret.put("completedRequestCount", handlerExecutor.getCompletedTaskCount());
+        ret.put("backPressureCount", backPressureCount.sum());
+
+        return ret;
+    }
+
     private void startUnixUserGroupSyncProcess() {
         //  Start user group synchronization service
         LOG.info("Start : startUnixUserGroupSyncProcess ");
@@ -283,6 +405,25 @@ private void init() {
             PasswordValidator.setValidatorProgram(validatorProg);
         }
 
+        handlerThreads      = Integer.parseInt(prop.getProperty(AUTH_HANDLER_THREADS_PARAM, String.valueOf(DEFAULT_AUTH_HANDLER_THREADS)));
+        handlerQueueSize    = Integer.parseInt(prop.getProperty(AUTH_HANDLER_QUEUE_SIZE_PARAM, String.valueOf(DEFAULT_AUTH_HANDLER_QUEUE_SIZE)));
+        socketReadTimeoutMs = Integer.parseInt(prop.getProperty(AUTH_SOCKET_READ_TIMEOUT_PARAM, String.valueOf(DEFAULT_AUTH_SOCKET_READ_TIMEOUT_MS)));
+
+        int  persistentValidators = Integer.parseInt(prop.getProperty(CRED_VALIDATOR_PERSISTENT_PARAM, "0"));
+        long validationCacheTtlMs = Long.parseLong(prop.getProperty(CRED_VALIDATION_CACHE_TTL_PARAM, "0"));
+
+        if (persistentValidators > 0) {
+            LOG.info("Credentials will be validated by up to {} persistent validator processes", persistentValidators);
+
+            PasswordValidator.setPersistentValidatorProcesses(persistentValidators);
+        }
+
+        if (validationCacheTtlMs > 0) {
+            LOG.info("Successful credential validations will be cached for {} ms", validationCacheTtlMs);
+
+            PasswordValidator.setValidationCache(validationCacheTtlMs, Integer.parseInt(prop.getProperty(CRED_VALIDATION_CACHE_SIZE_PARAM, String.valueOf(DEFAULT_CRED_VALIDATION_CACHE_SIZE))));
+        }
+
         String adminUsers = prop.getProperty(ADMIN_USER_LIST_PARAM);
 
         if (adminUsers != null && !adminUsers.trim().isEmpty()) {
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authentication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of long-running validator processes. Each process is started with argument -persistent and validates
+ * requests - one per line - read from its stdin, instead of a process being forked for every login.
+ */
+class ValidatorProcessPool {
+    private static final Logger LOG = LoggerFactory.getLogger(ValidatorProcessPool.class);
+
+    static final String PERSISTENT_ARG  = "-persistent";
+    static final String RESPONSE_OK     = "OK:";
+    static final String RESPONSE_FAILED = "FAILED:";
+
+    private final String[]                        command;
+    private final Semaphore                       permits;
+    private final BlockingQueue<ValidatorProcess> idleProcesses = new LinkedBlockingQueue<>();
+    private final LongAdder                       forkCount     = new LongAdder();
+
+    ValidatorProcessPool(String validatorProgram, int maxProcesses) {
+        List<String> cmd = new ArrayList<>(Arrays.asList(validatorProgram.trim().split("\\s+")));
+
+        cmd.add(PERSISTENT_ARG);
+
+        this.command = cmd.toArray(new String[0]);
+        this.permits = new Semaphore(maxProcesses);
+    }
+
+    /**
+     * @return response of the validator program for the given request; waits while all processes of the pool are busy
+     */
+    String validate(String request) throws IOException, InterruptedException {
+        permits.acquire();
+
+        ValidatorProcess process = null;
+
+        try {
+            process = idleProcesses.poll();
+
+            // an idle process could have exited, for example when killed by the administrator, or written unexpected output
+            while (process != null && !process.isReusable()) {
+                process.destroy();
+
+                process = idleProcesses.poll();
+            }
+
+            if (process == null) {
+                process = new ValidatorProcess(command);
+
+                forkCount.increment();
+
+                LOG.debug("started validator process: {}", String.join(" ", command));
+            }
+
+            String ret = process.validate(request);
+
+            idleProcesses.offer(process);
+
+            process = null;
+
+            return ret;
+        } finally {
+            if (process != null) { // failed to validate, process is not reused
+                process.destroy();
+            }
+
+            permits.release();
+        }
+    }
+
+    long getForkCount() {
+        return forkCount.sum();
+    }
+
+    int getIdleProcessCount() {
+        return idleProcesses.size();
+    }
+
+    private static class ValidatorProcess {
+        private final Process        process;
+        private final BufferedReader reader;
+        private final PrintWriter    writer;
+
+        ValidatorProcess(String[] command) throws IOException {
+            // stderr is not read by the service; pass it through so that a chatty validator can't block on a full pipe
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            reader  = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            writer  = new PrintWriter(new OutputStreamWriter(process.getOutputStream()));
+        }
+
+        /**
+         * Sends the request and reads its response. Exactly one response line is expected for each request: any other
+         * output means requests and responses are out of step - for example, a request split into two by the process -
+         * and that the output could be taken as the response to a later request. IOException is thrown in such cases,
+         * so that the process is not used again.
+         */
+        String validate(String request) throws IOException {
+            if (request.indexOf('\n') != -1 || request.indexOf('\r') != -1) {
+                throw new IOException("request must be a single line");
+            }
+
+            if (reader.ready()) {
+                throw new IOException("validator process wrote output not read as a response");
+            }
+
+            writer.println(request);
+            writer.flush();
+
+            if (writer.checkError()) {
+                throw new IOException("failed to send request to validator process");
+            }
+
+            String ret = reader.readLine();
+
+            if (ret == null) {
+                throw new IOException("validator process exited without a response");
+            }
+
+            if (!ret.startsWith(RESPONSE_OK) && !ret.startsWith(RESPONSE_FAILED)) {
+                throw new IOException("unexpected response from validator process");
+            }
+
+            if (reader.ready()) {
+                throw new IOException("validator process wrote more than one response");
+            }
+
+            return ret;
+        }
+
+        boolean isReusable() {
+            try {
+                return process.isAlive() && !reader.ready();
+            } catch (IOException excp) {
+                return false;
+            }
+        }
+
+        void destroy() {
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authentication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestCredentialValidationCache {
+    @Test
+    public void testGetAndPut() {
+        CredentialValidationCache cache = new CredentialValidationCache(60 * 1000L, 10);
+
+        assertNull(cache.get("LOGIN:user1 password1"));
+
+        cache.put("LOGIN:user1 password1", "OK:");
+
+        assertEquals("OK:", cache.get("LOGIN:user1 password1"));
+        assertNull(cache.get("LOGIN:user1 password2"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        CredentialValidationCache cache = new CredentialValidationCache(50, 10);
+
+        cache.put("LOGIN:user1 password1", "OK:");
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("LOGIN:user1 password1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        CredentialValidationCache cache = new CredentialValidationCache(60 * 1000L, 2);
+
+        cache.put("LOGIN:user1 password1", "OK:");
+        cache.put("LOGIN:user2 password2", "OK:");
+        cache.get("LOGIN:user1 password1");
+        cache.put("LOGIN:user3 password3", "OK:");
+
+        assertEquals(2, cache.size());
+        assertEquals("OK:", cache.get("LOGIN:user1 password1"));
+        assertNull(cache.get("LOGIN:user2 password2"));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authentication;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestPasswordValidator {
+    @Test
+    public void testIsValidRequest() {
+        assertTrue(PasswordValidator.isValidRequest("LOGIN:user1 password1"));
+        assertTrue(PasswordValidator.isValidRequest("LOGIN:user1 pass word"));
+        assertTrue(PasswordValidator.isValidRequest("LOGIN:" + repeat('u', 63) + " " + repeat('p', 63)));
+
+        assertFalse(PasswordValidator.isValidRequest(null));
+        assertFalse(PasswordValidator.isValidRequest("LOGOUT:user1 password1"));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1"));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1 "));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user\t1 password1"));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1 password1\u0000LOGIN:user2 password2"));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1 password1\nLOGIN:user2 password2"));
+    }
+
+    @Test
+    public void testOverLongCredentialsAreRejected() {
+        // validator programs would truncate these, and could read the rest of the request as another request
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:" + repeat('u', 64) + " password1"));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1 " + repeat('p', 64)));
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1 " + repeat('\u00e9', 32))); // 64 bytes in UTF-8
+        assertFalse(PasswordValidator.isValidRequest("LOGIN:user1 password1" + repeat(' ', 512)));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+}
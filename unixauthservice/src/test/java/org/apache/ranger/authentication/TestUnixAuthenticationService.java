@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authentication;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestUnixAuthenticationService {
+    @Test
+    public void testIdleClientsTimeOutWithBackPressure() throws Exception {
+        UnixAuthenticationService service      = new UnixAuthenticationService(1, 1, 500);
+        ServerSocket              serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread                    server       = new Thread(() -> {
+            try {
+                service.serve(serverSocket);
+            } catch (Exception excp) {
+                // socket closed at the end of the test
+            }
+        });
+
+        server.setDaemon(true);
+        server.start();
+
+        List<Socket> idleClients = new ArrayList<>();
+
+        try {
+            // clients that don't send a request: one is handled and one queued, while the others wait in the socket backlog
+            for (int i = 0; i < 4; i++) {
+                Socket client = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+
+                client.setSoTimeout(10 * 1000);
+
+                idleClients.add(client);
+            }
+
+            // each is closed by the service after the read timeout, which lets the next one in
+            for (Socket client : idleClients) {
+                assertEquals(-1, client.getInputStream().read());
+            }
+
+            assertTrue(service.getBackPressureCount() > 0);
+
+            try (Socket client = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+                PrintWriter    writer = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8));
+                BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+
+                client.setSoTimeout(10 * 1000);
+
+                writer.println("LOGIN:" + String.format("%064d", 1) + " password1"); // username is too long
+                writer.flush();
+
+                assertEquals("FAILED: Invalid request.", reader.readLine());
+            }
+        } finally {
+            for (Socket client : idleClients) {
+                client.close();
+            }
+
+            serverSocket.close();
+            server.join(10 * 1000);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authentication;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class TestValidatorProcessPool {
+    // accepts password "secret"; for password "twice" writes two responses, and for "garbage" an invalid response
+    private static final String VALIDATOR_SCRIPT = "#!/bin/sh\n" +
+            "[ \"$1\" = \"-persistent\" ] || exit 1\n" +
+            "while read -r line; do\n" +
+            "  case \"$line\" in\n" +
+            "    LOGIN:*\" secret\") echo \"OK:\" ;;\n" +
+            "    LOGIN:*\" twice\") echo \"OK:\"; echo \"OK:\" ;;\n" +
+            "    LOGIN:*\" garbage\") echo \"garbage\" ;;\n" +
+            "    *) echo \"FAILED: Password did not match.\" ;;\n" +
+            "  esac\n" +
+            "done\n";
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private String validatorProgram;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(new File("/bin/sh").canExecute());
+
+        File script = tmpFolder.newFile("validator.sh");
+
+        Files.write(script.toPath(), VALIDATOR_SCRIPT.getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(script.setExecutable(true));
+
+        validatorProgram = script.getAbsolutePath();
+    }
+
+    @Test
+    public void testProcessIsReused() throws Exception {
+        ValidatorProcessPool pool = new ValidatorProcessPool(validatorProgram, 2);
+
+        assertEquals("OK:", pool.validate("LOGIN:user1 secret"));
+        assertEquals("FAILED: Password did not match.", pool.validate("LOGIN:user1 wrong"));
+        assertEquals("OK:", pool.validate("LOGIN:user2 secret"));
+        assertEquals(1, pool.getForkCount());
+        assertEquals(1, pool.getIdleProcessCount());
+    }
+
+    @Test
+    public void testProcessWithExtraResponseIsDiscarded() throws Exception {
+        ValidatorProcessPool pool = new ValidatorProcessPool(validatorProgram, 1);
+
+        try {
+            pool.validate("LOGIN:user1 twice");
+        } catch (IOException excp) {
+            // when the extra response is read along with the first one
+        }
+
+        Thread.sleep(500); // for the extra response to be written
+
+        // the extra response must not be taken as the response to the next request
+        assertEquals("FAILED: Password did not match.", pool.validate("LOGIN:user1 wrong"));
+        assertEquals(2, pool.getForkCount());
+    }
+
+    @Test
+    public void testProcessWithInvalidResponseIsDiscarded() throws Exception {
+        ValidatorProcessPool pool = new ValidatorProcessPool(validatorProgram, 1);
+
+        try {
+            pool.validate("LOGIN:user1 garbage");
+
+            fail("expected IOException");
+        } catch (IOException excp) {
+            // expected
+        }
+
+        assertEquals(0, pool.getIdleProcessCount());
+        assertEquals("OK:", pool.validate("LOGIN:user1 secret"));
+        assertEquals(2, pool.getForkCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMultiLineRequestIsRejected() throws Exception {
+        ValidatorProcessPool pool = new ValidatorProcessPool(validatorProgram, 1);
+
+        pool.validate("LOGIN:user1 wrong\nLOGIN:user1 secret");
+    }
+}